@@ -0,0 +1,94 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.AarCompositePattern;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.CompositePattern;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks multiple restrictions on one access control entry.
+ * <p>
+ * All restrictions match a property in "jcr:content/metadata" of the asset. The patterns are combined with
+ * Oak's CompositePattern or with AarCompositePattern that resolves the shared nodes only once.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompositePatternBenchmark {
+
+    @Param({"oak", "aar"})
+    public String composite;
+
+    @Param({"2", "4"})
+    public int restrictionCount;
+
+    @Param({"asset", "rendition"})
+    public String target;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        List<RestrictionPattern> patterns = new ArrayList<>();
+        patterns.add(DamFixture.createPattern("aarPropertyMatches",
+                DamFixture.getPropertyPath(DamFixture.STRING_PROPERTY, false) + "$" + DamFixture.STRING_VALUE));
+        patterns.add(DamFixture.createPattern("aarNumberLess",
+                DamFixture.getPropertyPath(DamFixture.LONG_PROPERTY, false) + "$50"));
+        patterns.add(DamFixture.createPattern("aarDateInPast",
+                DamFixture.getPropertyPath(DamFixture.DATE_PROPERTY, false)));
+        patterns.add(DamFixture.createPattern("aarPropertyExists",
+                DamFixture.getPropertyPath(DamFixture.STRINGS_PROPERTY, false)));
+        patterns = patterns.subList(0, restrictionCount);
+        pattern = "aar".equals(composite) ? AarCompositePattern.create(patterns) : CompositePattern.create(patterns);
+        String path = DamFixture.getAssetPath(0);
+        if ("rendition".equals(target)) {
+            path += "/jcr:content/renditions/original";
+        }
+        tree = DamFixture.createRoot(0, true, false).getTree(path);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.clock.RestrictionClock;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider.AarRestrictionProvider;
+import org.apache.jackrabbit.oak.api.Root;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.EmptyNodeState;
+import org.apache.jackrabbit.oak.plugins.tree.factories.RootFactory;
+import org.apache.jackrabbit.oak.plugins.tree.factories.TreeFactory;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds an in-memory DAM structure that is used by the benchmarks.
+ * <p>
+ * The structure is /content/dam/bench/l1/.../lN/asset.png where all folders are sling:OrderedFolder nodes.
+ * The asset and the top folder (/content/dam/bench) carry the same properties in "jcr:content/metadata"
+ * and "jcr:content/metadata/sub". Multi-value properties contain the single value as their last entry.
+ * The asset also has a chain of nested nodes in "jcr:content/deep" (like the component tree of a page).
+ *
+ * @author Roland Gruber
+ */
+public final class DamFixture {
+
+    public static final String CONTENT_PATH = "/content";
+    public static final String DAM_PATH = CONTENT_PATH + "/dam";
+    public static final String TOP_FOLDER_NAME = "bench";
+    public static final String TOP_FOLDER_PATH = DAM_PATH + "/" + TOP_FOLDER_NAME;
+    public static final String ASSET_NAME = "asset.png";
+
+    public static final String METADATA = "metadata";
+    public static final String SUB = "sub";
+
+    public static final String STRING_PROPERTY = "str";
+    public static final String STRINGS_PROPERTY = "strs";
+    public static final String TEXT_PROPERTY = "text";
+    public static final String LONG_PROPERTY = "num";
+    public static final String LONGS_PROPERTY = "nums";
+    public static final String DATE_PROPERTY = "date";
+    public static final String DATES_PROPERTY = "dates";
+
+    public static final String STRING_VALUE = "properties:confidential/secret";
+    /**
+     * Long text (like a description) of about 1000 characters that ends with STRING_VALUE.
+     */
+    public static final String TEXT_VALUE = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(17) + STRING_VALUE;
+    public static final long LONG_VALUE = 42L;
+    public static final String PAST_DATE = "2020-01-01T00:00:00.000+01:00";
+    public static final String FUTURE_DATE = "2520-01-01T00:00:00.000+01:00";
+
+    /**
+     * Fixed time for date restrictions (2026-01-01T00:00:00Z) to get reproducible results.
+     */
+    public static final RestrictionClock CLOCK = () -> 1767225600000L;
+
+    /**
+     * Pattern context with fixed time. The benchmarks check the same tree instance repeatedly, so the evaluation memo
+     * is disabled to measure the pattern itself.
+     */
+    public static final PatternContext CONTEXT = PatternContext.builder().clock(CLOCK).evaluationMemo(false).build();
+
+    /**
+     * Number of nested nodes below jcr:content/deep.
+     */
+    public static final int DEEP_CONTENT_DEPTH = 10;
+
+    private static final int MULTI_VALUE_COUNT = 8;
+
+    private static final String JCR_PRIMARY_TYPE = "jcr:primaryType";
+    private static final String JCR_CONTENT = "jcr:content";
+    private static final String NT_UNSTRUCTURED = "nt:unstructured";
+    private static final String SLING_FOLDER = "sling:Folder";
+    private static final String SLING_ORDERED_FOLDER = "sling:OrderedFolder";
+    private static final String DAM_ASSET = "dam:Asset";
+    private static final String DAM_ASSET_CONTENT = "dam:AssetContent";
+    private static final String NT_FILE = "nt:file";
+    private static final String NT_RESOURCE = "nt:resource";
+
+    private DamFixture() {
+        // static methods only
+    }
+
+    /**
+     * Creates the repository content.
+     *
+     * @param folderDepth number of folders between the top folder and the asset
+     * @param assetProperties add the properties to the asset
+     * @param folderProperties add the properties to the top folder
+     * @return root
+     */
+    public static Root createRoot(int folderDepth, boolean assetProperties, boolean folderProperties) {
+        return RootFactory.createReadOnlyRoot(createRootState(folderDepth, assetProperties, folderProperties));
+    }
+
+    /**
+     * Creates the repository content as node state (e.g. to add content like a commit hook).
+     *
+     * @param folderDepth number of folders between the top folder and the asset
+     * @param assetProperties add the properties to the asset
+     * @param folderProperties add the properties to the top folder
+     * @return root state
+     */
+    public static NodeState createRootState(int folderDepth, boolean assetProperties, boolean folderProperties) {
+        NodeBuilder rootBuilder = EmptyNodeState.EMPTY_NODE.builder();
+        rootBuilder.setProperty(JCR_PRIMARY_TYPE, "rep:root", Type.NAME);
+        NodeBuilder content = addNode(rootBuilder, "content", SLING_ORDERED_FOLDER);
+        NodeBuilder dam = addNode(content, "dam", SLING_FOLDER);
+        NodeBuilder folder = addNode(dam, TOP_FOLDER_NAME, SLING_ORDERED_FOLDER);
+        NodeBuilder folderContent = addNode(folder, JCR_CONTENT, NT_UNSTRUCTURED);
+        if (folderProperties) {
+            addProperties(folderContent);
+        }
+        for (int i = 1; i <= folderDepth; i++) {
+            folder = addNode(folder, "l" + i, SLING_ORDERED_FOLDER);
+            addNode(folder, JCR_CONTENT, NT_UNSTRUCTURED);
+        }
+        NodeBuilder asset = addNode(folder, ASSET_NAME, DAM_ASSET);
+        NodeBuilder assetContent = addNode(asset, JCR_CONTENT, DAM_ASSET_CONTENT);
+        if (assetProperties) {
+            addProperties(assetContent);
+        }
+        NodeBuilder deep = addNode(assetContent, "deep", NT_UNSTRUCTURED);
+        for (int i = 1; i <= DEEP_CONTENT_DEPTH; i++) {
+            deep = addNode(deep, "c" + i, NT_UNSTRUCTURED);
+        }
+        NodeBuilder original = addNode(addNode(assetContent, "renditions", "nt:folder"), "original", NT_FILE);
+        addNode(original, JCR_CONTENT, NT_RESOURCE).setProperty("jcr:mimeType", "image/png");
+        return rootBuilder.getNodeState();
+    }
+
+    /**
+     * Returns the path of the asset.
+     *
+     * @param folderDepth number of folders between the top folder and the asset
+     * @return asset path
+     */
+    public static String getAssetPath(int folderDepth) {
+        StringBuilder path = new StringBuilder(TOP_FOLDER_PATH);
+        for (int i = 1; i <= folderDepth; i++) {
+            path.append("/l").append(i);
+        }
+        return path.append('/').append(ASSET_NAME).toString();
+    }
+
+    /**
+     * Returns the path of the deepest node in jcr:content/deep of the asset.
+     *
+     * @param folderDepth number of folders between the top folder and the asset
+     * @return node path
+     */
+    public static String getDeepContentPath(int folderDepth) {
+        StringBuilder path = new StringBuilder(getAssetPath(folderDepth)).append("/jcr:content/deep");
+        for (int i = 1; i <= DEEP_CONTENT_DEPTH; i++) {
+            path.append("/c").append(i);
+        }
+        return path.toString();
+    }
+
+    /**
+     * Returns the property path relative to jcr:content.
+     *
+     * @param propertyName property name
+     * @param deep use the property on metadata/sub
+     * @return relative path
+     */
+    public static String getPropertyPath(String propertyName, boolean deep) {
+        return METADATA + "/" + (deep ? SUB + "/" : "") + propertyName;
+    }
+
+    /**
+     * Creates the restriction pattern in the same way as Oak does for a stored ACE.
+     *
+     * @param restrictionName restriction name (e.g. aarPropertyMatches)
+     * @param restrictionValue restriction value
+     * @return pattern
+     */
+    public static RestrictionPattern createPattern(String restrictionName, String restrictionValue) {
+        return createPattern(restrictionName, restrictionValue, CONTEXT);
+    }
+
+    /**
+     * Creates the restriction pattern in the same way as Oak does for a stored ACE.
+     *
+     * @param restrictionName restriction name (e.g. aarPropertyMatches)
+     * @param restrictionValue restriction value
+     * @param context pattern context
+     * @return pattern
+     */
+    public static RestrictionPattern createPattern(String restrictionName, String restrictionValue, PatternContext context) {
+        NodeBuilder restrictions = EmptyNodeState.EMPTY_NODE.builder();
+        restrictions.setProperty(JCR_PRIMARY_TYPE, "rep:Restrictions", Type.NAME);
+        restrictions.setProperty(restrictionName, restrictionValue);
+        Tree restrictionTree = TreeFactory.createReadOnlyTree(restrictions.getNodeState());
+        return new AarRestrictionProvider(context).getPattern(TOP_FOLDER_PATH, restrictionTree);
+    }
+
+    private static NodeBuilder addNode(NodeBuilder parent, String name, String primaryType) {
+        NodeBuilder child = parent.child(name);
+        child.setProperty(JCR_PRIMARY_TYPE, primaryType, Type.NAME);
+        return child;
+    }
+
+    private static void addProperties(NodeBuilder jcrContent) {
+        NodeBuilder metadata = addNode(jcrContent, METADATA, NT_UNSTRUCTURED);
+        addValues(metadata);
+        addValues(addNode(metadata, SUB, NT_UNSTRUCTURED));
+    }
+
+    private static void addValues(NodeBuilder node) {
+        node.setProperty(STRING_PROPERTY, STRING_VALUE);
+        node.setProperty(TEXT_PROPERTY, TEXT_VALUE);
+        node.setProperty(LONG_PROPERTY, LONG_VALUE);
+        node.setProperty(DATE_PROPERTY, PAST_DATE, Type.DATE);
+        List<String> strings = new ArrayList<>();
+        List<Long> longs = new ArrayList<>();
+        List<String> dates = new ArrayList<>();
+        for (int i = 1; i < MULTI_VALUE_COUNT; i++) {
+            strings.add("properties:public/value" + i);
+            longs.add(LONG_VALUE + 100 + i);
+            dates.add(FUTURE_DATE);
+        }
+        strings.add(STRING_VALUE);
+        longs.add(LONG_VALUE);
+        dates.add(PAST_DATE);
+        node.setProperty(STRINGS_PROPERTY, strings, Type.STRINGS);
+        node.setProperty(LONGS_PROPERTY, longs, Type.LONGS);
+        node.setProperty(DATES_PROPERTY, dates, Type.DATES);
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache.PathBloomFilter;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.ExistenceFilters;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.plugins.tree.factories.RootFactory;
+import org.apache.jackrabbit.oak.segment.SegmentNodeStore;
+import org.apache.jackrabbit.oak.segment.SegmentNodeStoreBuilders;
+import org.apache.jackrabbit.oak.segment.file.FileStore;
+import org.apache.jackrabbit.oak.segment.file.FileStoreBuilder;
+import org.apache.jackrabbit.oak.segment.file.InvalidFileStoreVersionException;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.apache.jackrabbit.oak.spi.state.ChildNodeEntry;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the usual evaluation of aarPropertyExists and aarNodeExists with an existence filter (memory-mapped Bloom
+ * filter) that contains 100k other assets. If the item is missing, the filter rejects the asset without reading its
+ * content. If the item exists, the filter check is additional work.
+ * <p>
+ * The "segment" store reads the content from a TarMK segment store (like AEM author and publish) instead of
+ * in-memory node states. Its segments stay in the segment cache, so this does not include disk access.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExistenceFilterBenchmark {
+
+    private static final int FILTER_ENTRIES = 100000;
+
+    @Param({"aarPropertyExists", "aarNodeExists"})
+    public String restriction;
+
+    @Param({"false", "true"})
+    public boolean exists;
+
+    @Param({"asset", "metadata"})
+    public String target;
+
+    @Param({"false", "true"})
+    public boolean filter;
+
+    @Param({"memory", "segment"})
+    public String store;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+    private File filterFile;
+    private PathBloomFilter bloomFilter;
+    private File storeDirectory;
+    private FileStore fileStore;
+
+    @Setup
+    public void setup() throws IOException, InvalidFileStoreVersionException, CommitFailedException {
+        String assetPath = DamFixture.getAssetPath(2);
+        PatternContext.Builder context = PatternContext.builder().clock(DamFixture.CLOCK).evaluationMemo(false);
+        if (filter) {
+            filterFile = File.createTempFile("existence", ".bloom");
+            bloomFilter = PathBloomFilter.create(filterFile, FILTER_ENTRIES, 0.01);
+            for (int i = 0; i < FILTER_ENTRIES; i++) {
+                bloomFilter.put(DamFixture.TOP_FOLDER_PATH + "/other" + (i / 100) + "/asset" + i + ".png");
+            }
+            if (exists) {
+                bloomFilter.put(assetPath);
+            }
+            context.existenceFilters(new BloomExistenceFilters(bloomFilter));
+        }
+        String value = "aarNodeExists".equals(restriction) ? DamFixture.METADATA
+                : DamFixture.getPropertyPath(DamFixture.STRING_PROPERTY, false);
+        pattern = DamFixture.createPattern(restriction, value, context.build());
+        String path = assetPath;
+        if ("metadata".equals(target)) {
+            path = path + "/jcr:content/renditions/original";
+        }
+        NodeState rootState = DamFixture.createRootState(2, exists, false);
+        if ("segment".equals(store)) {
+            rootState = createSegmentRootState(rootState);
+        }
+        tree = RootFactory.createReadOnlyRoot(rootState).getTree(path);
+        if (pattern.matches(tree, null) != exists) {
+            throw new IllegalStateException("Unexpected result: " + value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (bloomFilter != null) {
+            bloomFilter.close();
+            filterFile.delete();
+        }
+        if (fileStore != null) {
+            fileStore.close();
+            deleteDirectory(storeDirectory);
+        }
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+    /**
+     * Copies the content to a segment store.
+     *
+     * @param rootState in-memory root state
+     * @return root state of the segment store
+     */
+    private NodeState createSegmentRootState(NodeState rootState)
+            throws IOException, InvalidFileStoreVersionException, CommitFailedException {
+        storeDirectory = Files.createTempDirectory("segmentstore").toFile();
+        fileStore = FileStoreBuilder.fileStoreBuilder(storeDirectory).build();
+        SegmentNodeStore nodeStore = SegmentNodeStoreBuilders.builder(fileStore).build();
+        NodeBuilder builder = nodeStore.getRoot().builder();
+        for (ChildNodeEntry child : rootState.getChildNodeEntries()) {
+            builder.setChildNode(child.getName(), child.getNodeState());
+        }
+        nodeStore.merge(builder, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        fileStore.flush();
+        return nodeStore.getRoot();
+    }
+
+    private static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    deleteDirectory(file);
+                }
+                else {
+                    file.delete();
+                }
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Uses the same filter for all restrictions.
+     */
+    private static final class BloomExistenceFilters implements ExistenceFilters {
+
+        private final PathBloomFilter bloomFilter;
+
+        BloomExistenceFilters(PathBloomFilter bloomFilter) {
+            this.bloomFilter = bloomFilter;
+        }
+
+        @Override
+        public int check(boolean property, String relativePath, String basePath) {
+            return bloomFilter.mightContain(basePath) ? MAYBE : MISSING;
+        }
+
+        @Override
+        public void falsePositive(boolean property, String relativePath) {
+            // not measured
+        }
+
+    }
+
+}
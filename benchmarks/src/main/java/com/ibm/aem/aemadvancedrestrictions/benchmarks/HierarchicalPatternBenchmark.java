@@ -0,0 +1,115 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hierarchical patterns against their non-hierarchical counterparts.
+ * <p>
+ * The property is either located on the asset itself or only on the top folder. In the latter case the
+ * hierarchical patterns need to walk up all folders and the non-hierarchical patterns do not match.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchicalPatternBenchmark {
+
+    @Param({"aarPropertyMatches", "aarPropertyStartsWith", "aarPropertyEndsWith", "aarPropertyContains",
+            "aarPropertyExists", "aarNumberLess", "aarNumberGreater", "aarDateInPast", "aarDateInFuture"})
+    public String restriction;
+
+    @Param({"false", "true"})
+    public boolean hierarchical;
+
+    @Param({"asset", "folder"})
+    public String location;
+
+    @Param({"2", "8"})
+    public int folderDepth;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        String value;
+        switch (restriction) {
+            case "aarPropertyMatches":
+                value = stringProperty() + "$" + DamFixture.STRING_VALUE;
+                break;
+            case "aarPropertyStartsWith":
+                value = stringProperty() + "$properties:conf";
+                break;
+            case "aarPropertyEndsWith":
+                value = stringProperty() + "$/secret";
+                break;
+            case "aarPropertyContains":
+                value = stringProperty() + "$confidential";
+                break;
+            case "aarPropertyExists":
+                value = stringProperty();
+                break;
+            case "aarNumberLess":
+                value = DamFixture.getPropertyPath(DamFixture.LONG_PROPERTY, false) + "$50";
+                break;
+            case "aarNumberGreater":
+                value = DamFixture.getPropertyPath(DamFixture.LONG_PROPERTY, false) + "$40";
+                break;
+            case "aarDateInPast":
+            case "aarDateInFuture":
+                value = DamFixture.getPropertyPath(DamFixture.DATE_PROPERTY, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported restriction: " + restriction);
+        }
+        pattern = DamFixture.createPattern(hierarchical ? restriction + "Hierarchical" : restriction, value);
+        boolean onAsset = "asset".equals(location);
+        tree = DamFixture.createRoot(folderDepth, onAsset, !onAsset).getTree(DamFixture.getAssetPath(folderDepth));
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+    private static String stringProperty() {
+        return DamFixture.getPropertyPath(DamFixture.STRING_PROPERTY, false);
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyMatchHierarchicalPattern;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cache for hierarchical restriction results.
+ * <p>
+ * The property is only located on the top folder, so that the hierarchical pattern needs to walk up all folders
+ * if the cache is disabled.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchyCacheBenchmark {
+
+    @Param({"0", "10000"})
+    public int hierarchyCacheSize;
+
+    @Param({"2", "8", "32"})
+    public int folderDepth;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        PatternContext context = PatternContext.builder()
+                .clock(DamFixture.CLOCK)
+                .hierarchyBoundaries(DamFixture.DAM_PATH)
+                .hierarchyCacheSize(hierarchyCacheSize)
+                .cacheMaxAge(60000)
+                .evaluationMemo(false)
+                .build();
+        String value = DamFixture.getPropertyPath(DamFixture.STRING_PROPERTY, false) + "$" + DamFixture.STRING_VALUE;
+        pattern = new PropertyMatchHierarchicalPattern(value, context);
+        tree = DamFixture.createRoot(folderDepth, false, true).getTree(DamFixture.getAssetPath(folderDepth));
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads all properties of the metadata node of an asset with many (XMP like) properties. Oak checks the restrictions
+ * of the access control entries once for the node and again for each property.
+ * <p>
+ * The privileged reader can read all assets that are used here (no confidential flag and no future release date).
+ * With the result cache the restrictions of an asset are only evaluated again after a content change.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataReadBenchmark {
+
+    private static final int ASSET_COUNT = 1000;
+
+    /**
+     * Shared repository.
+     */
+    @State(Scope.Benchmark)
+    public static class RepositoryState {
+
+        @Param({"200"})
+        public int metadataProperties;
+
+        @Param({"0", "32"})
+        public int additionalEntries;
+
+        @Param({"true", "false"})
+        public boolean evaluationMemo;
+
+        @Param({"0", "10000"})
+        public int resultCacheSize;
+
+        private RepositoryFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setup() throws RepositoryException {
+            PatternContext patternContext = PatternContext.builder()
+                    .evaluationMemo(evaluationMemo)
+                    .resultCacheSize(resultCacheSize)
+                    .cacheMaxAge(60000)
+                    .build();
+            fixture = new RepositoryFixture(ASSET_COUNT, true, patternContext, metadataProperties, additionalEntries);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.close();
+        }
+
+    }
+
+    /**
+     * Session per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class SessionState {
+
+        private Session session;
+        private List<String> assetPaths;
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        @Setup(Level.Trial)
+        public void setup(RepositoryState repository) throws RepositoryException {
+            session = repository.fixture.login(RepositoryFixture.PRIVILEGED_READER);
+            assetPaths = repository.fixture.getAssetPaths();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            session.logout();
+        }
+
+    }
+
+    @Benchmark
+    public void readMetadata(SessionState state, Blackhole blackhole) throws RepositoryException {
+        String path = state.assetPaths.get(state.random.nextInt(state.assetPaths.size()));
+        Node metadata = state.session.getNode(path + "/jcr:content/metadata");
+        PropertyIterator properties = metadata.getProperties();
+        while (properties.hasNext()) {
+            Property property = properties.nextProperty();
+            blackhole.consume(property.isMultiple() ? property.getValues() : property.getValue());
+        }
+    }
+
+}
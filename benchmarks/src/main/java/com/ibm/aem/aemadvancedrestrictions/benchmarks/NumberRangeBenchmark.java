@@ -0,0 +1,88 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.AarCompositePattern;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a numeric range.
+ * <p>
+ * "lessGreater" uses aarNumberGreater and aarNumberLess on one ACE (combined with AarCompositePattern). "between" uses
+ * a single aarNumberBetween restriction. For multi-value properties the last value is in the range.
+ * <p>
+ * Run with "-prof gc" to see the allocations. Oak returns boxed Long values also for
+ * {@code getValue(Type.LONG, index)}, so "between" still allocates per check. It reported the same bytes per
+ * operation for "single" and "multi", i.e. reading the values by index adds no allocations of its own.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NumberRangeBenchmark {
+
+    @Param({"lessGreater", "between"})
+    public String restriction;
+
+    @Param({"single", "multi"})
+    public String cardinality;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        String propertyPath = DamFixture.getPropertyPath(
+                "multi".equals(cardinality) ? DamFixture.LONGS_PROPERTY : DamFixture.LONG_PROPERTY, false);
+        if ("between".equals(restriction)) {
+            pattern = DamFixture.createPattern("aarNumberBetween", propertyPath + "$0$100");
+        }
+        else {
+            pattern = AarCompositePattern.create(Arrays.asList(
+                    DamFixture.createPattern("aarNumberGreater", propertyPath + "$-1"),
+                    DamFixture.createPattern("aarNumberLess", propertyPath + "$101")));
+        }
+        tree = DamFixture.createRoot(0, true, false).getTree(DamFixture.getAssetPath(0));
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+}
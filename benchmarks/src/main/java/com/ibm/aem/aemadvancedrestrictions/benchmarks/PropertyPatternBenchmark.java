@@ -0,0 +1,119 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import org.apache.jackrabbit.oak.api.Root;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the value based patterns (equality, set membership, substring, number and date comparison).
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyPatternBenchmark {
+
+    @Param({"aarPropertyMatches", "aarPropertyIn", "aarPropertyStartsWith", "aarPropertyEndsWith", "aarPropertyContains",
+            "aarNumberLess", "aarNumberGreater", "aarDateInPast", "aarDateInFuture"})
+    public String restriction;
+
+    @Param({"single", "multi"})
+    public String cardinality;
+
+    @Param({"shallow", "deep"})
+    public String propertyPath;
+
+    @Param({"asset", "metadata"})
+    public String target;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        boolean multi = "multi".equals(cardinality);
+        boolean deep = "deep".equals(propertyPath);
+        String value;
+        switch (restriction) {
+            case "aarPropertyMatches":
+                value = stringProperty(multi, deep) + "$" + DamFixture.STRING_VALUE;
+                break;
+            case "aarPropertyIn":
+                value = stringProperty(multi, deep) + "$properties:internal/secret|" + DamFixture.STRING_VALUE;
+                break;
+            case "aarPropertyStartsWith":
+                value = stringProperty(multi, deep) + "$properties:conf";
+                break;
+            case "aarPropertyEndsWith":
+                value = stringProperty(multi, deep) + "$/secret";
+                break;
+            case "aarPropertyContains":
+                value = stringProperty(multi, deep) + "$confidential";
+                break;
+            case "aarNumberLess":
+                value = DamFixture.getPropertyPath(multi ? DamFixture.LONGS_PROPERTY : DamFixture.LONG_PROPERTY, deep) + "$50";
+                break;
+            case "aarNumberGreater":
+                value = DamFixture.getPropertyPath(multi ? DamFixture.LONGS_PROPERTY : DamFixture.LONG_PROPERTY, deep) + "$40";
+                break;
+            case "aarDateInPast":
+            case "aarDateInFuture":
+                value = DamFixture.getPropertyPath(multi ? DamFixture.DATES_PROPERTY : DamFixture.DATE_PROPERTY, deep);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported restriction: " + restriction);
+        }
+        pattern = DamFixture.createPattern(restriction, value);
+        Root root = DamFixture.createRoot(1, true, false);
+        String path = DamFixture.getAssetPath(1);
+        if ("metadata".equals(target)) {
+            path = path + "/jcr:content/" + DamFixture.METADATA;
+        }
+        tree = root.getTree(path);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+    private static String stringProperty(boolean multi, boolean deep) {
+        return DamFixture.getPropertyPath(multi ? DamFixture.STRINGS_PROPERTY : DamFixture.STRING_PROPERTY, deep);
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.plugins.tree.factories.RootFactory;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks aarPropertyRegex with an input that is the worst case for backtracking engines.
+ * <p>
+ * The expression "(.*a){10}b" is checked against a value of "a" characters without "b". "aarPropertyRegex" evaluates the
+ * restriction on the asset, "java.util.regex" only reads the property and matches it with java.util.regex. The time
+ * of aarPropertyRegex grows linearly with the length, java.util.regex tries all ways to split the value into 10 parts.
+ * Classic examples like "(a+)+b" are no longer exponential since Java 9, but many expressions still are.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexBenchmark {
+
+    private static final String PROPERTY = "documentNumber";
+    private static final String EXPRESSION = "(.*a){10}b";
+
+    @Param({"aarPropertyRegex", "java.util.regex"})
+    public String engine;
+
+    @Param({"12", "16", "20", "24"})
+    public int length;
+
+    private RestrictionPattern pattern;
+    private Pattern jdkPattern;
+    private Tree tree;
+    private Tree metadata;
+
+    @Setup
+    public void setup() {
+        NodeBuilder root = DamFixture.createRootState(0, true, false).builder();
+        String metadataPath = DamFixture.getAssetPath(0) + "/jcr:content/" + DamFixture.METADATA;
+        NodeBuilder metadataBuilder = root;
+        for (String name : PathUtils.elements(metadataPath)) {
+            metadataBuilder = metadataBuilder.getChildNode(name);
+        }
+        metadataBuilder.setProperty(PROPERTY, "a".repeat(length));
+        tree = RootFactory.createReadOnlyRoot(root.getNodeState()).getTree(DamFixture.getAssetPath(0));
+        metadata = RootFactory.createReadOnlyRoot(root.getNodeState()).getTree(metadataPath);
+        pattern = DamFixture.createPattern("aarPropertyRegex", DamFixture.getPropertyPath(PROPERTY, false) + "$" + EXPRESSION);
+        jdkPattern = Pattern.compile(EXPRESSION);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        if ("java.util.regex".equals(engine)) {
+            return jdkPattern.matcher(metadata.getProperty(PROPERTY).getValue(Type.STRING)).matches();
+        }
+        return pattern.matches(tree, null);
+    }
+
+}
@@ -0,0 +1,289 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider.AarRestrictionProvider;
+import org.apache.jackrabbit.api.JackrabbitRepository;
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.apache.jackrabbit.commons.cnd.CndImporter;
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
+import org.apache.jackrabbit.oak.Oak;
+import org.apache.jackrabbit.oak.jcr.Jcr;
+import org.apache.jackrabbit.oak.plugins.memory.MemoryNodeStore;
+import org.apache.jackrabbit.oak.security.authorization.restriction.RestrictionProviderImpl;
+import org.apache.jackrabbit.oak.security.internal.SecurityProviderBuilder;
+import org.apache.jackrabbit.oak.spi.security.ConfigurationParameters;
+import org.apache.jackrabbit.oak.spi.security.SecurityProvider;
+import org.apache.jackrabbit.oak.spi.security.authorization.AuthorizationConfiguration;
+import org.apache.jackrabbit.oak.spi.security.authorization.accesscontrol.AccessControlConstants;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.CompositeRestrictionProvider;
+
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.Privilege;
+import java.io.IOException;
+import java.io.StringReader;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded Oak repository (in-memory node store with default Oak security) that has the
+ * AEM Advanced Restrictions provider registered.
+ * <p>
+ * The content is shaped like a DAM: /content/dam/bench/folderN/assetM.png with
+ * jcr:content/metadata. Every 10th asset is marked as confidential and every 20th asset
+ * has a release date in the future. Like the examples package, the restricted group has deny entries
+ * and the private access group has allow entries with the same restrictions.
+ * <p>
+ * Optionally, the metadata nodes get additional string properties (like XMP metadata) and the restricted group gets
+ * additional deny entries with distinct restrictions that never match.
+ *
+ * @author Roland Gruber
+ */
+public final class RepositoryFixture implements AutoCloseable {
+
+    public static final String BENCH_PATH = "/content/dam/bench";
+    public static final String READER = "aarReader";
+    public static final String PRIVILEGED_READER = "aarPrivilegedReader";
+    public static final String RESTRICTED_GROUP = "aarRestricted";
+    public static final String PRIVATE_ACCESS_GROUP = "aarPrivateAccess";
+
+    private static final int ASSETS_PER_FOLDER = 1000;
+    private static final int SAVE_INTERVAL = 500;
+    private static final String ADDITIONAL_PROPERTY_PREFIX = "dc:property";
+
+    private static final String NODE_TYPES =
+            "<sling = 'http://sling.apache.org/jcr/sling/1.0'>\n"
+            + "<dam = 'http://www.day.com/dam/1.0'>\n"
+            + "<cq = 'http://www.day.com/jcr/cq/1.0'>\n"
+            + "<dc = 'http://purl.org/dc/elements/1.1/'>\n"
+            + "[sling:Folder] > nt:folder\n"
+            + "  - * (undefined) multiple\n"
+            + "  - * (undefined)\n"
+            + "  + * (nt:base) = sling:Folder version\n"
+            + "[sling:OrderedFolder] > sling:Folder orderable\n"
+            + "  + * (nt:base) = sling:OrderedFolder version\n"
+            + "[dam:AssetContent] > nt:unstructured\n"
+            + "[dam:Asset] > nt:hierarchyNode\n"
+            + "  primaryitem jcr:content\n"
+            + "  + jcr:content (nt:base) = dam:AssetContent\n"
+            + "  + * (nt:base) = nt:base version\n";
+
+    private final Repository repository;
+    private final List<String> assetPaths = new ArrayList<>();
+    private final List<String> folderPaths = new ArrayList<>();
+
+    /**
+     * Creates the repository and its content.
+     *
+     * @param assetCount number of assets
+     * @param aarAcls add access control entries with AAR restrictions
+     * @throws RepositoryException error creating content
+     */
+    public RepositoryFixture(int assetCount, boolean aarAcls) throws RepositoryException {
+        this(assetCount, aarAcls, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Creates the repository and its content.
+     *
+     * @param assetCount number of assets
+     * @param aarAcls add access control entries with AAR restrictions
+     * @param patternContext settings for the AAR patterns
+     * @throws RepositoryException error creating content
+     */
+    public RepositoryFixture(int assetCount, boolean aarAcls, PatternContext patternContext) throws RepositoryException {
+        this(assetCount, aarAcls, patternContext, 0, 0);
+    }
+
+    /**
+     * Creates the repository and its content.
+     *
+     * @param assetCount number of assets
+     * @param aarAcls add access control entries with AAR restrictions
+     * @param patternContext settings for the AAR patterns
+     * @param additionalProperties number of additional properties on each metadata node
+     * @param additionalEntries number of additional deny entries with AAR restrictions (requires aarAcls)
+     * @throws RepositoryException error creating content
+     */
+    public RepositoryFixture(int assetCount, boolean aarAcls, PatternContext patternContext, int additionalProperties,
+                             int additionalEntries) throws RepositoryException {
+        repository = new Jcr(new Oak(new MemoryNodeStore())).with(createSecurityProvider(patternContext)).createRepository();
+        Session admin = loginAdmin();
+        try {
+            registerNodeTypes(admin);
+            createPrincipals(admin);
+            createContent(admin, assetCount, additionalProperties);
+            createAcls(admin, aarAcls, additionalEntries);
+        }
+        finally {
+            admin.logout();
+        }
+    }
+
+    /**
+     * Logs in the given test user (password = user name).
+     *
+     * @param userId user id
+     * @return session
+     * @throws RepositoryException login failed
+     */
+    public Session login(String userId) throws RepositoryException {
+        return repository.login(new SimpleCredentials(userId, userId.toCharArray()));
+    }
+
+    /**
+     * Returns the paths of all assets.
+     *
+     * @return asset paths
+     */
+    public List<String> getAssetPaths() {
+        return Collections.unmodifiableList(assetPaths);
+    }
+
+    /**
+     * Returns the paths of all asset folders.
+     *
+     * @return folder paths
+     */
+    public List<String> getFolderPaths() {
+        return Collections.unmodifiableList(folderPaths);
+    }
+
+    @Override
+    public void close() {
+        if (repository instanceof JackrabbitRepository) {
+            ((JackrabbitRepository) repository).shutdown();
+        }
+    }
+
+    private static SecurityProvider createSecurityProvider(PatternContext patternContext) {
+        ConfigurationParameters authorizationParams = ConfigurationParameters.of(AccessControlConstants.PARAM_RESTRICTION_PROVIDER,
+                CompositeRestrictionProvider.newInstance(new RestrictionProviderImpl(), new AarRestrictionProvider(patternContext)));
+        return SecurityProviderBuilder.newBuilder()
+                .with(ConfigurationParameters.of(AuthorizationConfiguration.NAME, authorizationParams))
+                .build();
+    }
+
+    private Session loginAdmin() throws RepositoryException {
+        return repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+    }
+
+    private static void registerNodeTypes(Session session) throws RepositoryException {
+        try {
+            CndImporter.registerNodeTypes(new StringReader(NODE_TYPES), session);
+        }
+        catch (IOException | org.apache.jackrabbit.commons.cnd.ParseException e) {
+            throw new RepositoryException("Unable to register node types", e);
+        }
+    }
+
+    private static void createPrincipals(Session session) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        User reader = userManager.createUser(READER, READER);
+        User privilegedReader = userManager.createUser(PRIVILEGED_READER, PRIVILEGED_READER);
+        Group restricted = userManager.createGroup(RESTRICTED_GROUP);
+        Group privateAccess = userManager.createGroup(PRIVATE_ACCESS_GROUP);
+        restricted.addMember(reader);
+        restricted.addMember(privilegedReader);
+        privateAccess.addMember(privilegedReader);
+        session.save();
+    }
+
+    private void createContent(Session session, int assetCount, int additionalProperties) throws RepositoryException {
+        Node dam = session.getRootNode().addNode("content", "sling:OrderedFolder").addNode("dam", "sling:Folder");
+        Node bench = dam.addNode("bench", "sling:OrderedFolder");
+        bench.addNode("jcr:content", "nt:unstructured");
+        ValueFactory valueFactory = session.getValueFactory();
+        Calendar past = Calendar.getInstance();
+        past.add(Calendar.YEAR, -1);
+        Calendar future = Calendar.getInstance();
+        future.add(Calendar.YEAR, 100);
+        Node folder = null;
+        for (int i = 0; i < assetCount; i++) {
+            if (i % ASSETS_PER_FOLDER == 0) {
+                folder = bench.addNode("folder" + (i / ASSETS_PER_FOLDER), "sling:OrderedFolder");
+                folder.addNode("jcr:content", "nt:unstructured");
+                folderPaths.add(folder.getPath());
+            }
+            Node asset = folder.addNode("asset" + i + ".png", "dam:Asset");
+            Node metadata = asset.addNode("jcr:content", "dam:AssetContent").addNode("metadata", "nt:unstructured");
+            metadata.setProperty("dc:title", "Asset " + i);
+            metadata.setProperty("dc:format", "image/png");
+            metadata.setProperty("counter", (long) i);
+            metadata.setProperty("cq:tags", new Value[] {
+                    valueFactory.createValue("properties:orientation/landscape"),
+                    valueFactory.createValue("properties:style/color")
+            });
+            metadata.setProperty("confidential", (i % 10 == 0) ? "true" : "false");
+            metadata.setProperty("releaseDate", (i % 20 == 1) ? future : past);
+            for (int p = 0; p < additionalProperties; p++) {
+                metadata.setProperty(ADDITIONAL_PROPERTY_PREFIX + p, "value" + p);
+            }
+            assetPaths.add(asset.getPath());
+            if ((i + 1) % SAVE_INTERVAL == 0) {
+                session.save();
+            }
+        }
+        session.save();
+    }
+
+    private static void createAcls(Session session, boolean aarAcls, int additionalEntries) throws RepositoryException {
+        AccessControlManager acm = session.getAccessControlManager();
+        JackrabbitAccessControlList acl = AccessControlUtils.getAccessControlList(acm, BENCH_PATH);
+        Privilege[] read = AccessControlUtils.privilegesFromNames(acm, Privilege.JCR_READ);
+        acl.addAccessControlEntry(((JackrabbitSession) session).getPrincipalManager().getEveryone(), read);
+        if (aarAcls) {
+            UserManager userManager = ((JackrabbitSession) session).getUserManager();
+            Principal restricted = userManager.getAuthorizable(RESTRICTED_GROUP).getPrincipal();
+            Principal privateAccess = userManager.getAuthorizable(PRIVATE_ACCESS_GROUP).getPrincipal();
+            ValueFactory valueFactory = session.getValueFactory();
+            Map<String, Value> confidential = Collections.singletonMap("aarPropertyMatches",
+                    valueFactory.createValue("metadata/confidential$true"));
+            Map<String, Value> embargo = Collections.singletonMap("aarDateInFuture",
+                    valueFactory.createValue("metadata/releaseDate"));
+            acl.addEntry(restricted, read, false, confidential);
+            acl.addEntry(restricted, read, false, embargo);
+            acl.addEntry(privateAccess, read, true, confidential);
+            acl.addEntry(privateAccess, read, true, embargo);
+            for (int i = 0; i < additionalEntries; i++) {
+                acl.addEntry(restricted, read, false, Collections.singletonMap("aarPropertyMatches",
+                        valueFactory.createValue("metadata/" + ADDITIONAL_PROPERTY_PREFIX + i + "$denied")));
+            }
+        }
+        acm.setPolicy(BENCH_PATH, acl);
+        session.save();
+    }
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end JCR read throughput on an embedded Oak repository with and without access control
+ * entries that use AEM Advanced Restrictions. This covers permission evaluation including Oak's own
+ * permission caching.
+ * <p>
+ * Use "-p assetCount=..." to change the repository size and "-t" to run with multiple threads.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryReadBenchmark {
+
+    /**
+     * Shared repository.
+     */
+    @State(Scope.Benchmark)
+    public static class RepositoryState {
+
+        @Param({"100000"})
+        public int assetCount;
+
+        @Param({"none", "aar"})
+        public String acl;
+
+        @Param({"aarReader", "aarPrivilegedReader"})
+        public String user;
+
+        @Param({"true", "false"})
+        public boolean evaluationMemo;
+
+        private RepositoryFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setup() throws RepositoryException {
+            PatternContext patternContext = PatternContext.builder().evaluationMemo(evaluationMemo).build();
+            fixture = new RepositoryFixture(assetCount, "aar".equals(acl), patternContext);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.close();
+        }
+
+    }
+
+    /**
+     * Session per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class SessionState {
+
+        private Session session;
+        private List<String> assetPaths;
+        private List<String> folderPaths;
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        @Setup(Level.Trial)
+        public void setup(RepositoryState repository) throws RepositoryException {
+            session = repository.fixture.login(repository.user);
+            assetPaths = repository.fixture.getAssetPaths();
+            folderPaths = repository.fixture.getFolderPaths();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            session.logout();
+        }
+
+    }
+
+    @Benchmark
+    public void readAsset(SessionState state, Blackhole blackhole) throws RepositoryException {
+        String path = state.assetPaths.get(state.random.nextInt(state.assetPaths.size()));
+        try {
+            Node metadata = state.session.getNode(path + "/jcr:content/metadata");
+            PropertyIterator properties = metadata.getProperties();
+            while (properties.hasNext()) {
+                Property property = properties.nextProperty();
+                blackhole.consume(property.isMultiple() ? property.getValues() : property.getValue());
+            }
+        }
+        catch (PathNotFoundException e) {
+            // asset is not readable for the session
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void traverseFolder(SessionState state, Blackhole blackhole) throws RepositoryException {
+        String path = state.folderPaths.get(state.random.nextInt(state.folderPaths.size()));
+        NodeIterator children = state.session.getNode(path).getNodes();
+        while (children.hasNext()) {
+            blackhole.consume(children.nextNode().getName());
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.plugins.tree.factories.RootFactory;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the usual evaluation of a restriction with the evaluation from the restriction summary that the commit
+ * hook writes on jcr:content of the asset.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestrictionSummaryBenchmark {
+
+    @Param({"aarPropertyMatches", "aarNumberGreater"})
+    public String restriction;
+
+    @Param({"shallow", "deep"})
+    public String propertyPath;
+
+    @Param({"asset", "metadata"})
+    public String target;
+
+    @Param({"false", "true"})
+    public boolean summary;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        boolean deep = "deep".equals(propertyPath);
+        String value;
+        if ("aarNumberGreater".equals(restriction)) {
+            value = DamFixture.getPropertyPath(DamFixture.LONGS_PROPERTY, deep) + "$40";
+        }
+        else {
+            value = DamFixture.getPropertyPath(DamFixture.STRINGS_PROPERTY, deep) + "$" + DamFixture.STRING_VALUE;
+        }
+        PatternContext context = PatternContext.builder()
+                .clock(DamFixture.CLOCK)
+                .evaluationMemo(false)
+                .restrictionSummary(summary ? 1 : 0)
+                .build();
+        context.setSummaryVersion("1");
+        pattern = DamFixture.createPattern(restriction, value, context);
+        String assetPath = DamFixture.getAssetPath(1);
+        NodeState state = DamFixture.createRootState(1, true, false);
+        if (summary) {
+            // first evaluation without summary adds the restriction to the summaries
+            pattern.matches(RootFactory.createReadOnlyRoot(state).getTree(assetPath), null);
+            state = addSummary(state, assetPath, context);
+        }
+        String path = assetPath;
+        if ("metadata".equals(target)) {
+            path = path + "/jcr:content/" + DamFixture.METADATA;
+        }
+        tree = RootFactory.createReadOnlyRoot(state).getTree(path);
+        if (!pattern.matches(tree, null)) {
+            throw new IllegalStateException("Restriction must match: " + value);
+        }
+    }
+
+    /**
+     * Writes the summary of the asset like the commit hook.
+     *
+     * @param root root state
+     * @param assetPath asset path
+     * @param context pattern context
+     * @return new root state
+     */
+    private static NodeState addSummary(NodeState root, String assetPath, PatternContext context) {
+        NodeBuilder rootBuilder = root.builder();
+        NodeBuilder asset = rootBuilder;
+        for (String name : PathUtils.elements(assetPath)) {
+            asset = asset.getChildNode(name);
+        }
+        PropertyState summaryProperty = context.createSummary(asset.getNodeState());
+        asset.getChildNode("jcr:content").setProperty(summaryProperty);
+        return rootBuilder.getNodeState();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a list of substrings.
+ * <p>
+ * "aces" uses one aarPropertyContains (StartsWith, EndsWith) ACE per substring and evaluates them until one matches
+ * like Oak does for the entries of a policy. "any" uses a single aarPropertyContainsAny (StartsWithAny, EndsWithAny)
+ * ACE with all substrings. Only the last substring matches. The properties are the multi-value property (8 short
+ * values, the last one matches) and a text of about 1000 characters that matches at its end.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubstringListBenchmark {
+
+    @Param({"aces", "any"})
+    public String restriction;
+
+    @Param({"Contains", "StartsWith", "EndsWith"})
+    public String operation;
+
+    @Param({"4", "16"})
+    public int valueCount;
+
+    @Param({DamFixture.STRINGS_PROPERTY, DamFixture.TEXT_PROPERTY})
+    public String property;
+
+    private RestrictionPattern[] patterns;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        String value = DamFixture.TEXT_PROPERTY.equals(property) ? DamFixture.TEXT_VALUE : DamFixture.STRING_VALUE;
+        List<String> substrings = new ArrayList<>();
+        for (int i = 1; i < valueCount; i++) {
+            substrings.add("properties:internal/value" + i);
+        }
+        switch (operation) {
+            case "Contains":
+                substrings.add("confidential");
+                break;
+            case "StartsWith":
+                substrings.add(value.substring(0, 15));
+                break;
+            case "EndsWith":
+                substrings.add(value.substring(value.length() - 7));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+        String propertyPath = DamFixture.getPropertyPath(property, false);
+        if ("any".equals(restriction)) {
+            patterns = new RestrictionPattern[] {DamFixture.createPattern("aarProperty" + operation + "Any",
+                    propertyPath + "$" + String.join("|", substrings))};
+        }
+        else {
+            patterns = new RestrictionPattern[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                patterns[i] = DamFixture.createPattern("aarProperty" + operation, propertyPath + "$" + substrings.get(i));
+            }
+        }
+        tree = DamFixture.createRoot(0, true, false).getTree(DamFixture.getAssetPath(0));
+    }
+
+    @Benchmark
+    public boolean matches() {
+        for (RestrictionPattern pattern : patterns) {
+            if (pattern.matches(tree, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
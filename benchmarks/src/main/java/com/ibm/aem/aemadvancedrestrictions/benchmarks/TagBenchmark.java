@@ -0,0 +1,107 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.TagTrie;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks restrictions on a tag and its descendant tags.
+ * <p>
+ * "startsWith" uses aarPropertyStartsWith with the tag ID (this also matches sibling tags with the same prefix).
+ * "tagged" uses aarTagged without tag hierarchy, so the tag IDs are compared. "trie" uses aarTagged with a tag trie
+ * of 10,000 tags without moved tags and "trieMoved" with one moved tag, so that the tags are resolved in the trie. The
+ * last value is a descendant of the restriction tag.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TagBenchmark {
+
+    private static final String TAG = "properties:confidential";
+    private static final int TAG_COUNT = 10000;
+
+    @Param({"startsWith", "tagged", "trie", "trieMoved"})
+    public String restriction;
+
+    @Param({"single", "multi"})
+    public String cardinality;
+
+    private RestrictionPattern pattern;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        String propertyPath = DamFixture.getPropertyPath(
+                "multi".equals(cardinality) ? DamFixture.STRINGS_PROPERTY : DamFixture.STRING_PROPERTY, false);
+        switch (restriction) {
+            case "startsWith":
+                pattern = DamFixture.createPattern("aarPropertyStartsWith", propertyPath + "$" + TAG);
+                break;
+            case "tagged":
+                pattern = DamFixture.createPattern("aarTagged", propertyPath + "$" + TAG);
+                break;
+            default:
+                PatternContext context = PatternContext.builder().clock(DamFixture.CLOCK).evaluationMemo(false)
+                        .tagHierarchy(createTagTrie("trieMoved".equals(restriction))).build();
+                pattern = DamFixture.createPattern("aarTagged", propertyPath + "$" + TAG, context);
+        }
+        tree = DamFixture.createRoot(0, true, false).getTree(DamFixture.getAssetPath(0));
+    }
+
+    private static TagTrie createTagTrie(boolean moved) {
+        TagTrie trie = new TagTrie();
+        if (moved) {
+            trie.add("properties:old", DamFixture.STRING_VALUE);
+        }
+        trie.add(DamFixture.STRING_VALUE, null);
+        for (int i = 0; trie.size() < TAG_COUNT; i++) {
+            trie.add("properties:public/value" + i, null);
+            trie.add("properties:internal/value" + i, null);
+            trie.add("topic" + (i % 100) + ":area" + (i % 10) + "/value" + i, null);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches(tree, null);
+    }
+
+}
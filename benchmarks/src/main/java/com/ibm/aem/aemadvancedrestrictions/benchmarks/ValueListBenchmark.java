@@ -0,0 +1,99 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.benchmarks;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a list of allowed values.
+ * <p>
+ * "aces" uses one aarPropertyMatches ACE per value and evaluates them until one matches like Oak does for the
+ * entries of a policy. "in" uses a single aarPropertyIn ACE with all values. The last value matches.
+ *
+ * @author Roland Gruber
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueListBenchmark {
+
+    @Param({"aces", "in"})
+    public String restriction;
+
+    @Param({"4", "16"})
+    public int valueCount;
+
+    @Param({"single", "multi"})
+    public String cardinality;
+
+    private RestrictionPattern[] patterns;
+    private Tree tree;
+
+    @Setup
+    public void setup() {
+        String propertyPath = DamFixture.getPropertyPath(
+                "multi".equals(cardinality) ? DamFixture.STRINGS_PROPERTY : DamFixture.STRING_PROPERTY, false);
+        List<String> values = new ArrayList<>();
+        for (int i = 1; i < valueCount; i++) {
+            values.add("properties:internal/value" + i);
+        }
+        values.add(DamFixture.STRING_VALUE);
+        if ("in".equals(restriction)) {
+            patterns = new RestrictionPattern[] {
+                    DamFixture.createPattern("aarPropertyIn", propertyPath + "$" + String.join("|", values))};
+        }
+        else {
+            patterns = new RestrictionPattern[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                patterns[i] = DamFixture.createPattern("aarPropertyMatches", propertyPath + "$" + values.get(i));
+            }
+        }
+        tree = DamFixture.createRoot(0, true, false).getTree(DamFixture.getAssetPath(0));
+    }
+
+    @Benchmark
+    public boolean matches() {
+        for (RestrictionPattern pattern : patterns) {
+            if (pattern.matches(tree, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.ExistenceFilters;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyExistsPattern;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.document.DocumentNodeStore;
+import org.apache.jackrabbit.oak.plugins.document.DocumentNodeStoreBuilder;
+import org.apache.jackrabbit.oak.plugins.document.DocumentStore;
+import org.apache.jackrabbit.oak.plugins.document.LeaseCheckMode;
+import org.apache.jackrabbit.oak.plugins.document.memory.MemoryDocumentStore;
+import org.apache.jackrabbit.oak.plugins.tree.factories.RootFactory;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the existence filters with two cluster nodes (DocumentNodeStore) on a shared document store. The new root
+ * state of node B contains the changes of node A before its observers processed them.
+ *
+ * @author Roland Gruber
+ */
+class ExistenceFilterClusterTest {
+
+    private static final String ASSET_PATH = "/content/dam/asset.png";
+    private static final String PROPERTY = "metadata/confidential";
+
+    @TempDir
+    File directory;
+
+    private DocumentNodeStore nodeA;
+    private DocumentNodeStore nodeB;
+    private ExistenceFilterManager managerB;
+    private RestrictionPattern patternB;
+
+    @BeforeEach
+    void setup() throws CommitFailedException {
+        DocumentStore store = new MemoryDocumentStore();
+        nodeA = createNodeStore(store, 1);
+        nodeB = createNodeStore(store, 2);
+        NodeBuilder builder = nodeA.getRoot().builder();
+        NodeBuilder dam = builder.child("content").child("dam");
+        dam.setProperty(JcrConstants.JCR_PRIMARYTYPE, "sling:Folder", Type.NAME);
+        NodeBuilder asset = dam.child("asset.png");
+        asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, "dam:Asset", Type.NAME);
+        asset.child(JcrConstants.JCR_CONTENT).child("metadata").setProperty("title", "Title");
+        nodeA.merge(builder, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        runBackgroundOperations();
+        // filters are built at once
+        managerB = new ExistenceFilterManager(directory, () -> nodeB, 1000, 0.01, Runnable::run);
+        patternB = new PropertyExistsPattern(PROPERTY, PatternContext.builder().existenceFilters(managerB).build());
+        assertFalse(matchesOnB());
+    }
+
+    @AfterEach
+    void tearDown() {
+        managerB.close();
+        nodeB.dispose();
+        nodeA.dispose();
+    }
+
+    @Test
+    void externalChange() throws CommitFailedException {
+        NodeBuilder builder = nodeA.getRoot().builder();
+        builder.getChildNode("content").getChildNode("dam").getChildNode("asset.png")
+                .getChildNode(JcrConstants.JCR_CONTENT).getChildNode("metadata").setProperty("confidential", true);
+        nodeA.merge(builder, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+
+        // node B reads the new revision, its observers did not yet process the change
+        runBackgroundOperations();
+
+        assertTrue(matchesOnB());
+        assertEquals(ExistenceFilters.UNKNOWN, managerB.check(true, PROPERTY, ASSET_PATH));
+    }
+
+    private static DocumentNodeStore createNodeStore(DocumentStore store, int clusterId) {
+        return DocumentNodeStoreBuilder.newDocumentNodeStoreBuilder()
+                .setDocumentStore(store)
+                .setClusterId(clusterId)
+                .setLeaseCheckMode(LeaseCheckMode.DISABLED)
+                .setAsyncDelay(0)
+                .build();
+    }
+
+    /**
+     * Writes the changes of node A and reads them on node B.
+     */
+    private void runBackgroundOperations() {
+        nodeA.runBackgroundOperations();
+        nodeB.runBackgroundOperations();
+    }
+
+    private boolean matchesOnB() {
+        return patternB.matches(RootFactory.createReadOnlyRoot(nodeB.getRoot()).getTree(ASSET_PATH), null);
+    }
+
+}
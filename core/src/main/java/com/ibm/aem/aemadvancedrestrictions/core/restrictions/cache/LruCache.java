@@ -0,0 +1,367 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, thread-safe cache with least-recently-used eviction.
+ * <p>
+ * The entries are distributed to several independently locked segments to reduce lock contention. Each segment
+ * evicts its own least recently used entry when it is full. Values are loaded outside the segment lock, so
+ * concurrent requests for the same missing key may load it more than once; the first stored value wins.
+ * <p>
+ * A maximum size of 0 disables caching, the loader is then called on each request.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Roland Gruber
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Default number of segments.
+     */
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final String name;
+    private final long maxSize;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadExceptionCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param name cache name (used for statistics)
+     * @param maxSize maximum number of entries
+     */
+    public LruCache(String name, int maxSize) {
+        this(name, maxSize, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name cache name (used for statistics)
+     * @param maxSize maximum number of entries
+     * @param segmentCount number of segments
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LruCache(String name, int maxSize, int segmentCount) {
+        if ((maxSize < 0) || (segmentCount < 1)) {
+            throw new IllegalArgumentException("Invalid cache size " + maxSize + " or segment count " + segmentCount);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        int count = Math.max(1, Math.min(segmentCount, maxSize));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            int segmentSize = maxSize / count + ((i < maxSize % count) ? 1 : 0);
+            segments[i] = new Segment<>(segmentSize, evictionCount);
+        }
+    }
+
+    /**
+     * Returns the cached value or loads it if not yet cached. Null values are not cached.
+     *
+     * @param key key
+     * @param loader creates the value if not cached
+     * @return value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (maxSize == 0) {
+            missCount.increment();
+            return load(key, loader);
+        }
+        Segment<K, V> segment = segmentFor(key);
+        V value = segment.get(key);
+        if (value != null) {
+            hitCount.increment();
+            return value;
+        }
+        missCount.increment();
+        value = load(key, loader);
+        if (value == null) {
+            return null;
+        }
+        return segment.putIfAbsent(key, value);
+    }
+
+    /**
+     * Returns the cached value.
+     *
+     * @param key key
+     * @return value or null if not cached
+     */
+    public V getIfPresent(K key) {
+        if (maxSize == 0) {
+            missCount.increment();
+            return null;
+        }
+        V value = segmentFor(key).get(key);
+        if (value != null) {
+            hitCount.increment();
+        }
+        else {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value.
+     *
+     * @param key key
+     * @param value value
+     */
+    public void put(K key, V value) {
+        if (maxSize == 0) {
+            return;
+        }
+        segmentFor(key).put(key, value);
+    }
+
+    /**
+     * Removes the entry for the given key.
+     *
+     * @param key key
+     */
+    public void invalidate(K key) {
+        if (maxSize == 0) {
+            return;
+        }
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Removes all entries whose key matches the filter. This checks all entries, so it should not be called
+     * for each request.
+     *
+     * @param filter key filter
+     */
+    public void invalidateIf(Predicate<? super K> filter) {
+        for (Segment<K, V> segment : segments) {
+            segment.removeIf(filter);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns the cache name.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return size
+     */
+    public long size() {
+        if (maxSize == 0) {
+            return 0;
+        }
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return maximum size
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of requests that found a cached value.
+     *
+     * @return count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of requests that found no cached value.
+     *
+     * @return count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of successful loads.
+     *
+     * @return count
+     */
+    public long getLoadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    /**
+     * Returns the number of loads that failed with an exception.
+     *
+     * @return count
+     */
+    public long getLoadExceptionCount() {
+        return loadExceptionCount.sum();
+    }
+
+    /**
+     * Returns the total time spent for loading values.
+     *
+     * @return time in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime.sum();
+    }
+
+    /**
+     * Returns the number of entries that were evicted.
+     *
+     * @return count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Resets all statistics counters.
+     */
+    public void resetStats() {
+        hitCount.reset();
+        missCount.reset();
+        loadSuccessCount.reset();
+        loadExceptionCount.reset();
+        totalLoadTime.reset();
+        evictionCount.reset();
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            loadSuccessCount.increment();
+            return value;
+        }
+        catch (RuntimeException e) {
+            loadExceptionCount.increment();
+            throw e;
+        }
+        finally {
+            totalLoadTime.add(System.nanoTime() - start);
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * Part of the cache with its own lock and eviction.
+     *
+     * @param <K> key type
+     * @param <V> value type
+     */
+    private static final class Segment<K, V> {
+
+        private final Map<K, V> map;
+
+        Segment(int maxSize, LongAdder evictionCount) {
+            map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > maxSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+
+            };
+        }
+
+        synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        synchronized V putIfAbsent(K key, V value) {
+            V existing = map.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            map.put(key, value);
+            return value;
+        }
+
+        synchronized void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        synchronized void remove(K key) {
+            map.remove(key);
+        }
+
+        synchronized void removeIf(Predicate<? super K> filter) {
+            map.keySet().removeIf(filter);
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache;
+
+import org.apache.jackrabbit.oak.api.jmx.CacheStatsMBean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the statistics of an {@link LruCache} in the same format as Oak's caches.
+ *
+ * @author Roland Gruber
+ */
+public class LruCacheStats implements CacheStatsMBean {
+
+    private final LruCache<?, ?> cache;
+
+    /**
+     * Constructor
+     *
+     * @param cache cache
+     */
+    public LruCacheStats(LruCache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return cache.getHitCount() + cache.getMissCount();
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return (requests == 0) ? 1.0 : (double) getHitCount() / requests;
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public double getMissRate() {
+        long requests = getRequestCount();
+        return (requests == 0) ? 0.0 : (double) getMissCount() / requests;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return cache.getLoadSuccessCount() + cache.getLoadExceptionCount();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return cache.getLoadSuccessCount();
+    }
+
+    @Override
+    public long getLoadExceptionCount() {
+        return cache.getLoadExceptionCount();
+    }
+
+    @Override
+    public double getLoadExceptionRate() {
+        long loads = getLoadCount();
+        return (loads == 0) ? 0.0 : (double) getLoadExceptionCount() / loads;
+    }
+
+    @Override
+    public long getTotalLoadTime() {
+        return cache.getTotalLoadTime();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        long loads = getLoadCount();
+        return (loads == 0) ? 0.0 : (double) getTotalLoadTime() / loads;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    public long getElementCount() {
+        return cache.size();
+    }
+
+    @Override
+    public long getMaxTotalWeight() {
+        return cache.getMaxSize();
+    }
+
+    @Override
+    public long estimateCurrentWeight() {
+        return cache.size();
+    }
+
+    @Override
+    public String cacheInfoAsString() {
+        return "name=" + getName()
+                + ", requests=" + getRequestCount()
+                + ", hits=" + getHitCount()
+                + ", hitRate=" + String.format("%.2f", getHitRate())
+                + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount()
+                + ", loadTime=" + TimeUnit.NANOSECONDS.toMillis(getTotalLoadTime()) + "ms"
+                + ", elements=" + getElementCount()
+                + ", maxElements=" + getMaxTotalWeight();
+    }
+
+    @Override
+    public void resetStats() {
+        cache.resetStats();
+    }
+
+}
@@ -0,0 +1,314 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter for repository paths that is stored in a memory-mapped file. The bits are kept off-heap and survive
+ * restarts.
+ * <p>
+ * A negative answer of mightContain() is exact, a positive answer may be wrong with the configured false positive
+ * rate. Paths cannot be removed, so the rate grows with removed or changed content until the filter is rebuilt.
+ * <p>
+ * Adding and checking paths is thread-safe and lock-free. The bits are updated atomically, so concurrent additions
+ * are not lost.
+ *
+ * @author Roland Gruber
+ */
+public final class PathBloomFilter implements Closeable {
+
+    private static final int MAGIC = 0x41415246;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int OFFSET_BIT_COUNT = 8;
+    private static final int OFFSET_HASH_COUNT = 16;
+    private static final int OFFSET_ENTRY_COUNT = 24;
+    private static final int MAX_HASH_COUNT = 16;
+    private static final long MAX_BIT_COUNT = Integer.MAX_VALUE / Long.SIZE * (long) Long.SIZE;
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong entryCount;
+    private final AtomicLong setBitCount;
+
+    private PathBloomFilter(File file, FileChannel channel, MappedByteBuffer buffer, long bitCount, int hashCount,
+                            long entryCount, long setBitCount) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.entryCount = new AtomicLong(entryCount);
+        this.setBitCount = new AtomicLong(setBitCount);
+    }
+
+    /**
+     * Creates an empty filter. An existing file is overwritten.
+     *
+     * @param file file
+     * @param expectedEntries expected number of paths
+     * @param falsePositiveRate false positive rate at the expected number of paths (e.g. 0.01)
+     * @return filter
+     * @throws IOException error creating the file
+     */
+    public static PathBloomFilter create(File file, long expectedEntries, double falsePositiveRate) throws IOException {
+        long bitCount = getBitCount(expectedEntries, falsePositiveRate);
+        int hashCount = getHashCount(expectedEntries, bitCount);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, getFileSize(bitCount));
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(OFFSET_BIT_COUNT, bitCount);
+            buffer.putInt(OFFSET_HASH_COUNT, hashCount);
+            buffer.putLong(OFFSET_ENTRY_COUNT, 0);
+            return new PathBloomFilter(file, channel, buffer, bitCount, hashCount, 0, 0);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a filter that was created before.
+     *
+     * @param file file
+     * @return filter
+     * @throws IOException error reading the file or no valid filter file
+     */
+    public static PathBloomFilter open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("No Bloom filter file: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            long bitCount = header.getLong(OFFSET_BIT_COUNT);
+            int hashCount = header.getInt(OFFSET_HASH_COUNT);
+            if ((header.getInt(0) != MAGIC) || (header.getInt(4) != VERSION) || (bitCount <= 0)
+                    || (bitCount > MAX_BIT_COUNT) || ((bitCount % Long.SIZE) != 0) || (hashCount < 1)
+                    || (hashCount > MAX_HASH_COUNT) || (size != getFileSize(bitCount))) {
+                throw new IOException("No valid Bloom filter file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            long setBits = 0;
+            for (int offset = HEADER_SIZE; offset < size; offset += Long.BYTES) {
+                setBits += Long.bitCount(buffer.getLong(offset));
+            }
+            return new PathBloomFilter(file, channel, buffer, bitCount, hashCount,
+                    buffer.getLong(OFFSET_ENTRY_COUNT), setBits);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of bits for the expected number of paths and false positive rate.
+     *
+     * @param expectedEntries expected number of paths
+     * @param falsePositiveRate false positive rate
+     * @return number of bits, a multiple of 64
+     */
+    public static long getBitCount(long expectedEntries, double falsePositiveRate) {
+        double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        double bits = -Math.max(1, expectedEntries) * Math.log(rate) / (Math.log(2) * Math.log(2));
+        long words = Math.max(1, (long) Math.ceil(bits / Long.SIZE));
+        return Math.min(MAX_BIT_COUNT, words * Long.SIZE);
+    }
+
+    private static int getHashCount(long expectedEntries, long bitCount) {
+        long hashes = Math.round((double) bitCount / Math.max(1, expectedEntries) * Math.log(2));
+        return (int) Math.min(MAX_HASH_COUNT, Math.max(1, hashes));
+    }
+
+    private static long getFileSize(long bitCount) {
+        return HEADER_SIZE + bitCount / Byte.SIZE;
+    }
+
+    /**
+     * Adds the path.
+     *
+     * @param path path
+     */
+    public void put(String path) {
+        long hash = hash(path);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = getBit(hash1 + i * hash2);
+            long mask = 1L << bit;
+            long previous = (long) WORDS.getAndBitwiseOr(buffer, getOffset(bit), mask);
+            if ((previous & mask) == 0) {
+                setBitCount.incrementAndGet();
+                changed = true;
+            }
+        }
+        if (changed) {
+            entryCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns if the path may have been added. False means that the path was never added.
+     *
+     * @param path path
+     * @return path may be contained
+     */
+    public boolean mightContain(String path) {
+        long hash = hash(path);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = getBit(hash1 + i * hash2);
+            long word = (long) WORDS.getAcquire(buffer, getOffset(bit));
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps the hash to a bit with a multiplication instead of a division.
+     *
+     * @param hash hash
+     * @return bit index
+     */
+    private long getBit(int hash) {
+        return ((hash & 0xffffffffL) * bitCount) >>> 32;
+    }
+
+    private static int getOffset(long bit) {
+        return HEADER_SIZE + (int) (bit / Long.SIZE) * Long.BYTES;
+    }
+
+    /**
+     * Hash of the path for double hashing. This is derived from the hash code of the string, which is usually cached
+     * (e.g. by Oak's immutable trees), with the finalizer of MurmurHash3. Paths with equal hash code and length share
+     * their bits, which adds about entries / 2^32 to the false positive rate.
+     *
+     * @param path path
+     * @return hash
+     */
+    private static long hash(String path) {
+        long hash = ((long) path.length() << 32) ^ (path.hashCode() & 0xffffffffL);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the file of the filter.
+     *
+     * @return file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of bits.
+     *
+     * @return bit count
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the number of hash functions.
+     *
+     * @return hash count
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Returns the number of added paths. Paths that were already contained (or are false positives) are not counted.
+     *
+     * @return entry count
+     */
+    public long getEntryCount() {
+        return entryCount.get();
+    }
+
+    /**
+     * Returns the size of the filter file.
+     *
+     * @return size in bytes
+     */
+    public long getSize() {
+        return getFileSize(bitCount);
+    }
+
+    /**
+     * Returns the probability that mightContain() returns true for a path that was not added. This is calculated
+     * from the ratio of set bits.
+     *
+     * @return expected false positive rate
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow((double) setBitCount.get() / bitCount, hashCount);
+    }
+
+    /**
+     * Writes the changes to the file.
+     */
+    public void flush() {
+        buffer.putLong(OFFSET_ENTRY_COUNT, entryCount.get());
+        buffer.force();
+    }
+
+    /**
+     * Writes the changes and closes the file. The mapped memory is released by the garbage collector.
+     *
+     * @throws IOException error closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.clock;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock that reads the system time only once per tick. Permission checks then just read a volatile field.
+ * The time may be behind the system time by up to the configured resolution.
+ * <p>
+ * Patterns may keep the clock after it was deactivated, so a stopped clock returns the system time instead of the
+ * last tick.
+ *
+ * @author Roland Gruber
+ */
+@Component(service = RestrictionClock.class)
+@Designate(ocd = CoarseRestrictionClock.Config.class)
+public class CoarseRestrictionClock implements RestrictionClock {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoarseRestrictionClock.class);
+
+    /**
+     * Minimum resolution in milliseconds.
+     */
+    static final long MIN_RESOLUTION = 10;
+
+    /**
+     * Marks a clock that is not running.
+     */
+    private static final long STOPPED = Long.MIN_VALUE;
+
+    private volatile long now = STOPPED;
+
+    private ScheduledExecutorService scheduler;
+
+    @ObjectClassDefinition(name = "AEM Advanced Restrictions - Clock",
+            description = "Provides the current time for date restrictions")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Resolution (ms)",
+                description = "The current time is updated in this interval. Date restrictions may be late by up to this value.")
+        long resolution() default 1000;
+
+    }
+
+    @Activate
+    @Modified
+    protected synchronized void activate(Config config) {
+        stop();
+        long resolution = Math.max(MIN_RESOLUTION, config.resolution());
+        LOG.debug("Starting clock with resolution of {}ms", resolution);
+        now = System.currentTimeMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AEM Advanced Restrictions clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, resolution, resolution, TimeUnit.MILLISECONDS);
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        stop();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        long time = now;
+        return (time != STOPPED) ? time : System.currentTimeMillis();
+    }
+
+    /**
+     * Updates the current time. Ticks that run after the clock was stopped are ignored.
+     */
+    synchronized void tick() {
+        if (scheduler != null) {
+            now = System.currentTimeMillis();
+        }
+    }
+
+    private void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        now = STOPPED;
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.CompositePattern;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+
+import java.util.List;
+
+/**
+ * Combines multiple AEM Advanced Restrictions patterns with AND.
+ * <p>
+ * In contrast to Oak's CompositePattern the base node (e.g. asset), its jcr:content node and common subnodes
+ * (e.g. metadata) are resolved only once per evaluation and shared between the patterns.
+ * The patterns are evaluated in the given order.
+ *
+ * @author Roland Gruber
+ */
+public final class AarCompositePattern implements RestrictionPattern {
+
+    private final BasePattern[] patterns;
+
+    private AarCompositePattern(BasePattern[] patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * Creates a pattern that matches if all given patterns match.
+     * Falls back to Oak's CompositePattern if any pattern does not support shared evaluation.
+     *
+     * @param patterns patterns
+     * @return combined pattern
+     */
+    public static RestrictionPattern create(List<RestrictionPattern> patterns) {
+        if (patterns.size() < 2) {
+            return CompositePattern.create(patterns);
+        }
+        BasePattern[] basePatterns = new BasePattern[patterns.size()];
+        for (int i = 0; i < basePatterns.length; i++) {
+            RestrictionPattern pattern = patterns.get(i);
+            if (!(pattern instanceof BasePattern) || !((BasePattern) pattern).isSharedEvaluationSupported()) {
+                return CompositePattern.create(patterns);
+            }
+            basePatterns[i] = (BasePattern) pattern;
+        }
+        return new AarCompositePattern(basePatterns);
+    }
+
+    @Override
+    public boolean matches(Tree tree, PropertyState propertyState) {
+        BaseNodeContext nodes = new BaseNodeContext(tree);
+        EvaluationMemo memo = EvaluationMemo.get(tree);
+        for (BasePattern pattern : patterns) {
+            if (!matches(pattern, nodes, memo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(BasePattern pattern, BaseNodeContext nodes, EvaluationMemo memo) {
+        if ((memo == null) || !pattern.isMemoUsed()) {
+            return pattern.matches(nodes);
+        }
+        int result = memo.getResult(pattern);
+        if (result != EvaluationMemo.UNKNOWN) {
+            return result == 1;
+        }
+        boolean matches = pattern.matches(nodes);
+        memo.putResult(pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public boolean matches(String path) {
+        for (BasePattern pattern : patterns) {
+            if (!pattern.matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean matches() {
+        for (BasePattern pattern : patterns) {
+            if (!pattern.matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+
+import java.util.Arrays;
+
+/**
+ * Nodes that are resolved once for the evaluation of multiple patterns on the same tree.
+ * This contains the base node (e.g. asset), its jcr:content node and the subnodes of jcr:content that were read
+ * (e.g. metadata).
+ * <p>
+ * Instances are created for a single evaluation and must not be shared between threads.
+ *
+ * @author Roland Gruber
+ */
+final class BaseNodeContext {
+
+    private static final int INITIAL_NODE_CAPACITY = 4;
+
+    private final Tree tree;
+
+    private boolean baseNodeResolved;
+    private Tree baseNode;
+
+    private boolean contentNodeResolved;
+    private Tree contentNode;
+
+    private boolean summaryResolved;
+    private PropertyState summary;
+
+    private String[] nodePaths;
+    private Tree[] nodes;
+    private int nodeCount;
+
+    /**
+     * Constructor
+     *
+     * @param tree evaluated tree
+     */
+    BaseNodeContext(Tree tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Returns the evaluated tree.
+     *
+     * @return tree
+     */
+    Tree getTree() {
+        return tree;
+    }
+
+    /**
+     * Returns the base node. It is resolved by the first pattern that needs it.
+     *
+     * @param pattern pattern that resolves the base node
+     * @return base node or null
+     */
+    Tree getBaseNode(BasePattern pattern) {
+        if (!baseNodeResolved) {
+            baseNode = pattern.findBaseNode(tree);
+            baseNodeResolved = true;
+        }
+        return baseNode;
+    }
+
+    /**
+     * Returns the jcr:content node of the base node. The base node must be resolved before.
+     *
+     * @return content node or null
+     */
+    Tree getContentNode() {
+        if (!contentNodeResolved) {
+            if ((baseNode != null) && baseNode.hasChild(JcrConstants.JCR_CONTENT)) {
+                contentNode = baseNode.getChild(JcrConstants.JCR_CONTENT);
+            }
+            contentNodeResolved = true;
+        }
+        return contentNode;
+    }
+
+    /**
+     * Returns the restriction summary of the base node. The base node must be resolved before.
+     *
+     * @return summary or null
+     */
+    PropertyState getSummary() {
+        if (!summaryResolved) {
+            Tree content = getContentNode();
+            summary = (content != null) ? content.getProperty(RestrictionSummary.PROPERTY_NAME) : null;
+            summaryResolved = true;
+        }
+        return summary;
+    }
+
+    /**
+     * Reads a property below jcr:content. The subnodes on the path are shared between the patterns.
+     *
+     * @param path property path relative to jcr:content
+     * @return property or null
+     */
+    PropertyState readProperty(RelativePath path) {
+        Tree content = getContentNode();
+        if (content == null) {
+            return null;
+        }
+        Tree parent;
+        String parentPath = path.getParentPath();
+        if (parentPath.isEmpty()) {
+            parent = content;
+        }
+        else {
+            int index = indexOf(parentPath);
+            if (index >= 0) {
+                parent = nodes[index];
+            }
+            else {
+                parent = path.getParentNode(content);
+                addNode(parentPath, parent);
+            }
+        }
+        return (parent != null) ? parent.getProperty(path.getName()) : null;
+    }
+
+    /**
+     * Checks if the subnode path below jcr:content exists. The result is shared between the patterns.
+     *
+     * @param path node path relative to jcr:content
+     * @return node exists
+     */
+    boolean nodeExists(RelativePath path) {
+        Tree content = getContentNode();
+        if (content == null) {
+            return false;
+        }
+        int index = indexOf(path.getPath());
+        if (index >= 0) {
+            return nodes[index] != null;
+        }
+        Tree node = path.getNode(content);
+        addNode(path.getPath(), node);
+        return node != null;
+    }
+
+    private int indexOf(String path) {
+        for (int i = 0; i < nodeCount; i++) {
+            if (nodePaths[i].equals(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addNode(String path, Tree node) {
+        if (nodePaths == null) {
+            nodePaths = new String[INITIAL_NODE_CAPACITY];
+            nodes = new Tree[INITIAL_NODE_CAPACITY];
+        }
+        else if (nodeCount == nodePaths.length) {
+            nodePaths = Arrays.copyOf(nodePaths, nodeCount * 2);
+            nodes = Arrays.copyOf(nodes, nodeCount * 2);
+        }
+        nodePaths[nodeCount] = path;
+        nodes[nodeCount] = node;
+        nodeCount++;
+    }
+
+}
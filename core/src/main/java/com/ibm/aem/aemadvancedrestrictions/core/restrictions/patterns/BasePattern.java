@@ -24,12 +24,15 @@ import org.apache.jackrabbit.JcrConstants;
 import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
 import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Abstract base class for restriction patterns.
@@ -43,31 +46,512 @@ public abstract class BasePattern implements RestrictionPattern {
      */
     public static final String DELIMITER = "$";
 
+    /**
+     * Delimiter of the values when the restriction value contains a list of values (e.g. aarPropertyIn).
+     */
+    public static final String VALUE_DELIMITER = "|";
+
+    /**
+     * Evaluation cost of patterns that only check the path of the node.
+     */
+    public static final int COST_PATH = 10;
+
+    /**
+     * Evaluation cost of patterns that read the base node (e.g. asset) and its properties or subnodes.
+     */
+    public static final int COST_PROPERTY = 20;
+
+    /**
+     * Evaluation cost of patterns that also check the parent nodes.
+     */
+    public static final int COST_HIERARCHY = 30;
+
+    /**
+     * Compiled path of the checked property or subnode, null if the pattern does not check a path.
+     */
+    private final RelativePath checkedPath;
+
+    private final PatternContext context;
+
+    /**
+     * Restriction value. Patterns of the same class are equal if they have the same value and context.
+     */
+    private final String restrictionValue;
+
+    /**
+     * Key in restriction summaries, created on first use.
+     */
+    private String summaryKey;
+
+    /**
+     * Constructor with default context.
+     */
+    protected BasePattern() {
+        this(PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context pattern context
+     */
+    protected BasePattern(PatternContext context) {
+        this(null, context);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value
+     * @param context pattern context
+     */
+    protected BasePattern(String restrictionValue, PatternContext context) {
+        this(restrictionValue, context, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value
+     * @param context pattern context
+     * @param checkedPath relative path of the checked property or subnode (e.g. "metadata/myProperty"), may be null
+     */
+    protected BasePattern(String restrictionValue, PatternContext context, String checkedPath) {
+        this.restrictionValue = restrictionValue;
+        this.context = (context != null) ? context : PatternContext.DEFAULT;
+        this.checkedPath = (checkedPath != null) ? new RelativePath(checkedPath) : null;
+    }
+
     @Override
     public boolean matches(Tree tree, PropertyState propertyState) {
+        EvaluationMemo memo = isMemoUsed() ? EvaluationMemo.get(tree) : null;
+        if (memo == null) {
+            return evaluate(tree);
+        }
+        int result = memo.getResult(this);
+        if (result != EvaluationMemo.UNKNOWN) {
+            return result == 1;
+        }
+        boolean matches = evaluate(tree);
+        memo.putResult(this, matches);
+        return matches;
+    }
+
+    /**
+     * Evaluates the pattern for the given tree.
+     *
+     * @param tree tree
+     * @return matches
+     */
+    protected boolean evaluate(Tree tree) {
         Tree baseNode = findBaseNode(tree);
         if (baseNode == null) {
             return false;
         }
-        PropertyState valueState = readPropertyFromBase(baseNode, getPropertyName());
-        if (valueState != null) {
-            if (!valueState.isArray()) {
-                if (singleValuePropertyMatches(valueState)) {
-                    return true;
-                }
+        int filtered = checkExistenceFilter(tree, baseNode);
+        if (filtered == ExistenceFilters.MISSING) {
+            return false;
+        }
+        boolean matches = evaluateCached(tree, baseNode);
+        recordExistenceResult(filtered, matches);
+        return matches;
+    }
+
+    /**
+     * Evaluates the pattern with the result cache if enabled.
+     *
+     * @param tree evaluated tree
+     * @param baseNode base node
+     * @return matches
+     */
+    private boolean evaluateCached(Tree tree, Tree baseNode) {
+        if (!isResultCacheUsed(tree)) {
+            return evaluateSummarized(tree, baseNode);
+        }
+        String path = baseNode.getPath();
+        Boolean cached = context.getResult(this, path);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = context.startEvaluation(this);
+        boolean matches = evaluateSummarized(tree, baseNode);
+        context.putResult(this, path, matches, generation);
+        return matches;
+    }
+
+    /**
+     * Evaluates the pattern with the restriction summary of the base node if available.
+     *
+     * @param tree evaluated tree
+     * @param baseNode base node
+     * @return matches
+     */
+    private boolean evaluateSummarized(Tree tree, Tree baseNode) {
+        if (isSummaryUsed(tree)) {
+            int result = context.readSummary(this, getSummary(baseNode));
+            if (result != RestrictionSummary.UNKNOWN) {
+                return result == RestrictionSummary.MATCH;
             }
-            else {
-                if (multiValuePropertyMatches(valueState)) {
-                    return true;
-                }
+        }
+        return evaluateBaseNode(baseNode);
+    }
+
+    /**
+     * Evaluates the pattern for the base node of the evaluated tree.
+     *
+     * @param baseNode base node
+     * @return matches
+     */
+    protected boolean evaluateBaseNode(Tree baseNode) {
+        if (!checkHierarchy()) {
+            return baseNodeMatches(baseNode);
+        }
+        if (isHierarchyCacheUsed()) {
+            return hierarchyMatchesCached(baseNode);
+        }
+        return hierarchyMatches(baseNode);
+    }
+
+    /**
+     * Evaluates the pattern with nodes that are shared with the other patterns of a composite.
+     *
+     * @param nodes shared nodes
+     * @return matches
+     */
+    boolean matches(BaseNodeContext nodes) {
+        Tree baseNode = nodes.getBaseNode(this);
+        if (baseNode == null) {
+            return false;
+        }
+        int filtered = checkExistenceFilter(nodes.getTree(), baseNode);
+        if (filtered == ExistenceFilters.MISSING) {
+            return false;
+        }
+        boolean matches = matchesCached(nodes, baseNode);
+        recordExistenceResult(filtered, matches);
+        return matches;
+    }
+
+    /**
+     * Evaluates the pattern with shared nodes and the result cache if enabled.
+     *
+     * @param nodes shared nodes
+     * @param baseNode base node
+     * @return matches
+     */
+    private boolean matchesCached(BaseNodeContext nodes, Tree baseNode) {
+        if (!isResultCacheUsed(nodes.getTree())) {
+            return matchesSummarized(nodes);
+        }
+        String path = baseNode.getPath();
+        Boolean cached = context.getResult(this, path);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = context.startEvaluation(this);
+        boolean matches = matchesSummarized(nodes);
+        context.putResult(this, path, matches, generation);
+        return matches;
+    }
+
+    /**
+     * Evaluates the pattern with the restriction summary of the base node if available. The summary is read once
+     * for all patterns of a composite.
+     *
+     * @param nodes shared nodes, base node is not null
+     * @return matches
+     */
+    private boolean matchesSummarized(BaseNodeContext nodes) {
+        if (isSummaryUsed(nodes.getTree())) {
+            int result = context.readSummary(this, nodes.getSummary());
+            if (result != RestrictionSummary.UNKNOWN) {
+                return result == RestrictionSummary.MATCH;
             }
         }
-        if (checkHierarchy()) {
-            return matches(tree.getParent(), propertyState);
+        return matchesBaseNode(nodes);
+    }
+
+    /**
+     * Evaluates the pattern for the resolved base node with nodes that are shared with the other patterns of a
+     * composite.
+     *
+     * @param nodes shared nodes, base node is not null
+     * @return matches
+     */
+    boolean matchesBaseNode(BaseNodeContext nodes) {
+        Tree baseNode = nodes.getBaseNode(this);
+        if (checkHierarchy() && isHierarchyCacheUsed()) {
+            return hierarchyMatchesCached(baseNode);
+        }
+        if (valueMatches(nodes.readProperty(compilePath(getPropertyName())))) {
+            return true;
         }
+        return checkHierarchy() && hierarchyMatches(findParentBaseNode(baseNode));
+    }
+
+    /**
+     * Returns if the result of the pattern changes over time without content changes (e.g. date checks).
+     * Such results are not cached.
+     *
+     * @return time dependent
+     */
+    protected boolean isTimeDependent() {
         return false;
     }
 
+    /**
+     * Returns if the result of the pattern only depends on the content of the repository. Only such results are
+     * stored in the result cache, the hierarchy cache and restriction summaries. By default, time dependent patterns
+     * are not cacheable.
+     *
+     * @return cacheable
+     */
+    protected boolean isCacheable() {
+        return !isTimeDependent();
+    }
+
+    /**
+     * Returns if the result is stored in the evaluation memo of the current thread. As for the caches, only cacheable
+     * results are stored, so that e.g. date checks see the current time on each call.
+     *
+     * @return use memo
+     */
+    boolean isMemoUsed() {
+        return context.isEvaluationMemoEnabled() && isCacheable();
+    }
+
+    /**
+     * Returns if the result cache is used for the given tree. Only read-only trees are cached as mutable trees may
+     * contain transient changes.
+     *
+     * @param tree evaluated tree
+     * @return use cache
+     */
+    private boolean isResultCacheUsed(Tree tree) {
+        return context.isResultCacheEnabled() && (tree instanceof ReadOnly) && isSharedEvaluationSupported()
+               && isCacheable();
+    }
+
+    /**
+     * Checks the existence filter for the base node. As for the result cache, only read-only trees are supported as
+     * the filters do not know transient changes. Subclasses from other packages may change the evaluation, so they
+     * are excluded.
+     *
+     * @param tree evaluated tree
+     * @param baseNode base node
+     * @return MISSING, MAYBE or UNKNOWN if no filter is used
+     */
+    private int checkExistenceFilter(Tree tree, Tree baseNode) {
+        ExistenceFilters filters = context.getExistenceFilters();
+        String path = getFilteredPath();
+        if ((filters == null) || (path == null) || !(tree instanceof ReadOnly) || !isSharedEvaluationSupported()) {
+            return ExistenceFilters.UNKNOWN;
+        }
+        return filters.check(isFilteredProperty(), path, baseNode.getPath());
+    }
+
+    /**
+     * Records a false positive of the existence filter.
+     *
+     * @param filtered result of checkExistenceFilter()
+     * @param matches result of the evaluation
+     */
+    private void recordExistenceResult(int filtered, boolean matches) {
+        if ((filtered == ExistenceFilters.MAYBE) && !matches) {
+            context.getExistenceFilters().falsePositive(isFilteredProperty(), getFilteredPath());
+        }
+    }
+
+    /**
+     * Returns the path relative to jcr:content that must exist for a match. Existence filters can then skip base
+     * nodes where it is missing. Only patterns that never match without this item may return a path.
+     *
+     * @return path or null if existence filters are not supported
+     */
+    String getFilteredPath() {
+        return null;
+    }
+
+    /**
+     * Returns if the path of getFilteredPath() is a property or a node.
+     *
+     * @return property
+     */
+    boolean isFilteredProperty() {
+        return true;
+    }
+
+    /**
+     * Returns if the restriction summary is used for the given tree. As for the result cache, only read-only trees
+     * are supported as the summary does not contain transient changes.
+     *
+     * @param tree evaluated tree
+     * @return use summary
+     */
+    private boolean isSummaryUsed(Tree tree) {
+        return context.isSummaryEnabled() && (tree instanceof ReadOnly) && isSummarySupported();
+    }
+
+    /**
+     * Returns if the pattern can be stored in restriction summaries. This requires a result that only depends on the
+     * content of the base node.
+     *
+     * @return summary supported
+     */
+    boolean isSummarySupported() {
+        return (restrictionValue != null) && isSharedEvaluationSupported() && !checkHierarchy() && isCacheable();
+    }
+
+    /**
+     * Returns the restriction summary of a base node.
+     *
+     * @param baseNode base node
+     * @return summary or null
+     */
+    private static PropertyState getSummary(Tree baseNode) {
+        if (!baseNode.hasChild(JcrConstants.JCR_CONTENT)) {
+            return null;
+        }
+        return baseNode.getChild(JcrConstants.JCR_CONTENT).getProperty(RestrictionSummary.PROPERTY_NAME);
+    }
+
+    /**
+     * Returns the key of the pattern in restriction summaries.
+     *
+     * @return key
+     */
+    String getSummaryKey() {
+        String key = summaryKey;
+        if (key == null) {
+            key = RestrictionSummary.createKey(getClass(), restrictionValue);
+            summaryKey = key;
+        }
+        return key;
+    }
+
+    private boolean isHierarchyCacheUsed() {
+        return context.isHierarchyCacheEnabled() && isCacheable();
+    }
+
+    /**
+     * Returns if the pattern can be evaluated with shared nodes (see matches(BaseNodeContext)).
+     * Subclasses outside this package can only override evaluate(Tree) or matches(Tree, PropertyState), so they are
+     * excluded.
+     *
+     * @return shared evaluation supported
+     */
+    boolean isSharedEvaluationSupported() {
+        return getClass().getPackage() == BasePattern.class.getPackage();
+    }
+
+    /**
+     * Checks the base node and its parent base nodes.
+     *
+     * @param baseNode base node, may be null
+     * @return matches
+     */
+    private boolean hierarchyMatches(Tree baseNode) {
+        Tree currentBase = baseNode;
+        while (currentBase != null) {
+            if (baseNodeMatches(currentBase)) {
+                return true;
+            }
+            currentBase = findParentBaseNode(currentBase);
+        }
+        return false;
+    }
+
+    /**
+     * Checks the base node and its parent base nodes. The results are stored for all visited base nodes, so that
+     * e.g. sibling assets can reuse the result of their folder.
+     *
+     * @param baseNode base node
+     * @return matches
+     */
+    private boolean hierarchyMatchesCached(Tree baseNode) {
+        long generation = context.startEvaluation(this);
+        List<String> visitedPaths = new ArrayList<>();
+        Tree currentBase = baseNode;
+        String currentPath = baseNode.getPath();
+        boolean matches = false;
+        while (currentBase != null) {
+            Boolean cached = context.getHierarchyResult(this, currentPath);
+            if (cached != null) {
+                matches = cached;
+                break;
+            }
+            visitedPaths.add(currentPath);
+            if (baseNodeMatches(currentBase)) {
+                matches = true;
+                break;
+            }
+            if (currentBase.isRoot() || context.isHierarchyBoundary(currentBase)) {
+                break;
+            }
+            Tree parent = currentBase.getParent();
+            if (isValidBaseNode(parent)) {
+                currentBase = parent;
+                currentPath = PathUtils.getParentPath(currentPath);
+            }
+            else {
+                currentBase = findBaseNode(parent);
+                currentPath = (currentBase != null) ? currentBase.getPath() : null;
+            }
+        }
+        for (String path : visitedPaths) {
+            context.putHierarchyResult(this, path, matches, generation);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the next base node above the given one. Stops at the root and the configured hierarchy boundaries.
+     *
+     * @param baseNode base node
+     * @return parent base node or null
+     */
+    private Tree findParentBaseNode(Tree baseNode) {
+        if (baseNode.isRoot() || context.isHierarchyBoundary(baseNode)) {
+            return null;
+        }
+        return findBaseNode(baseNode.getParent());
+    }
+
+    /**
+     * Returns if the base node itself matches.
+     *
+     * @param baseNode base node
+     * @return matches
+     */
+    protected boolean baseNodeMatches(Tree baseNode) {
+        return valueMatches(readPropertyFromBase(baseNode, getPropertyName()));
+    }
+
+    /**
+     * Returns if the property value matches.
+     *
+     * @param valueState property, may be null
+     * @return matches
+     */
+    private boolean valueMatches(PropertyState valueState) {
+        if (valueState == null) {
+            return false;
+        }
+        if (!valueState.isArray()) {
+            return singleValuePropertyMatches(valueState);
+        }
+        return multiValuePropertyMatches(valueState);
+    }
+
+    /**
+     * Returns the pattern context.
+     *
+     * @return context
+     */
+    protected PatternContext getContext() {
+        return context;
+    }
+
     /**
      * Returns the property name if restriction is based on properties.
      *
@@ -109,14 +593,65 @@ public abstract class BasePattern implements RestrictionPattern {
         if (isValidBaseNode(tree)) {
             return tree;
         }
-        if (!tree.getPath().contains(JcrConstants.JCR_CONTENT)) {
-            return null;
+        if (context.isBaseNodeCacheEnabled() && (tree instanceof ReadOnly) && isSharedEvaluationSupported()) {
+            return findBaseNodeCached(tree);
         }
+        return findBaseNodeInParents(tree);
+    }
+
+    /**
+     * Finds the base node with the base node cache. The cache stores the number of levels between the node and its
+     * base node, so e.g. all renditions of an asset resolve their base node without reading the nodes in between.
+     * A cached base node that is no page, asset or folder anymore is resolved again.
+     *
+     * @param tree current tree node, no base node
+     * @return base tree
+     */
+    private Tree findBaseNodeCached(Tree tree) {
+        String path = tree.getPath();
+        Integer levels = context.getBaseNodeLevels(path);
+        if (levels != null) {
+            if (levels == PatternContext.NO_BASE_NODE) {
+                return null;
+            }
+            Tree cachedBase = tree;
+            for (int i = 0; (i < levels) && !cachedBase.isRoot(); i++) {
+                cachedBase = cachedBase.getParent();
+            }
+            if (isValidBaseNode(cachedBase)) {
+                return cachedBase;
+            }
+        }
+        Tree baseNode = findBaseNodeInParents(tree);
+        int baseLevels = (baseNode != null) ? PathUtils.getDepth(path) - PathUtils.getDepth(baseNode.getPath()) : PatternContext.NO_BASE_NODE;
+        context.putBaseNodeLevels(path, baseLevels);
+        return baseNode;
+    }
+
+    /**
+     * Finds the base node in the parents of a node that is no base node itself.
+     *
+     * @param tree current tree node
+     * @return base tree
+     */
+    private Tree findBaseNodeInParents(Tree tree) {
+        // only nodes inside jcr:content belong to a base node, the ancestors are checked by name
+        boolean inContent = JcrConstants.JCR_CONTENT.equals(tree.getName());
+        Tree candidate = null;
         Tree currentNode = tree;
         while (!currentNode.isRoot()) {
             currentNode = currentNode.getParent();
-            if (isValidBaseNode(currentNode)) {
-                return currentNode;
+            if ((candidate == null) && isValidBaseNode(currentNode)) {
+                if (inContent) {
+                    return currentNode;
+                }
+                candidate = currentNode;
+            }
+            if (JcrConstants.JCR_CONTENT.equals(currentNode.getName())) {
+                if (candidate != null) {
+                    return candidate;
+                }
+                inContent = true;
             }
         }
         return null;
@@ -130,16 +665,36 @@ public abstract class BasePattern implements RestrictionPattern {
      */
     protected boolean isValidBaseNode(Tree tree) {
         boolean isValid = false;
-        if (tree != null && tree.getProperty(JcrConstants.JCR_PRIMARYTYPE) != null) {
-            String primaryType = tree.getProperty(JcrConstants.JCR_PRIMARYTYPE).getValue(Type.STRING);
-            isValid = DamConstants.NT_DAM_ASSET.equals(primaryType)
-                      || NameConstants.NT_PAGE.equals(primaryType)
-                      || JcrResourceConstants.NT_SLING_FOLDER.equals(primaryType)
-                      || JcrResourceConstants.NT_SLING_ORDERED_FOLDER.equals(primaryType);
+        PropertyState primaryTypeProperty = (tree != null) ? tree.getProperty(JcrConstants.JCR_PRIMARYTYPE) : null;
+        if (primaryTypeProperty != null) {
+            isValid = isBaseNodeType(primaryTypeProperty.getValue(Type.STRING));
         }
         return isValid;
     }
 
+    /**
+     * Returns if the primary type belongs to a page, asset or Sling folder.
+     *
+     * @param primaryType primary type
+     * @return is page, asset or folder type
+     */
+    static boolean isBaseNodeType(String primaryType) {
+        return DamConstants.NT_DAM_ASSET.equals(primaryType)
+               || NameConstants.NT_PAGE.equals(primaryType)
+               || JcrResourceConstants.NT_SLING_FOLDER.equals(primaryType)
+               || JcrResourceConstants.NT_SLING_ORDERED_FOLDER.equals(primaryType);
+    }
+
+    /**
+     * Splits a list of values. Empty values are kept.
+     *
+     * @param values values separated by VALUE_DELIMITER
+     * @return values
+     */
+    protected static List<String> splitValues(String values) {
+        return Arrays.asList(values.split(Pattern.quote(VALUE_DELIMITER), -1));
+    }
+
     /**
      * Reads the needed property from the base node (e.g. dam:Asset).
      * Slashes in property name are treated as subnodes.
@@ -152,16 +707,45 @@ public abstract class BasePattern implements RestrictionPattern {
         if (!base.hasChild(JcrConstants.JCR_CONTENT)) {
             return null;
         }
-        Tree node = base.getChild(JcrConstants.JCR_CONTENT);
-        List<String> parts = new ArrayList<>(Arrays.asList(propertyName.split("/")));
-        while (parts.size() > 1) {
-            String child = parts.remove(0);
-            if (!node.hasChild(child)) {
-                return null;
-            }
-            node = node.getChild(child);
+        return compilePath(propertyName).getProperty(base.getChild(JcrConstants.JCR_CONTENT));
+    }
+
+    /**
+     * Returns the compiled path. The checked path of the pattern is compiled once in the constructor, other paths are
+     * compiled on each call.
+     *
+     * @param path relative path
+     * @return compiled path
+     */
+    RelativePath compilePath(String path) {
+        if ((checkedPath != null) && checkedPath.isPath(path)) {
+            return checkedPath;
+        }
+        return new RelativePath(path);
+    }
+
+    /**
+     * Returns the part of the restriction value before the first delimiter (e.g. the property name).
+     *
+     * @param restrictionValue restriction value
+     * @return value before the delimiter, the full value if there is no delimiter
+     */
+    protected static String getValueBeforeDelimiter(String restrictionValue) {
+        if (restrictionValue == null) {
+            return null;
         }
-        return node.getProperty(parts.get(0));
+        int index = restrictionValue.indexOf(DELIMITER);
+        return (index < 0) ? restrictionValue : restrictionValue.substring(0, index);
+    }
+
+    /**
+     * Returns the estimated evaluation cost (see COST_* constants).
+     * If an ACE has multiple restrictions then the patterns with lower cost are checked first.
+     *
+     * @return cost
+     */
+    public int getCost() {
+        return checkHierarchy() ? COST_HIERARCHY : COST_PROPERTY;
     }
 
     /**
@@ -173,6 +757,27 @@ public abstract class BasePattern implements RestrictionPattern {
         return false;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if ((other == null) || (getClass() != other.getClass())) {
+            return false;
+        }
+        BasePattern otherPattern = (BasePattern) other;
+        return (restrictionValue != null) && restrictionValue.equals(otherPattern.restrictionValue)
+                && (context == otherPattern.context);
+    }
+
+    @Override
+    public int hashCode() {
+        if (restrictionValue == null) {
+            return System.identityHashCode(this);
+        }
+        return 31 * getClass().hashCode() + restrictionValue.hashCode();
+    }
+
     @Override
     public boolean matches(String path) {
         // no path level permission
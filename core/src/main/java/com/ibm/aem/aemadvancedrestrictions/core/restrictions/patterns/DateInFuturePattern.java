@@ -21,11 +21,6 @@ package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
 import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Type;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 /**
  * Restriction pattern to check if a property date value is in the future.
  *
@@ -35,8 +30,6 @@ public class DateInFuturePattern extends BasePattern {
 
     public static final String ID = "aarDateInFuture";
 
-    private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-
     protected String propertyName;
 
     /**
@@ -45,31 +38,38 @@ public class DateInFuturePattern extends BasePattern {
      * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
      */
     public DateInFuturePattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
+     * @param context pattern context
+     */
+    public DateInFuturePattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, restrictionValue);
         this.propertyName = restrictionValue;
     }
 
     @Override
     protected boolean singleValuePropertyMatches(PropertyState valueState) {
-        try {
-            return dateFormat.parse(valueState.getValue(Type.DATE)).after(new Date());
-        }
-        catch (ParseException e) {
-            return false;
-        }
+        long date = DateValueParser.toEpochMillis(valueState.getValue(Type.DATE));
+        return (date != DateValueParser.INVALID) && (date > getContext().getClock().currentTimeMillis());
     }
 
     @Override
     protected boolean multiValuePropertyMatches(PropertyState valueState) {
         Iterable<String> valueIt = valueState.getValue(Type.DATES);
+        long now = getContext().getClock().currentTimeMillis();
         for (String value: valueIt) {
-            try {
-                if (dateFormat.parse(value).after(new Date())) {
-                    return true;
-                }
-            }
-            catch (ParseException e) {
+            long date = DateValueParser.toEpochMillis(value);
+            if (date == DateValueParser.INVALID) {
                 return false;
             }
+            if (date > now) {
+                return true;
+            }
         }
         return false;
     }
@@ -79,4 +79,9 @@ public class DateInFuturePattern extends BasePattern {
         return propertyName;
     }
 
+    @Override
+    protected boolean isTimeDependent() {
+        return true;
+    }
+
 }
@@ -18,6 +18,7 @@
  */
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
 
+
 /**
  * Restriction pattern to check if a property date value is in the past (in the hierarchy).
  *
@@ -36,6 +37,16 @@ public class DateInPastHierarchicalPattern extends DateInPastPattern {
         super(restrictionValue);
     }
 
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
+     * @param context pattern context
+     */
+    public DateInPastHierarchicalPattern(final String restrictionValue, final PatternContext context) {
+        super(restrictionValue, context);
+    }
+
     @Override
     protected boolean checkHierarchy() {
         return true;
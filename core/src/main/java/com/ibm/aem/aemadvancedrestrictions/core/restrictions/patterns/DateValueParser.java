@@ -0,0 +1,193 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+/**
+ * Converts ISO-8601 date values as stored by Oak (e.g. "2020-01-31T12:30:00.000+01:00") to epoch milliseconds.
+ * <p>
+ * The parser is stateless and works directly on the characters of the value. This makes it safe for concurrent
+ * use by restriction patterns that are shared between all sessions and avoids any allocation per value.
+ * <p>
+ * Supported format: YYYY-MM-DDThh:mm:ss[.fraction](Z|+hh:mm|-hh:mm|+hhmm|-hhmm|+hh|-hh)
+ *
+ * @author Roland Gruber
+ */
+final class DateValueParser {
+
+    /**
+     * Returned if the value cannot be parsed.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    private static final int[] DAYS_PER_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private DateValueParser() {
+        // static methods only
+    }
+
+    /**
+     * Parses the date value.
+     *
+     * @param value ISO-8601 date value
+     * @return epoch milliseconds or {@link #INVALID}
+     */
+    static long toEpochMillis(String value) {
+        if (value == null || value.length() < 20) {
+            return INVALID;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if ((year < 0) || (month < 1) || (month > 12) || (day < 1) || (day > daysInMonth(year, month))
+                || (hour < 0) || (hour > 23) || (minute < 0) || (minute > 59) || (second < 0) || (second > 59)
+                || (value.charAt(4) != '-') || (value.charAt(7) != '-') || (value.charAt(10) != 'T')
+                || (value.charAt(13) != ':') || (value.charAt(16) != ':')) {
+            return INVALID;
+        }
+        int pos = 19;
+        int millis = 0;
+        if (value.charAt(pos) == '.') {
+            pos++;
+            int fractionStart = pos;
+            while ((pos < value.length()) && isDigit(value.charAt(pos))) {
+                if (pos - fractionStart < 3) {
+                    millis = millis * 10 + (value.charAt(pos) - '0');
+                }
+                pos++;
+            }
+            int fractionLength = pos - fractionStart;
+            if (fractionLength == 0) {
+                return INVALID;
+            }
+            for (int i = fractionLength; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+        long offsetMillis = parseOffset(value, pos);
+        if (offsetMillis == INVALID) {
+            return INVALID;
+        }
+        return daysSinceEpoch(year, month, day) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE
+                + second * MILLIS_PER_SECOND + millis - offsetMillis;
+    }
+
+    /**
+     * Parses the time zone offset.
+     *
+     * @param value date value
+     * @param pos start position of offset
+     * @return offset in milliseconds or {@link #INVALID}
+     */
+    private static long parseOffset(String value, int pos) {
+        int length = value.length() - pos;
+        if (length < 1) {
+            return INVALID;
+        }
+        char sign = value.charAt(pos);
+        if (sign == 'Z') {
+            return (length == 1) ? 0 : INVALID;
+        }
+        if ((sign != '+') && (sign != '-')) {
+            return INVALID;
+        }
+        int hours;
+        int minutes;
+        if (length == 3) {
+            hours = digits(value, pos + 1, 2);
+            minutes = 0;
+        }
+        else if (length == 5) {
+            hours = digits(value, pos + 1, 2);
+            minutes = digits(value, pos + 3, 2);
+        }
+        else if ((length == 6) && (value.charAt(pos + 3) == ':')) {
+            hours = digits(value, pos + 1, 2);
+            minutes = digits(value, pos + 4, 2);
+        }
+        else {
+            return INVALID;
+        }
+        if ((hours < 0) || (hours > 18) || (minutes < 0) || (minutes > 59)) {
+            return INVALID;
+        }
+        long offset = hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE;
+        return (sign == '-') ? -offset : offset;
+    }
+
+    /**
+     * Reads a non-negative number with a fixed number of digits.
+     *
+     * @param value text
+     * @param start start position
+     * @param count number of digits
+     * @return number or -1 if not all characters are digits
+     */
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if ((month == 2) && isLeapYear(year)) {
+            return 29;
+        }
+        return DAYS_PER_MONTH[month - 1];
+    }
+
+    private static boolean isLeapYear(int year) {
+        return ((year % 4 == 0) && (year % 100 != 0)) || (year % 400 == 0);
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 in the proleptic Gregorian calendar.
+     *
+     * @param year year
+     * @param month month (1-12)
+     * @param day day of month
+     * @return days since epoch
+     */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * Remembers the pattern results for the last evaluated tree of the current thread.
+ * <p>
+ * Oak checks all entries of the effective access control lists with the same tree instance. Entries with the same
+ * restriction (e.g. a deny entry for editors and an allow entry for a privileged group) are then evaluated once.
+ * Only read-only trees are memoized as they cannot change. The memo is reset as soon as another tree is evaluated.
+ * <p>
+ * Oak also repeats the checks for each property that is read on the tree. The memo grows up to MAX_CAPACITY patterns
+ * so that the results of all entries are kept for the property level checks. As the entries are always checked in the
+ * same order, the search starts behind the last found pattern.
+ * <p>
+ * The thread only keeps a weak reference to its memo. The last tree and patterns of a thread therefore do not prevent
+ * that trees, pattern contexts or the bundle class loader are garbage collected. If the memo is collected then a new
+ * one is created for the next tree.
+ *
+ * @author Roland Gruber
+ */
+final class EvaluationMemo {
+
+    /**
+     * No result stored.
+     */
+    static final int UNKNOWN = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Maximum number of stored results per tree.
+     */
+    static final int MAX_CAPACITY = 256;
+
+    private static final ThreadLocal<WeakReference<EvaluationMemo>> MEMO = new ThreadLocal<>();
+
+    private Tree tree;
+    private BasePattern[] patterns = new BasePattern[INITIAL_CAPACITY];
+    private boolean[] results = new boolean[INITIAL_CAPACITY];
+    private int size;
+    private int next;
+    private int hint;
+
+    private EvaluationMemo() {
+    }
+
+    /**
+     * Returns the memo of the current thread for the given tree.
+     *
+     * @param tree evaluated tree
+     * @return memo or null if the tree cannot be memoized
+     */
+    static EvaluationMemo get(Tree tree) {
+        if (!(tree instanceof ReadOnly)) {
+            return null;
+        }
+        WeakReference<EvaluationMemo> reference = MEMO.get();
+        EvaluationMemo memo = (reference != null) ? reference.get() : null;
+        if (memo == null) {
+            memo = new EvaluationMemo();
+            MEMO.set(new WeakReference<>(memo));
+        }
+        if (memo.tree != tree) {
+            memo.reset(tree);
+        }
+        return memo;
+    }
+
+    /**
+     * Returns the stored result of an equal pattern.
+     *
+     * @param pattern pattern
+     * @return 1 if matching, 0 if not matching, UNKNOWN if not stored
+     */
+    int getResult(BasePattern pattern) {
+        int index = hint;
+        for (int i = 0; i < size; i++) {
+            if (index >= size) {
+                index = 0;
+            }
+            BasePattern stored = patterns[index];
+            if ((stored == pattern) || stored.equals(pattern)) {
+                hint = index + 1;
+                return results[index] ? 1 : 0;
+            }
+            index++;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Stores the result of a pattern. The memo grows until MAX_CAPACITY is reached, then the oldest result is replaced.
+     *
+     * @param pattern pattern
+     * @param matches result
+     */
+    void putResult(BasePattern pattern, boolean matches) {
+        if ((next == patterns.length) && (patterns.length < MAX_CAPACITY)) {
+            int capacity = Math.min(patterns.length * 2, MAX_CAPACITY);
+            patterns = Arrays.copyOf(patterns, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+        else if (next == patterns.length) {
+            next = 0;
+        }
+        patterns[next] = pattern;
+        results[next] = matches;
+        next++;
+        hint = next;
+        if (size < patterns.length) {
+            size++;
+        }
+    }
+
+    private void reset(Tree newTree) {
+        tree = newTree;
+        Arrays.fill(patterns, 0, size, null);
+        size = 0;
+        next = 0;
+        hint = 0;
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+/**
+ * Filters that know for which pages, assets and folders a property or node inside jcr:content is missing for sure
+ * (e.g. Bloom filters). Patterns for aarPropertyExists and aarNodeExists then return without reading the content.
+ * <p>
+ * A filter must never answer MISSING for an item that exists. False positives (MAYBE for missing items) are allowed
+ * and only cost the normal evaluation.
+ *
+ * @author Roland Gruber
+ */
+public interface ExistenceFilters {
+
+    /**
+     * The item is missing for sure.
+     */
+    int MISSING = 0;
+
+    /**
+     * The item may exist.
+     */
+    int MAYBE = 1;
+
+    /**
+     * There is no filter for the item (yet) or the base node is not covered.
+     */
+    int UNKNOWN = -1;
+
+    /**
+     * Checks if the item is missing below jcr:content of the base node.
+     *
+     * @param property true for properties, false for nodes
+     * @param relativePath path relative to jcr:content (e.g. metadata/confidential)
+     * @param basePath path of the page, asset or folder
+     * @return MISSING, MAYBE or UNKNOWN
+     */
+    int check(boolean property, String relativePath, String basePath);
+
+    /**
+     * Records that a MAYBE answer was wrong, the item is missing.
+     *
+     * @param property true for properties, false for nodes
+     * @param relativePath path relative to jcr:content
+     */
+    void falsePositive(boolean property, String relativePath);
+
+}
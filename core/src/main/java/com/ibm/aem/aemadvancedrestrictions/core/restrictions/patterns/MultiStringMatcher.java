@@ -0,0 +1,256 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Checks if a string starts with, ends with or contains any of a list of values.
+ * <p>
+ * The values are compiled into a trie. Prefixes are matched by walking the trie from the first character,
+ * suffixes by walking a trie of the reversed values from the last character. For substrings the trie is completed
+ * to an Aho-Corasick automaton, i.e. missing transitions follow the failure links. The transitions are stored in
+ * a dense table over the characters that occur in the values, so each character of a string costs one table lookup.
+ * Each string is scanned once and the scan stops at the first match, independent of the number of values.
+ * Matching does not allocate any objects.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author Roland Gruber
+ */
+final class MultiStringMatcher {
+
+    /**
+     * Type of match.
+     */
+    enum Mode {
+        PREFIX,
+        SUFFIX,
+        SUBSTRING
+    }
+
+    /**
+     * Maximum number of table entries (states x characters).
+     */
+    static final int MAX_TABLE_SIZE = 1 << 22;
+
+    private static final int ROOT = 0;
+    private static final int NO_MATCH = -1;
+    private static final int MATCH = -2;
+    private static final int DIRECT_CHARS = 128;
+
+    private final Mode mode;
+    private final int stateCount;
+
+    /**
+     * Characters of the values, sorted. Character class i + 1 is characters[i], class 0 is any other character.
+     */
+    private final char[] characters;
+
+    /**
+     * Character classes of ASCII characters.
+     */
+    private final int[] directClasses;
+
+    private final int classCount;
+
+    /**
+     * Transitions by state offset (state x classCount) + character class. Values are the offset of the next state,
+     * MATCH if the next state completes a value or NO_MATCH if no value can match anymore.
+     */
+    private final int[] table;
+
+    /**
+     * Any string matches (the values include the empty string).
+     */
+    private final boolean matchesAll;
+
+    /**
+     * Constructor
+     *
+     * @param values values
+     * @param mode   type of match
+     * @throws IllegalStateException values are too large
+     */
+    MultiStringMatcher(Collection<String> values, Mode mode) {
+        this.mode = mode;
+        TreeSet<Character> characterSet = new TreeSet<>();
+        for (String value : values) {
+            for (int i = 0; i < value.length(); i++) {
+                characterSet.add(value.charAt(i));
+            }
+        }
+        characters = new char[characterSet.size()];
+        int index = 0;
+        for (Character c : characterSet) {
+            characters[index++] = c;
+        }
+        classCount = characters.length + 1;
+        directClasses = new int[DIRECT_CHARS];
+        for (int c = 0; c < DIRECT_CHARS; c++) {
+            directClasses[c] = characterClass((char) c);
+        }
+
+        // trie
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        trie.add(new HashMap<>());
+        List<Boolean> terminal = new ArrayList<>();
+        terminal.add(Boolean.FALSE);
+        for (String value : values) {
+            int state = ROOT;
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                int characterClass = characterClass(value.charAt((mode == Mode.SUFFIX) ? (length - 1 - i) : i));
+                Integer next = trie.get(state).get(characterClass);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(characterClass, next);
+                    trie.add(new HashMap<>());
+                    terminal.add(Boolean.FALSE);
+                }
+                state = next;
+            }
+            terminal.set(state, Boolean.TRUE);
+        }
+        stateCount = trie.size();
+        if ((long) stateCount * classCount > MAX_TABLE_SIZE) {
+            throw new IllegalStateException("Too many values: " + stateCount + " states with " + classCount + " characters");
+        }
+        matchesAll = terminal.get(ROOT);
+        table = new int[stateCount * classCount];
+        if (mode == Mode.SUBSTRING) {
+            fillSubstringTable(trie, terminal);
+        }
+        else {
+            fillTrieTable(trie, terminal);
+        }
+    }
+
+    /**
+     * Fills the table with the transitions of the trie. All other transitions do not match.
+     *
+     * @param trie     transitions by character class
+     * @param terminal states that complete a value
+     */
+    private void fillTrieTable(List<Map<Integer, Integer>> trie, List<Boolean> terminal) {
+        Arrays.fill(table, NO_MATCH);
+        for (int state = 0; state < stateCount; state++) {
+            for (Map.Entry<Integer, Integer> transition : trie.get(state).entrySet()) {
+                int target = transition.getValue();
+                table[state * classCount + transition.getKey()] = terminal.get(target) ? MATCH : target * classCount;
+            }
+        }
+    }
+
+    /**
+     * Fills the table with the transitions of the Aho-Corasick automaton. The states are processed in breadth-first
+     * order. The failure link of a state points to the state of its longest proper suffix that is also in the trie,
+     * so missing transitions are copied from the failure state. A state also completes a value if its failure state
+     * does.
+     *
+     * @param trie     transitions by character class
+     * @param terminal states that complete a value
+     */
+    private void fillSubstringTable(List<Map<Integer, Integer>> trie, List<Boolean> terminal) {
+        int[] failure = new int[stateCount];
+        boolean[] matches = new boolean[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            Map<Integer, Integer> transitions = trie.get(state);
+            for (int characterClass = 0; characterClass < classCount; characterClass++) {
+                Integer target = transitions.get(characterClass);
+                int fallback = (state == ROOT) ? ROOT : table[failure[state] * classCount + characterClass];
+                if (target == null) {
+                    table[state * classCount + characterClass] = fallback;
+                }
+                else {
+                    failure[target] = (state == ROOT) ? ROOT : fallback / classCount;
+                    matches[target] = terminal.get(target) || matches[failure[target]];
+                    table[state * classCount + characterClass] = target * classCount;
+                    queue.add(target);
+                }
+            }
+        }
+        // a state that completes a value ends the scan
+        for (int i = 0; i < table.length; i++) {
+            if (matches[table[i] / classCount]) {
+                table[i] = MATCH;
+            }
+        }
+    }
+
+    /**
+     * Returns if the value starts with, ends with or contains (depending on mode) any of the values.
+     *
+     * @param value value to check
+     * @return matches
+     */
+    boolean matches(String value) {
+        if (matchesAll) {
+            return true;
+        }
+        int state = ROOT;
+        int length = value.length();
+        if (mode == Mode.SUFFIX) {
+            for (int i = length - 1; i >= 0; i--) {
+                state = table[state + characterClassOf(value.charAt(i))];
+                if (state < 0) {
+                    return state == MATCH;
+                }
+            }
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            state = table[state + characterClassOf(value.charAt(i))];
+            if (state < 0) {
+                return state == MATCH;
+            }
+        }
+        return false;
+    }
+
+    private int characterClassOf(char c) {
+        return (c < DIRECT_CHARS) ? directClasses[c] : characterClass(c);
+    }
+
+    private int characterClass(char c) {
+        int index = Arrays.binarySearch(characters, c);
+        return (index < 0) ? 0 : (index + 1);
+    }
+
+    /**
+     * Returns the number of states (for tests).
+     *
+     * @return state count
+     */
+    int getStateCount() {
+        return stateCount;
+    }
+
+}
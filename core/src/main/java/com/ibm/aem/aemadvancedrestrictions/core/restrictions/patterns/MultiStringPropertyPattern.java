@@ -0,0 +1,78 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+
+import java.util.List;
+
+/**
+ * Base class for patterns that check property values against a list of values (PROPERTY_NAME$VALUE1|VALUE2|...).
+ * The values are compiled once into a MultiStringMatcher, so each property value is scanned only once.
+ *
+ * @author Roland Gruber
+ */
+abstract class MultiStringPropertyPattern extends BasePattern {
+
+    protected String propertyName;
+    protected List<String> checkValues;
+    private final MultiStringMatcher matcher;
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$VALUE1|VALUE2|...)
+     * @param context pattern context
+     * @param mode match mode
+     */
+    MultiStringPropertyPattern(String restrictionValue, PatternContext context, MultiStringMatcher.Mode mode) {
+        super(restrictionValue, context, getValueBeforeDelimiter(restrictionValue));
+        if (!restrictionValue.contains(DELIMITER)) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+        this.propertyName = restrictionValue.substring(0, restrictionValue.indexOf(DELIMITER));
+        this.checkValues = splitValues(restrictionValue.substring(restrictionValue.indexOf(DELIMITER) + 1));
+        this.matcher = new MultiStringMatcher(checkValues, mode);
+    }
+
+    @Override
+    protected boolean singleValuePropertyMatches(PropertyState valueState) {
+        String value = valueState.getValue(Type.STRING);
+        return (value != null) && matcher.matches(value);
+    }
+
+    @Override
+    protected boolean multiValuePropertyMatches(PropertyState valueState) {
+        int count = valueState.count();
+        for (int i = 0; i < count; i++) {
+            String value = valueState.getValue(Type.STRING, i);
+            if ((value != null) && matcher.matches(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected String getPropertyName() {
+        return propertyName;
+    }
+
+}
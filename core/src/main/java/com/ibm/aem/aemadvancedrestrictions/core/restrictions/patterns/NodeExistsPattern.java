@@ -19,13 +19,8 @@
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
 
 import org.apache.jackrabbit.JcrConstants;
-import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * Restriction pattern to check if a node exists.
  *
@@ -43,15 +38,22 @@ public class NodeExistsPattern extends BasePattern {
      * @param restrictionValue restriction value (NODE_NAME)
      */
     public NodeExistsPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (NODE_NAME)
+     * @param context pattern context
+     */
+    public NodeExistsPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, restrictionValue);
         this.nodeName = restrictionValue;
     }
 
     @Override
-    public boolean matches(Tree tree, PropertyState propertyState) {
-        Tree baseNode = findBaseNode(tree);
-        if (baseNode == null) {
-            return false;
-        }
+    protected boolean evaluateBaseNode(Tree baseNode) {
         if (!baseNode.hasChild(JcrConstants.JCR_CONTENT)) {
             return false;
         }
@@ -59,16 +61,33 @@ public class NodeExistsPattern extends BasePattern {
         return subnodeExists(node);
     }
 
+    @Override
+    boolean matchesBaseNode(BaseNodeContext nodes) {
+        return (nodes.getContentNode() != null) && subnodeExists(nodes);
+    }
+
+    @Override
+    String getFilteredPath() {
+        return nodeName;
+    }
+
+    @Override
+    boolean isFilteredProperty() {
+        return false;
+    }
+
     protected boolean subnodeExists(Tree node) {
-        List<String> parts = new ArrayList<>(Arrays.asList(nodeName.split("/")));
-        while (!parts.isEmpty()) {
-            String child = parts.remove(0);
-            if (!node.hasChild(child)) {
-                return false;
-            }
-            node = node.getChild(child);
-        }
-        return true;
+        return compilePath(nodeName).nodeExists(node);
+    }
+
+    /**
+     * Checks if the subnode exists using the nodes that are shared with other patterns.
+     *
+     * @param nodes shared nodes
+     * @return subnode exists
+     */
+    boolean subnodeExists(BaseNodeContext nodes) {
+        return nodes.nodeExists(compilePath(nodeName));
     }
 
 }
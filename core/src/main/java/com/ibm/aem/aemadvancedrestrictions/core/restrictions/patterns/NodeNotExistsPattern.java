@@ -38,8 +38,30 @@ public class NodeNotExistsPattern extends NodeExistsPattern {
         super(restrictionValue);
     }
 
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (NODE_NAME)
+     * @param context pattern context
+     */
+    public NodeNotExistsPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context);
+    }
+
     @Override
     protected boolean subnodeExists(Tree node) {
         return !super.subnodeExists(node);
     }
+
+    @Override
+    boolean subnodeExists(BaseNodeContext nodes) {
+        return !super.subnodeExists(nodes);
+    }
+
+    @Override
+    String getFilteredPath() {
+        // matches also if the node is missing
+        return null;
+    }
+
 }
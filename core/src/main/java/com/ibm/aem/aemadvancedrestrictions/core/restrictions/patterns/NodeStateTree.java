@@ -0,0 +1,191 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.state.ChildNodeEntry;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStateUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal read-only tree on top of a node state. This is used to evaluate patterns in commit hooks where no session
+ * trees are available. Hidden items are not visible as with Oak's trees.
+ * <p>
+ * The top node is the root node, so it should be created for the repository root if patterns check the parent nodes.
+ *
+ * @author Roland Gruber
+ */
+public final class NodeStateTree implements Tree {
+
+    private final String name;
+    private final NodeState state;
+    private final NodeStateTree parent;
+
+    /**
+     * Constructor for the top node.
+     *
+     * @param state node state
+     */
+    public NodeStateTree(NodeState state) {
+        this("", state, null);
+    }
+
+    private NodeStateTree(String name, NodeState state, NodeStateTree parent) {
+        this.name = name;
+        this.state = state;
+        this.parent = parent;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    @Override
+    public String getPath() {
+        return (parent == null) ? PathUtils.ROOT_PATH : PathUtils.concat(parent.getPath(), name);
+    }
+
+    @Override
+    public Status getStatus() {
+        return Status.UNCHANGED;
+    }
+
+    @Override
+    public boolean exists() {
+        return state.exists();
+    }
+
+    @Override
+    public Tree getParent() {
+        if (parent == null) {
+            throw new IllegalStateException("The top node has no parent");
+        }
+        return parent;
+    }
+
+    @Override
+    public PropertyState getProperty(String propertyName) {
+        return NodeStateUtils.isHidden(propertyName) ? null : state.getProperty(propertyName);
+    }
+
+    @Override
+    public Status getPropertyStatus(String propertyName) {
+        return hasProperty(propertyName) ? Status.UNCHANGED : null;
+    }
+
+    @Override
+    public boolean hasProperty(String propertyName) {
+        return !NodeStateUtils.isHidden(propertyName) && state.hasProperty(propertyName);
+    }
+
+    @Override
+    public long getPropertyCount() {
+        return state.getPropertyCount();
+    }
+
+    @Override
+    public Iterable<? extends PropertyState> getProperties() {
+        List<PropertyState> properties = new ArrayList<>();
+        for (PropertyState property : state.getProperties()) {
+            if (!NodeStateUtils.isHidden(property.getName())) {
+                properties.add(property);
+            }
+        }
+        return properties;
+    }
+
+    @Override
+    public Tree getChild(String childName) {
+        return new NodeStateTree(childName, state.getChildNode(childName), this);
+    }
+
+    @Override
+    public boolean hasChild(String childName) {
+        return !NodeStateUtils.isHidden(childName) && state.hasChildNode(childName);
+    }
+
+    @Override
+    public long getChildrenCount(long max) {
+        return state.getChildNodeCount(max);
+    }
+
+    @Override
+    public Iterable<Tree> getChildren() {
+        List<Tree> children = new ArrayList<>();
+        for (ChildNodeEntry entry : state.getChildNodeEntries()) {
+            if (!NodeStateUtils.isHidden(entry.getName())) {
+                children.add(new NodeStateTree(entry.getName(), entry.getNodeState(), this));
+            }
+        }
+        return children;
+    }
+
+    @Override
+    public boolean remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Tree addChild(String childName) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOrderableChildren(boolean enable) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean orderBefore(String childName) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setProperty(PropertyState property) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> void setProperty(String propertyName, T value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> void setProperty(String propertyName, T value, Type<T> type) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeProperty(String propertyName) {
+        throw new UnsupportedOperationException();
+    }
+
+}
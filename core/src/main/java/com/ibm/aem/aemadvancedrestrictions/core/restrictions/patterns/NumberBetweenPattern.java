@@ -0,0 +1,93 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+
+/**
+ * Restriction pattern to check if a numeric value is in a range (including the limits).
+ * The property is read once for both limits and the values are compared as primitive longs.
+ *
+ * @author Roland Gruber
+ */
+public class NumberBetweenPattern extends BasePattern {
+
+    public static final String ID = "aarNumberBetween";
+
+    protected String propertyName;
+    protected long minValue;
+    protected long maxValue;
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$MIN$MAX)
+     */
+    public NumberBetweenPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$MIN$MAX)
+     * @param context pattern context
+     */
+    public NumberBetweenPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, getValueBeforeDelimiter(restrictionValue));
+        int nameEnd = restrictionValue.indexOf(DELIMITER);
+        int minEnd = (nameEnd < 0) ? -1 : restrictionValue.indexOf(DELIMITER, nameEnd + 1);
+        if (minEnd < 0) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+        this.propertyName = restrictionValue.substring(0, nameEnd);
+        this.minValue = Long.parseLong(restrictionValue.substring(nameEnd + 1, minEnd));
+        this.maxValue = Long.parseLong(restrictionValue.substring(minEnd + 1));
+        if (minValue > maxValue) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+    }
+
+    @Override
+    protected boolean singleValuePropertyMatches(PropertyState valueState) {
+        return isInRange(valueState.getValue(Type.LONG));
+    }
+
+    @Override
+    protected boolean multiValuePropertyMatches(PropertyState valueState) {
+        int count = valueState.count();
+        for (int i = 0; i < count; i++) {
+            if (isInRange(valueState.getValue(Type.LONG, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isInRange(long value) {
+        return (value >= minValue) && (value <= maxValue);
+    }
+
+    @Override
+    protected String getPropertyName() {
+        return propertyName;
+    }
+
+}
@@ -36,6 +36,16 @@ public class NumberGreaterHierarchicalPattern extends NumberGreaterPattern {
         super(restrictionValue);
     }
 
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
+     * @param context pattern context
+     */
+    public NumberGreaterHierarchicalPattern(final String restrictionValue, final PatternContext context) {
+        super(restrictionValue, context);
+    }
+
     @Override
     protected boolean checkHierarchy() {
         return true;
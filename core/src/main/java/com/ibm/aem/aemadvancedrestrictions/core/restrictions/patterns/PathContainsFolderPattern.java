@@ -24,6 +24,10 @@ import org.apache.jackrabbit.oak.api.Tree;
 import org.apache.jackrabbit.oak.api.Type;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 /**
  * Restriction pattern to check if the path contains a specific folder name.
  *
@@ -33,35 +37,89 @@ public class PathContainsFolderPattern extends BasePattern {
 
     public static final String ID = "aarPathContainsFolder";
 
-    private String folderName;
+    /**
+     * Delimiter for multiple folder names. This character is not allowed in node names.
+     */
+    public static final String NAME_DELIMITER = "|";
+
+    private Set<String> folderNames;
+
+    private String[] folderNameList;
 
     /**
      * Constructor
      *
-     * @param restrictionValue restriction value (NODE_NAME)
+     * @param restrictionValue restriction value (NODE_NAME or NODE_NAME|NODE_NAME|...)
      */
     public PathContainsFolderPattern(String restrictionValue) {
-        this.folderName = restrictionValue;
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (NODE_NAME or NODE_NAME|NODE_NAME|...)
+     * @param context pattern context
+     */
+    public PathContainsFolderPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context);
+        Set<String> names = new HashSet<>();
+        for (String name : restrictionValue.split(Pattern.quote(NAME_DELIMITER))) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        this.folderNames = names;
+        this.folderNameList = names.toArray(new String[0]);
     }
 
     @Override
-    public boolean matches(Tree tree, PropertyState propertyState) {
-        if (!tree.getPath().contains(folderName)) {
+    protected boolean evaluate(Tree tree) {
+        // the path is usually cached by the tree, so this is a cheap check for the common case of no match
+        if (!containsAnyName(tree.getPath())) {
             return false;
         }
         Tree currentNode = tree;
         while (!currentNode.isRoot()) {
-            if (currentNode.getName().equals(folderName) && isFolder(currentNode)) {
+            if (folderNames.contains(currentNode.getName()) && isFolder(currentNode)) {
                 return true;
             }
             currentNode = currentNode.getParent();
-            if (!currentNode.getPath().contains(folderName)) {
-                return false;
+        }
+        return false;
+    }
+
+    @Override
+    boolean matches(BaseNodeContext nodes) {
+        return evaluate(nodes.getTree());
+    }
+
+    /**
+     * Returns if the path contains any of the folder names.
+     *
+     * @param path path
+     * @return contains name
+     */
+    private boolean containsAnyName(String path) {
+        for (String name : folderNameList) {
+            if (path.contains(name)) {
+                return true;
             }
         }
         return false;
     }
 
+    @Override
+    boolean isSummarySupported() {
+        // only checks the path
+        return false;
+    }
+
+    @Override
+    public int getCost() {
+        return COST_PATH;
+    }
+
     /**
      * Returns if the tree is a folder.
      *
@@ -70,8 +128,9 @@ public class PathContainsFolderPattern extends BasePattern {
      */
     protected boolean isFolder(Tree tree) {
         boolean isFolder = false;
-        if (tree != null && tree.getProperty(JcrConstants.JCR_PRIMARYTYPE) != null) {
-            String primaryType = tree.getProperty(JcrConstants.JCR_PRIMARYTYPE).getValue(Type.STRING);
+        PropertyState primaryTypeProperty = (tree != null) ? tree.getProperty(JcrConstants.JCR_PRIMARYTYPE) : null;
+        if (primaryTypeProperty != null) {
+            String primaryType = primaryTypeProperty.getValue(Type.STRING);
             isFolder = JcrConstants.NT_FOLDER.equals(primaryType)
                 || JcrResourceConstants.NT_SLING_FOLDER.equals(primaryType)
                 || JcrResourceConstants.NT_SLING_ORDERED_FOLDER.equals(primaryType);
@@ -0,0 +1,818 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache.LruCache;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.clock.RestrictionClock;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime settings that are shared by the restriction patterns of a restriction provider.
+ * <p>
+ * This contains the clock for date restrictions, the paths where hierarchical restrictions stop to check
+ * the parent nodes, the cache for the results of hierarchical restrictions on ancestor nodes, the cache for the
+ * results of all restrictions, the cache for the resolved base nodes and the switch for the evaluation memo.
+ * <p>
+ * The results do not depend on the user, so the result cache is shared by all sessions. Results of date restrictions
+ * change over time and are not cached. The context remembers the properties that are read by patterns with cached
+ * results, so that content changes only invalidate the results of the affected base nodes.
+ * <p>
+ * A session that was not refreshed may still read old content after an invalidation and then store its result. The
+ * result cache and the hierarchy cache are therefore only enabled with a maximum age that limits how long such results
+ * are used.
+ * <p>
+ * Patterns keep their context, so sessions may still use a context after it was replaced (e.g. after a configuration
+ * change). Replaced contexts must be closed as their caches are no longer invalidated.
+ * <p>
+ * If restriction summaries are enabled, the context also remembers the patterns that were not found in a summary, so
+ * that the commit hook adds them when the base node is written the next time. Summaries are only read and written
+ * after their version was set (see setSummaryVersion()).
+ * <p>
+ * Existence filters (e.g. Bloom filters) answer aarPropertyExists and aarNodeExists restrictions without reading
+ * the content of pages, assets and folders where the property or node is missing for sure.
+ * <p>
+ * The tag hierarchy (e.g. a tag trie) resolves tags of aarTagged restrictions including moved and merged tags.
+ *
+ * @author Roland Gruber
+ */
+public final class PatternContext {
+
+    /**
+     * Context with system time, no hierarchy boundaries and no hierarchy cache.
+     */
+    public static final PatternContext DEFAULT = builder().build();
+
+    /**
+     * Cached value for nodes without base node.
+     */
+    static final int NO_BASE_NODE = -1;
+
+    private static final String HIERARCHY_CACHE_NAME = "AEM Advanced Restrictions - Hierarchical restriction results";
+    private static final String BASE_NODE_CACHE_NAME = "AEM Advanced Restrictions - Base nodes";
+    private static final String RESULT_CACHE_NAME = "AEM Advanced Restrictions - Restriction results";
+
+    private final RestrictionClock clock;
+    private final boolean evaluationMemo;
+    private final String[][] hierarchyBoundaries;
+    private final LruCache<HierarchyKey, CachedResult> hierarchyCache;
+    private final AtomicLong generation = new AtomicLong();
+    private final LruCache<String, Integer> baseNodeCache;
+    private final LruCache<ResultKey, CachedResult> resultCache;
+    private final long cacheMaxAge;
+    private final Set<String> watchedPropertyNames = ConcurrentHashMap.newKeySet();
+    private final Set<String> watchedPropertyPaths = ConcurrentHashMap.newKeySet();
+    private volatile boolean allPropertiesWatched;
+    private final String summaryEpoch;
+    private volatile String summaryVersion;
+    private final Map<String, BasePattern> summaryPatterns = new ConcurrentHashMap<>();
+    private final ExistenceFilters existenceFilters;
+    private final TagHierarchy tagHierarchy;
+    private volatile boolean closed;
+
+    private PatternContext(Builder builder) {
+        this.clock = builder.clock;
+        this.evaluationMemo = builder.evaluationMemo;
+        this.hierarchyBoundaries = builder.hierarchyBoundaries.toArray(new String[0][]);
+        boolean maxAgeSet = builder.cacheMaxAge > 0;
+        this.hierarchyCache = new LruCache<>(HIERARCHY_CACHE_NAME, maxAgeSet ? builder.hierarchyCacheSize : 0);
+        this.baseNodeCache = new LruCache<>(BASE_NODE_CACHE_NAME, builder.baseNodeCacheSize);
+        this.resultCache = new LruCache<>(RESULT_CACHE_NAME, maxAgeSet ? builder.resultCacheSize : 0);
+        this.cacheMaxAge = builder.cacheMaxAge;
+        this.summaryEpoch = (builder.summaryEpoch > 0) ? String.valueOf(builder.summaryEpoch) : null;
+        this.existenceFilters = builder.existenceFilters;
+        this.tagHierarchy = builder.tagHierarchy;
+    }
+
+    /**
+     * Returns a new builder.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the clock for date restrictions.
+     *
+     * @return clock
+     */
+    public RestrictionClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns if results are reused for equal patterns that are evaluated on the same tree instance.
+     *
+     * @return memo enabled
+     */
+    public boolean isEvaluationMemoEnabled() {
+        return evaluationMemo;
+    }
+
+    /**
+     * Returns the cache for the results of hierarchical restrictions.
+     *
+     * @return cache
+     */
+    public LruCache<?, ?> getHierarchyCache() {
+        return hierarchyCache;
+    }
+
+    /**
+     * Returns the cache for the results of all restrictions.
+     *
+     * @return cache
+     */
+    public LruCache<?, ?> getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Returns the cache for the resolved base nodes.
+     *
+     * @return cache
+     */
+    public LruCache<?, ?> getBaseNodeCache() {
+        return baseNodeCache;
+    }
+
+    /**
+     * Invalidates the cached base nodes of the given nodes and their descendants. Must be called when nodes were
+     * added, removed (incl. moves) or their primary type was changed.
+     *
+     * @param paths absolute paths of the changed nodes
+     */
+    public void nodesChanged(Collection<String> paths) {
+        if (paths.isEmpty() || !isBaseNodeCacheEnabled() || (baseNodeCache.size() == 0)) {
+            return;
+        }
+        if (paths.contains("/")) {
+            baseNodeCache.invalidateAll();
+            return;
+        }
+        Set<String> changedPaths = toSet(paths);
+        baseNodeCache.invalidateIf(path -> isSelfOrDescendant(path, changedPaths));
+    }
+
+    private static Set<String> toSet(Collection<String> paths) {
+        return (paths instanceof Set) ? (Set<String>) paths : new HashSet<>(paths);
+    }
+
+    private static boolean isSelfOrDescendant(String path, Set<String> ancestors) {
+        String current = path;
+        int index = current.length();
+        while (index > 0) {
+            if (ancestors.contains(current)) {
+                return true;
+            }
+            index = current.lastIndexOf('/');
+            current = current.substring(0, index);
+        }
+        return false;
+    }
+
+    /**
+     * Invalidates all cached results of restrictions and hierarchical restrictions. Results that are calculated while
+     * the invalidation happens are not stored.
+     */
+    public void contentChanged() {
+        generation.incrementAndGet();
+        resultCache.invalidateAll();
+        hierarchyCache.invalidateAll();
+    }
+
+    /**
+     * Invalidates the cached results of restrictions and hierarchical restrictions for the given base nodes and their
+     * descendants. Must be called when watched properties (see isWatchedProperty()) or nodes inside jcr:content of
+     * these base nodes were changed and when nodes were added, removed or got another primary type. Results that are
+     * calculated while the invalidation happens are not stored, also if no base node was changed.
+     *
+     * @param paths absolute paths of the changed base nodes
+     */
+    public void contentChanged(Collection<String> paths) {
+        generation.incrementAndGet();
+        if (paths.isEmpty() || ((resultCache.size() == 0) && (hierarchyCache.size() == 0))) {
+            return;
+        }
+        if (paths.contains("/")) {
+            resultCache.invalidateAll();
+            hierarchyCache.invalidateAll();
+            return;
+        }
+        Set<String> changedPaths = toSet(paths);
+        resultCache.invalidateIf(key -> isSelfOrDescendant(key.path, changedPaths));
+        hierarchyCache.invalidateIf(key -> isSelfOrDescendant(key.path, changedPaths));
+    }
+
+    /**
+     * Invalidates all cached results and base nodes and stops to use the caches. Must be called when the context is
+     * replaced, as content changes are then no longer reported to it.
+     */
+    public void close() {
+        closed = true;
+        generation.incrementAndGet();
+        resultCache.invalidateAll();
+        hierarchyCache.invalidateAll();
+        baseNodeCache.invalidateAll();
+    }
+
+    /**
+     * Returns if the context was closed.
+     *
+     * @return closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns if a pattern with cached results reads the given property.
+     *
+     * @param parentPath path of the parent node relative to jcr:content of the base node, empty for jcr:content itself
+     * @param name property name
+     * @return property is read by a pattern
+     */
+    public boolean isWatchedProperty(String parentPath, String name) {
+        if (allPropertiesWatched) {
+            return true;
+        }
+        if (!watchedPropertyNames.contains(name)) {
+            return false;
+        }
+        return watchedPropertyPaths.contains(parentPath.isEmpty() ? name : (parentPath + "/" + name));
+    }
+
+    /**
+     * Registers the property that is read by the pattern for the invalidation and returns the current generation.
+     * Must be called before a result is calculated that is stored afterwards. Patterns without property only depend on
+     * the node structure. The properties of patterns from other packages are unknown, so all properties are watched
+     * then.
+     *
+     * @param pattern pattern
+     * @return generation when the evaluation started
+     */
+    long startEvaluation(BasePattern pattern) {
+        if (!pattern.isSharedEvaluationSupported()) {
+            allPropertiesWatched = true;
+        }
+        else {
+            String propertyPath = pattern.getPropertyName();
+            if ((propertyPath != null) && !watchedPropertyPaths.contains(propertyPath)) {
+                int index = propertyPath.lastIndexOf('/');
+                watchedPropertyNames.add((index < 0) ? propertyPath : propertyPath.substring(index + 1));
+                watchedPropertyPaths.add(propertyPath);
+            }
+        }
+        return generation.get();
+    }
+
+    /**
+     * Returns if the parents of the given node are not checked anymore by hierarchical restrictions.
+     * The node itself is still checked.
+     *
+     * @param tree node
+     * @return is boundary
+     */
+    boolean isHierarchyBoundary(Tree tree) {
+        for (String[] boundary : hierarchyBoundaries) {
+            if (isPath(tree, boundary)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPath(Tree tree, String[] names) {
+        if (names.length == 0) {
+            return tree.isRoot();
+        }
+        if (tree.isRoot() || !names[names.length - 1].equals(tree.getName())) {
+            return false;
+        }
+        Tree current = tree;
+        for (int i = names.length - 2; i >= 0; i--) {
+            current = current.getParent();
+            if (current.isRoot() || !names[i].equals(current.getName())) {
+                return false;
+            }
+        }
+        return current.getParent().isRoot();
+    }
+
+    /**
+     * Returns if the hierarchy cache is active.
+     *
+     * @return cache active
+     */
+    boolean isHierarchyCacheEnabled() {
+        return !closed && (hierarchyCache.getMaxSize() > 0);
+    }
+
+    /**
+     * Returns if the result cache is active.
+     *
+     * @return cache active
+     */
+    boolean isResultCacheEnabled() {
+        return !closed && (resultCache.getMaxSize() > 0);
+    }
+
+    /**
+     * Returns the cached result of a pattern for the given base node.
+     *
+     * @param pattern pattern
+     * @param path base node path
+     * @return result or null if not cached, outdated or the context is closed
+     */
+    Boolean getResult(BasePattern pattern, String path) {
+        if (closed) {
+            return null;
+        }
+        return validResult(resultCache.getIfPresent(new ResultKey(pattern, path)));
+    }
+
+    /**
+     * Stores the result of a pattern for the given base node.
+     *
+     * @param pattern pattern
+     * @param path base node path
+     * @param matches result
+     * @param resultGeneration generation when the evaluation started (see startEvaluation())
+     */
+    void putResult(BasePattern pattern, String path, boolean matches, long resultGeneration) {
+        if (!closed && (resultGeneration == generation.get())) {
+            resultCache.put(new ResultKey(pattern, path), createResult(matches));
+        }
+    }
+
+    /**
+     * Returns if the base node cache is active.
+     *
+     * @return cache active
+     */
+    boolean isBaseNodeCacheEnabled() {
+        return !closed && (baseNodeCache.getMaxSize() > 0);
+    }
+
+    /**
+     * Returns the cached distance between a node and its base node.
+     *
+     * @param path node path
+     * @return number of levels to the base node, NO_BASE_NODE or null if not cached or the context is closed
+     */
+    Integer getBaseNodeLevels(String path) {
+        return closed ? null : baseNodeCache.getIfPresent(path);
+    }
+
+    /**
+     * Stores the distance between a node and its base node.
+     *
+     * @param path node path
+     * @param levels number of levels to the base node or NO_BASE_NODE
+     */
+    void putBaseNodeLevels(String path, int levels) {
+        if (!closed) {
+            baseNodeCache.put(path, levels);
+        }
+    }
+
+    /**
+     * Returns if restriction summaries are read and written.
+     *
+     * @return summaries enabled
+     */
+    public boolean isSummaryEnabled() {
+        return summaryEpoch != null;
+    }
+
+    /**
+     * Returns the configured epoch of restriction summaries.
+     *
+     * @return epoch or null if summaries are disabled
+     */
+    public String getSummaryEpoch() {
+        return summaryEpoch;
+    }
+
+    /**
+     * Returns the version of restriction summaries that is read and written.
+     *
+     * @return version or null if summaries are not used
+     */
+    public String getSummaryVersion() {
+        return summaryVersion;
+    }
+
+    /**
+     * Sets the version of restriction summaries that is stored in the repository for the configured epoch. Only
+     * summaries of this version are used.
+     *
+     * @param version version or null if summaries must not be used
+     */
+    public void setSummaryVersion(String version) {
+        this.summaryVersion = (summaryEpoch != null) ? version : null;
+    }
+
+    /**
+     * Creates the restriction summary for the given base node. It contains all patterns that were requested from
+     * summaries since the start.
+     *
+     * @param baseNode page, asset or folder
+     * @return summary property or null if summaries are not used or there is nothing to summarize
+     */
+    public PropertyState createSummary(NodeState baseNode) {
+        String version = summaryVersion;
+        if (version == null) {
+            return null;
+        }
+        return RestrictionSummary.create(summaryPatterns.values(), version, baseNode);
+    }
+
+    /**
+     * Returns the number of patterns that are written to restriction summaries.
+     *
+     * @return pattern count
+     */
+    public int getSummaryPatternCount() {
+        return summaryPatterns.size();
+    }
+
+    /**
+     * Reads the result of the pattern from the summary. Patterns that are not part of the summary are added to the
+     * next summaries.
+     *
+     * @param pattern pattern
+     * @param summary summary property, may be null
+     * @return MATCH, NO_MATCH or UNKNOWN
+     */
+    int readSummary(BasePattern pattern, PropertyState summary) {
+        String key = pattern.getSummaryKey();
+        String version = summaryVersion;
+        int result = (version != null) ? RestrictionSummary.read(summary, version, key) : RestrictionSummary.UNKNOWN;
+        if ((result == RestrictionSummary.UNKNOWN) && !summaryPatterns.containsKey(key)) {
+            summaryPatterns.putIfAbsent(key, pattern);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the filters for aarPropertyExists and aarNodeExists restrictions.
+     *
+     * @return filters or null if disabled
+     */
+    public ExistenceFilters getExistenceFilters() {
+        return existenceFilters;
+    }
+
+    /**
+     * Returns the tag hierarchy for aarTagged restrictions.
+     *
+     * @return tag hierarchy or null if disabled
+     */
+    public TagHierarchy getTagHierarchy() {
+        return tagHierarchy;
+    }
+
+    /**
+     * Returns the current content generation. This is increased on each invalidation.
+     *
+     * @return generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached result of a hierarchical restriction for the given base node.
+     *
+     * @param pattern pattern
+     * @param path base node path
+     * @return result or null if not cached, outdated or the context is closed
+     */
+    Boolean getHierarchyResult(BasePattern pattern, String path) {
+        if (closed) {
+            return null;
+        }
+        return validResult(hierarchyCache.getIfPresent(new HierarchyKey(pattern, path)));
+    }
+
+    /**
+     * Stores the result of a hierarchical restriction for the given base node.
+     *
+     * @param pattern pattern
+     * @param path base node path
+     * @param matches result
+     * @param resultGeneration generation when the evaluation started (see startEvaluation())
+     */
+    void putHierarchyResult(BasePattern pattern, String path, boolean matches, long resultGeneration) {
+        if (!closed && (resultGeneration == generation.get())) {
+            hierarchyCache.put(new HierarchyKey(pattern, path), createResult(matches));
+        }
+    }
+
+    private CachedResult createResult(boolean matches) {
+        return new CachedResult(matches, (cacheMaxAge > 0) ? clock.currentTimeMillis() : 0);
+    }
+
+    /**
+     * Returns the cached value if it is not older than the maximum age.
+     *
+     * @param result cached result, may be null
+     * @return result or null if not cached or expired
+     */
+    private Boolean validResult(CachedResult result) {
+        if (result == null) {
+            return null;
+        }
+        if ((cacheMaxAge > 0) && ((clock.currentTimeMillis() - result.created) > cacheMaxAge)) {
+            return null;
+        }
+        return result.matches;
+    }
+
+    /**
+     * Builder for pattern contexts.
+     */
+    public static final class Builder {
+
+        private RestrictionClock clock = RestrictionClock.SYSTEM;
+        private final List<String[]> hierarchyBoundaries = new ArrayList<>();
+        private int hierarchyCacheSize;
+        private int baseNodeCacheSize;
+        private int resultCacheSize;
+        private long cacheMaxAge;
+        private boolean evaluationMemo = true;
+        private int summaryEpoch;
+        private ExistenceFilters existenceFilters;
+        private TagHierarchy tagHierarchy;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the clock for date restrictions. Default is the system time.
+         *
+         * @param clock clock
+         * @return builder
+         */
+        public Builder clock(RestrictionClock clock) {
+            this.clock = (clock != null) ? clock : RestrictionClock.SYSTEM;
+            return this;
+        }
+
+        /**
+         * Sets the absolute paths where hierarchical restrictions stop (e.g. /content/dam).
+         * Default is to check all parents.
+         *
+         * @param paths paths
+         * @return builder
+         */
+        public Builder hierarchyBoundaries(String... paths) {
+            hierarchyBoundaries.clear();
+            if (paths == null) {
+                return this;
+            }
+            for (String path : paths) {
+                String trimmed = (path != null) ? path.trim() : "";
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!trimmed.startsWith("/")) {
+                    throw new IllegalArgumentException("Hierarchy boundary must be an absolute path: " + path);
+                }
+                if ((trimmed.length() > 1) && trimmed.endsWith("/")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1);
+                }
+                List<String> names = new ArrayList<>();
+                for (String name : PathUtils.elements(trimmed)) {
+                    names.add(name);
+                }
+                hierarchyBoundaries.add(names.toArray(new String[0]));
+            }
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached results of hierarchical restrictions. Default is 0 (disabled).
+         * The cache is only enabled if a maximum age is set (see cacheMaxAge()).
+         *
+         * @param size cache size
+         * @return builder
+         */
+        public Builder hierarchyCacheSize(int size) {
+            this.hierarchyCacheSize = Math.max(0, size);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached restriction results (pattern and base node). Default is 0 (disabled).
+         * The cache is only enabled if a maximum age is set (see cacheMaxAge()). It must be invalidated with
+         * contentChanged() when content is changed.
+         *
+         * @param size cache size
+         * @return builder
+         */
+        public Builder resultCacheSize(int size) {
+            this.resultCacheSize = Math.max(0, size);
+            return this;
+        }
+
+        /**
+         * Sets the maximum age of cached results of restrictions and hierarchical restrictions. This limits the time
+         * that an outdated result can be used, e.g. if the invalidation of a change is delayed or a session was not
+         * refreshed. The age is measured with the clock of the context. Default is 0, which disables the result cache
+         * and the hierarchy cache.
+         *
+         * @param millis maximum age in milliseconds
+         * @return builder
+         */
+        public Builder cacheMaxAge(long millis) {
+            this.cacheMaxAge = Math.max(0, millis);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached base node resolutions (e.g. rendition to asset). Default is 0 (disabled).
+         * The cache must be invalidated with nodesChanged() when nodes are added, moved or removed.
+         *
+         * @param size cache size
+         * @return builder
+         */
+        public Builder baseNodeCacheSize(int size) {
+            this.baseNodeCacheSize = Math.max(0, size);
+            return this;
+        }
+
+        /**
+         * Enables the reuse of results for equal patterns that are evaluated on the same read-only tree instance.
+         * Default is enabled.
+         *
+         * @param enabled enabled
+         * @return builder
+         */
+        public Builder evaluationMemo(boolean enabled) {
+            this.evaluationMemo = enabled;
+            return this;
+        }
+
+        /**
+         * Enables restriction summaries that are written by the commit hook. Summaries with a different epoch are
+         * ignored. Default is 0 (disabled). Summaries are used when their version is set (see setSummaryVersion()).
+         *
+         * @param epoch summary epoch
+         * @return builder
+         */
+        public Builder restrictionSummary(int epoch) {
+            this.summaryEpoch = Math.max(0, epoch);
+            return this;
+        }
+
+        /**
+         * Sets the filters that answer aarPropertyExists and aarNodeExists restrictions for pages, assets and folders
+         * where the property or node is missing for sure. Default is null (disabled).
+         *
+         * @param filters existence filters
+         * @return builder
+         */
+        public Builder existenceFilters(ExistenceFilters filters) {
+            this.existenceFilters = filters;
+            return this;
+        }
+
+        /**
+         * Sets the tag hierarchy that resolves the tags of aarTagged restrictions. Default is null (tag IDs are
+         * compared).
+         *
+         * @param hierarchy tag hierarchy
+         * @return builder
+         */
+        public Builder tagHierarchy(TagHierarchy hierarchy) {
+            this.tagHierarchy = hierarchy;
+            return this;
+        }
+
+        /**
+         * Creates the context.
+         *
+         * @return context
+         */
+        public PatternContext build() {
+            return new PatternContext(this);
+        }
+
+    }
+
+    /**
+     * Cache key for hierarchy results. Patterns are compared by identity.
+     */
+    private static final class HierarchyKey {
+
+        private final BasePattern pattern;
+        private final String path;
+        private final int hash;
+
+        HierarchyKey(BasePattern pattern, String path) {
+            this.pattern = pattern;
+            this.path = path;
+            this.hash = 31 * System.identityHashCode(pattern) + path.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof HierarchyKey)) {
+                return false;
+            }
+            HierarchyKey otherKey = (HierarchyKey) other;
+            return (hash == otherKey.hash) && (pattern == otherKey.pattern) && path.equals(otherKey.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * Cache key for restriction results. Equal patterns share their results.
+     */
+    private static final class ResultKey {
+
+        private final BasePattern pattern;
+        private final String path;
+        private final int hash;
+
+        ResultKey(BasePattern pattern, String path) {
+            this.pattern = pattern;
+            this.path = path;
+            this.hash = 31 * pattern.hashCode() + path.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey otherKey = (ResultKey) other;
+            return (hash == otherKey.hash) && path.equals(otherKey.path)
+                   && ((pattern == otherKey.pattern) || pattern.equals(otherKey.pattern));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * Cached result with the time of its calculation.
+     */
+    private static final class CachedResult {
+
+        private final boolean matches;
+        private final long created;
+
+        CachedResult(boolean matches, long created) {
+            this.matches = matches;
+            this.created = created;
+        }
+
+    }
+
+}
@@ -36,6 +36,16 @@ public class PropertyContainsHierarchicalPattern extends PropertyContainsPattern
         super(restrictionValue);
     }
 
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
+     * @param context pattern context
+     */
+    public PropertyContainsHierarchicalPattern(final String restrictionValue, final PatternContext context) {
+        super(restrictionValue, context);
+    }
+
     @Override
     protected boolean checkHierarchy() {
         return true;
@@ -39,6 +39,17 @@ public class PropertyContainsPattern extends BasePattern {
      * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
      */
     public PropertyContainsPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
+     * @param context pattern context
+     */
+    public PropertyContainsPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, getValueBeforeDelimiter(restrictionValue));
         if (!restrictionValue.contains(DELIMITER)) {
             throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
         }
@@ -37,6 +37,17 @@ public class PropertyExistsPattern extends BasePattern {
      * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
      */
     public PropertyExistsPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME:PROPERTY_VALUE)
+     * @param context pattern context
+     */
+    public PropertyExistsPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, restrictionValue);
         this.propertyName = restrictionValue;
     }
 
@@ -55,4 +66,10 @@ public class PropertyExistsPattern extends BasePattern {
         return propertyName;
     }
 
+    @Override
+    String getFilteredPath() {
+        // hierarchical patterns also match if a parent has the property
+        return checkHierarchy() ? null : propertyName;
+    }
+
 }
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+
+import java.util.Set;
+
+/**
+ * Restriction pattern to check if a property value is one of a list of values.
+ * The values are compiled once into an immutable hash set, so each property value is checked with one lookup.
+ *
+ * @author Roland Gruber
+ */
+public class PropertyInPattern extends BasePattern {
+
+    public static final String ID = "aarPropertyIn";
+
+    protected String propertyName;
+    protected Set<String> propertyValues;
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$VALUE1|VALUE2|...)
+     */
+    public PropertyInPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$VALUE1|VALUE2|...)
+     * @param context pattern context
+     */
+    public PropertyInPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, getValueBeforeDelimiter(restrictionValue));
+        if (!restrictionValue.contains(DELIMITER)) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+        this.propertyName = restrictionValue.substring(0, restrictionValue.indexOf(DELIMITER));
+        String values = restrictionValue.substring(restrictionValue.indexOf(DELIMITER) + 1);
+        this.propertyValues = Set.copyOf(splitValues(values));
+    }
+
+    @Override
+    protected boolean singleValuePropertyMatches(PropertyState valueState) {
+        return propertyValues.contains(valueState.getValue(Type.STRING));
+    }
+
+    @Override
+    protected boolean multiValuePropertyMatches(PropertyState valueState) {
+        int count = valueState.count();
+        for (int i = 0; i < count; i++) {
+            if (propertyValues.contains(valueState.getValue(Type.STRING, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected String getPropertyName() {
+        return propertyName;
+    }
+
+}
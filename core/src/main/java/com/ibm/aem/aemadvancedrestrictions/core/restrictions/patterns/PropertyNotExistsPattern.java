@@ -18,7 +18,6 @@
  */
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
 
-import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 
 /**
@@ -38,18 +37,30 @@ public class PropertyNotExistsPattern extends BasePattern {
      * @param restrictionValue restriction value (NODE_NAME)
      */
     public PropertyNotExistsPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (NODE_NAME)
+     * @param context pattern context
+     */
+    public PropertyNotExistsPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, restrictionValue);
         this.propertyName = restrictionValue;
     }
 
     @Override
-    public boolean matches(Tree tree, PropertyState propertyState) {
-        Tree baseNode = findBaseNode(tree);
-        if (baseNode == null) {
-            return false;
-        }
+    protected boolean evaluateBaseNode(Tree baseNode) {
         return readPropertyFromBase(baseNode, getPropertyName()) == null;
     }
 
+    @Override
+    boolean matchesBaseNode(BaseNodeContext nodes) {
+        return nodes.readProperty(compilePath(getPropertyName())) == null;
+    }
+
     @Override
     protected String getPropertyName() {
         return propertyName;
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+
+/**
+ * Restriction pattern to check if property values match a regular expression.
+ * The expression is compiled once into a DFA, so the check takes linear time for any value (no backtracking).
+ * See RegexMatcher for the supported syntax.
+ *
+ * @author Roland Gruber
+ */
+public class PropertyRegexPattern extends BasePattern {
+
+    public static final String ID = "aarPropertyRegex";
+
+    protected String propertyName;
+    protected String expression;
+    private final RegexMatcher matcher;
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$EXPRESSION)
+     */
+    public PropertyRegexPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$EXPRESSION)
+     * @param context pattern context
+     * @throws IllegalStateException invalid or unsupported expression
+     */
+    public PropertyRegexPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, getValueBeforeDelimiter(restrictionValue));
+        if (!restrictionValue.contains(DELIMITER)) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+        this.propertyName = restrictionValue.substring(0, restrictionValue.indexOf(DELIMITER));
+        this.expression = restrictionValue.substring(restrictionValue.indexOf(DELIMITER) + 1);
+        this.matcher = new RegexMatcher(expression);
+    }
+
+    @Override
+    protected boolean singleValuePropertyMatches(PropertyState valueState) {
+        String value = valueState.getValue(Type.STRING);
+        return (value != null) && matcher.matches(value);
+    }
+
+    @Override
+    protected boolean multiValuePropertyMatches(PropertyState valueState) {
+        int count = valueState.count();
+        for (int i = 0; i < count; i++) {
+            String value = valueState.getValue(Type.STRING, i);
+            if ((value != null) && matcher.matches(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected String getPropertyName() {
+        return propertyName;
+    }
+
+}
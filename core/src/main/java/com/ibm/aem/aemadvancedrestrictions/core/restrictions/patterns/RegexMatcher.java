@@ -0,0 +1,861 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Matches strings against a regular expression in linear time.
+ * <p>
+ * The expression is parsed into a Thompson NFA that is converted into a DFA when the matcher is created. The DFA
+ * transitions are stored in a dense table over character classes (ranges of characters that are treated the same by
+ * the expression), so each character of a string costs one table lookup. There is no backtracking and matching does
+ * not allocate any objects. Expressions whose DFA gets too large are rejected.
+ * <p>
+ * Like java.util.regex, the expression works on code points. Supplementary characters are matched as two transitions
+ * (high and low surrogate), so e.g. "." matches a surrogate pair as one character. Unlike java.util.regex, a high
+ * surrogate that is not followed by a low surrogate is never matched.
+ * <p>
+ * The whole string must match (like String.matches). Supported syntax:
+ * <ul>
+ *     <li>literals and escaped metacharacters (e.g. \. or \$), \t, \n, \r, \f, \e, \xhh, &#92;uhhhh</li>
+ *     <li>. (any character except line terminators), \d, \D, \w, \W, \s, \S</li>
+ *     <li>character classes with ranges and negation (e.g. [A-Z0-9_] or [^/])</li>
+ *     <li>groups (...) and (?:...), alternation |</li>
+ *     <li>quantifiers *, +, ?, {n}, {n,}, {n,m}</li>
+ *     <li>^ at the start and $ at the end (ignored as the whole string is matched)</li>
+ * </ul>
+ * Backreferences, lookaround, lazy and possessive quantifiers, flags, word boundaries, Unicode properties and nested
+ * character classes are not supported.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author Roland Gruber
+ */
+final class RegexMatcher {
+
+    /**
+     * Maximum value of a repetition bound (e.g. {n,m}).
+     */
+    static final int MAX_REPETITION = 1000;
+
+    /**
+     * Maximum number of NFA states.
+     */
+    static final int MAX_NFA_STATES = 10000;
+
+    /**
+     * Maximum number of DFA states.
+     */
+    static final int MAX_DFA_STATES = 10000;
+
+    /**
+     * Maximum number of table entries (DFA states x character classes).
+     */
+    static final int MAX_TABLE_SIZE = 1 << 22;
+
+    /**
+     * Maximum number of NFA state visits to create the DFA (limits the time to compile an expression).
+     */
+    static final long MAX_COMPILE_STEPS = 20_000_000L;
+
+    private static final int NO_MATCH = -1;
+    private static final int DIRECT_CHARS = 128;
+    private static final int MAX_CHAR = Character.MAX_VALUE;
+    private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+
+    private static final int[] DIGITS = {'0', '9'};
+    private static final int[] WORD_CHARS = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] WHITESPACE = {'\t', '\r', ' ', ' '};
+    private static final int[] ANY = complement(new int[] {'\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029});
+
+    /**
+     * First character of each character class, sorted.
+     */
+    private final char[] classStarts;
+
+    /**
+     * Character classes of ASCII characters.
+     */
+    private final int[] directClasses;
+
+    private final int classCount;
+
+    /**
+     * Transitions by state offset (state x classCount) + character class. Values are the offset of the next state or
+     * NO_MATCH if the string can no longer match.
+     */
+    private final int[] table;
+
+    /**
+     * DFA states that accept the string if it ends there.
+     */
+    private final boolean[] accepting;
+
+    /**
+     * Constructor
+     *
+     * @param expression regular expression
+     * @throws IllegalStateException invalid or unsupported expression
+     */
+    RegexMatcher(String expression) {
+        Nfa nfa = new Nfa();
+        nfa.start = nfa.build(new Parser(expression).parse(), nfa.accept);
+
+        // character classes: split the character range at all range boundaries of the expression
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+        for (int[] ranges : nfa.ranges) {
+            if (ranges == null) {
+                continue;
+            }
+            for (int i = 0; i < ranges.length; i += 2) {
+                boundaries.add(ranges[i]);
+                if (ranges[i + 1] < MAX_CHAR) {
+                    boundaries.add(ranges[i + 1] + 1);
+                }
+            }
+        }
+        classStarts = new char[boundaries.size()];
+        int index = 0;
+        for (int boundary : boundaries) {
+            classStarts[index++] = (char) boundary;
+        }
+        classCount = classStarts.length;
+        directClasses = new int[DIRECT_CHARS];
+        for (int c = 0; c < DIRECT_CHARS; c++) {
+            directClasses[c] = characterClass((char) c);
+        }
+
+        // subset construction
+        List<int[]> dfaStates = new ArrayList<>();
+        Map<String, Integer> dfaStateIds = new HashMap<>();
+        List<int[]> transitions = new ArrayList<>();
+        List<Boolean> acceptingStates = new ArrayList<>();
+        int[] startSet = nfa.closure(new int[] {nfa.start});
+        dfaStates.add(startSet);
+        dfaStateIds.put(Arrays.toString(startSet), 0);
+        acceptingStates.add(nfa.accepts(startSet));
+        for (int state = 0; state < dfaStates.size(); state++) {
+            int[] set = dfaStates.get(state);
+            int[] row = new int[classCount];
+            for (int characterClass = 0; characterClass < classCount; characterClass++) {
+                int[] next = nfa.step(set, classStarts[characterClass]);
+                if (next.length == 0) {
+                    row[characterClass] = NO_MATCH;
+                    continue;
+                }
+                String key = Arrays.toString(next);
+                Integer target = dfaStateIds.get(key);
+                if (target == null) {
+                    target = dfaStates.size();
+                    if ((target >= MAX_DFA_STATES) || ((long) (target + 1) * classCount > MAX_TABLE_SIZE)) {
+                        throw new IllegalStateException("Regular expression is too complex: " + expression);
+                    }
+                    dfaStates.add(next);
+                    dfaStateIds.put(key, target);
+                    acceptingStates.add(nfa.accepts(next));
+                }
+                row[characterClass] = target;
+            }
+            transitions.add(row);
+        }
+        table = new int[dfaStates.size() * classCount];
+        accepting = new boolean[dfaStates.size()];
+        for (int state = 0; state < dfaStates.size(); state++) {
+            accepting[state] = acceptingStates.get(state);
+            int[] row = transitions.get(state);
+            for (int characterClass = 0; characterClass < classCount; characterClass++) {
+                table[state * classCount + characterClass] = (row[characterClass] == NO_MATCH)
+                        ? NO_MATCH : row[characterClass] * classCount;
+            }
+        }
+    }
+
+    /**
+     * Returns if the whole value matches the expression.
+     *
+     * @param value value
+     * @return matches
+     */
+    boolean matches(String value) {
+        int state = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            state = table[state + ((c < DIRECT_CHARS) ? directClasses[c] : characterClass(c))];
+            if (state == NO_MATCH) {
+                return false;
+            }
+        }
+        return accepting[state / classCount];
+    }
+
+    private int characterClass(char c) {
+        int index = Arrays.binarySearch(classStarts, c);
+        return (index >= 0) ? index : (-index - 2);
+    }
+
+    /**
+     * Returns the number of DFA states (for tests).
+     *
+     * @return state count
+     */
+    int getStateCount() {
+        return accepting.length;
+    }
+
+    /**
+     * Returns the complement of sorted and merged code point ranges.
+     *
+     * @param ranges ranges (start and end, inclusive)
+     * @return complement
+     */
+    private static int[] complement(int[] ranges) {
+        List<Integer> result = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                result.add(next);
+                result.add(ranges[i] - 1);
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= MAX_CODE_POINT) {
+            result.add(next);
+            result.add(MAX_CODE_POINT);
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Sorts and merges character ranges.
+     *
+     * @param ranges ranges (start and end, inclusive)
+     * @return sorted and merged ranges
+     */
+    private static int[] normalize(List<int[]> ranges) {
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<Integer> result = new ArrayList<>();
+        for (int[] range : ranges) {
+            int last = result.size() - 1;
+            if ((last > 0) && (range[0] <= result.get(last) + 1)) {
+                result.set(last, Math.max(result.get(last), range[1]));
+            }
+            else {
+                result.add(range[0]);
+                result.add(range[1]);
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void addRanges(List<int[]> target, int[] ranges) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            target.add(new int[] {ranges[i], ranges[i + 1]});
+        }
+    }
+
+    private static boolean contains(int[] ranges, char c) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (c < ranges[i]) {
+                return false;
+            }
+            if (c <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Node of the parsed expression.
+     */
+    private abstract static class Node {
+    }
+
+    /**
+     * Matches one code point of the given ranges.
+     */
+    private static final class CharNode extends Node {
+
+        private final int[] ranges;
+
+        private CharNode(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+    }
+
+    private static final class ConcatNode extends Node {
+
+        private final List<Node> nodes;
+
+        private ConcatNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+    }
+
+    private static final class AlternativeNode extends Node {
+
+        private final List<Node> nodes;
+
+        private AlternativeNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+    }
+
+    private static final class RepeatNode extends Node {
+
+        private final Node node;
+        private final int min;
+
+        /**
+         * Maximum count or -1 for unbounded.
+         */
+        private final int max;
+
+        private RepeatNode(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+
+    }
+
+    /**
+     * Recursive descent parser.
+     */
+    private static final class Parser {
+
+        private final String expression;
+        private final int end;
+        private int position;
+
+        private Parser(String expression) {
+            this.expression = expression;
+            int start = expression.startsWith("^") ? 1 : 0;
+            int length = expression.length();
+            if ((length > start) && (expression.charAt(length - 1) == '$') && !isEscaped(length - 1)) {
+                length--;
+            }
+            this.position = start;
+            this.end = length;
+        }
+
+        private boolean isEscaped(int index) {
+            int backslashes = 0;
+            while ((index - backslashes > 0) && (expression.charAt(index - backslashes - 1) == '\\')) {
+                backslashes++;
+            }
+            return (backslashes % 2) == 1;
+        }
+
+        private Node parse() {
+            Node node = parseAlternative();
+            if (position < end) {
+                throw error("Unmatched closing ')'");
+            }
+            return node;
+        }
+
+        private Node parseAlternative() {
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(parseConcat());
+            while ((position < end) && (expression.charAt(position) == '|')) {
+                position++;
+                nodes.add(parseConcat());
+            }
+            return (nodes.size() == 1) ? nodes.get(0) : new AlternativeNode(nodes);
+        }
+
+        private Node parseConcat() {
+            List<Node> nodes = new ArrayList<>();
+            while ((position < end) && (expression.charAt(position) != '|') && (expression.charAt(position) != ')')) {
+                nodes.add(parseRepeat());
+            }
+            return (nodes.size() == 1) ? nodes.get(0) : new ConcatNode(nodes);
+        }
+
+        private Node parseRepeat() {
+            Node node = parseAtom();
+            if ((position < end) && isQuantifier(expression.charAt(position))) {
+                node = parseQuantifier(node);
+                if ((position < end) && isQuantifier(expression.charAt(position))) {
+                    throw error("Lazy, possessive and nested quantifiers are not supported");
+                }
+            }
+            return node;
+        }
+
+        private boolean isQuantifier(char c) {
+            return (c == '*') || (c == '+') || (c == '?') || (c == '{');
+        }
+
+        private Node parseQuantifier(Node node) {
+            char c = expression.charAt(position++);
+            switch (c) {
+                case '*':
+                    return new RepeatNode(node, 0, -1);
+                case '+':
+                    return new RepeatNode(node, 1, -1);
+                case '?':
+                    return new RepeatNode(node, 0, 1);
+                default:
+                    int min = parseNumber();
+                    int max = min;
+                    if ((position < end) && (expression.charAt(position) == ',')) {
+                        position++;
+                        max = ((position < end) && (expression.charAt(position) == '}')) ? -1 : parseNumber();
+                    }
+                    if ((position >= end) || (expression.charAt(position) != '}')) {
+                        throw error("Invalid repetition");
+                    }
+                    position++;
+                    if ((max != -1) && (max < min)) {
+                        throw error("Invalid repetition range");
+                    }
+                    return new RepeatNode(node, min, max);
+            }
+        }
+
+        private int parseNumber() {
+            int start = position;
+            while ((position < end) && Character.isDigit(expression.charAt(position))
+                    && (expression.charAt(position) < DIRECT_CHARS)) {
+                position++;
+            }
+            if ((position == start) || (position - start > 4)) {
+                throw error("Invalid repetition");
+            }
+            int number = Integer.parseInt(expression.substring(start, position));
+            if (number > MAX_REPETITION) {
+                throw error("Repetitions are limited to " + MAX_REPETITION);
+            }
+            return number;
+        }
+
+        private Node parseAtom() {
+            char c = expression.charAt(position++);
+            switch (c) {
+                case '(':
+                    if ((position < end) && (expression.charAt(position) == '?')) {
+                        if ((position + 1 < end) && (expression.charAt(position + 1) == ':')) {
+                            position += 2;
+                        }
+                        else {
+                            throw error("Only non-capturing groups (?:...) are supported");
+                        }
+                    }
+                    Node node = parseAlternative();
+                    if ((position >= end) || (expression.charAt(position) != ')')) {
+                        throw error("Unclosed group");
+                    }
+                    position++;
+                    return node;
+                case '[':
+                    return new CharNode(parseCharacterClass());
+                case '.':
+                    return new CharNode(ANY);
+                case '\\':
+                    return new CharNode(parseEscape(false));
+                case '^':
+                case '$':
+                    throw error("Anchors are only supported at the start and end");
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw error("Quantifier without expression");
+                default:
+                    int codePoint = readCodePoint(c);
+                    return new CharNode(new int[] {codePoint, codePoint});
+            }
+        }
+
+        /**
+         * Returns the code point of the character. A high surrogate is combined with the following low surrogate.
+         *
+         * @param c character that was read
+         * @return code point
+         */
+        private int readCodePoint(char c) {
+            if (Character.isHighSurrogate(c) && (position < end) && Character.isLowSurrogate(expression.charAt(position))) {
+                return Character.toCodePoint(c, expression.charAt(position++));
+            }
+            return c;
+        }
+
+        private int[] parseCharacterClass() {
+            boolean negated = (position < end) && (expression.charAt(position) == '^');
+            if (negated) {
+                position++;
+            }
+            List<int[]> ranges = new ArrayList<>();
+            boolean first = true;
+            while (true) {
+                if (position >= end) {
+                    throw error("Unclosed character class");
+                }
+                char c = expression.charAt(position++);
+                if ((c == ']') && !first) {
+                    break;
+                }
+                first = false;
+                if (c == '[') {
+                    throw error("Nested character classes are not supported");
+                }
+                if ((c == '&') && (position < end) && (expression.charAt(position) == '&')) {
+                    throw error("Character class intersections are not supported");
+                }
+                int[] start = (c == '\\') ? parseEscape(true) : single(readCodePoint(c));
+                boolean range = (position + 1 < end) && (expression.charAt(position) == '-')
+                        && (expression.charAt(position + 1) != ']');
+                if (!range) {
+                    addRanges(ranges, start);
+                    continue;
+                }
+                position++;
+                char endChar = expression.charAt(position++);
+                int[] rangeEnd = (endChar == '\\') ? parseEscape(true) : single(readCodePoint(endChar));
+                if ((start.length != 2) || (start[0] != start[1]) || (rangeEnd.length != 2) || (rangeEnd[0] != rangeEnd[1])) {
+                    throw error("Invalid character range");
+                }
+                if (rangeEnd[0] < start[0]) {
+                    throw error("Invalid character range");
+                }
+                ranges.add(new int[] {start[0], rangeEnd[0]});
+            }
+            int[] result = normalize(ranges);
+            return negated ? complement(result) : result;
+        }
+
+        private int[] parseEscape(boolean inClass) {
+            if (position >= end) {
+                throw error("Incomplete escape sequence");
+            }
+            char c = expression.charAt(position++);
+            switch (c) {
+                case 'd':
+                    return DIGITS;
+                case 'D':
+                    return complement(DIGITS);
+                case 'w':
+                    return WORD_CHARS;
+                case 'W':
+                    return complement(WORD_CHARS);
+                case 's':
+                    return WHITESPACE;
+                case 'S':
+                    return complement(WHITESPACE);
+                case 't':
+                    return single('\t');
+                case 'n':
+                    return single('\n');
+                case 'r':
+                    return single('\r');
+                case 'f':
+                    return single('\f');
+                case 'e':
+                    return single(0x1B);
+                case 'x':
+                    return single(parseHex(2));
+                case 'u':
+                    return single(parseUnicodeEscape());
+                default:
+                    if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9'))) {
+                        throw error("Unsupported escape sequence \\" + c);
+                    }
+                    return single(c);
+            }
+        }
+
+        /**
+         * Parses the digits of a &#92;uhhhh escape. An escaped high surrogate is combined with a directly following
+         * escaped low surrogate (like in java.util.regex).
+         *
+         * @return code point
+         */
+        private int parseUnicodeEscape() {
+            int value = parseHex(4);
+            if (Character.isHighSurrogate((char) value) && (position + 6 <= end)
+                    && expression.startsWith("\\u", position)) {
+                int start = position;
+                position += 2;
+                int low = parseHex(4);
+                if (Character.isLowSurrogate((char) low)) {
+                    return Character.toCodePoint((char) value, (char) low);
+                }
+                position = start;
+            }
+            return value;
+        }
+
+        private int parseHex(int digits) {
+            if (position + digits > end) {
+                throw error("Incomplete escape sequence");
+            }
+            try {
+                int value = Integer.parseInt(expression.substring(position, position + digits), 16);
+                position += digits;
+                return value;
+            }
+            catch (NumberFormatException e) {
+                throw error("Invalid escape sequence");
+            }
+        }
+
+        private int[] single(int c) {
+            return new int[] {c, c};
+        }
+
+        private IllegalStateException error(String message) {
+            return new IllegalStateException(message + " at index " + position + ": " + expression);
+        }
+
+    }
+
+    /**
+     * Thompson NFA over UTF-16 characters. States with ranges consume one character of the ranges and move to their
+     * single target, states without ranges move to all targets without consuming a character (epsilon transitions).
+     */
+    private static final class Nfa {
+
+        private final List<int[]> ranges = new ArrayList<>();
+        private final List<int[]> targets = new ArrayList<>();
+        private final int accept;
+        private int start;
+
+        /**
+         * Visited marks of the current closure (marks[state] == generation).
+         */
+        private int[] marks;
+        private int generation;
+        private long steps;
+
+        private Nfa() {
+            accept = addState(null, new int[0]);
+        }
+
+        private int addState(int[] stateRanges, int[] stateTargets) {
+            if (ranges.size() >= MAX_NFA_STATES) {
+                throw new IllegalStateException("Regular expression is too large");
+            }
+            ranges.add(stateRanges);
+            targets.add(stateTargets);
+            return ranges.size() - 1;
+        }
+
+        /**
+         * Builds the states for the node.
+         *
+         * @param node node
+         * @param next state to continue with after the node matched
+         * @return start state of the node
+         */
+        private int build(Node node, int next) {
+            if (node instanceof CharNode) {
+                return buildCodePoints(((CharNode) node).ranges, next);
+            }
+            if (node instanceof ConcatNode) {
+                List<Node> nodes = ((ConcatNode) node).nodes;
+                int state = next;
+                for (int i = nodes.size() - 1; i >= 0; i--) {
+                    state = build(nodes.get(i), state);
+                }
+                return state;
+            }
+            if (node instanceof AlternativeNode) {
+                List<Node> nodes = ((AlternativeNode) node).nodes;
+                int[] starts = new int[nodes.size()];
+                for (int i = 0; i < starts.length; i++) {
+                    starts[i] = build(nodes.get(i), next);
+                }
+                return addState(null, starts);
+            }
+            if (node instanceof RepeatNode) {
+                RepeatNode repeat = (RepeatNode) node;
+                int state;
+                if (repeat.max == -1) {
+                    int loop = addState(null, null);
+                    targets.set(loop, new int[] {build(repeat.node, loop), next});
+                    state = loop;
+                }
+                else {
+                    state = next;
+                    for (int i = repeat.min; i < repeat.max; i++) {
+                        state = addState(null, new int[] {build(repeat.node, state), next});
+                    }
+                }
+                for (int i = 0; i < repeat.min; i++) {
+                    state = build(repeat.node, state);
+                }
+                return state;
+            }
+            // empty expression
+            return next;
+        }
+
+        /**
+         * Builds the states for code point ranges. Characters of the basic multilingual plane consume one character,
+         * supplementary characters consume a high and a low surrogate. High surrogates are only matched as part of a
+         * pair.
+         *
+         * @param codePoints sorted code point ranges
+         * @param next state to continue with after the code point matched
+         * @return start state
+         */
+        private int buildCodePoints(int[] codePoints, int next) {
+            List<int[]> singleRanges = new ArrayList<>();
+            List<Integer> starts = new ArrayList<>();
+            for (int i = 0; i < codePoints.length; i += 2) {
+                int first = codePoints[i];
+                int last = codePoints[i + 1];
+                addRange(singleRanges, first, Math.min(last, Character.MIN_HIGH_SURROGATE - 1));
+                addRange(singleRanges, Math.max(first, Character.MIN_LOW_SURROGATE), Math.min(last, MAX_CHAR));
+                if (last >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    buildSurrogatePairs(Math.max(first, Character.MIN_SUPPLEMENTARY_CODE_POINT), last, next, starts);
+                }
+            }
+            if (!singleRanges.isEmpty()) {
+                starts.add(0, addState(normalize(singleRanges), new int[] {next}));
+            }
+            if (starts.size() == 1) {
+                return starts.get(0);
+            }
+            if (starts.isEmpty()) {
+                return addState(new int[0], new int[] {next});
+            }
+            return addState(null, starts.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        /**
+         * Builds the states for a range of supplementary characters. The range is split into at most three parts
+         * that each combine a range of high surrogates with a range of low surrogates.
+         *
+         * @param first first code point
+         * @param last last code point
+         * @param next state to continue with after the code point matched
+         * @param starts receives the start states
+         */
+        private void buildSurrogatePairs(int first, int last, int next, List<Integer> starts) {
+            int firstHigh = Character.highSurrogate(first);
+            int firstLow = Character.lowSurrogate(first);
+            int lastHigh = Character.highSurrogate(last);
+            int lastLow = Character.lowSurrogate(last);
+            if (firstHigh == lastHigh) {
+                starts.add(buildSurrogatePair(firstHigh, firstHigh, firstLow, lastLow, next));
+                return;
+            }
+            if (firstLow != Character.MIN_LOW_SURROGATE) {
+                starts.add(buildSurrogatePair(firstHigh, firstHigh, firstLow, Character.MAX_LOW_SURROGATE, next));
+                firstHigh++;
+            }
+            if (lastLow != Character.MAX_LOW_SURROGATE) {
+                starts.add(buildSurrogatePair(lastHigh, lastHigh, Character.MIN_LOW_SURROGATE, lastLow, next));
+                lastHigh--;
+            }
+            if (firstHigh <= lastHigh) {
+                starts.add(buildSurrogatePair(firstHigh, lastHigh, Character.MIN_LOW_SURROGATE,
+                        Character.MAX_LOW_SURROGATE, next));
+            }
+        }
+
+        private int buildSurrogatePair(int firstHigh, int lastHigh, int firstLow, int lastLow, int next) {
+            int low = addState(new int[] {firstLow, lastLow}, new int[] {next});
+            return addState(new int[] {firstHigh, lastHigh}, new int[] {low});
+        }
+
+        private void addRange(List<int[]> target, int first, int last) {
+            if (first <= last) {
+                target.add(new int[] {first, last});
+            }
+        }
+
+        /**
+         * Returns the states that consume a character or accept and that are reachable by epsilon transitions.
+         *
+         * @param states start states
+         * @return sorted states
+         */
+        private int[] closure(int[] states) {
+            if (marks == null) {
+                marks = new int[ranges.size()];
+            }
+            generation++;
+            Deque<Integer> stack = new ArrayDeque<>();
+            for (int state : states) {
+                stack.push(state);
+            }
+            TreeSet<Integer> result = new TreeSet<>();
+            while (!stack.isEmpty()) {
+                int state = stack.pop();
+                if (marks[state] == generation) {
+                    continue;
+                }
+                marks[state] = generation;
+                if (++steps > MAX_COMPILE_STEPS) {
+                    throw new IllegalStateException("Regular expression is too complex");
+                }
+                if ((ranges.get(state) != null) || (state == accept)) {
+                    result.add(state);
+                }
+                else {
+                    for (int target : targets.get(state)) {
+                        stack.push(target);
+                    }
+                }
+            }
+            return result.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Returns the closure of the states after consuming the character.
+         *
+         * @param states current states
+         * @param c character
+         * @return next states
+         */
+        private int[] step(int[] states, char c) {
+            List<Integer> next = new ArrayList<>();
+            for (int state : states) {
+                int[] stateRanges = ranges.get(state);
+                if ((stateRanges != null) && contains(stateRanges, c)) {
+                    next.add(targets.get(state)[0]);
+                }
+            }
+            return next.isEmpty() ? new int[0] : closure(next.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private boolean accepts(int[] states) {
+            return Arrays.binarySearch(states, accept) >= 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+
+/**
+ * Relative path (e.g. "metadata/myProperty") that is split into its names once.
+ * Resolving the path then only walks the trees without creating any strings or lists.
+ *
+ * @author Roland Gruber
+ */
+final class RelativePath {
+
+    private final String path;
+    private final String parentPath;
+    private final String[] names;
+
+    /**
+     * Constructor
+     *
+     * @param path relative path, names are separated by "/"
+     */
+    RelativePath(String path) {
+        this.path = path;
+        this.names = path.split("/");
+        int index = path.lastIndexOf('/');
+        this.parentPath = (index > 0) ? path.substring(0, index) : "";
+    }
+
+    /**
+     * Returns the path.
+     *
+     * @return path
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the path without the last name (e.g. "metadata" for "metadata/myProperty").
+     *
+     * @return parent path, empty if the path has only one name
+     */
+    String getParentPath() {
+        return parentPath;
+    }
+
+    /**
+     * Returns the last name (e.g. "myProperty" for "metadata/myProperty").
+     *
+     * @return name
+     */
+    String getName() {
+        return names[names.length - 1];
+    }
+
+    /**
+     * Returns if this path was created for the given path string.
+     *
+     * @param path path
+     * @return same path
+     */
+    boolean isPath(String path) {
+        return (this.path == path) || this.path.equals(path);
+    }
+
+    /**
+     * Reads the property. All names except the last one are subnodes.
+     *
+     * @param start start node
+     * @return property or null
+     */
+    PropertyState getProperty(Tree start) {
+        Tree node = getParentNode(start);
+        return (node != null) ? node.getProperty(getName()) : null;
+    }
+
+    /**
+     * Returns the node that is denoted by all names except the last one.
+     *
+     * @param start start node
+     * @return node or null if not existing
+     */
+    Tree getParentNode(Tree start) {
+        return walk(start, names.length - 1);
+    }
+
+    /**
+     * Checks if the path exists as subnodes.
+     *
+     * @param start start node
+     * @return node exists
+     */
+    boolean nodeExists(Tree start) {
+        return getNode(start) != null;
+    }
+
+    /**
+     * Returns the node that is denoted by all names.
+     *
+     * @param start start node
+     * @return node or null if not existing
+     */
+    Tree getNode(Tree start) {
+        return walk(start, names.length);
+    }
+
+    private Tree walk(Tree start, int count) {
+        Tree node = start;
+        for (int i = 0; i < count; i++) {
+            if (!node.hasChild(names[i])) {
+                return null;
+            }
+            node = node.getChild(names[i]);
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.PropertyStates;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of the restriction results of a page, asset or folder. The summary is stored as multi-value property on
+ * its jcr:content node and is written by a commit hook when the content changes.
+ * <p>
+ * The first value is the version of the summary. It must match the version that is stored in the repository for the
+ * configured epoch, so that summaries that may be outdated can be ignored at once. Each further value contains the
+ * result ("+" for match, "-" for no match) and the key of a pattern. Patterns that are not listed are evaluated as
+ * usual.
+ *
+ * @author Roland Gruber
+ */
+public final class RestrictionSummary {
+
+    /**
+     * Name of the summary property on the jcr:content node.
+     */
+    public static final String PROPERTY_NAME = "aarSummary";
+
+    /**
+     * Pattern is not part of the summary.
+     */
+    static final int UNKNOWN = -1;
+
+    /**
+     * Pattern does not match.
+     */
+    static final int NO_MATCH = 0;
+
+    /**
+     * Pattern matches.
+     */
+    static final int MATCH = 1;
+
+    private static final char MATCH_PREFIX = '+';
+    private static final char NO_MATCH_PREFIX = '-';
+
+    /**
+     * Number of hash bytes that are used for the pattern keys.
+     */
+    private static final int KEY_BYTES = 8;
+
+    private RestrictionSummary() {
+        // static methods only
+    }
+
+    /**
+     * Returns if the node is a page, asset or folder.
+     *
+     * @param node node
+     * @return is base node
+     */
+    public static boolean isBaseNode(NodeState node) {
+        PropertyState primaryType = node.getProperty(JcrConstants.JCR_PRIMARYTYPE);
+        return (primaryType != null) && BasePattern.isBaseNodeType(primaryType.getValue(Type.NAME));
+    }
+
+    /**
+     * Creates the summary for the given patterns.
+     *
+     * @param patterns patterns
+     * @param version summary version
+     * @param baseNode page, asset or folder
+     * @return summary or null if there is no jcr:content node or no pattern
+     */
+    static PropertyState create(Collection<BasePattern> patterns, String version, NodeState baseNode) {
+        if (patterns.isEmpty() || !baseNode.hasChildNode(JcrConstants.JCR_CONTENT)) {
+            return null;
+        }
+        Tree tree = new NodeStateTree(baseNode);
+        List<String> entries = new ArrayList<>();
+        for (BasePattern pattern : patterns) {
+            char prefix = pattern.evaluateBaseNode(tree) ? MATCH_PREFIX : NO_MATCH_PREFIX;
+            entries.add(prefix + pattern.getSummaryKey());
+        }
+        // same order for same results, so that unchanged summaries are not written again
+        Collections.sort(entries);
+        List<String> values = new ArrayList<>(entries.size() + 1);
+        values.add(version);
+        values.addAll(entries);
+        return PropertyStates.createProperty(PROPERTY_NAME, values, Type.STRINGS);
+    }
+
+    /**
+     * Reads the result of a pattern.
+     *
+     * @param summary summary property, may be null
+     * @param version expected version
+     * @param key pattern key
+     * @return MATCH, NO_MATCH or UNKNOWN
+     */
+    static int read(PropertyState summary, String version, String key) {
+        if ((summary == null) || (summary.getType() != Type.STRINGS) || (summary.count() == 0)
+                || !version.equals(summary.getValue(Type.STRING, 0))) {
+            return UNKNOWN;
+        }
+        int count = summary.count();
+        for (int i = 1; i < count; i++) {
+            String value = summary.getValue(Type.STRING, i);
+            if ((value.length() == key.length() + 1) && value.regionMatches(1, key, 0, key.length())) {
+                return (value.charAt(0) == MATCH_PREFIX) ? MATCH : NO_MATCH;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Creates the key of a pattern. Equal patterns get the same key on all cluster nodes.
+     *
+     * @param patternClass pattern class
+     * @param restrictionValue restriction value
+     * @return key
+     */
+    static String createKey(Class<?> patternClass, String restrictionValue) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((patternClass.getName() + BasePattern.DELIMITER + restrictionValue)
+                    .getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(KEY_BYTES * 2);
+            for (int i = 0; i < KEY_BYTES; i++) {
+                key.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+                key.append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return key.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in all JVMs
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
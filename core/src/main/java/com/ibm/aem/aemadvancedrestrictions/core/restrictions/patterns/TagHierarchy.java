@@ -0,0 +1,57 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+/**
+ * Knows the tag hierarchy below /content/cq:tags (e.g. an in-memory tag trie). Patterns for aarTagged restrictions
+ * then check if a tag is the given tag or one of its descendants without comparing the tag IDs.
+ * <p>
+ * Tags may be given as tag IDs (namespace:path), as tag IDs of the default namespace (path) or as absolute paths.
+ * Moved and merged tags (cq:movedTo) are resolved to their new tag.
+ *
+ * @author Roland Gruber
+ */
+@FunctionalInterface
+public interface TagHierarchy {
+
+    /**
+     * The tag is the ancestor tag or one of its descendants.
+     */
+    int TAGGED = 1;
+
+    /**
+     * The tag is neither the ancestor tag nor one of its descendants.
+     */
+    int NOT_TAGGED = 0;
+
+    /**
+     * One of the tags is not known (yet).
+     */
+    int UNKNOWN = -1;
+
+    /**
+     * Checks if a tag is the ancestor tag or one of its descendants.
+     *
+     * @param tag tag of the content
+     * @param ancestorTag tag of the restriction
+     * @return TAGGED, NOT_TAGGED or UNKNOWN
+     */
+    int check(String tag, String ancestorTag);
+
+}
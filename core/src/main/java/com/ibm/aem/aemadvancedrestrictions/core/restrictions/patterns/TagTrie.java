@@ -0,0 +1,492 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact trie of the tags below /content/cq:tags. Each node stores the name of one tag, its hash code and its parent,
+ * the children are kept in an open-addressing hash table.
+ * <p>
+ * A tag is resolved by walking its path segments with one hash lookup per level. The hash codes of the segments are
+ * computed in place, so no substrings are created and a check costs O(tag depth). Moved and merged tags (cq:movedTo)
+ * are followed to their new tag. A tag is a descendant of another tag if the other tag is on its parent chain. As long
+ * as no tag is moved, the trie has the same hierarchy as the tag IDs. Then the tag IDs are compared instead.
+ * <p>
+ * Checks are lock-free. Changes are serialized. A new child is written to a free slot of the table or a larger
+ * table replaces the old one, removals replace the table. Checks that run concurrently to a change see the tree
+ * before or after the change.
+ *
+ * @author Roland Gruber
+ */
+public final class TagTrie implements TagHierarchy {
+
+    /**
+     * Root path of all tags.
+     */
+    public static final String TAGS_PATH = "/content/cq:tags";
+
+    /**
+     * Namespace of tag IDs without namespace.
+     */
+    public static final String DEFAULT_NAMESPACE = "default";
+
+    private static final char NAMESPACE_DELIMITER = ':';
+    private static final char PATH_DELIMITER = '/';
+    private static final int MAX_MOVES = 8;
+    private static final int MAX_RESOLVED_ANCESTORS = 1000;
+    private static final int MIN_TABLE_SIZE = 4;
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("", null);
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger movedCount = new AtomicInteger();
+
+    /**
+     * Resolved tags of restrictions. They are checked for each tag of the content, so they are only resolved once
+     * per change of the trie. Changes replace the map, so checks that run concurrently to a change cannot add outdated
+     * nodes to the new map.
+     */
+    private volatile Map<String, Node> resolvedAncestors = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if a tag is the ancestor tag or one of its descendants. If no tag is moved, unknown tags are answered by
+     * comparing the tag IDs.
+     *
+     * @param tag tag of the content
+     * @param ancestorTag tag of the restriction
+     * @return TAGGED, NOT_TAGGED or UNKNOWN
+     */
+    @Override
+    public int check(String tag, String ancestorTag) {
+        if (movedCount.get() == 0) {
+            String tagId = toTagId(tag);
+            String ancestorTagId = toTagId(ancestorTag);
+            if ((tagId == null) || (ancestorTagId == null)) {
+                return UNKNOWN;
+            }
+            return isTagIdOrDescendant(tagId, ancestorTagId) ? TAGGED : NOT_TAGGED;
+        }
+        Node ancestor = resolveAncestor(ancestorTag);
+        if (ancestor == null) {
+            return UNKNOWN;
+        }
+        Node node = resolve(tag, 0);
+        if (node == null) {
+            return UNKNOWN;
+        }
+        for (Node current = node; current != null; current = current.parent) {
+            if (current == ancestor) {
+                return TAGGED;
+            }
+        }
+        return NOT_TAGGED;
+    }
+
+    private Node resolveAncestor(String ancestorTag) {
+        Map<String, Node> resolved = resolvedAncestors;
+        Node ancestor = resolved.get(ancestorTag);
+        if (ancestor == null) {
+            ancestor = resolve(ancestorTag, 0);
+            if (ancestor != null) {
+                if (resolved.size() >= MAX_RESOLVED_ANCESTORS) {
+                    resolved.clear();
+                }
+                resolved.put(ancestorTag, ancestor);
+            }
+        }
+        return ancestor;
+    }
+
+    /**
+     * Checks if the tag is known. Moved tags are followed to their new tag.
+     *
+     * @param tag tag ID or path
+     * @return tag exists
+     */
+    public boolean contains(String tag) {
+        return resolve(tag, 0) != null;
+    }
+
+    /**
+     * Adds a tag. Missing parent tags are added, too.
+     *
+     * @param tag tag ID or path
+     * @param movedTo tag ID or path of the new tag if the tag was moved or merged, null otherwise
+     */
+    public synchronized void add(String tag, String movedTo) {
+        List<String> segments = segments(tag);
+        if (segments.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (String segment : segments) {
+            node = getOrAddChild(node, segment);
+        }
+        String newMovedTo = ((movedTo == null) || movedTo.isEmpty()) ? null : movedTo;
+        if ((node.movedTo == null) != (newMovedTo == null)) {
+            movedCount.addAndGet((newMovedTo != null) ? 1 : -1);
+        }
+        node.movedTo = newMovedTo;
+        resolvedAncestors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Removes a tag and its descendants.
+     *
+     * @param tag tag ID or path
+     * @return tag was removed
+     */
+    public synchronized boolean remove(String tag) {
+        List<String> segments = segments(tag);
+        if (segments.isEmpty()) {
+            return false;
+        }
+        Node node = root;
+        for (String segment : segments) {
+            node = findChild(node, segment, 0, segment.length());
+            if (node == null) {
+                return false;
+            }
+        }
+        Node parent = node.parent;
+        Node[] table = new Node[parent.children.length];
+        for (Node child : parent.children) {
+            if ((child != null) && (child != node)) {
+                insert(table, child);
+            }
+        }
+        parent.childCount--;
+        parent.children = table;
+        size.addAndGet(-count(node));
+        movedCount.addAndGet(-countMoved(node));
+        resolvedAncestors = new ConcurrentHashMap<>();
+        return true;
+    }
+
+    /**
+     * Returns the number of tags.
+     *
+     * @return number of tags
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Converts a tag ID or path to the tag ID (namespace:path). Tag IDs without namespace are in the default namespace.
+     *
+     * @param tag tag ID or path
+     * @return tag ID or null if invalid
+     */
+    public static String toTagId(String tag) {
+        if (isTagId(tag)) {
+            return tag;
+        }
+        List<String> segments = segments(tag);
+        if (segments.isEmpty()) {
+            return null;
+        }
+        return segments.get(0) + NAMESPACE_DELIMITER + String.join(String.valueOf(PATH_DELIMITER), segments.subList(1, segments.size()));
+    }
+
+    /**
+     * Checks if the tag is already a tag ID with namespace and without empty path segments.
+     *
+     * @param tag tag ID or path
+     * @return tag ID
+     */
+    private static boolean isTagId(String tag) {
+        int namespaceEnd = namespaceEnd(tag);
+        if ((namespaceEnd <= 0) || (startOfTagPath(tag) >= 0)) {
+            return false;
+        }
+        char previous = NAMESPACE_DELIMITER;
+        for (int i = namespaceEnd + 1; i < tag.length(); i++) {
+            char current = tag.charAt(i);
+            if ((current == PATH_DELIMITER) && ((previous == PATH_DELIMITER) || (previous == NAMESPACE_DELIMITER))) {
+                return false;
+            }
+            previous = current;
+        }
+        return (previous != PATH_DELIMITER);
+    }
+
+    /**
+     * Checks if a tag ID is the ancestor tag ID or one of its descendants by comparing the IDs. Moved tags are not
+     * resolved.
+     *
+     * @param tagId tag ID (see toTagId())
+     * @param ancestorTagId ancestor tag ID (see toTagId())
+     * @return tag ID is equal or a descendant
+     */
+    public static boolean isTagIdOrDescendant(String tagId, String ancestorTagId) {
+        if (!tagId.startsWith(ancestorTagId)) {
+            return false;
+        }
+        return (tagId.length() == ancestorTagId.length())
+                || (ancestorTagId.charAt(ancestorTagId.length() - 1) == NAMESPACE_DELIMITER)
+                || (tagId.charAt(ancestorTagId.length()) == PATH_DELIMITER);
+    }
+
+    /**
+     * Splits a tag ID or path into the namespace and the names of the tags below.
+     *
+     * @param tag tag ID or path
+     * @return segments, empty if invalid
+     */
+    private static List<String> segments(String tag) {
+        List<String> segments = new ArrayList<>();
+        int start = startOfTagPath(tag);
+        boolean defaultNamespace = false;
+        if (start < 0) {
+            int namespaceEnd = namespaceEnd(tag);
+            if (namespaceEnd < 0) {
+                segments.add(DEFAULT_NAMESPACE);
+                defaultNamespace = true;
+                start = 0;
+            }
+            else {
+                segments.add(tag.substring(0, namespaceEnd));
+                start = namespaceEnd + 1;
+            }
+        }
+        int length = tag.length();
+        while (start < length) {
+            int end = segmentEnd(tag, start);
+            if (end > start) {
+                segments.add(tag.substring(start, end));
+            }
+            start = end + 1;
+        }
+        // the default namespace itself has no tag ID
+        if (segments.isEmpty() || segments.get(0).isEmpty() || (defaultNamespace && (segments.size() == 1))) {
+            return Collections.emptyList();
+        }
+        return segments;
+    }
+
+    /**
+     * Resolves a tag ID or path.
+     *
+     * @param tag tag ID or path
+     * @param moves number of followed moves
+     * @return node or null if not found
+     */
+    private Node resolve(String tag, int moves) {
+        Node node = root;
+        int start = startOfTagPath(tag);
+        boolean defaultNamespace = false;
+        if (start < 0) {
+            int namespaceEnd = namespaceEnd(tag);
+            if (namespaceEnd < 0) {
+                node = findChild(root, DEFAULT_NAMESPACE, 0, DEFAULT_NAMESPACE.length());
+                defaultNamespace = true;
+                start = 0;
+            }
+            else {
+                node = findChild(root, tag, 0, namespaceEnd);
+                start = namespaceEnd + 1;
+            }
+            node = followMove(node, moves);
+        }
+        int length = tag.length();
+        while ((node != null) && (start < length)) {
+            int end = segmentEnd(tag, start);
+            if (end > start) {
+                node = followMove(findChild(node, tag, start, end), moves);
+                defaultNamespace = false;
+            }
+            start = end + 1;
+        }
+        return ((node == root) || defaultNamespace) ? null : node;
+    }
+
+    private Node followMove(Node node, int moves) {
+        if ((node == null) || (node.movedTo == null)) {
+            return node;
+        }
+        if (moves >= MAX_MOVES) {
+            return null;
+        }
+        return resolve(node.movedTo, moves + 1);
+    }
+
+    /**
+     * Returns the start of the tag path after the tags root.
+     *
+     * @param tag tag ID or path
+     * @return start index or -1 if no path
+     */
+    private static int startOfTagPath(String tag) {
+        if (!tag.startsWith(TAGS_PATH)) {
+            return -1;
+        }
+        if (tag.length() == TAGS_PATH.length()) {
+            return TAGS_PATH.length();
+        }
+        return (tag.charAt(TAGS_PATH.length()) == PATH_DELIMITER) ? TAGS_PATH.length() + 1 : -1;
+    }
+
+    /**
+     * Returns the end of the namespace of a tag ID.
+     *
+     * @param tag tag ID
+     * @return index of the namespace delimiter or -1 for the default namespace
+     */
+    private static int namespaceEnd(String tag) {
+        int colon = tag.indexOf(NAMESPACE_DELIMITER);
+        if (colon < 0) {
+            return -1;
+        }
+        int slash = tag.indexOf(PATH_DELIMITER);
+        return ((slash < 0) || (colon < slash)) ? colon : -1;
+    }
+
+    private static int segmentEnd(String tag, int start) {
+        int end = tag.indexOf(PATH_DELIMITER, start);
+        return (end < 0) ? tag.length() : end;
+    }
+
+    /**
+     * Finds a child in the hash table of the parent.
+     *
+     * @param parent parent node
+     * @param name string that contains the name
+     * @param start start of the name
+     * @param end end of the name (exclusive)
+     * @return child or null
+     */
+    private static Node findChild(Node parent, String name, int start, int end) {
+        if (parent == null) {
+            return null;
+        }
+        Node[] table = parent.children;
+        if (table.length == 0) {
+            return null;
+        }
+        int hash = hash(name, start, end);
+        int length = end - start;
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            Node child = table[i];
+            if (child == null) {
+                return null;
+            }
+            if ((child.hash == hash) && (child.name.length() == length) && child.name.regionMatches(0, name, start, length)) {
+                return child;
+            }
+        }
+    }
+
+    /**
+     * Computes the hash code of a region like String.hashCode().
+     */
+    private static int hash(String name, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void insert(Node[] table, Node node) {
+        int mask = table.length - 1;
+        int i = spread(node.hash) & mask;
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = node;
+    }
+
+    private Node getOrAddChild(Node parent, String name) {
+        Node child = findChild(parent, name, 0, name.length());
+        if (child != null) {
+            return child;
+        }
+        child = new Node(name, parent);
+        Node[] table = parent.children;
+        // at most half of the slots are used, so lookups find a free slot quickly
+        if ((parent.childCount + 1) * 2 > table.length) {
+            Node[] newTable = new Node[Math.max(MIN_TABLE_SIZE, table.length * 2)];
+            for (Node existing : table) {
+                if (existing != null) {
+                    insert(newTable, existing);
+                }
+            }
+            table = newTable;
+        }
+        insert(table, child);
+        parent.childCount++;
+        // also publishes the new child if it was written to the current table
+        parent.children = table;
+        size.incrementAndGet();
+        return child;
+    }
+
+    private static int count(Node node) {
+        int count = 1;
+        for (Node child : node.children) {
+            if (child != null) {
+                count += count(child);
+            }
+        }
+        return count;
+    }
+
+    private static int countMoved(Node node) {
+        int count = (node.movedTo != null) ? 1 : 0;
+        for (Node child : node.children) {
+            if (child != null) {
+                count += countMoved(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tag in the trie.
+     */
+    private static final class Node {
+
+        private final String name;
+        private final int hash;
+        private final Node parent;
+        private volatile Node[] children = NO_CHILDREN;
+        private volatile String movedTo;
+        private int childCount;
+
+        private Node(String name, Node parent) {
+            this.name = name;
+            this.hash = name.hashCode();
+            this.parent = parent;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+
+/**
+ * Restriction pattern to check if a property contains a tag or one of its descendant tags (e.g. cq:tags).
+ * <p>
+ * The tags are resolved in the tag hierarchy of the pattern context if available. Then moved and merged tags are
+ * followed to their new tag. Without tag hierarchy or for unknown tags the tag IDs are compared.
+ *
+ * @author Roland Gruber
+ */
+public class TaggedPattern extends BasePattern {
+
+    public static final String ID = "aarTagged";
+
+    protected String propertyName;
+    protected String checkTag;
+    private final TagHierarchy tagHierarchy;
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$TAG_ID)
+     */
+    public TaggedPattern(String restrictionValue) {
+        this(restrictionValue, PatternContext.DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param restrictionValue restriction value (PROPERTY_NAME$TAG_ID)
+     * @param context pattern context
+     */
+    public TaggedPattern(String restrictionValue, PatternContext context) {
+        super(restrictionValue, context, getValueBeforeDelimiter(restrictionValue));
+        if (!restrictionValue.contains(DELIMITER)) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+        this.propertyName = restrictionValue.substring(0, restrictionValue.indexOf(DELIMITER));
+        this.checkTag = TagTrie.toTagId(restrictionValue.substring(restrictionValue.indexOf(DELIMITER) + 1));
+        if (checkTag == null) {
+            throw new IllegalStateException("Invalid restriction value: " + restrictionValue);
+        }
+        this.tagHierarchy = (context != null) ? context.getTagHierarchy() : null;
+    }
+
+    @Override
+    protected boolean singleValuePropertyMatches(PropertyState valueState) {
+        return isTagged(valueState.getValue(Type.STRING));
+    }
+
+    @Override
+    protected boolean multiValuePropertyMatches(PropertyState valueState) {
+        int count = valueState.count();
+        for (int i = 0; i < count; i++) {
+            if (isTagged(valueState.getValue(Type.STRING, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the tag is the restriction tag or one of its descendants.
+     *
+     * @param tag tag ID or path
+     * @return tagged
+     */
+    private boolean isTagged(String tag) {
+        if (tag == null) {
+            return false;
+        }
+        if (tagHierarchy != null) {
+            int result = tagHierarchy.check(tag, checkTag);
+            if (result != TagHierarchy.UNKNOWN) {
+                return result == TagHierarchy.TAGGED;
+            }
+        }
+        String tagId = TagTrie.toTagId(tag);
+        return (tagId != null) && TagTrie.isTagIdOrDescendant(tagId, checkTag);
+    }
+
+    /**
+     * Tags may be moved without changing the content, so results are not cached if the tag hierarchy is used.
+     *
+     * @return tag hierarchy is not used
+     */
+    @Override
+    protected boolean isCacheable() {
+        return tagHierarchy == null;
+    }
+
+    @Override
+    protected String getPropertyName() {
+        return propertyName;
+    }
+
+}
@@ -16,7 +16,7 @@
  * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
-@Version("2.0.0")
+@Version("2.1.0")
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
 
 import org.osgi.annotation.versioning.Version;
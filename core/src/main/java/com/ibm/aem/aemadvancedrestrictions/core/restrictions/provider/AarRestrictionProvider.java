@@ -18,15 +18,45 @@
  */
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
 
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache.LruCache;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache.LruCacheStats;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.clock.RestrictionClock;
 import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.*;
+import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.api.jmx.CacheStatsMBean;
+import org.apache.jackrabbit.oak.spi.commit.BackgroundObserver;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EditorProvider;
+import org.apache.jackrabbit.oak.spi.commit.Observer;
 import org.apache.jackrabbit.oak.spi.security.authorization.restriction.*;
+import org.apache.jackrabbit.oak.spi.state.NodeStore;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.security.AccessControlException;
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 /**
  * Restriction provider for AEM Advanced Restrictions.
@@ -34,114 +64,493 @@ import java.util.*;
  * @author Roland Gruber
  */
 @Component(service = RestrictionProvider.class)
+@Designate(ocd = AarRestrictionProvider.Config.class)
 public class AarRestrictionProvider extends AbstractRestrictionProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(AarRestrictionProvider.class);
 
+    /**
+     * Default maximum number of cached restriction patterns.
+     */
+    public static final int DEFAULT_PATTERN_CACHE_SIZE = 10000;
+
+    /**
+     * Default maximum number of cached results of hierarchical restrictions (disabled).
+     */
+    public static final int DEFAULT_HIERARCHY_CACHE_SIZE = 0;
+
+    /**
+     * Default maximum number of cached restriction results (disabled).
+     */
+    public static final int DEFAULT_RESULT_CACHE_SIZE = 0;
+
+    /**
+     * Default maximum number of cached base node resolutions (disabled).
+     */
+    public static final int DEFAULT_BASE_NODE_CACHE_SIZE = 0;
+
+    /**
+     * Default maximum age in seconds of cached restriction results (no limit).
+     */
+    public static final long DEFAULT_CACHE_MAX_AGE = 0;
+
+    /**
+     * Default epoch of restriction summaries (disabled).
+     */
+    public static final int DEFAULT_RESTRICTION_SUMMARY_EPOCH = 0;
+
+    /**
+     * Default expected number of pages, assets and folders per existence filter (disabled).
+     */
+    public static final int DEFAULT_EXISTENCE_FILTER_SIZE = 0;
+
+    /**
+     * Default false positive rate of existence filters.
+     */
+    public static final double DEFAULT_EXISTENCE_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Default setting for the tag hierarchy of aarTagged restrictions (enabled).
+     */
+    public static final boolean DEFAULT_TAG_HIERARCHY = true;
+
+    private static final String EXISTENCE_FILTER_DIRECTORY = "existence-filters";
+
+    private static final String RESTRICTION_SUMMARY_STATE_FILE = "restriction-summary.properties";
+
+    private static final String PATTERN_CACHE_NAME = "AEM Advanced Restrictions - Restriction patterns";
+
+    /**
+     * Supported restrictions.
+     */
+    private static final Map<String, PatternType> PATTERN_TYPES = createPatternTypes();
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC, policyOption = ReferencePolicyOption.GREEDY)
+    private volatile RestrictionClock clock;
+
+    /**
+     * Used to backfill restriction summaries and to build existence filters and the tag hierarchy.
+     */
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC, policyOption = ReferencePolicyOption.GREEDY)
+    private volatile NodeStore nodeStore;
+
+    /**
+     * Date patterns are cached, so they must not keep a fixed clock instance.
+     */
+    private final RestrictionClock patternClock = () -> getClock().currentTimeMillis();
+
+    private volatile PatternContext patternContext = PatternContext.builder().clock(patternClock).build();
+
+    private volatile LruCache<PatternKey, RestrictionPattern> patternCache = new LruCache<>(PATTERN_CACHE_NAME, DEFAULT_PATTERN_CACHE_SIZE);
+
+    private final List<ServiceRegistration<?>> serviceRegistrations = new ArrayList<>();
+
+    private BackgroundObserver backgroundObserver;
+    private ExecutorService observerExecutor;
+    private ExistenceFilterManager existenceFilterManager;
+    private TagHierarchyManager tagHierarchyManager;
+    private ExecutorService existenceFilterExecutor;
+    private RestrictionSummaryVersion restrictionSummaryVersion;
+
+    @ObjectClassDefinition(name = "AEM Advanced Restrictions - Restriction Provider",
+            description = "Provides the AEM Advanced Restrictions")
+    public @interface Config {
+
+        @AttributeDefinition(name = "Pattern cache size",
+                description = "Maximum number of cached restriction patterns. Equal restrictions share the same pattern instance. Use 0 to disable caching.")
+        int patternCacheSize() default DEFAULT_PATTERN_CACHE_SIZE;
+
+        @AttributeDefinition(name = "Hierarchy boundaries",
+                description = "Absolute paths where hierarchical restrictions stop to check the parent nodes (e.g. /content/dam). The boundary node itself is still checked.")
+        String[] hierarchyBoundaries() default {};
+
+        @AttributeDefinition(name = "Hierarchy cache size",
+                description = "Maximum number of cached results of hierarchical restrictions on folders and other ancestor nodes. Results are invalidated in the background when restricted properties or the node structure below the folder change. Use 0 to disable caching.")
+        int hierarchyCacheSize() default DEFAULT_HIERARCHY_CACHE_SIZE;
+
+        @AttributeDefinition(name = "Result cache size",
+                description = "Maximum number of cached restriction results (restriction and page/asset/folder). The results are shared by all sessions. Date restrictions are not cached. Results are invalidated in the background when restricted properties or the node structure change. Use 0 to disable caching.")
+        int resultCacheSize() default DEFAULT_RESULT_CACHE_SIZE;
+
+        @AttributeDefinition(name = "Cache max age (s)",
+                description = "Maximum age of cached results of (hierarchical) restrictions in seconds. This limits how long outdated results can be used, e.g. while changes of other cluster nodes are not yet processed or sessions were not refreshed. The hierarchy and result caches are only enabled with a maximum age.")
+        long cacheMaxAge() default DEFAULT_CACHE_MAX_AGE;
+
+        @AttributeDefinition(name = "Evaluation memo",
+                description = "Evaluates equal restrictions only once per item when they are used in multiple access control entries.")
+        boolean evaluationMemo() default true;
+
+        @AttributeDefinition(name = "Base node cache size",
+                description = "Maximum number of cached base node (page, asset, folder) resolutions for subnodes like renditions. The cache is invalidated when nodes are added, moved or removed. Use 0 to disable caching.")
+        int baseNodeCacheSize() default DEFAULT_BASE_NODE_CACHE_SIZE;
+
+        @AttributeDefinition(name = "Restriction summary epoch",
+                description = "Experimental: enables restriction summaries that store the results of restrictions on jcr:content of pages, assets and folders when they are saved. Restrictions are then answered with a single property read. Increase the epoch to ignore all existing summaries (e.g. after an update) and run the backfill of the RestrictionSummary MBean. Use 0 to disable summaries.")
+        int restrictionSummaryEpoch() default DEFAULT_RESTRICTION_SUMMARY_EPOCH;
+
+        @AttributeDefinition(name = "Existence filter size",
+                description = "Enables Bloom filters for aarPropertyExists and aarNodeExists restrictions. Pages, assets and folders without the property or node are then rejected without reading their content. Enter the expected number of pages, assets and folders that have the property or node. Each filter uses about 1.2 bytes per entry at 1% false positive rate. The filters are built in the background and stored in the bundle data area. They are not used on clustered node stores (DocumentNodeStore). Use 0 to disable the filters.")
+        int existenceFilterSize() default DEFAULT_EXISTENCE_FILTER_SIZE;
+
+        @AttributeDefinition(name = "Existence filter false positive rate",
+                description = "Rate of pages, assets and folders without the property or node that are not rejected by the existence filters when they contain the expected number of entries (e.g. 0.01 for 1%).")
+        double existenceFilterFalsePositiveRate() default DEFAULT_EXISTENCE_FILTER_FALSE_POSITIVE_RATE;
+
+        @AttributeDefinition(name = "Tag hierarchy",
+                description = "Keeps a trie of all tags below /content/cq:tags in memory for aarTagged restrictions. Descendant tags are then found by walking the tag path and moved or merged tags are resolved. The trie is built at activation and updated on tag changes. If disabled, the tag IDs are compared.")
+        boolean tagHierarchy() default DEFAULT_TAG_HIERARCHY;
+
+    }
+
     public AarRestrictionProvider() {
         super(getSupportedDefinitions());
     }
 
+    /**
+     * Constructor for usage outside OSGi (e.g. tests).
+     *
+     * @param clock clock for date restrictions
+     */
+    public AarRestrictionProvider(RestrictionClock clock) {
+        this();
+        this.clock = clock;
+    }
+
+    /**
+     * Constructor for usage outside OSGi (e.g. tests) with custom pattern settings.
+     * The clock of the context is used for date restrictions.
+     *
+     * @param context pattern context
+     */
+    public AarRestrictionProvider(PatternContext context) {
+        this(context.getClock());
+        this.patternContext = context;
+    }
+
     private static Map<String,RestrictionDefinition> getSupportedDefinitions() {
         Map<String,RestrictionDefinition> definitions = new HashMap<>();
-        definitions.put(PropertyMatchPattern.ID, new RestrictionDefinitionImpl(PropertyMatchPattern.ID, Type.STRING, false));
-        definitions.put(PropertyStartsWithPattern.ID, new RestrictionDefinitionImpl(PropertyStartsWithPattern.ID, Type.STRING, false));
-        definitions.put(PropertyEndsWithPattern.ID, new RestrictionDefinitionImpl(PropertyEndsWithPattern.ID, Type.STRING, false));
-        definitions.put(PropertyContainsPattern.ID, new RestrictionDefinitionImpl(PropertyContainsPattern.ID, Type.STRING, false));
-        definitions.put(PropertyExistsPattern.ID, new RestrictionDefinitionImpl(PropertyExistsPattern.ID, Type.STRING, false));
-        definitions.put(PropertyNotExistsPattern.ID, new RestrictionDefinitionImpl(PropertyNotExistsPattern.ID, Type.STRING, false));
-        definitions.put(DateInPastPattern.ID, new RestrictionDefinitionImpl(DateInPastPattern.ID, Type.STRING, false));
-        definitions.put(DateInFuturePattern.ID, new RestrictionDefinitionImpl(DateInFuturePattern.ID, Type.STRING, false));
-        definitions.put(NumberLessPattern.ID, new RestrictionDefinitionImpl(NumberLessPattern.ID, Type.STRING, false));
-        definitions.put(NumberGreaterPattern.ID, new RestrictionDefinitionImpl(NumberGreaterPattern.ID, Type.STRING, false));
-        definitions.put(NodeExistsPattern.ID, new RestrictionDefinitionImpl(NodeExistsPattern.ID, Type.STRING, false));
-        definitions.put(NodeNotExistsPattern.ID, new RestrictionDefinitionImpl(NodeNotExistsPattern.ID, Type.STRING, false));
-        definitions.put(PathContainsFolderPattern.ID, new RestrictionDefinitionImpl(PathContainsFolderPattern.ID, Type.STRING, false));
-        definitions.put(PropertyMatchHierarchicalPattern.ID, new RestrictionDefinitionImpl(PropertyMatchHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(DateInPastHierarchicalPattern.ID, new RestrictionDefinitionImpl(DateInPastHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(DateInFutureHierarchicalPattern.ID, new RestrictionDefinitionImpl(DateInFutureHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(NumberLessHierarchicalPattern.ID, new RestrictionDefinitionImpl(NumberLessHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(NumberGreaterHierarchicalPattern.ID, new RestrictionDefinitionImpl(NumberGreaterHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(PropertyContainsHierarchicalPattern.ID, new RestrictionDefinitionImpl(PropertyContainsHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(PropertyEndsWithHierarchicalPattern.ID, new RestrictionDefinitionImpl(PropertyEndsWithHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(PropertyStartsWithHierarchicalPattern.ID, new RestrictionDefinitionImpl(PropertyStartsWithHierarchicalPattern.ID, Type.STRING, false));
-        definitions.put(PropertyExistsHierarchicalPattern.ID, new RestrictionDefinitionImpl(PropertyExistsHierarchicalPattern.ID, Type.STRING, false));
+        for (String name : PATTERN_TYPES.keySet()) {
+            definitions.put(name, new RestrictionDefinitionImpl(name, Type.STRING, false));
+        }
         return definitions;
     }
 
-    @Override
-    public RestrictionPattern getPattern(String path, Tree tree) {
-        if (path == null) {
-            return RestrictionPattern.EMPTY;
+    private static Map<String, PatternType> createPatternTypes() {
+        Map<String, PatternType> types = new LinkedHashMap<>();
+        addPatternType(types, PropertyMatchPattern.ID, PropertyMatchPattern::new);
+        addPatternType(types, PropertyStartsWithPattern.ID, PropertyStartsWithPattern::new);
+        addPatternType(types, PropertyEndsWithPattern.ID, PropertyEndsWithPattern::new);
+        addPatternType(types, PropertyContainsPattern.ID, PropertyContainsPattern::new);
+        addPatternType(types, PropertyExistsPattern.ID, PropertyExistsPattern::new);
+        addPatternType(types, PropertyNotExistsPattern.ID, PropertyNotExistsPattern::new);
+        addPatternType(types, DateInPastPattern.ID, DateInPastPattern::new);
+        addPatternType(types, DateInFuturePattern.ID, DateInFuturePattern::new);
+        addPatternType(types, NumberLessPattern.ID, NumberLessPattern::new);
+        addPatternType(types, NumberGreaterPattern.ID, NumberGreaterPattern::new);
+        addPatternType(types, NodeExistsPattern.ID, NodeExistsPattern::new);
+        addPatternType(types, NodeNotExistsPattern.ID, NodeNotExistsPattern::new);
+        addPatternType(types, PathContainsFolderPattern.ID, PathContainsFolderPattern::new);
+        addPatternType(types, PropertyMatchHierarchicalPattern.ID, PropertyMatchHierarchicalPattern::new);
+        addPatternType(types, DateInPastHierarchicalPattern.ID, DateInPastHierarchicalPattern::new);
+        addPatternType(types, DateInFutureHierarchicalPattern.ID, DateInFutureHierarchicalPattern::new);
+        addPatternType(types, NumberLessHierarchicalPattern.ID, NumberLessHierarchicalPattern::new);
+        addPatternType(types, NumberGreaterHierarchicalPattern.ID, NumberGreaterHierarchicalPattern::new);
+        addPatternType(types, PropertyContainsHierarchicalPattern.ID, PropertyContainsHierarchicalPattern::new);
+        addPatternType(types, PropertyEndsWithHierarchicalPattern.ID, PropertyEndsWithHierarchicalPattern::new);
+        addPatternType(types, PropertyStartsWithHierarchicalPattern.ID, PropertyStartsWithHierarchicalPattern::new);
+        addPatternType(types, PropertyExistsHierarchicalPattern.ID, PropertyExistsHierarchicalPattern::new);
+        addPatternType(types, PropertyInPattern.ID, PropertyInPattern::new);
+        addPatternType(types, PropertyInHierarchicalPattern.ID, PropertyInHierarchicalPattern::new);
+        addPatternType(types, PropertyStartsWithAnyPattern.ID, PropertyStartsWithAnyPattern::new);
+        addPatternType(types, PropertyStartsWithAnyHierarchicalPattern.ID, PropertyStartsWithAnyHierarchicalPattern::new);
+        addPatternType(types, PropertyEndsWithAnyPattern.ID, PropertyEndsWithAnyPattern::new);
+        addPatternType(types, PropertyEndsWithAnyHierarchicalPattern.ID, PropertyEndsWithAnyHierarchicalPattern::new);
+        addPatternType(types, PropertyContainsAnyPattern.ID, PropertyContainsAnyPattern::new);
+        addPatternType(types, PropertyContainsAnyHierarchicalPattern.ID, PropertyContainsAnyHierarchicalPattern::new);
+        addPatternType(types, PropertyRegexPattern.ID, PropertyRegexPattern::new);
+        addPatternType(types, PropertyRegexHierarchicalPattern.ID, PropertyRegexHierarchicalPattern::new);
+        addPatternType(types, TaggedPattern.ID, TaggedPattern::new);
+        addPatternType(types, TaggedHierarchicalPattern.ID, TaggedHierarchicalPattern::new);
+        addPatternType(types, NumberBetweenPattern.ID, NumberBetweenPattern::new);
+        addPatternType(types, NumberBetweenHierarchicalPattern.ID, NumberBetweenHierarchicalPattern::new);
+        return Collections.unmodifiableMap(types);
+    }
+
+    private static void addPatternType(Map<String, PatternType> types, String name, BiFunction<String, PatternContext, RestrictionPattern> factory) {
+        types.put(name, new PatternType(name, factory));
+    }
+
+    @Activate
+    @Modified
+    protected synchronized void activate(BundleContext bundleContext, Config config) {
+        unregisterServices();
+        ExistenceFilterManager filterManager = null;
+        if (config.existenceFilterSize() > 0) {
+            filterManager = createExistenceFilterManager(bundleContext, config);
         }
-        List<RestrictionPattern> patterns = new ArrayList<>();
-        if (tree.hasProperty(PropertyMatchPattern.ID)) {
-            patterns.add(new PropertyMatchPattern(tree.getProperty(PropertyMatchPattern.ID).getValue(Type.STRING)));
+        TagHierarchyManager tagHierarchy = null;
+        if (config.tagHierarchy()) {
+            tagHierarchy = createTagHierarchy();
         }
-        else if (tree.hasProperty(PropertyStartsWithPattern.ID)) {
-            patterns.add(new PropertyStartsWithPattern(tree.getProperty(PropertyStartsWithPattern.ID).getValue(Type.STRING)));
+        PatternContext context = PatternContext.builder()
+                .clock(patternClock)
+                .hierarchyBoundaries(config.hierarchyBoundaries())
+                .hierarchyCacheSize(config.hierarchyCacheSize())
+                .evaluationMemo(config.evaluationMemo())
+                .baseNodeCacheSize(config.baseNodeCacheSize())
+                .resultCacheSize(config.resultCacheSize())
+                .cacheMaxAge(TimeUnit.SECONDS.toMillis(Math.max(0, config.cacheMaxAge())))
+                .restrictionSummary(config.restrictionSummaryEpoch())
+                .existenceFilters(filterManager)
+                .tagHierarchy(tagHierarchy)
+                .build();
+        if (((config.hierarchyCacheSize() > 0) || (config.resultCacheSize() > 0)) && (config.cacheMaxAge() <= 0)) {
+            LOG.warn("Hierarchy and result caches are disabled, they require a cache max age");
         }
-        else if (tree.hasProperty(PropertyEndsWithPattern.ID)) {
-            patterns.add(new PropertyEndsWithPattern(tree.getProperty(PropertyEndsWithPattern.ID).getValue(Type.STRING)));
+        patternContext = context;
+        // patterns keep their context, so cached patterns must be recreated
+        patternCache = new LruCache<>(PATTERN_CACHE_NAME, Math.max(0, config.patternCacheSize()));
+        registerCacheStats(bundleContext, patternCache, "RestrictionPatterns");
+        boolean hierarchyCacheUsed = context.getHierarchyCache().getMaxSize() > 0;
+        boolean resultCacheUsed = context.getResultCache().getMaxSize() > 0;
+        if (hierarchyCacheUsed) {
+            registerCacheStats(bundleContext, context.getHierarchyCache(), "HierarchicalRestrictionResults");
         }
-        else if (tree.hasProperty(PropertyContainsPattern.ID)) {
-            patterns.add(new PropertyContainsPattern(tree.getProperty(PropertyContainsPattern.ID).getValue(Type.STRING)));
+        if (resultCacheUsed) {
+            registerCacheStats(bundleContext, context.getResultCache(), "RestrictionResults");
         }
-        else if (tree.hasProperty(PropertyExistsPattern.ID)) {
-            patterns.add(new PropertyExistsPattern(tree.getProperty(PropertyExistsPattern.ID).getValue(Type.STRING)));
+        if (config.baseNodeCacheSize() > 0) {
+            registerCacheStats(bundleContext, context.getBaseNodeCache(), "BaseNodes");
         }
-        else if (tree.hasProperty(PropertyNotExistsPattern.ID)) {
-            patterns.add(new PropertyNotExistsPattern(tree.getProperty(PropertyNotExistsPattern.ID).getValue(Type.STRING)));
+        if (hierarchyCacheUsed || resultCacheUsed || (config.baseNodeCacheSize() > 0)) {
+            registerContentChangeObserver(bundleContext, new ContentChangeObserver(context));
         }
-        else if (tree.hasProperty(DateInPastPattern.ID)) {
-            patterns.add(new DateInPastPattern(tree.getProperty(DateInPastPattern.ID).getValue(Type.STRING)));
+        if (context.isSummaryEnabled()) {
+            registerRestrictionSummary(bundleContext, context);
         }
-        else if (tree.hasProperty(DateInFuturePattern.ID)) {
-            patterns.add(new DateInFuturePattern(tree.getProperty(DateInFuturePattern.ID).getValue(Type.STRING)));
+        else {
+            // summaries that are written with the same epoch later must not be trusted
+            RestrictionSummaryVersion.remove(nodeStore);
         }
-        else if (tree.hasProperty(NumberLessPattern.ID)) {
-            patterns.add(new NumberLessPattern(tree.getProperty(NumberLessPattern.ID).getValue(Type.STRING)));
+        if (filterManager != null) {
+            registerExistenceFilters(bundleContext, filterManager);
         }
-        else if (tree.hasProperty(NumberGreaterPattern.ID)) {
-            patterns.add(new NumberGreaterPattern(tree.getProperty(NumberGreaterPattern.ID).getValue(Type.STRING)));
+        if (tagHierarchy != null) {
+            tagHierarchyManager = tagHierarchy;
+            addServiceRegistration(bundleContext.registerService(Observer.class, tagHierarchy, null));
         }
-        else if (tree.hasProperty(NodeExistsPattern.ID)) {
-            patterns.add(new NodeExistsPattern(tree.getProperty(NodeExistsPattern.ID).getValue(Type.STRING)));
+    }
+
+    /**
+     * Creates the tag hierarchy. The tag trie is built from the node store if available, otherwise with the first
+     * observer notification.
+     *
+     * @return tag hierarchy
+     */
+    private TagHierarchyManager createTagHierarchy() {
+        TagHierarchyManager tagHierarchy = new TagHierarchyManager();
+        NodeStore store = nodeStore;
+        if (store != null) {
+            tagHierarchy.contentChanged(store.getRoot(), CommitInfo.EMPTY);
         }
-        else if (tree.hasProperty(NodeNotExistsPattern.ID)) {
-            patterns.add(new NodeNotExistsPattern(tree.getProperty(NodeNotExistsPattern.ID).getValue(Type.STRING)));
+        return tagHierarchy;
+    }
+
+    /**
+     * Creates the existence filters. The stored filters are loaded in the background.
+     *
+     * @param bundleContext bundle context
+     * @param config configuration
+     * @return filters or null if the bundle data area is not available
+     */
+    private ExistenceFilterManager createExistenceFilterManager(BundleContext bundleContext, Config config) {
+        File directory = bundleContext.getDataFile(EXISTENCE_FILTER_DIRECTORY);
+        if ((directory == null) || (!directory.isDirectory() && !directory.mkdirs())) {
+            LOG.warn("Existence filters are disabled, no bundle data area available");
+            return null;
         }
-        else if (tree.hasProperty(PathContainsFolderPattern.ID)) {
-            patterns.add(new PathContainsFolderPattern(tree.getProperty(PathContainsFolderPattern.ID).getValue(Type.STRING)));
+        existenceFilterExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AEM Advanced Restrictions - Existence filter builder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        ExistenceFilterManager manager = new ExistenceFilterManager(directory, () -> nodeStore,
+                config.existenceFilterSize(), config.existenceFilterFalsePositiveRate(), existenceFilterExecutor);
+        existenceFilterManager = manager;
+        manager.start();
+        return manager;
+    }
+
+    /**
+     * Registers the commit hook and observer that update the existence filters and the MBean for their statistics.
+     *
+     * @param bundleContext bundle context
+     * @param manager existence filters
+     */
+    private void registerExistenceFilters(BundleContext bundleContext, ExistenceFilterManager manager) {
+        ExistenceFilterEditorProvider editorProvider = new ExistenceFilterEditorProvider(manager);
+        addServiceRegistration(bundleContext.registerService(EditorProvider.class, editorProvider, null));
+        addServiceRegistration(bundleContext.registerService(Observer.class, editorProvider, null));
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("jmx.objectname", "com.ibm.aem.aemadvancedrestrictions:type=" + ExistenceFilterStatsMBean.TYPE + ",name=ExistenceFilters");
+        addServiceRegistration(bundleContext.registerService(ExistenceFilterStatsMBean.class, manager, properties));
+    }
+
+    /**
+     * Registers the commit hook that writes the restriction summaries and the MBean for the backfill. The version of
+     * the summaries is read from the repository after the commit hook is active.
+     *
+     * @param bundleContext bundle context
+     * @param context pattern context
+     */
+    private void registerRestrictionSummary(BundleContext bundleContext, PatternContext context) {
+        addServiceRegistration(bundleContext.registerService(EditorProvider.class, new RestrictionSummaryEditorProvider(context), null));
+        RestrictionSummaryVersion version = new RestrictionSummaryVersion(context, () -> nodeStore,
+                bundleContext.getDataFile(RESTRICTION_SUMMARY_STATE_FILE));
+        if (version.start()) {
+            restrictionSummaryVersion = version;
+            addServiceRegistration(bundleContext.registerService(Observer.class, version, null));
+        }
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("jmx.objectname", "com.ibm.aem.aemadvancedrestrictions:type=" + RestrictionSummaryMBean.TYPE + ",name=Backfill");
+        addServiceRegistration(bundleContext.registerService(RestrictionSummaryMBean.class, new RestrictionSummaryBackfill(context, () -> nodeStore), properties));
+    }
+
+    /**
+     * Registers the observer and its statistics. The changes are processed in a background thread to keep the commits
+     * fast. Oak also notifies observers about external changes of other cluster nodes.
+     *
+     * @param bundleContext bundle context
+     * @param observer observer
+     */
+    private void registerContentChangeObserver(BundleContext bundleContext, ContentChangeObserver observer) {
+        observerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AEM Advanced Restrictions - Content change observer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BackgroundObserver queue = new BackgroundObserver(observer, observerExecutor);
+        backgroundObserver = queue;
+        Observer queueingObserver = (root, info) -> {
+            observer.changeQueued(info);
+            queue.contentChanged(root, info);
+        };
+        addServiceRegistration(bundleContext.registerService(Observer.class, queueingObserver, null));
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("jmx.objectname", "com.ibm.aem.aemadvancedrestrictions:type=" + ContentChangeStatsMBean.TYPE + ",name=ContentChangeObserver");
+        addServiceRegistration(bundleContext.registerService(ContentChangeStatsMBean.class, observer, properties));
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        unregisterServices();
+    }
+
+    private void registerCacheStats(BundleContext bundleContext, LruCache<?, ?> cache, String name) {
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("jmx.objectname", "com.ibm.aem.aemadvancedrestrictions:type=" + CacheStatsMBean.TYPE + ",name=" + name);
+        addServiceRegistration(bundleContext.registerService(CacheStatsMBean.class, new LruCacheStats(cache), properties));
+    }
+
+    private void addServiceRegistration(ServiceRegistration<?> registration) {
+        if (registration != null) {
+            serviceRegistrations.add(registration);
         }
-        else if (tree.hasProperty(PropertyMatchHierarchicalPattern.ID)) {
-            patterns.add(new PropertyMatchHierarchicalPattern(tree.getProperty(PropertyMatchHierarchicalPattern.ID).getValue(Type.STRING)));
+    }
+
+    private void unregisterServices() {
+        // stores the existence filters with a checkpoint before they stop to receive changes
+        if (existenceFilterManager != null) {
+            existenceFilterManager.close();
+            existenceFilterManager = null;
         }
-        else if (tree.hasProperty(DateInPastHierarchicalPattern.ID)) {
-            patterns.add(new DateInPastHierarchicalPattern(tree.getProperty(DateInPastHierarchicalPattern.ID).getValue(Type.STRING)));
+        if (restrictionSummaryVersion != null) {
+            restrictionSummaryVersion.close();
+            restrictionSummaryVersion = null;
         }
-        else if (tree.hasProperty(DateInFutureHierarchicalPattern.ID)) {
-            patterns.add(new DateInFutureHierarchicalPattern(tree.getProperty(DateInFutureHierarchicalPattern.ID).getValue(Type.STRING)));
+        for (ServiceRegistration<?> registration : serviceRegistrations) {
+            try {
+                registration.unregister();
+            }
+            catch (IllegalStateException e) {
+                LOG.debug("Service already unregistered");
+            }
         }
-        else if (tree.hasProperty(NumberLessHierarchicalPattern.ID)) {
-            patterns.add(new NumberLessHierarchicalPattern(tree.getProperty(NumberLessHierarchicalPattern.ID).getValue(Type.STRING)));
+        serviceRegistrations.clear();
+        if (backgroundObserver != null) {
+            backgroundObserver.close();
+            backgroundObserver = null;
         }
-        else if (tree.hasProperty(NumberGreaterHierarchicalPattern.ID)) {
-            patterns.add(new NumberGreaterHierarchicalPattern(tree.getProperty(NumberGreaterHierarchicalPattern.ID).getValue(Type.STRING)));
+        // patterns of sessions may still use the context and tags, but they no longer receive changes
+        patternContext.close();
+        if (tagHierarchyManager != null) {
+            tagHierarchyManager.close();
+            tagHierarchyManager = null;
         }
-        else if (tree.hasProperty(PropertyContainsHierarchicalPattern.ID)) {
-            patterns.add(new PropertyContainsHierarchicalPattern(tree.getProperty(PropertyContainsHierarchicalPattern.ID).getValue(Type.STRING)));
+        if (observerExecutor != null) {
+            observerExecutor.shutdown();
+            observerExecutor = null;
         }
-        else if (tree.hasProperty(PropertyEndsWithHierarchicalPattern.ID)) {
-            patterns.add(new PropertyEndsWithHierarchicalPattern(tree.getProperty(PropertyEndsWithHierarchicalPattern.ID).getValue(Type.STRING)));
+        if (existenceFilterExecutor != null) {
+            existenceFilterExecutor.shutdownNow();
+            existenceFilterExecutor = null;
         }
-        else if (tree.hasProperty(PropertyStartsWithHierarchicalPattern.ID)) {
-            patterns.add(new PropertyStartsWithHierarchicalPattern(tree.getProperty(PropertyStartsWithHierarchicalPattern.ID).getValue(Type.STRING)));
+    }
+
+    /**
+     * Returns the statistics of the pattern cache.
+     *
+     * @return statistics
+     */
+    public CacheStatsMBean getPatternCacheStats() {
+        return new LruCacheStats(patternCache);
+    }
+
+    /**
+     * Returns the context that is used for new patterns.
+     *
+     * @return context
+     */
+    public PatternContext getPatternContext() {
+        return patternContext;
+    }
+
+    /**
+     * Returns a shared pattern instance for the given restriction.
+     * Patterns are immutable, so all ACEs with the same restriction can use the same instance.
+     *
+     * @param type restriction type
+     * @param value restriction value
+     * @return pattern
+     */
+    private RestrictionPattern getCachedPattern(PatternType type, String value) {
+        return patternCache.get(new PatternKey(type.name, value), key -> type.factory.apply(key.value, patternContext));
+    }
+
+    /**
+     * Returns the clock for date restrictions. Falls back to system time if no clock service is available.
+     *
+     * @return clock
+     */
+    private RestrictionClock getClock() {
+        RestrictionClock currentClock = clock;
+        return (currentClock != null) ? currentClock : RestrictionClock.SYSTEM;
+    }
+
+    @Override
+    public RestrictionPattern getPattern(String path, Tree tree) {
+        if (path == null) {
+            return RestrictionPattern.EMPTY;
         }
-        else if (tree.hasProperty(PropertyExistsHierarchicalPattern.ID)) {
-            patterns.add(new PropertyExistsHierarchicalPattern(tree.getProperty(PropertyExistsHierarchicalPattern.ID).getValue(Type.STRING)));
+        List<RestrictionPattern> patterns = new ArrayList<>();
+        for (PropertyState property : tree.getProperties()) {
+            PatternType type = PATTERN_TYPES.get(property.getName());
+            if (type != null) {
+                patterns.add(getCachedPattern(type, property.getValue(Type.STRING)));
+            }
         }
-        return CompositePattern.create(patterns);
+        return createComposite(patterns);
     }
 
     @Override
@@ -152,80 +561,121 @@ public class AarRestrictionProvider extends AbstractRestrictionProvider {
         List<RestrictionPattern> patterns = new ArrayList<>();
         try {
             for (Restriction restriction : restrictions) {
-                switch (restriction.getDefinition().getName()) {
-                    case PropertyMatchPattern.ID:
-                        patterns.add(new PropertyMatchPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyExistsPattern.ID:
-                        patterns.add(new PropertyExistsPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyNotExistsPattern.ID:
-                        patterns.add(new PropertyNotExistsPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case DateInPastPattern.ID:
-                        patterns.add(new DateInPastPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case DateInFuturePattern.ID:
-                        patterns.add(new DateInFuturePattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case NumberLessPattern.ID:
-                        patterns.add(new NumberLessPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case NumberGreaterPattern.ID:
-                        patterns.add(new NumberGreaterPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case NodeExistsPattern.ID:
-                        patterns.add(new NodeExistsPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case NodeNotExistsPattern.ID:
-                        patterns.add(new NodeNotExistsPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyStartsWithPattern.ID:
-                        patterns.add(new PropertyStartsWithPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyEndsWithPattern.ID:
-                        patterns.add(new PropertyEndsWithPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyContainsPattern.ID:
-                        patterns.add(new PropertyContainsPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PathContainsFolderPattern.ID:
-                        patterns.add(new PathContainsFolderPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyMatchHierarchicalPattern.ID:
-                        patterns.add(new PropertyMatchHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case DateInPastHierarchicalPattern.ID:
-                        patterns.add(new DateInPastHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case DateInFutureHierarchicalPattern.ID:
-                        patterns.add(new DateInFutureHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case NumberLessHierarchicalPattern.ID:
-                        patterns.add(new NumberLessHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case NumberGreaterHierarchicalPattern.ID:
-                        patterns.add(new NumberGreaterHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyContainsHierarchicalPattern.ID:
-                        patterns.add(new PropertyContainsHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyEndsWithHierarchicalPattern.ID:
-                        patterns.add(new PropertyEndsWithHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyStartsWithHierarchicalPattern.ID:
-                        patterns.add(new PropertyStartsWithHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
-                    case PropertyExistsHierarchicalPattern.ID:
-                        patterns.add(new PropertyExistsHierarchicalPattern(restriction.getProperty().getValue(Type.STRING)));
-                        break;
+                PatternType type = PATTERN_TYPES.get(restriction.getDefinition().getName());
+                if (type != null) {
+                    patterns.add(getCachedPattern(type, restriction.getProperty().getValue(Type.STRING)));
                 }
             }
         }
         catch (IllegalStateException e) {
             LOG.error("Unable to build list of restriction patterns for {}: {}", path, e.getMessage());
         }
-        return CompositePattern.create(patterns);
+        return createComposite(patterns);
+    }
+
+    @Override
+    public Restriction createRestriction(String oakPath, String oakName, Value value) throws RepositoryException {
+        Restriction restriction = super.createRestriction(oakPath, oakName, value);
+        validatePattern(restriction);
+        return restriction;
+    }
+
+    @Override
+    public void validateRestrictions(String oakPath, Tree aceTree) throws AccessControlException {
+        super.validateRestrictions(oakPath, aceTree);
+        for (Restriction restriction : readRestrictions(oakPath, aceTree)) {
+            validatePattern(restriction);
+        }
+    }
+
+    /**
+     * Checks if the restriction value can be compiled into a pattern, so that invalid values (e.g. unsupported
+     * regular expressions) are rejected when the ACL is written and not when it is evaluated.
+     *
+     * @param restriction restriction
+     * @throws AccessControlException invalid restriction value
+     */
+    private void validatePattern(Restriction restriction) throws AccessControlException {
+        PatternType type = PATTERN_TYPES.get(restriction.getDefinition().getName());
+        if (type == null) {
+            return;
+        }
+        try {
+            getCachedPattern(type, restriction.getProperty().getValue(Type.STRING));
+        }
+        catch (IllegalStateException | IllegalArgumentException e) {
+            throw new AccessControlException("Invalid value for restriction " + type.name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Combines the patterns with AND. The patterns are ordered by their evaluation cost, so that cheap checks
+     * can skip the expensive ones. The base node and its subnodes are resolved once for all patterns.
+     *
+     * @param patterns patterns
+     * @return combined pattern
+     */
+    static RestrictionPattern createComposite(List<RestrictionPattern> patterns) {
+        if (patterns.size() > 1) {
+            patterns.sort(Comparator.comparingInt(AarRestrictionProvider::getCost));
+        }
+        return AarCompositePattern.create(patterns);
+    }
+
+    private static int getCost(RestrictionPattern pattern) {
+        if (pattern instanceof BasePattern) {
+            return ((BasePattern) pattern).getCost();
+        }
+        return BasePattern.COST_PROPERTY;
+    }
+
+    /**
+     * Supported restriction with its pattern factory.
+     */
+    private static final class PatternType {
+
+        private final String name;
+        private final BiFunction<String, PatternContext, RestrictionPattern> factory;
+
+        PatternType(String name, BiFunction<String, PatternContext, RestrictionPattern> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+    }
+
+    /**
+     * Cache key for restriction patterns.
+     */
+    private static final class PatternKey {
+
+        private final String name;
+        private final String value;
+        private final int hash;
+
+        PatternKey(String name, String value) {
+            this.name = name;
+            this.value = value;
+            this.hash = 31 * name.hashCode() + Objects.hashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PatternKey)) {
+                return false;
+            }
+            PatternKey otherKey = (PatternKey) other;
+            return (hash == otherKey.hash) && name.equals(otherKey.name) && Objects.equals(value, otherKey.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
     }
 
 }
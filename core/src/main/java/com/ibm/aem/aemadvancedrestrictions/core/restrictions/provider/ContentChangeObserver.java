@@ -0,0 +1,290 @@
+/**
+ * Copyright 2026 - 2025 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.clock.RestrictionClock;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.Observer;
+import org.apache.jackrabbit.oak.spi.state.DefaultNodeStateDiff;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStateUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the new root state with the previous one and invalidates the cached base nodes and restriction results
+ * of the affected nodes.
+ * <p>
+ * Cached base nodes are invalidated for nodes that were added, removed (incl. moves) or got another primary type.
+ * Cached restriction results are invalidated for these nodes and for base nodes (e.g. assets) where a property that
+ * is read by a restriction (e.g. metadata/confidential) or a node inside jcr:content was changed. Other changes
+ * (e.g. new renditions of unrestricted properties) keep the cached results.
+ * <p>
+ * The diff is expensive for large commits, so this observer should be wrapped in a BackgroundObserver. Multiple queued
+ * changes are then compared as one. Changes of other cluster nodes (e.g. with DocumentNodeStore) are received as
+ * external changes and compared the same way. Call changeQueued() before handing a change to the BackgroundObserver
+ * to measure the invalidation lag.
+ *
+ * @author Roland Gruber
+ */
+final class ContentChangeObserver implements Observer, ContentChangeStatsMBean {
+
+    private final PatternContext context;
+    private final RestrictionClock clock;
+
+    private NodeState previousRoot;
+
+    /**
+     * Time of the oldest change that was not yet processed, 0 if none.
+     */
+    private final AtomicLong pendingSince = new AtomicLong();
+    private final AtomicLong changeCount = new AtomicLong();
+    private final AtomicLong externalChangeCount = new AtomicLong();
+    private volatile long invalidationCount;
+    private volatile long invalidatedNodeCount;
+    private volatile long lastLag;
+    private volatile long maxLag;
+    private volatile long totalLag;
+    private volatile long lagCount;
+
+    /**
+     * Constructor
+     *
+     * @param context pattern context with caches to invalidate
+     */
+    ContentChangeObserver(PatternContext context) {
+        this(context, RestrictionClock.SYSTEM);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context pattern context with caches to invalidate
+     * @param clock clock to measure the lag
+     */
+    ContentChangeObserver(PatternContext context, RestrictionClock clock) {
+        this.context = context;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that a change was received and will be processed later.
+     *
+     * @param info commit info
+     */
+    void changeQueued(CommitInfo info) {
+        changeCount.incrementAndGet();
+        if (info.isExternal()) {
+            externalChangeCount.incrementAndGet();
+        }
+        pendingSince.compareAndSet(0, clock.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void contentChanged(NodeState root, CommitInfo info) {
+        // changes that are queued from now on are covered by the next invalidation
+        long queued = pendingSince.getAndSet(0);
+        if (previousRoot != null) {
+            Set<String> structurePaths = new HashSet<>();
+            Set<String> basePaths = new HashSet<>();
+            root.compareAgainstBaseState(previousRoot,
+                    new ChangeDiff(PathUtils.ROOT_PATH, null, null, structurePaths, basePaths));
+            context.nodesChanged(structurePaths);
+            context.contentChanged(basePaths);
+            invalidationCount++;
+            invalidatedNodeCount += basePaths.size();
+            if (queued != 0) {
+                recordLag(clock.currentTimeMillis() - queued);
+            }
+        }
+        previousRoot = root;
+    }
+
+    private void recordLag(long lag) {
+        lastLag = lag;
+        maxLag = Math.max(maxLag, lag);
+        totalLag += lag;
+        lagCount++;
+    }
+
+    @Override
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    @Override
+    public long getExternalChangeCount() {
+        return externalChangeCount.get();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public long getInvalidatedNodeCount() {
+        return invalidatedNodeCount;
+    }
+
+    @Override
+    public long getLastLagMillis() {
+        return lastLag;
+    }
+
+    @Override
+    public long getMaxLagMillis() {
+        return maxLag;
+    }
+
+    @Override
+    public double getAverageLagMillis() {
+        long count = lagCount;
+        return (count == 0) ? 0 : ((double) totalLag / count);
+    }
+
+    @Override
+    public long getPendingChangeAgeMillis() {
+        long queued = pendingSince.get();
+        return (queued == 0) ? 0 : Math.max(0, clock.currentTimeMillis() - queued);
+    }
+
+    @Override
+    public synchronized void resetStats() {
+        changeCount.set(0);
+        externalChangeCount.set(0);
+        invalidationCount = 0;
+        invalidatedNodeCount = 0;
+        lastLag = 0;
+        maxLag = 0;
+        totalLag = 0;
+        lagCount = 0;
+    }
+
+    /**
+     * Collects the paths of nodes that were added, removed or got another primary type and the paths of base nodes
+     * with changed content.
+     */
+    private final class ChangeDiff extends DefaultNodeStateDiff {
+
+        private final String path;
+        private final String basePath;
+        private final String contentPath;
+        private final Set<String> structurePaths;
+        private final Set<String> basePaths;
+
+        /**
+         * Constructor
+         *
+         * @param path node path
+         * @param basePath path of the node that owns the jcr:content subtree, null if outside of jcr:content
+         * @param contentPath path relative to jcr:content, empty for jcr:content itself
+         * @param structurePaths collected nodes with changed structure
+         * @param basePaths collected base nodes with changed content
+         */
+        ChangeDiff(String path, String basePath, String contentPath, Set<String> structurePaths, Set<String> basePaths) {
+            this.path = path;
+            this.basePath = basePath;
+            this.contentPath = contentPath;
+            this.structurePaths = structurePaths;
+            this.basePaths = basePaths;
+        }
+
+        @Override
+        public boolean propertyAdded(PropertyState after) {
+            return propertyChanged(after);
+        }
+
+        @Override
+        public boolean propertyChanged(PropertyState before, PropertyState after) {
+            return propertyChanged(after);
+        }
+
+        @Override
+        public boolean propertyDeleted(PropertyState before) {
+            return propertyChanged(before);
+        }
+
+        @Override
+        public boolean childNodeAdded(String name, NodeState after) {
+            nodeChanged(name);
+            return true;
+        }
+
+        @Override
+        public boolean childNodeChanged(String name, NodeState before, NodeState after) {
+            if (NodeStateUtils.isHidden(name)) {
+                // e.g. index data
+                return true;
+            }
+            String childPath = PathUtils.concat(path, name);
+            ChangeDiff childDiff;
+            if (basePath != null) {
+                String childContentPath = contentPath.isEmpty() ? name : (contentPath + "/" + name);
+                childDiff = new ChangeDiff(childPath, basePath, childContentPath, structurePaths, basePaths);
+            }
+            else if (JcrConstants.JCR_CONTENT.equals(name)) {
+                childDiff = new ChangeDiff(childPath, path, "", structurePaths, basePaths);
+            }
+            else {
+                childDiff = new ChangeDiff(childPath, null, null, structurePaths, basePaths);
+            }
+            return after.compareAgainstBaseState(before, childDiff);
+        }
+
+        @Override
+        public boolean childNodeDeleted(String name, NodeState before) {
+            nodeChanged(name);
+            return true;
+        }
+
+        private void nodeChanged(String name) {
+            String childPath = PathUtils.concat(path, name);
+            structurePaths.add(childPath);
+            if (basePath != null) {
+                basePaths.add(basePath);
+            }
+            else if (JcrConstants.JCR_CONTENT.equals(name)) {
+                basePaths.add(path);
+            }
+            else {
+                basePaths.add(childPath);
+            }
+        }
+
+        private boolean propertyChanged(PropertyState property) {
+            if (JcrConstants.JCR_PRIMARYTYPE.equals(property.getName())) {
+                structurePaths.add(path);
+                basePaths.add((basePath != null) ? basePath : path);
+            }
+            else if ((basePath != null) && context.isWatchedProperty(contentPath, property.getName())) {
+                basePaths.add(basePath);
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2026 - 2025 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+/**
+ * Statistics of the content observer that invalidates the caches of AEM Advanced Restrictions.
+ * <p>
+ * The lag is the time between the notification about a change (local commit or external change of another cluster
+ * node) and the end of the invalidation. Cached results may be outdated during this time.
+ *
+ * @author Roland Gruber
+ */
+public interface ContentChangeStatsMBean {
+
+    /**
+     * JMX type.
+     */
+    String TYPE = "ContentChangeStats";
+
+    /**
+     * Returns the number of changes that were received.
+     *
+     * @return change count
+     */
+    long getChangeCount();
+
+    /**
+     * Returns the number of changes that were received from other cluster nodes.
+     *
+     * @return external change count
+     */
+    long getExternalChangeCount();
+
+    /**
+     * Returns the number of invalidations. Multiple queued changes are processed as one invalidation.
+     *
+     * @return invalidation count
+     */
+    long getInvalidationCount();
+
+    /**
+     * Returns the number of pages, assets and folders whose cached results were invalidated.
+     *
+     * @return invalidated node count
+     */
+    long getInvalidatedNodeCount();
+
+    /**
+     * Returns the lag of the last invalidation.
+     *
+     * @return lag in milliseconds
+     */
+    long getLastLagMillis();
+
+    /**
+     * Returns the maximum lag of all invalidations.
+     *
+     * @return lag in milliseconds
+     */
+    long getMaxLagMillis();
+
+    /**
+     * Returns the average lag of all invalidations.
+     *
+     * @return lag in milliseconds
+     */
+    double getAverageLagMillis();
+
+    /**
+     * Returns the age of the oldest change that was not yet processed.
+     *
+     * @return age in milliseconds, 0 if no change is pending
+     */
+    long getPendingChangeAgeMillis();
+
+    /**
+     * Resets the counters and lag values.
+     */
+    void resetStats();
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.DefaultEditor;
+import org.apache.jackrabbit.oak.spi.commit.Editor;
+import org.apache.jackrabbit.oak.spi.commit.EditorDiff;
+import org.apache.jackrabbit.oak.spi.commit.EditorProvider;
+import org.apache.jackrabbit.oak.spi.commit.Observer;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the existence filters up to date.
+ * <p>
+ * Local commits are processed by a commit hook, so the filters know a new property or node before the commit is
+ * visible. Changes of unknown origin are received as observer notifications and compared with the previous root state.
+ * Clustered node stores are not supported (see {@link ExistenceFilterManager}).
+ * <p>
+ * Only added or changed jcr:content nodes are reported, the filters check if the property or node exists. Removals
+ * are ignored as a filter may contain paths that do not match anymore.
+ *
+ * @author Roland Gruber
+ */
+final class ExistenceFilterEditorProvider implements EditorProvider, Observer {
+
+    private final ExistenceFilterManager manager;
+
+    private NodeState previousRoot;
+
+    /**
+     * Constructor
+     *
+     * @param manager filters to update
+     */
+    ExistenceFilterEditorProvider(ExistenceFilterManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public Editor getRootEditor(NodeState before, NodeState after, NodeBuilder builder, CommitInfo info) {
+        if (!manager.hasFilters()) {
+            return null;
+        }
+        return createEditor(manager::contentChanged);
+    }
+
+    @Override
+    public synchronized void contentChanged(NodeState root, CommitInfo info) {
+        // local commits were already processed by the commit hook
+        if ((previousRoot != null) && (info.isExternal() || (info == CommitInfo.EMPTY)) && manager.hasFilters()) {
+            EditorDiff.process(createEditor(manager::contentChanged), previousRoot, root);
+        }
+        previousRoot = root;
+    }
+
+    /**
+     * Creates an editor that reports the changed jcr:content nodes of the repository.
+     *
+     * @param contentChanged receives the path of the base node and its new jcr:content node
+     * @return editor for the root node
+     */
+    static Editor createEditor(BiConsumer<String, NodeState> contentChanged) {
+        return new ContentEditor(PathUtils.ROOT_PATH, contentChanged);
+    }
+
+    /**
+     * Editor for one node outside jcr:content.
+     */
+    private static final class ContentEditor extends DefaultEditor {
+
+        private final String path;
+        private final BiConsumer<String, NodeState> contentChanged;
+
+        private ContentEditor(String path, BiConsumer<String, NodeState> contentChanged) {
+            this.path = path;
+            this.contentChanged = contentChanged;
+        }
+
+        @Override
+        public Editor childNodeAdded(String name, NodeState after) {
+            return childNode(name, after);
+        }
+
+        @Override
+        public Editor childNodeChanged(String name, NodeState before, NodeState after) {
+            return childNode(name, after);
+        }
+
+        private Editor childNode(String name, NodeState after) {
+            if (!ExistenceFilterManager.isCovered(path, name)) {
+                return null;
+            }
+            if (JcrConstants.JCR_CONTENT.equals(name)) {
+                contentChanged.accept(path, after);
+                return null;
+            }
+            return new ContentEditor(PathUtils.concat(path, name), contentChanged);
+        }
+
+    }
+
+}
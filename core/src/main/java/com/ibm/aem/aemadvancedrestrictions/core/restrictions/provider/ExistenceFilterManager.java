@@ -0,0 +1,717 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache.PathBloomFilter;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.ExistenceFilters;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.commit.EditorDiff;
+import org.apache.jackrabbit.oak.spi.state.ChildNodeEntry;
+import org.apache.jackrabbit.oak.spi.state.Clusterable;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStateUtils;
+import org.apache.jackrabbit.oak.spi.state.NodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bloom filters of the pages, assets and folders where a property or node inside jcr:content may exist. There is one
+ * filter per property or node that is used in aarPropertyExists and aarNodeExists restrictions.
+ * <p>
+ * A filter is built in the background by a traversal of the repository when it is requested the first time.
+ * Until then, the restrictions are evaluated as usual. Changes are added by ExistenceFilterEditorProvider, also while
+ * the filter is built.
+ * <p>
+ * The filters are stored in memory-mapped files. On close, a checkpoint of the node store is created and stored
+ * with the file names. After a restart, the filters are opened again and the changes since the checkpoint are added.
+ * Filters without valid checkpoint (e.g. after a longer downtime) are rebuilt. Changes are only added, so a filter
+ * that was updated after the checkpoint (e.g. after a crash) is still valid.
+ * <p>
+ * Base nodes inside jcr:content and below /jcr:system are not covered.
+ * <p>
+ * The filters are disabled on clustered node stores (e.g. DocumentNodeStore). Changes of other cluster nodes are
+ * visible to new sessions before the observer added them to the filters, so a filter could answer MISSING for an
+ * item that can already be read.
+ *
+ * @author Roland Gruber
+ */
+final class ExistenceFilterManager implements ExistenceFilters, ExistenceFilterStatsMBean, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExistenceFilterManager.class);
+
+    /**
+     * Lifetime of the checkpoint that is created on close. Filters are rebuilt after a longer downtime.
+     */
+    static final long CHECKPOINT_LIFETIME = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * Delay until a failed build is retried.
+     */
+    static final long RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    static final String STATE_FILE = "filters.properties";
+    private static final String STATE_CHECKPOINT = "checkpoint";
+    private static final String FILE_SUFFIX = ".bloom";
+    private static final String PREFIX_PROPERTY = "property:";
+    private static final String PREFIX_NODE = "node:";
+
+    private final File directory;
+    private final Supplier<NodeStore> nodeStore;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Executor executor;
+    private final Map<String, Filter> propertyFilters = new ConcurrentHashMap<>();
+    private final Map<String, Filter> nodeFilters = new ConcurrentHashMap<>();
+    private final AtomicLong fileCounter = new AtomicLong(System.currentTimeMillis());
+    private final Properties state;
+    private final AtomicBoolean clusterLogged = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Constructor. Files of the directory that are not referenced by the stored state are deleted.
+     *
+     * @param directory directory for the filter files
+     * @param nodeStore node store for the traversal, may return null
+     * @param expectedEntries expected number of pages, assets and folders per filter
+     * @param falsePositiveRate false positive rate at the expected number of entries
+     * @param executor executor for the builds
+     */
+    ExistenceFilterManager(File directory, Supplier<NodeStore> nodeStore, long expectedEntries,
+                           double falsePositiveRate, Executor executor) {
+        this.directory = directory;
+        this.nodeStore = nodeStore;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.executor = executor;
+        this.state = readState();
+        deleteUnusedFiles();
+    }
+
+    /**
+     * Loads the filters that were stored on close in the background.
+     */
+    void start() {
+        for (String key : state.stringPropertyNames()) {
+            if (key.startsWith(PREFIX_PROPERTY)) {
+                request(true, key.substring(PREFIX_PROPERTY.length()));
+            }
+            else if (key.startsWith(PREFIX_NODE)) {
+                request(false, key.substring(PREFIX_NODE.length()));
+            }
+        }
+    }
+
+    /**
+     * Returns if a base node is covered by the filters.
+     *
+     * @param basePath path of the page, asset or folder
+     * @return covered
+     */
+    static boolean isCovered(String basePath) {
+        return !basePath.contains("/" + JcrConstants.JCR_CONTENT + "/") && !basePath.startsWith("/" + JcrConstants.JCR_SYSTEM + "/");
+    }
+
+    /**
+     * Returns if a child node and its subnodes are covered by the filters.
+     *
+     * @param parentPath path of the parent node
+     * @param name node name
+     * @return covered
+     */
+    static boolean isCovered(String parentPath, String name) {
+        return !NodeStateUtils.isHidden(name)
+               && !(PathUtils.denotesRoot(parentPath) && JcrConstants.JCR_SYSTEM.equals(name));
+    }
+
+    /**
+     * Returns if the node store is clustered. The filters are not used then.
+     *
+     * @return clustered
+     */
+    private boolean isClustered() {
+        if (!(nodeStore.get() instanceof Clusterable)) {
+            return false;
+        }
+        if (clusterLogged.compareAndSet(false, true)) {
+            LOG.warn("Existence filters are disabled as the node store is clustered");
+        }
+        return true;
+    }
+
+    @Override
+    public int check(boolean property, String relativePath, String basePath) {
+        if (isClustered()) {
+            return UNKNOWN;
+        }
+        Filter filter = getFilters(property).get(relativePath);
+        if (filter == null) {
+            request(property, relativePath);
+            return UNKNOWN;
+        }
+        PathBloomFilter bloom = filter.bloom;
+        if (bloom == null) {
+            retry(filter);
+            return UNKNOWN;
+        }
+        if (closed || !isCovered(basePath)) {
+            return UNKNOWN;
+        }
+        filter.checks.increment();
+        if (bloom.mightContain(basePath)) {
+            return MAYBE;
+        }
+        filter.rejects.increment();
+        return MISSING;
+    }
+
+    @Override
+    public void falsePositive(boolean property, String relativePath) {
+        Filter filter = getFilters(property).get(relativePath);
+        if (filter != null) {
+            filter.falsePositives.increment();
+        }
+    }
+
+    private Map<String, Filter> getFilters(boolean property) {
+        return property ? propertyFilters : nodeFilters;
+    }
+
+    private List<Filter> getAllFilters() {
+        List<Filter> filters = new ArrayList<>(propertyFilters.values());
+        filters.addAll(nodeFilters.values());
+        return filters;
+    }
+
+    /**
+     * Returns if there are filters that need to be updated on content changes.
+     *
+     * @return has filters
+     */
+    boolean hasFilters() {
+        return !closed && (!propertyFilters.isEmpty() || !nodeFilters.isEmpty()) && !isClustered();
+    }
+
+    /**
+     * Adds the base node to all filters where the property or node exists in the new jcr:content node.
+     *
+     * @param basePath path of the page, asset or folder
+     * @param content jcr:content node
+     */
+    void contentChanged(String basePath, NodeState content) {
+        if (closed) {
+            return;
+        }
+        for (Filter filter : getAllFilters()) {
+            filter.contentChanged(basePath, content);
+        }
+    }
+
+    /**
+     * Creates a filter and loads or builds it in the background.
+     *
+     * @param property property or node filter
+     * @param relativePath path relative to jcr:content
+     */
+    private void request(boolean property, String relativePath) {
+        if (closed) {
+            return;
+        }
+        Filter filter = new Filter(property, relativePath);
+        if (getFilters(property).putIfAbsent(relativePath, filter) == null) {
+            filter.pending.set(true);
+            schedule(filter, false);
+        }
+    }
+
+    private void retry(Filter filter) {
+        if (!closed && (filter.failedAt != 0) && ((System.currentTimeMillis() - filter.failedAt) > RETRY_DELAY)
+                && filter.pending.compareAndSet(false, true)) {
+            schedule(filter, false);
+        }
+    }
+
+    private void schedule(Filter filter, boolean rebuild) {
+        try {
+            executor.execute(() -> load(filter, rebuild));
+        }
+        catch (RejectedExecutionException e) {
+            LOG.debug("Existence filter not scheduled, executor is shut down");
+            filter.pending.set(false);
+        }
+    }
+
+    /**
+     * Loads the stored filter or builds a new one.
+     *
+     * @param filter filter
+     * @param rebuild ignore the stored filter
+     */
+    private void load(Filter filter, boolean rebuild) {
+        try {
+            NodeStore store = nodeStore.get();
+            if (store == null) {
+                LOG.warn("Unable to build existence filter for {}, no node store available", filter);
+                filter.failedAt = System.currentTimeMillis();
+                return;
+            }
+            if (!rebuild && restore(filter, store)) {
+                return;
+            }
+            build(filter, store);
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.error("Unable to build existence filter for {}", filter, e);
+            filter.failedAt = System.currentTimeMillis();
+        }
+        finally {
+            // filter of a failed or cancelled build
+            PathBloomFilter building = filter.building;
+            if (building != null) {
+                filter.building = null;
+                closeQuietly(building);
+            }
+            filter.pending.set(false);
+        }
+    }
+
+    /**
+     * Opens the stored filter and adds the changes since the checkpoint of the stored state.
+     *
+     * @param filter filter
+     * @param store node store
+     * @return filter is ready
+     */
+    private boolean restore(Filter filter, NodeStore store) {
+        String fileName = state.getProperty(filter.key);
+        String checkpoint = state.getProperty(STATE_CHECKPOINT);
+        if ((fileName == null) || (checkpoint == null) || (filter.bloom != null)) {
+            return false;
+        }
+        NodeState checkpointRoot = store.retrieve(checkpoint);
+        File file = new File(directory, fileName);
+        if ((checkpointRoot == null) || !file.isFile()) {
+            LOG.info("Stored existence filter for {} is outdated and will be rebuilt", filter);
+            return false;
+        }
+        PathBloomFilter bloom;
+        try {
+            bloom = PathBloomFilter.open(file);
+        }
+        catch (IOException e) {
+            LOG.info("Stored existence filter for {} is invalid and will be rebuilt: {}", filter, e.getMessage());
+            return false;
+        }
+        if (bloom.getBitCount() != PathBloomFilter.getBitCount(expectedEntries, falsePositiveRate)) {
+            LOG.info("Size of existence filter for {} was changed, the filter will be rebuilt", filter);
+            closeQuietly(bloom);
+            return false;
+        }
+        filter.building = bloom;
+        update(filter, checkpointRoot, store.getRoot());
+        filter.ready(bloom);
+        LOG.info("Loaded existence filter for {} with {} entries", filter, bloom.getEntryCount());
+        return true;
+    }
+
+    /**
+     * Builds a new filter by a traversal of the current root state. Commits during the traversal are added by
+     * ExistenceFilterEditorProvider. Commits that were already in progress when the filter was registered are added
+     * by a comparison with the root state after the traversal.
+     *
+     * @param filter filter
+     * @param store node store
+     * @throws IOException error creating the file
+     */
+    private void build(Filter filter, NodeStore store) throws IOException {
+        long start = System.currentTimeMillis();
+        File file = new File(directory, createFileName(filter));
+        PathBloomFilter bloom = PathBloomFilter.create(file, expectedEntries, falsePositiveRate);
+        filter.building = bloom;
+        NodeState root = store.getRoot();
+        if (!traverse(filter, bloom, PathUtils.ROOT_PATH, root)) {
+            LOG.debug("Build of existence filter for {} was cancelled", filter);
+            return;
+        }
+        update(filter, root, store.getRoot());
+        PathBloomFilter previous = filter.bloom;
+        filter.ready(bloom);
+        if (previous != null) {
+            closeQuietly(previous);
+        }
+        LOG.info("Built existence filter for {} with {} entries in {} ms", filter, bloom.getEntryCount(),
+                System.currentTimeMillis() - start);
+    }
+
+    private String createFileName(Filter filter) {
+        return (filter.property ? "property-" : "node-") + Integer.toHexString(filter.path.hashCode()) + "-"
+               + fileCounter.incrementAndGet() + FILE_SUFFIX;
+    }
+
+    /**
+     * Adds all base nodes below the given node where the property or node exists.
+     *
+     * @param filter filter
+     * @param bloom Bloom filter to fill
+     * @param path node path
+     * @param node node
+     * @return traversal was completed, false if cancelled
+     */
+    private boolean traverse(Filter filter, PathBloomFilter bloom, String path, NodeState node) {
+        if (closed) {
+            return false;
+        }
+        for (ChildNodeEntry child : node.getChildNodeEntries()) {
+            String name = child.getName();
+            if (!isCovered(path, name)) {
+                continue;
+            }
+            if (JcrConstants.JCR_CONTENT.equals(name)) {
+                if (filter.exists(child.getNodeState())) {
+                    bloom.put(path);
+                }
+            }
+            else if (!traverse(filter, bloom, PathUtils.concat(path, name), child.getNodeState())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the changes between the two root states to the filter.
+     *
+     * @param filter filter
+     * @param before old root state
+     * @param after new root state
+     */
+    private static void update(Filter filter, NodeState before, NodeState after) {
+        if (!before.equals(after)) {
+            EditorDiff.process(ExistenceFilterEditorProvider.createEditor(filter::contentChanged), before, after);
+        }
+    }
+
+    @Override
+    public int getFilterCount() {
+        return propertyFilters.size() + nodeFilters.size();
+    }
+
+    @Override
+    public int getReadyFilterCount() {
+        int count = 0;
+        for (Filter filter : getAllFilters()) {
+            if (filter.bloom != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long getCheckCount() {
+        long count = 0;
+        for (Filter filter : getAllFilters()) {
+            count += filter.checks.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getRejectCount() {
+        long count = 0;
+        for (Filter filter : getAllFilters()) {
+            count += filter.rejects.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getFalsePositiveCount() {
+        long count = 0;
+        for (Filter filter : getAllFilters()) {
+            count += filter.falsePositives.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public double getFalsePositiveRate() {
+        return getFalsePositiveRate(getFalsePositiveCount(), getRejectCount());
+    }
+
+    private static double getFalsePositiveRate(long falsePositives, long rejects) {
+        long negatives = falsePositives + rejects;
+        return (negatives == 0) ? 0 : ((double) falsePositives / negatives);
+    }
+
+    @Override
+    public String[] getFilters() {
+        List<String> details = new ArrayList<>();
+        for (Filter filter : getAllFilters()) {
+            details.add(filter.getDetails());
+        }
+        Collections.sort(details);
+        return details.toArray(new String[0]);
+    }
+
+    @Override
+    public void resetStats() {
+        for (Filter filter : getAllFilters()) {
+            filter.checks.reset();
+            filter.rejects.reset();
+            filter.falsePositives.reset();
+        }
+    }
+
+    @Override
+    public String rebuild() {
+        if (closed) {
+            return "Existence filters are closed";
+        }
+        int count = 0;
+        for (Filter filter : getAllFilters()) {
+            if (filter.pending.compareAndSet(false, true)) {
+                schedule(filter, true);
+                count++;
+            }
+        }
+        return "Rebuilding " + count + " existence filters in the background";
+    }
+
+    /**
+     * Stores the ready filters with a new checkpoint and closes all filters. The checkpoint is created before the
+     * filters stop to receive changes, so changes after the checkpoint are added again on the next start.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        Properties newState = new Properties();
+        List<Filter> filters = getAllFilters();
+        NodeStore store = nodeStore.get();
+        if (store != null) {
+            try {
+                for (Filter filter : filters) {
+                    if (filter.bloom != null) {
+                        newState.setProperty(filter.key, filter.bloom.getFile().getName());
+                    }
+                }
+                if (!newState.isEmpty()) {
+                    newState.setProperty(STATE_CHECKPOINT, store.checkpoint(CHECKPOINT_LIFETIME,
+                            Collections.singletonMap("creator", "AEM Advanced Restrictions - Existence filters")));
+                }
+            }
+            catch (RuntimeException e) {
+                LOG.warn("Unable to create checkpoint, existence filters will be rebuilt on next start", e);
+                newState.clear();
+            }
+        }
+        closed = true;
+        for (Filter filter : filters) {
+            if (filter.bloom != null) {
+                closeQuietly(filter.bloom);
+            }
+            PathBloomFilter building = filter.building;
+            if (building != null) {
+                closeQuietly(building);
+            }
+        }
+        writeState(newState);
+        String previousCheckpoint = state.getProperty(STATE_CHECKPOINT);
+        if ((store != null) && (previousCheckpoint != null)
+                && !previousCheckpoint.equals(newState.getProperty(STATE_CHECKPOINT))) {
+            store.release(previousCheckpoint);
+        }
+    }
+
+    private Properties readState() {
+        Properties properties = new Properties();
+        File file = new File(directory, STATE_FILE);
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                properties.load(in);
+            }
+            catch (IOException | IllegalArgumentException e) {
+                LOG.warn("Unable to read state of existence filters, filters will be rebuilt", e);
+                properties.clear();
+            }
+        }
+        return properties;
+    }
+
+    private void writeState(Properties properties) {
+        File file = new File(directory, STATE_FILE);
+        File tempFile = new File(directory, STATE_FILE + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+                properties.store(out, "AEM Advanced Restrictions - Existence filters");
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to store state of existence filters, filters will be rebuilt on next start", e);
+        }
+    }
+
+    private void deleteUnusedFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!state.containsValue(file.getName()) && !file.delete()) {
+                LOG.debug("Unable to delete unused existence filter {}", file);
+            }
+        }
+    }
+
+    private static void closeQuietly(PathBloomFilter bloom) {
+        try {
+            bloom.close();
+        }
+        catch (IOException e) {
+            LOG.debug("Unable to close existence filter {}", bloom.getFile(), e);
+        }
+    }
+
+    /**
+     * Filter for one property or node.
+     */
+    private final class Filter {
+
+        private final boolean property;
+        private final String path;
+        private final String key;
+        private final String[] names;
+
+        /**
+         * Filter that is used for checks, null until the first build is done.
+         */
+        private volatile PathBloomFilter bloom;
+
+        /**
+         * Filter that is built or loaded, receives changes as well.
+         */
+        private volatile PathBloomFilter building;
+
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile long failedAt;
+        private final LongAdder checks = new LongAdder();
+        private final LongAdder rejects = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        Filter(boolean property, String path) {
+            this.property = property;
+            this.path = path;
+            this.key = (property ? PREFIX_PROPERTY : PREFIX_NODE) + path;
+            this.names = path.split("/");
+        }
+
+        /**
+         * Returns if the property or node exists.
+         *
+         * @param content jcr:content node
+         * @return exists
+         */
+        boolean exists(NodeState content) {
+            NodeState node = content;
+            int nodeCount = property ? (names.length - 1) : names.length;
+            for (int i = 0; i < nodeCount; i++) {
+                node = node.getChildNode(names[i]);
+                if (!node.exists()) {
+                    return false;
+                }
+            }
+            return !property || node.hasProperty(names[names.length - 1]);
+        }
+
+        void contentChanged(String basePath, NodeState content) {
+            PathBloomFilter current = bloom;
+            PathBloomFilter next = building;
+            if (((current != null) || (next != null)) && exists(content)) {
+                if (current != null) {
+                    current.put(basePath);
+                }
+                if (next != null) {
+                    next.put(basePath);
+                }
+            }
+        }
+
+        void ready(PathBloomFilter filter) {
+            bloom = filter;
+            building = null;
+            failedAt = 0;
+        }
+
+        String getDetails() {
+            PathBloomFilter current = bloom;
+            String status;
+            if (current == null) {
+                status = (failedAt != 0) ? "failed" : "building";
+            }
+            else {
+                status = pending.get() ? "ready, rebuilding" : "ready";
+            }
+            StringBuilder details = new StringBuilder(key).append(": ").append(status);
+            if (current != null) {
+                details.append(String.format(Locale.ENGLISH,
+                        ", %d entries, %d KB, expected false positive rate %.4f", current.getEntryCount(),
+                        current.getSize() / 1024, current.getExpectedFalsePositiveRate()));
+            }
+            long rejectCount = rejects.sum();
+            long falsePositiveCount = falsePositives.sum();
+            details.append(String.format(Locale.ENGLISH,
+                    ", observed false positive rate %.4f, %d checks, %d rejects, %d false positives",
+                    getFalsePositiveRate(falsePositiveCount, rejectCount), checks.sum(), rejectCount,
+                    falsePositiveCount));
+            return details.toString();
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+
+    }
+
+}
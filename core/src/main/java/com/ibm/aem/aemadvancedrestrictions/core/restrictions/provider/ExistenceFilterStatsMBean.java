@@ -0,0 +1,99 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+/**
+ * Statistics and maintenance of the Bloom filters that answer aarPropertyExists and aarNodeExists restrictions.
+ * <p>
+ * A check is a lookup of a page, asset or folder in a ready filter. A reject is a check where the filter knows that
+ * the property or node is missing, so the content is not read. A false positive is a check where the filter could
+ * not reject the item, but the property or node was missing anyway.
+ *
+ * @author Roland Gruber
+ */
+public interface ExistenceFilterStatsMBean {
+
+    /**
+     * JMX type.
+     */
+    String TYPE = "ExistenceFilterStats";
+
+    /**
+     * Returns the number of filters (one per restricted property or node).
+     *
+     * @return filter count
+     */
+    int getFilterCount();
+
+    /**
+     * Returns the number of filters that are built and used for checks.
+     *
+     * @return ready filter count
+     */
+    int getReadyFilterCount();
+
+    /**
+     * Returns the number of checks of all filters.
+     *
+     * @return check count
+     */
+    long getCheckCount();
+
+    /**
+     * Returns the number of checks that were answered by the filters without reading the content.
+     *
+     * @return reject count
+     */
+    long getRejectCount();
+
+    /**
+     * Returns the number of checks where the filters could not reject an item with missing property or node.
+     *
+     * @return false positive count
+     */
+    long getFalsePositiveCount();
+
+    /**
+     * Returns the observed false positive rate of all filters (false positives / (false positives + rejects)).
+     *
+     * @return false positive rate
+     */
+    double getFalsePositiveRate();
+
+    /**
+     * Returns the state, size, expected and observed false positive rate and counters of each filter.
+     *
+     * @return filter details
+     */
+    String[] getFilters();
+
+    /**
+     * Resets the counters.
+     */
+    void resetStats();
+
+    /**
+     * Rebuilds all filters in the background. Filters only grow with content changes, so a rebuild lowers the false
+     * positive rate after many properties or nodes were removed. The old filters are used until the rebuild is done.
+     *
+     * @return result message
+     */
+    String rebuild();
+
+}
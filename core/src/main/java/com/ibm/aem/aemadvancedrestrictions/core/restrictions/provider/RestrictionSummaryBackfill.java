@@ -0,0 +1,185 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.RestrictionSummary;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.state.ChildNodeEntry;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStateUtils;
+import org.apache.jackrabbit.oak.spi.state.NodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Writes the restriction summaries of existing pages, assets and folders.
+ * <p>
+ * The nodes are read from a snapshot of the repository. The summaries are computed from the latest state and
+ * committed in batches, so that concurrent changes are not overwritten with outdated summaries.
+ *
+ * @author Roland Gruber
+ */
+final class RestrictionSummaryBackfill implements RestrictionSummaryMBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestrictionSummaryBackfill.class);
+
+    /**
+     * Number of base nodes that are checked per commit.
+     */
+    static final int BATCH_SIZE = 500;
+
+    private final PatternContext context;
+    private final Supplier<NodeStore> nodeStore;
+
+    /**
+     * Constructor
+     *
+     * @param context pattern context that creates the summaries
+     * @param nodeStore node store, may return null if not available
+     */
+    RestrictionSummaryBackfill(PatternContext context, Supplier<NodeStore> nodeStore) {
+        this.context = context;
+        this.nodeStore = nodeStore;
+    }
+
+    @Override
+    public synchronized String backfill(String path) {
+        NodeStore store = nodeStore.get();
+        if (store == null) {
+            return "No node store available";
+        }
+        if (!context.isSummaryEnabled()) {
+            return "Restriction summaries are disabled";
+        }
+        if (context.getSummaryVersion() == null) {
+            return "Restriction summaries are not used, no version stored in the repository";
+        }
+        if ((path == null) || !PathUtils.isAbsolute(path)) {
+            return "Invalid path: " + path;
+        }
+        NodeState start = getNode(store.getRoot(), path);
+        if (!start.exists()) {
+            return "Path not found: " + path;
+        }
+        Counter counter = new Counter();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            collect(store, start, path, batch, counter);
+            commit(store, batch, counter);
+        }
+        catch (CommitFailedException e) {
+            LOG.error("Unable to write restriction summaries below {}", path, e);
+            return "Failed after " + counter.checked + " nodes: " + e.getMessage();
+        }
+        String message = "Updated " + counter.updated + " of " + counter.checked + " pages, assets and folders below " + path;
+        LOG.info(message);
+        return message;
+    }
+
+    private void collect(NodeStore store, NodeState node, String path, List<String> batch, Counter counter) throws CommitFailedException {
+        if (RestrictionSummary.isBaseNode(node)) {
+            batch.add(path);
+            if (batch.size() >= BATCH_SIZE) {
+                commit(store, batch, counter);
+            }
+        }
+        for (ChildNodeEntry child : node.getChildNodeEntries()) {
+            String name = child.getName();
+            if (!JcrConstants.JCR_CONTENT.equals(name) && !NodeStateUtils.isHidden(name)) {
+                collect(store, child.getNodeState(), PathUtils.concat(path, name), batch, counter);
+            }
+        }
+    }
+
+    /**
+     * Writes the summaries of the batch. The batch is retried once if the commit fails because of a conflict.
+     *
+     * @param store node store
+     * @param batch base node paths, cleared afterwards
+     * @param counter counter
+     * @throws CommitFailedException commit failed
+     */
+    private void commit(NodeStore store, List<String> batch, Counter counter) throws CommitFailedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            counter.updated += update(store, batch);
+        }
+        catch (CommitFailedException e) {
+            LOG.debug("Retrying restriction summaries after conflict: {}", e.getMessage());
+            counter.updated += update(store, batch);
+        }
+        counter.checked += batch.size();
+        batch.clear();
+    }
+
+    private int update(NodeStore store, List<String> batch) throws CommitFailedException {
+        NodeBuilder root = store.getRoot().builder();
+        int updated = 0;
+        for (String path : batch) {
+            NodeBuilder baseNode = root;
+            for (String name : PathUtils.elements(path)) {
+                baseNode = baseNode.getChildNode(name);
+            }
+            if (baseNode.exists()
+                    && RestrictionSummaryEditorProvider.updateSummary(context, baseNode, baseNode.getNodeState())) {
+                updated++;
+            }
+        }
+        if (updated > 0) {
+            store.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        }
+        return updated;
+    }
+
+    private static NodeState getNode(NodeState root, String path) {
+        NodeState node = root;
+        for (String name : PathUtils.elements(path)) {
+            node = node.getChildNode(name);
+        }
+        return node;
+    }
+
+    @Override
+    public int getSummarizedRestrictionCount() {
+        return context.getSummaryPatternCount();
+    }
+
+    /**
+     * Progress of a backfill.
+     */
+    private static final class Counter {
+
+        private int checked;
+        private int updated;
+
+    }
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.RestrictionSummary;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.DefaultEditor;
+import org.apache.jackrabbit.oak.spi.commit.Editor;
+import org.apache.jackrabbit.oak.spi.commit.EditorProvider;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStateUtils;
+
+/**
+ * Commit hook that writes the restriction summaries of pages, assets and folders.
+ * <p>
+ * The summary of a base node is recomputed when its jcr:content node (or anything below) is added, changed or
+ * removed, when the base node is added (incl. moves) or when its primary type changes. Other changes (e.g. child pages)
+ * keep the summary. Nodes inside jcr:content are not visited.
+ *
+ * @author Roland Gruber
+ */
+final class RestrictionSummaryEditorProvider implements EditorProvider {
+
+    private final PatternContext context;
+
+    /**
+     * Constructor
+     *
+     * @param context pattern context that creates the summaries
+     */
+    RestrictionSummaryEditorProvider(PatternContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public Editor getRootEditor(NodeState before, NodeState after, NodeBuilder builder, CommitInfo info) {
+        if (!context.isSummaryEnabled()) {
+            return null;
+        }
+        return new SummaryEditor(builder);
+    }
+
+    /**
+     * Writes the summary of the base node.
+     *
+     * @param context pattern context
+     * @param baseNode builder of the base node
+     * @param state state of the base node
+     * @return summary was changed
+     */
+    static boolean updateSummary(PatternContext context, NodeBuilder baseNode, NodeState state) {
+        if (!RestrictionSummary.isBaseNode(state) || !state.hasChildNode(JcrConstants.JCR_CONTENT)) {
+            return false;
+        }
+        PropertyState summary = context.createSummary(state);
+        NodeBuilder content = baseNode.getChildNode(JcrConstants.JCR_CONTENT);
+        PropertyState current = content.getProperty(RestrictionSummary.PROPERTY_NAME);
+        if (summary == null) {
+            if (current == null) {
+                return false;
+            }
+            content.removeProperty(RestrictionSummary.PROPERTY_NAME);
+            return true;
+        }
+        if (summary.equals(current)) {
+            return false;
+        }
+        content.setProperty(summary);
+        return true;
+    }
+
+    /**
+     * Editor for one node outside jcr:content.
+     */
+    private final class SummaryEditor extends DefaultEditor {
+
+        private final NodeBuilder builder;
+        private boolean changed;
+
+        private SummaryEditor(NodeBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void leave(NodeState before, NodeState after) {
+            if (changed) {
+                updateSummary(context, builder, after);
+            }
+        }
+
+        @Override
+        public void propertyAdded(PropertyState after) {
+            checkPrimaryType(after);
+        }
+
+        @Override
+        public void propertyChanged(PropertyState before, PropertyState after) {
+            checkPrimaryType(after);
+        }
+
+        private void checkPrimaryType(PropertyState property) {
+            if (JcrConstants.JCR_PRIMARYTYPE.equals(property.getName())) {
+                changed = true;
+            }
+        }
+
+        @Override
+        public Editor childNodeAdded(String name, NodeState after) {
+            return childNode(name);
+        }
+
+        @Override
+        public Editor childNodeChanged(String name, NodeState before, NodeState after) {
+            return childNode(name);
+        }
+
+        @Override
+        public Editor childNodeDeleted(String name, NodeState before) {
+            if (JcrConstants.JCR_CONTENT.equals(name)) {
+                changed = true;
+            }
+            return null;
+        }
+
+        private Editor childNode(String name) {
+            if (JcrConstants.JCR_CONTENT.equals(name)) {
+                changed = true;
+                return null;
+            }
+            if (NodeStateUtils.isHidden(name)) {
+                return null;
+            }
+            return new SummaryEditor(builder.getChildNode(name));
+        }
+
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+/**
+ * Maintenance operations for the restriction summaries of AEM Advanced Restrictions.
+ * <p>
+ * Summaries are written by a commit hook when pages, assets and folders are changed. Existing content must be
+ * backfilled once after the summaries were enabled, the epoch was increased or a new version of the summaries was
+ * created (see log).
+ *
+ * @author Roland Gruber
+ */
+public interface RestrictionSummaryMBean {
+
+    /**
+     * JMX type.
+     */
+    String TYPE = "RestrictionSummary";
+
+    /**
+     * Writes the summaries of all pages, assets and folders below the given path. Only restrictions that were
+     * evaluated since the start are included, so this should run after the restrictions were used for some time.
+     *
+     * @param path root path (e.g. /content/dam)
+     * @return result message
+     */
+    String backfill(String path);
+
+    /**
+     * Returns the number of restrictions that are written to the summaries.
+     *
+     * @return restriction count
+     */
+    int getSummarizedRestrictionCount();
+
+}
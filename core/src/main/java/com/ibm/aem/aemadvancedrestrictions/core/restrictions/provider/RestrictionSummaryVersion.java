@@ -0,0 +1,261 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.Editor;
+import org.apache.jackrabbit.oak.spi.commit.EditorDiff;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.commit.Observer;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Stores the version of the restriction summaries in the repository. Only summaries of this version are read, so
+ * the summary property itself is never trusted.
+ * <p>
+ * The version consists of the configured epoch and a random id. It is stored in a hidden node that cannot be written
+ * with JCR. A new id is created when no version of the configured epoch exists (e.g. summaries were disabled) or when
+ * the commit hook of this cluster node may have missed changes. The version is removed when summaries are disabled.
+ * So summaries that were written while the commit hook was not active are never used.
+ * <p>
+ * On close, a checkpoint is stored in the bundle data area. On the next start, the summaries of the pages, assets and
+ * folders that were changed since the checkpoint are removed and the version is kept. Without a valid checkpoint
+ * (e.g. after a crash or a longer downtime), a new id is created.
+ * <p>
+ * Changes of the version (e.g. by other cluster nodes) are received as observer notifications.
+ *
+ * @author Roland Gruber
+ */
+final class RestrictionSummaryVersion implements Observer, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestrictionSummaryVersion.class);
+
+    /**
+     * Hidden node below the root node that stores the version.
+     */
+    static final String NODE_NAME = ":aarRestrictionSummary";
+
+    /**
+     * Property of the version.
+     */
+    static final String PROPERTY_VERSION = "version";
+
+    /**
+     * Lifetime of the checkpoint that is created on close. A new version is created after a longer downtime.
+     */
+    static final long CHECKPOINT_LIFETIME = TimeUnit.DAYS.toMillis(7);
+
+    private static final String STATE_CHECKPOINT = "checkpoint";
+
+    private final PatternContext context;
+    private final Supplier<NodeStore> nodeStore;
+    private final File stateFile;
+    private final String prefix;
+    private boolean started;
+
+    /**
+     * Constructor
+     *
+     * @param context pattern context with enabled summaries
+     * @param nodeStore node store, may return null if not available
+     * @param stateFile file for the checkpoint, null if no bundle data area is available
+     */
+    RestrictionSummaryVersion(PatternContext context, Supplier<NodeStore> nodeStore, File stateFile) {
+        this.context = context;
+        this.nodeStore = nodeStore;
+        this.stateFile = stateFile;
+        this.prefix = context.getSummaryEpoch() + "-";
+    }
+
+    /**
+     * Reads the version from the repository and sets it in the pattern context. A new version is written if needed.
+     *
+     * @return summaries are used
+     */
+    synchronized boolean start() {
+        NodeStore store = nodeStore.get();
+        if (store == null) {
+            LOG.warn("Restriction summaries are not used, no node store available");
+            return false;
+        }
+        String checkpoint = readCheckpoint();
+        try {
+            NodeState root = store.getRoot();
+            NodeBuilder builder = root.builder();
+            String version = getVersion(root);
+            NodeState checkpointRoot = (checkpoint != null) ? store.retrieve(checkpoint) : null;
+            if (isCurrentEpoch(version) && (checkpointRoot != null)) {
+                removeChangedSummaries(checkpointRoot, root, builder);
+            }
+            else {
+                version = prefix + UUID.randomUUID();
+                builder.child(NODE_NAME).setProperty(PROPERTY_VERSION, version);
+                LOG.info("New version of restriction summaries: {}", version);
+            }
+            store.merge(builder, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+            context.setSummaryVersion(version);
+            started = true;
+        }
+        catch (CommitFailedException | RuntimeException e) {
+            LOG.warn("Restriction summaries are not used, unable to store their version", e);
+        }
+        if (checkpoint != null) {
+            store.release(checkpoint);
+        }
+        return started;
+    }
+
+    /**
+     * Removes the version from the repository, so that the existing summaries are not used anymore.
+     *
+     * @param store node store, may be null
+     */
+    static void remove(NodeStore store) {
+        if ((store == null) || !store.getRoot().hasChildNode(NODE_NAME)) {
+            return;
+        }
+        NodeBuilder builder = store.getRoot().builder();
+        builder.getChildNode(NODE_NAME).remove();
+        try {
+            store.merge(builder, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+            LOG.info("Removed the version of restriction summaries");
+        }
+        catch (CommitFailedException e) {
+            LOG.warn("Unable to remove the version of restriction summaries", e);
+        }
+    }
+
+    @Override
+    public void contentChanged(NodeState root, CommitInfo info) {
+        String version = getVersion(root);
+        if (!isCurrentEpoch(version)) {
+            version = null;
+        }
+        if (!Objects.equals(version, context.getSummaryVersion())) {
+            LOG.info("Version of restriction summaries changed to {}", version);
+            context.setSummaryVersion(version);
+        }
+    }
+
+    /**
+     * Stores a checkpoint, so that the version can be kept on the next start.
+     */
+    @Override
+    public synchronized void close() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        NodeStore store = nodeStore.get();
+        if ((store == null) || (stateFile == null)) {
+            return;
+        }
+        try {
+            String checkpoint = store.checkpoint(CHECKPOINT_LIFETIME,
+                    Collections.singletonMap("creator", "AEM Advanced Restrictions - Restriction summaries"));
+            Properties state = new Properties();
+            state.setProperty(STATE_CHECKPOINT, checkpoint);
+            try (OutputStream out = Files.newOutputStream(stateFile.toPath())) {
+                state.store(out, "AEM Advanced Restrictions - Restriction summaries");
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to create checkpoint, a new version of restriction summaries will be created on next start", e);
+        }
+    }
+
+    private boolean isCurrentEpoch(String version) {
+        return (version != null) && version.startsWith(prefix);
+    }
+
+    /**
+     * Removes the summaries of all pages, assets and folders that were changed since the checkpoint.
+     *
+     * @param checkpointRoot root state of the checkpoint
+     * @param root current root state
+     * @param builder builder of the current root state
+     */
+    private void removeChangedSummaries(NodeState checkpointRoot, NodeState root, NodeBuilder builder)
+            throws CommitFailedException {
+        if (checkpointRoot.equals(root)) {
+            return;
+        }
+        // the version is not yet set, so the summaries of changed nodes are removed
+        Editor editor = new RestrictionSummaryEditorProvider(context).getRootEditor(checkpointRoot, root, builder, CommitInfo.EMPTY);
+        if (editor != null) {
+            EditorDiff.process(editor, checkpointRoot, root);
+        }
+    }
+
+    /**
+     * Reads and deletes the checkpoint. A checkpoint is only used once, so it cannot be used after a crash.
+     *
+     * @return checkpoint or null
+     */
+    private String readCheckpoint() {
+        if ((stateFile == null) || !stateFile.isFile()) {
+            return null;
+        }
+        Properties state = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+            state.load(in);
+        }
+        catch (IOException | IllegalArgumentException e) {
+            LOG.warn("Unable to read state of restriction summaries", e);
+        }
+        try {
+            Files.delete(stateFile.toPath());
+        }
+        catch (IOException e) {
+            LOG.warn("Unable to delete state of restriction summaries, a new version will be created", e);
+            return null;
+        }
+        return state.getProperty(STATE_CHECKPOINT);
+    }
+
+    /**
+     * Returns the version that is stored in the repository.
+     *
+     * @param root root state
+     * @return version or null
+     */
+    static String getVersion(NodeState root) {
+        return root.getChildNode(NODE_NAME).getString(PROPERTY_VERSION);
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.TagHierarchy;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.TagTrie;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.Observer;
+import org.apache.jackrabbit.oak.spi.state.ChildNodeEntry;
+import org.apache.jackrabbit.oak.spi.state.DefaultNodeStateDiff;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a tag trie of /content/cq:tags for aarTagged restrictions.
+ * <p>
+ * The trie is built from the first root state (at activation or with the first observer notification). Later
+ * notifications only compare the tag subtree with the previous state, so commits that do not change tags cost a few
+ * node reads and changed tags are applied incrementally. Until the trie is built and after the manager was closed, all
+ * tags are UNKNOWN.
+ *
+ * @author Roland Gruber
+ */
+final class TagHierarchyManager implements TagHierarchy, Observer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TagHierarchyManager.class);
+
+    static final String NT_TAG = "cq:Tag";
+    static final String PN_MOVED_TO = "cq:movedTo";
+
+    private volatile TagTrie trie;
+
+    private NodeState previousTags;
+
+    private boolean closed;
+
+    @Override
+    public int check(String tag, String ancestorTag) {
+        TagTrie current = trie;
+        return (current != null) ? current.check(tag, ancestorTag) : UNKNOWN;
+    }
+
+    @Override
+    public synchronized void contentChanged(NodeState root, CommitInfo info) {
+        if (closed) {
+            return;
+        }
+        NodeState tags = getTagsNode(root);
+        if (trie == null) {
+            long start = System.currentTimeMillis();
+            TagTrie newTrie = new TagTrie();
+            addTags(newTrie, TagTrie.TAGS_PATH, tags);
+            trie = newTrie;
+            LOG.info("Built tag trie with {} tags in {} ms", newTrie.size(), System.currentTimeMillis() - start);
+        }
+        else if (previousTags != tags) {
+            tags.compareAgainstBaseState(previousTags, new TagDiff(trie, TagTrie.TAGS_PATH));
+        }
+        previousTags = tags;
+    }
+
+    /**
+     * Drops the trie. Must be called when the manager no longer receives changes, e.g. when it was replaced after a
+     * configuration change. Patterns that still use the manager then compare the tag IDs.
+     */
+    synchronized void close() {
+        closed = true;
+        trie = null;
+        previousTags = null;
+    }
+
+    /**
+     * Returns the number of tags in the trie.
+     *
+     * @return number of tags, -1 if not yet built
+     */
+    int getTagCount() {
+        TagTrie current = trie;
+        return (current != null) ? current.size() : -1;
+    }
+
+    private static NodeState getTagsNode(NodeState root) {
+        NodeState node = root;
+        for (String name : PathUtils.elements(TagTrie.TAGS_PATH)) {
+            node = node.getChildNode(name);
+        }
+        return node;
+    }
+
+    /**
+     * Adds all tags below the given node.
+     *
+     * @param trie trie
+     * @param path node path
+     * @param node node
+     */
+    private static void addTags(TagTrie trie, String path, NodeState node) {
+        for (ChildNodeEntry child : node.getChildNodeEntries()) {
+            NodeState state = child.getNodeState();
+            if (isTag(state)) {
+                String childPath = PathUtils.concat(path, child.getName());
+                trie.add(childPath, getMovedTo(state));
+                addTags(trie, childPath, state);
+            }
+        }
+    }
+
+    private static boolean isTag(NodeState node) {
+        return NT_TAG.equals(node.getName(JcrConstants.JCR_PRIMARYTYPE));
+    }
+
+    private static String getMovedTo(NodeState node) {
+        PropertyState movedTo = node.getProperty(PN_MOVED_TO);
+        if ((movedTo == null) || movedTo.isArray()) {
+            return null;
+        }
+        return movedTo.getValue(Type.STRING);
+    }
+
+    /**
+     * Applies the changes of one tag node to the trie.
+     */
+    private static final class TagDiff extends DefaultNodeStateDiff {
+
+        private final TagTrie trie;
+        private final String path;
+
+        private TagDiff(TagTrie trie, String path) {
+            this.trie = trie;
+            this.path = path;
+        }
+
+        @Override
+        public boolean childNodeAdded(String name, NodeState after) {
+            if (isTag(after)) {
+                String childPath = PathUtils.concat(path, name);
+                trie.add(childPath, getMovedTo(after));
+                addTags(trie, childPath, after);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean childNodeChanged(String name, NodeState before, NodeState after) {
+            if (!isTag(after)) {
+                return childNodeDeleted(name, before);
+            }
+            if (!isTag(before)) {
+                return childNodeAdded(name, after);
+            }
+            String childPath = PathUtils.concat(path, name);
+            trie.add(childPath, getMovedTo(after));
+            return after.compareAgainstBaseState(before, new TagDiff(trie, childPath));
+        }
+
+        @Override
+        public boolean childNodeDeleted(String name, NodeState before) {
+            if (isTag(before)) {
+                trie.remove(PathUtils.concat(path, name));
+            }
+            return true;
+        }
+
+    }
+
+}
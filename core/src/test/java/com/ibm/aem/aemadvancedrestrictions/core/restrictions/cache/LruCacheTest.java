@@ -0,0 +1,197 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests LruCache.
+ *
+ * @author Roland Gruber
+ */
+class LruCacheTest {
+
+    @Test
+    void get_hitAndMiss() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        AtomicInteger loads = new AtomicInteger();
+        String value = cache.get("key", key -> key + loads.incrementAndGet());
+        assertEquals("key1", value);
+        assertSame(value, cache.get("key", key -> key + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getLoadSuccessCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_nullNotCached() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        assertNull(cache.get("key", key -> null));
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent("key"));
+    }
+
+    @Test
+    void get_loadException() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        assertThrows(IllegalStateException.class, () -> cache.get("key", key -> {
+            throw new IllegalStateException("invalid");
+        }));
+        assertEquals(1, cache.getLoadExceptionCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void eviction() {
+        LruCache<Integer, Integer> cache = new LruCache<>("test", 2, 1);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        // access 1 so that 2 is the least recently used entry
+        assertEquals(Integer.valueOf(1), cache.getIfPresent(1));
+        cache.put(3, 3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.getIfPresent(2));
+        assertEquals(Integer.valueOf(1), cache.getIfPresent(1));
+        assertEquals(Integer.valueOf(3), cache.getIfPresent(3));
+    }
+
+    @Test
+    void maxSize() {
+        LruCache<Integer, Integer> cache = new LruCache<>("test", 100);
+        for (int i = 0; i < 1000; i++) {
+            cache.get(i, key -> key);
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(1000 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    void disabled() {
+        LruCache<String, String> cache = new LruCache<>("test", 0);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("key", key -> key + loads.incrementAndGet());
+        cache.put("key", "value");
+        assertEquals("key2", cache.get("key", key -> key + loads.incrementAndGet()));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void invalidate() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.invalidate("key1");
+        assertNull(cache.getIfPresent("key1"));
+        assertEquals("value2", cache.getIfPresent("key2"));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateIf() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        cache.put("/content/a", "value1");
+        cache.put("/content/a/b", "value2");
+        cache.put("/content/c", "value3");
+        cache.invalidateIf(key -> key.startsWith("/content/a"));
+        assertNull(cache.getIfPresent("/content/a"));
+        assertNull(cache.getIfPresent("/content/a/b"));
+        assertEquals("value3", cache.getIfPresent("/content/c"));
+    }
+
+    @Test
+    void resetStats() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        cache.get("key", key -> key);
+        cache.get("key", key -> key);
+        cache.resetStats();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.getLoadSuccessCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void stats() {
+        LruCache<String, String> cache = new LruCache<>("test", 10);
+        LruCacheStats stats = new LruCacheStats(cache);
+        cache.get("key", key -> key);
+        cache.get("key", key -> key);
+        cache.get("key", key -> key);
+        cache.get("key", key -> key);
+        assertEquals("test", stats.getName());
+        assertEquals(4, stats.getRequestCount());
+        assertEquals(3, stats.getHitCount());
+        assertEquals(0.75, stats.getHitRate(), 0.001);
+        assertEquals(0.25, stats.getMissRate(), 0.001);
+        assertEquals(1, stats.getLoadCount());
+        assertEquals(1, stats.getElementCount());
+        assertEquals(10, stats.getMaxTotalWeight());
+        assertTrue(stats.cacheInfoAsString().contains("hits=3"));
+    }
+
+    @Test
+    void concurrentAccess() throws Exception {
+        LruCache<Integer, Integer> cache = new LruCache<>("test", 500);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                results.add(executor.submit(() -> {
+                    int errors = 0;
+                    for (int i = 0; i < 50000; i++) {
+                        int key = (i * 31 + seed) % 1000;
+                        if (cache.get(key, k -> k * 2) != key * 2) {
+                            errors++;
+                        }
+                    }
+                    return errors;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get(60, TimeUnit.SECONDS).intValue());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.size() <= 500);
+        assertEquals(8 * 50000, cache.getHitCount() + cache.getMissCount());
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests PathBloomFilter.
+ *
+ * @author Roland Gruber
+ */
+class PathBloomFilterTest {
+
+    private static final int ENTRIES = 10000;
+
+    @TempDir
+    File directory;
+
+    @Test
+    void putAndCheck() throws IOException {
+        try (PathBloomFilter filter = PathBloomFilter.create(new File(directory, "test.bloom"), ENTRIES, 0.01)) {
+            for (int i = 0; i < ENTRIES; i++) {
+                filter.put("/content/dam/asset" + i + ".png");
+            }
+            for (int i = 0; i < ENTRIES; i++) {
+                assertTrue(filter.mightContain("/content/dam/asset" + i + ".png"));
+            }
+            int falsePositives = 0;
+            for (int i = 0; i < ENTRIES; i++) {
+                if (filter.mightContain("/content/dam/other" + i + ".png")) {
+                    falsePositives++;
+                }
+            }
+            assertTrue("False positives: " + falsePositives, falsePositives < ENTRIES * 0.02);
+            double expectedRate = filter.getExpectedFalsePositiveRate();
+            assertTrue("Expected rate: " + expectedRate, (expectedRate > 0.005) && (expectedRate < 0.015));
+            assertEquals(7, filter.getHashCount());
+            assertTrue(filter.getEntryCount() > ENTRIES * 0.99);
+        }
+    }
+
+    @Test
+    void empty() throws IOException {
+        try (PathBloomFilter filter = PathBloomFilter.create(new File(directory, "test.bloom"), ENTRIES, 0.01)) {
+            assertFalse(filter.mightContain("/content/dam/asset.png"));
+            assertEquals(0, filter.getEntryCount());
+            assertEquals(0.0, filter.getExpectedFalsePositiveRate());
+            assertEquals(filter.getSize(), new File(directory, "test.bloom").length());
+        }
+    }
+
+    @Test
+    void open() throws IOException {
+        File file = new File(directory, "test.bloom");
+        try (PathBloomFilter filter = PathBloomFilter.create(file, ENTRIES, 0.01)) {
+            filter.put("/content/dam/asset.png");
+            filter.put("/content/dam/asset.png");
+        }
+        try (PathBloomFilter filter = PathBloomFilter.open(file)) {
+            assertTrue(filter.mightContain("/content/dam/asset.png"));
+            assertFalse(filter.mightContain("/content/dam/other.png"));
+            assertEquals(1, filter.getEntryCount());
+            assertEquals(PathBloomFilter.getBitCount(ENTRIES, 0.01), filter.getBitCount());
+            assertTrue(filter.getExpectedFalsePositiveRate() > 0);
+        }
+    }
+
+    @Test
+    void open_invalid() throws IOException {
+        File file = new File(directory, "test.bloom");
+        Files.write(file.toPath(), new byte[100]);
+        assertThrows(IOException.class, () -> PathBloomFilter.open(file));
+        Files.write(file.toPath(), new byte[10]);
+        assertThrows(IOException.class, () -> PathBloomFilter.open(file));
+    }
+
+    @Test
+    void getBitCount() {
+        // 9.6 bits per entry for 1%
+        assertEquals(95872, PathBloomFilter.getBitCount(10000, 0.01));
+        assertEquals(0, PathBloomFilter.getBitCount(10000, 0.01) % 64);
+        assertEquals(64, PathBloomFilter.getBitCount(0, 0.01));
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.clock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests CoarseRestrictionClock.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CoarseRestrictionClockTest {
+
+    private CoarseRestrictionClock clock;
+
+    @Mock
+    private CoarseRestrictionClock.Config config;
+
+    @BeforeEach
+    void setup() {
+        clock = new CoarseRestrictionClock();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clock.deactivate();
+    }
+
+    @Test
+    void currentTimeMillis() {
+        when(config.resolution()).thenReturn(100000L);
+        long before = System.currentTimeMillis();
+        clock.activate(config);
+        long time = clock.currentTimeMillis();
+        assertTrue(time >= before);
+        assertTrue(time <= System.currentTimeMillis());
+    }
+
+    @Test
+    void tick() throws InterruptedException {
+        when(config.resolution()).thenReturn(100000L);
+        clock.activate(config);
+        long time = clock.currentTimeMillis();
+        Thread.sleep(5);
+        assertTrue(time == clock.currentTimeMillis());
+        clock.tick();
+        assertTrue(clock.currentTimeMillis() > time);
+    }
+
+    @Test
+    void deactivate() throws InterruptedException {
+        when(config.resolution()).thenReturn(100000L);
+        clock.activate(config);
+        long time = clock.currentTimeMillis();
+        clock.deactivate();
+        clock.tick();
+        Thread.sleep(5);
+        // a stopped clock does not freeze the time of patterns that still use it
+        assertTrue(clock.currentTimeMillis() > time);
+    }
+
+    @Test
+    void scheduledUpdate() throws InterruptedException {
+        when(config.resolution()).thenReturn(CoarseRestrictionClock.MIN_RESOLUTION);
+        clock.activate(config);
+        long time = clock.currentTimeMillis();
+        long timeout = System.currentTimeMillis() + 5000;
+        while ((clock.currentTimeMillis() == time) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(5);
+        }
+        assertTrue(clock.currentTimeMillis() > time);
+    }
+
+}
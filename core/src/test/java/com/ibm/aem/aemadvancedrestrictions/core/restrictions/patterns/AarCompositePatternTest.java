@@ -0,0 +1,133 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.CompositePattern;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junitx.framework.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests AarCompositePattern.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AarCompositePatternTest {
+
+    private static final String PROP_NAME = "confidential";
+    private static final String PROP_VALUE = "true";
+
+    private Tree asset;
+    private Tree jcrContent;
+
+    @BeforeEach
+    void setup() {
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, PROP_VALUE);
+        jcrContent = asset.getChild(JcrConstants.JCR_CONTENT);
+    }
+
+    @Test
+    void create_single() {
+        BasePattern pattern = new PropertyExistsPattern("metadata/" + PROP_NAME);
+        assertSame(pattern, AarCompositePattern.create(Collections.singletonList(pattern)));
+    }
+
+    @Test
+    void create_unsupportedPattern() {
+        RestrictionPattern other = mock(RestrictionPattern.class);
+        List<RestrictionPattern> patterns = Arrays.asList(new PropertyExistsPattern("metadata/" + PROP_NAME), other);
+        assertTrue(AarCompositePattern.create(patterns) instanceof CompositePattern);
+    }
+
+    @Test
+    void matches_sharedNodes() {
+        List<RestrictionPattern> patterns = new ArrayList<>();
+        patterns.add(new PropertyMatchPattern("metadata/" + PROP_NAME + BasePattern.DELIMITER + PROP_VALUE));
+        patterns.add(new PropertyExistsPattern("metadata/" + PROP_NAME));
+        patterns.add(new PropertyNotExistsPattern("metadata/other"));
+        patterns.add(new NodeExistsPattern("metadata"));
+        patterns.add(new PropertyMatchHierarchicalPattern("metadata/" + PROP_NAME + BasePattern.DELIMITER + PROP_VALUE));
+        for (RestrictionPattern pattern : patterns) {
+            assertTrue(pattern.matches(asset, null));
+        }
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, PROP_VALUE);
+        jcrContent = asset.getChild(JcrConstants.JCR_CONTENT);
+
+        RestrictionPattern composite = AarCompositePattern.create(patterns);
+        assertTrue(composite instanceof AarCompositePattern);
+        assertTrue(composite.matches(asset, null));
+
+        verify(asset, times(1)).hasChild(JcrConstants.JCR_CONTENT);
+        verify(jcrContent, times(1)).getChild("metadata");
+    }
+
+    @Test
+    void matches_and() {
+        List<RestrictionPattern> patterns = new ArrayList<>();
+        patterns.add(new PropertyExistsPattern("metadata/" + PROP_NAME));
+        patterns.add(new PropertyMatchPattern("metadata/" + PROP_NAME + BasePattern.DELIMITER + "false"));
+        assertFalse(AarCompositePattern.create(patterns).matches(asset, null));
+
+        patterns.set(1, new PropertyNotExistsPattern("metadata/" + PROP_NAME));
+        assertFalse(AarCompositePattern.create(patterns).matches(asset, null));
+
+        patterns.set(1, new NodeNotExistsPattern("metadata"));
+        assertFalse(AarCompositePattern.create(patterns).matches(asset, null));
+    }
+
+    @Test
+    void matches_noBaseNode() {
+        Tree tree = mock(Tree.class);
+        when(tree.isRoot()).thenReturn(true);
+        List<RestrictionPattern> patterns = Arrays.asList(new PropertyNotExistsPattern("metadata/other"),
+                new PathContainsFolderPattern("folder"));
+        assertFalse(AarCompositePattern.create(patterns).matches(tree, null));
+    }
+
+    @Test
+    void matches_path() {
+        List<RestrictionPattern> patterns = Arrays.asList(new PropertyExistsPattern("metadata/" + PROP_NAME),
+                new NodeExistsPattern("metadata"));
+        RestrictionPattern composite = AarCompositePattern.create(patterns);
+        assertFalse(composite.matches("/content"));
+        assertFalse(composite.matches());
+    }
+
+}
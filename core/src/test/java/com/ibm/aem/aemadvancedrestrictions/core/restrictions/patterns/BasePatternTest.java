@@ -0,0 +1,226 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import com.day.cq.dam.api.DamConstants;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
+import org.apache.sling.jcr.resource.api.JcrResourceConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests BasePattern.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BasePatternTest {
+
+    private BasePattern pattern;
+
+    private Tree root;
+    private Tree folder;
+    private Tree asset;
+    private Tree jcrContent;
+
+    @BeforeEach
+    void setup() {
+        pattern = new PropertyExistsPattern("metadata/prop");
+        root = createNode(null, "", "rep:root");
+        when(root.isRoot()).thenReturn(true);
+        folder = createNode(root, "folder", JcrResourceConstants.NT_SLING_FOLDER);
+        asset = createNode(folder, "asset.png", DamConstants.NT_DAM_ASSET);
+        jcrContent = createNode(asset, JcrConstants.JCR_CONTENT, "dam:AssetContent");
+    }
+
+    @Test
+    void findBaseNode_base() {
+        assertEquals(asset, pattern.findBaseNode(asset));
+        assertEquals(folder, pattern.findBaseNode(folder));
+    }
+
+    @Test
+    void findBaseNode_content() {
+        assertEquals(asset, pattern.findBaseNode(jcrContent));
+        Tree renditions = createNode(jcrContent, "renditions", JcrConstants.NT_FOLDER);
+        Tree rendition = createNode(renditions, "original", JcrConstants.NT_FILE);
+        Tree renditionContent = createNode(rendition, JcrConstants.JCR_CONTENT, JcrConstants.NT_RESOURCE);
+        assertEquals(asset, pattern.findBaseNode(renditions));
+        assertEquals(asset, pattern.findBaseNode(renditionContent));
+    }
+
+    @Test
+    void findBaseNode_outsideContent() {
+        Tree other = createNode(folder, "other", JcrConstants.NT_UNSTRUCTURED);
+        Tree child = createNode(other, "child", JcrConstants.NT_UNSTRUCTURED);
+        assertNull(pattern.findBaseNode(other));
+        assertNull(pattern.findBaseNode(child));
+        assertNull(pattern.findBaseNode(root));
+    }
+
+    @Test
+    void matches_resultCache() {
+        PatternContext context = PatternContext.builder().resultCacheSize(100).cacheMaxAge(60000).evaluationMemo(false)
+                .build();
+        Tree metadataAsset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot("prop", "value");
+        BasePattern cachedPattern = new PropertyExistsPattern("metadata/prop", context);
+
+        assertTrue(cachedPattern.matches(UtilityFunctions.asReadOnly(metadataAsset), null));
+        // equal pattern of other ACE and tree of other session
+        assertTrue(new PropertyExistsPattern("metadata/prop", context).matches(UtilityFunctions.asReadOnly(metadataAsset), null));
+        assertFalse(new PropertyExistsPattern("metadata/other", context).matches(UtilityFunctions.asReadOnly(metadataAsset), null));
+        verify(metadataAsset, times(2)).hasChild(JcrConstants.JCR_CONTENT);
+        assertEquals(2, context.getResultCache().size());
+
+        // mutable trees may contain transient changes
+        assertTrue(cachedPattern.matches(metadataAsset, null));
+        verify(metadataAsset, times(3)).hasChild(JcrConstants.JCR_CONTENT);
+
+        context.contentChanged();
+        assertTrue(cachedPattern.matches(UtilityFunctions.asReadOnly(metadataAsset), null));
+        verify(metadataAsset, times(4)).hasChild(JcrConstants.JCR_CONTENT);
+    }
+
+    @Test
+    void matches_existenceFilter() {
+        ExistenceFilters filters = mock(ExistenceFilters.class);
+        when(filters.check(true, "metadata/prop", "/root/asset")).thenReturn(ExistenceFilters.MISSING);
+        when(filters.check(true, "metadata/other", "/root/asset")).thenReturn(ExistenceFilters.MAYBE);
+        when(filters.check(false, "metadata", "/root/asset")).thenReturn(ExistenceFilters.MISSING);
+        PatternContext context = PatternContext.builder().existenceFilters(filters).evaluationMemo(false).build();
+        Tree metadataAsset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot("prop", "value");
+        Tree readOnlyAsset = UtilityFunctions.asReadOnly(metadataAsset);
+
+        // rejected without reading the content
+        assertFalse(new PropertyExistsPattern("metadata/prop", context).matches(readOnlyAsset, null));
+        assertFalse(new NodeExistsPattern("metadata", context).matches(readOnlyAsset, null));
+        verify(metadataAsset, times(0)).hasChild(JcrConstants.JCR_CONTENT);
+        assertFalse(AarCompositePattern.create(Arrays.asList(new PropertyExistsPattern("metadata/prop", context),
+                new NodeExistsPattern("metadata", context))).matches(readOnlyAsset, null));
+        verify(metadataAsset, times(0)).hasChild(JcrConstants.JCR_CONTENT);
+
+        // false positive
+        assertFalse(new PropertyExistsPattern("metadata/other", context).matches(readOnlyAsset, null));
+        verify(filters).falsePositive(true, "metadata/other");
+
+        // mutable trees may contain transient changes
+        assertTrue(new PropertyExistsPattern("metadata/prop", context).matches(metadataAsset, null));
+        // patterns that also match without the item
+        assertTrue(new NodeNotExistsPattern("other", context).matches(readOnlyAsset, null));
+        assertTrue(new PropertyExistsHierarchicalPattern("metadata/prop", context).matches(readOnlyAsset, null));
+        verify(filters, times(2)).check(true, "metadata/prop", "/root/asset");
+        verify(filters, never()).check(eq(false), eq("other"), anyString());
+    }
+
+    @Test
+    void compilePath() {
+        RelativePath path = pattern.compilePath("metadata/prop");
+        assertEquals("metadata/prop", path.getPath());
+        assertSame(path, pattern.compilePath("metadata/prop"));
+        RelativePath other = pattern.compilePath("metadata/other");
+        assertEquals("metadata/other", other.getPath());
+        assertNotSame(other, pattern.compilePath("metadata/other"));
+        // other paths do not replace the path of the pattern
+        assertSame(path, pattern.compilePath("metadata/prop"));
+        // the path is the part before the first delimiter
+        BasePattern startsWith = new PropertyStartsWithPattern("prop$value$2");
+        assertSame(startsWith.compilePath("prop"), startsWith.compilePath("prop"));
+    }
+
+    @Test
+    void findBaseNode_cached() {
+        PatternContext context = PatternContext.builder().baseNodeCacheSize(100).build();
+        BasePattern cachedPattern = new PropertyExistsPattern("metadata/prop", context);
+        root = createReadOnlyNode(null, "", "rep:root");
+        when(root.isRoot()).thenReturn(true);
+        folder = createReadOnlyNode(root, "folder", JcrResourceConstants.NT_SLING_FOLDER);
+        asset = createReadOnlyNode(folder, "asset.png", DamConstants.NT_DAM_ASSET);
+        jcrContent = createReadOnlyNode(asset, JcrConstants.JCR_CONTENT, "dam:AssetContent");
+        Tree renditions = createReadOnlyNode(jcrContent, "renditions", JcrConstants.NT_FOLDER);
+        Tree rendition = createReadOnlyNode(renditions, "original", JcrConstants.NT_FILE);
+        Tree other = createReadOnlyNode(folder, "other", JcrConstants.NT_UNSTRUCTURED);
+
+        assertEquals(asset, cachedPattern.findBaseNode(rendition));
+        assertEquals(Integer.valueOf(3), context.getBaseNodeLevels("/folder/asset.png/jcr:content/renditions/original"));
+        assertNull(cachedPattern.findBaseNode(other));
+        assertEquals(Integer.valueOf(PatternContext.NO_BASE_NODE), context.getBaseNodeLevels("/folder/other"));
+        // cached base node is used without reading the nodes in between
+        assertEquals(asset, new PropertyExistsPattern("metadata/other", context).findBaseNode(rendition));
+        assertNull(cachedPattern.findBaseNode(other));
+        verify(renditions, times(1)).getName();
+        verify(jcrContent, times(1)).getName();
+
+        // base node is no asset anymore
+        when(asset.getProperty(JcrConstants.JCR_PRIMARYTYPE)).thenReturn(null);
+        assertEquals(folder, cachedPattern.findBaseNode(rendition));
+        assertEquals(Integer.valueOf(4), context.getBaseNodeLevels("/folder/asset.png/jcr:content/renditions/original"));
+    }
+
+    private Tree createReadOnlyNode(Tree parent, String name, String primaryType) {
+        Tree node = createNode(mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class)), parent, name, primaryType);
+        String path = (parent == null) ? "/" : PathUtils.concat(parent.getPath(), name);
+        when(node.getPath()).thenReturn(path);
+        return node;
+    }
+
+    private Tree createNode(Tree parent, String name, String primaryType) {
+        return createNode(mock(Tree.class), parent, name, primaryType);
+    }
+
+    private Tree createNode(Tree node, Tree parent, String name, String primaryType) {
+        when(node.getName()).thenReturn(name);
+        PropertyState primaryTypeProperty = mock(PropertyState.class);
+        when(primaryTypeProperty.getValue(Type.STRING)).thenReturn(primaryType);
+        when(node.getProperty(JcrConstants.JCR_PRIMARYTYPE)).thenReturn(primaryTypeProperty);
+        if (parent != null) {
+            when(node.getParent()).thenReturn(parent);
+            when(parent.hasChild(name)).thenReturn(true);
+            when(parent.getChild(name)).thenReturn(node);
+        }
+        return node;
+    }
+
+}
@@ -26,6 +26,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 import static junitx.framework.Assert.assertFalse;
 
@@ -50,6 +53,26 @@ class DateInFutureHierarchicalPatternTest {
         pattern = new DateInFutureHierarchicalPattern( PREFIX + PROP_NAME);
     }
 
+    @Test
+    void matches_cachesIgnoreTimeDependentResults() {
+        AtomicLong now = new AtomicLong(DateValueParser.toEpochMillis(PROP_VALUE_BEFORE));
+        PatternContext context = PatternContext.builder()
+                .clock(now::get)
+                .resultCacheSize(100)
+                .hierarchyCacheSize(100)
+                .cacheMaxAge(60000)
+                .evaluationMemo(false)
+                .build();
+        DateInFuturePattern cachedPattern = new DateInFutureHierarchicalPattern(PREFIX + PROP_NAME, context);
+        Tree asset = UtilityFunctions.asReadOnly(UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, PROP_VALUE_AFTER));
+
+        assertTrue(cachedPattern.matches(asset, null));
+        now.set(DateValueParser.toEpochMillis(PROP_VALUE_AFTER) + 1);
+        assertFalse(cachedPattern.matches(asset, null));
+        assertEquals(0, context.getResultCache().size());
+        assertEquals(0, context.getHierarchyCache().size());
+    }
+
     @Test
     void matches_noPropertyPresent() {
         Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, null);
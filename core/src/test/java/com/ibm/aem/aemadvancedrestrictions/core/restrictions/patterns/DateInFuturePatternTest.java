@@ -85,4 +85,16 @@ class DateInFuturePatternTest {
         assertFalse(pattern.matches(asset, null));
     }
 
+    @Test
+    void matches_customClock() {
+        // clock is set to 1970-01-01
+        pattern = new DateInFuturePattern(PREFIX + PROP_NAME, PatternContext.builder().clock(() -> 0L).build());
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, PROP_VALUE_BEFORE);
+        assertTrue(pattern.matches(asset, null));
+        // clock is set after 2520-01-01
+        pattern = new DateInFuturePattern(PREFIX + PROP_NAME, PatternContext.builder().clock(() -> 17400000000000L).build());
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, PROP_VALUE_AFTER);
+        assertFalse(pattern.matches(asset, null));
+    }
+
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.PropertyStates;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests DateValueParser.
+ *
+ * @author Roland Gruber
+ */
+class DateValueParserTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+    @Test
+    void toEpochMillis() {
+        assertEquals(0L, DateValueParser.toEpochMillis("1970-01-01T00:00:00.000Z"));
+        assertEquals(0L, DateValueParser.toEpochMillis("1970-01-01T01:00:00.000+01:00"));
+        assertEquals(0L, DateValueParser.toEpochMillis("1969-12-31T23:00:00.000-01:00"));
+        assertEquals(0L, DateValueParser.toEpochMillis("1970-01-01T01:00:00.000+0100"));
+        assertEquals(0L, DateValueParser.toEpochMillis("1970-01-01T01:00:00.000+01"));
+        assertEquals(0L, DateValueParser.toEpochMillis("1970-01-01T00:00:00Z"));
+        assertEquals(500L, DateValueParser.toEpochMillis("1970-01-01T00:00:00.5Z"));
+        assertEquals(123L, DateValueParser.toEpochMillis("1970-01-01T00:00:00.123456789Z"));
+        assertEquals(OffsetDateTime.parse("2024-02-29T22:23:00.000+05:30").toInstant().toEpochMilli(),
+                DateValueParser.toEpochMillis("2024-02-29T22:23:00.000+05:30"));
+        assertEquals(OffsetDateTime.parse("2520-01-01T22:23:00.000+01:00").toInstant().toEpochMilli(),
+                DateValueParser.toEpochMillis("2520-01-01T22:23:00.000+01:00"));
+    }
+
+    @Test
+    void toEpochMillis_invalid() {
+        String[] values = {null, "", "abc", "2020-01-01", "2020-01-01T00:00:00.000", "2020-13-01T00:00:00.000Z",
+                "2023-02-29T00:00:00.000Z", "2020-01-01T24:00:00.000Z", "2020-01-01T00:60:00.000Z",
+                "2020-01-01 00:00:00.000Z", "2020-01-01T00:00:00.Z", "2020-01-01T00:00:00.000+1:00",
+                "2020-01-01T00:00:00.000Zulu", "2020/01/01T00:00:00.000Z", "2020-01-01T00:00:00.000+01:00x"};
+        for (String value : values) {
+            assertEquals(value, DateValueParser.INVALID, DateValueParser.toEpochMillis(value));
+        }
+    }
+
+    @Test
+    void toEpochMillis_random() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long millis = (random.nextLong() % 40000000000000L) + 10000000000000L;
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds((random.nextInt(37) - 18) * 1800);
+            OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), offset);
+            String value = FORMAT.format(date);
+            assertEquals(value, millis, DateValueParser.toEpochMillis(value));
+        }
+    }
+
+    /**
+     * Evaluates shared pattern instances from many threads at the same time.
+     * SimpleDateFormat based evaluation returned wrong results or failed here.
+     */
+    @Test
+    void concurrentEvaluation() throws Exception {
+        String past = "1980-01-01T22:23:00.000+01:00";
+        String future = "2520-01-01T22:23:00.000+01:00";
+        DateInPastPattern inPast = new DateInPastPattern("metadata/mydate");
+        DateInFuturePattern inFuture = new DateInFuturePattern("metadata/mydate");
+        PropertyState pastValue = PropertyStates.createProperty("mydate", past, Type.DATE);
+        PropertyState futureValue = PropertyStates.createProperty("mydate", future, Type.DATE);
+        PropertyState multiValue = PropertyStates.createProperty("mydate", Arrays.asList(future, past), Type.DATES);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Callable<Integer> task = () -> {
+                    start.await();
+                    int errors = 0;
+                    for (int i = 0; i < 20000; i++) {
+                        if (!inPast.singleValuePropertyMatches(pastValue) || inPast.singleValuePropertyMatches(futureValue)
+                                || !inFuture.singleValuePropertyMatches(futureValue) || inFuture.singleValuePropertyMatches(pastValue)
+                                || !inPast.multiValuePropertyMatches(multiValue) || !inFuture.multiValuePropertyMatches(multiValue)) {
+                            errors++;
+                        }
+                    }
+                    return errors;
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get(60, TimeUnit.SECONDS).intValue());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
+import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static junitx.framework.Assert.assertEquals;
+import static junitx.framework.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests EvaluationMemo and the equality of patterns.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EvaluationMemoTest {
+
+    private static final String VALUE = "metadata/approved";
+
+    @Test
+    void equals() {
+        assertEquals(new NodeNotExistsPattern(VALUE), new NodeNotExistsPattern(VALUE));
+        assertEquals(new NodeNotExistsPattern(VALUE).hashCode(), new NodeNotExistsPattern(VALUE).hashCode());
+        assertNotEquals(new NodeNotExistsPattern(VALUE), new NodeExistsPattern(VALUE));
+        assertNotEquals(new NodeNotExistsPattern(VALUE), new NodeNotExistsPattern("metadata/other"));
+        PatternContext context = PatternContext.builder().build();
+        assertNotEquals(new NodeNotExistsPattern(VALUE), new NodeNotExistsPattern(VALUE, context));
+    }
+
+    @Test
+    void matches_readOnlyTree() {
+        CountingPattern deny = new CountingPattern(VALUE, PatternContext.DEFAULT);
+        CountingPattern allow = new CountingPattern(VALUE, PatternContext.DEFAULT);
+        Tree tree = mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class));
+
+        assertTrue(deny.matches(tree, null));
+        assertTrue(allow.matches(tree, null));
+        assertEquals(1, deny.count + allow.count);
+
+        // other tree resets the memo
+        Tree otherTree = mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class));
+        assertTrue(allow.matches(otherTree, null));
+        assertTrue(deny.matches(tree, null));
+        assertEquals(3, deny.count + allow.count);
+    }
+
+    @Test
+    void matches_propertyLevel() {
+        List<CountingPattern> patterns = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            patterns.add(new CountingPattern(VALUE + i, PatternContext.DEFAULT));
+        }
+        Tree tree = mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class));
+        PropertyState property = mock(PropertyState.class);
+
+        assertTrue(patterns.get(0).matches(tree, null));
+        for (int i = 0; i < 200; i++) {
+            for (CountingPattern pattern : patterns) {
+                assertTrue(pattern.matches(tree, property));
+            }
+        }
+        for (CountingPattern pattern : patterns) {
+            assertEquals(1, pattern.count);
+        }
+    }
+
+    @Test
+    void matches_maxCapacityExceeded() {
+        List<CountingPattern> patterns = new ArrayList<>();
+        for (int i = 0; i <= EvaluationMemo.MAX_CAPACITY; i++) {
+            patterns.add(new CountingPattern(VALUE + i, PatternContext.DEFAULT));
+        }
+        Tree tree = mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class));
+
+        for (CountingPattern pattern : patterns) {
+            assertTrue(pattern.matches(tree, null));
+        }
+        // first result was replaced, last one is still stored
+        assertTrue(patterns.get(0).matches(tree, null));
+        assertTrue(patterns.get(EvaluationMemo.MAX_CAPACITY).matches(tree, null));
+        assertEquals(2, patterns.get(0).count);
+        assertEquals(1, patterns.get(EvaluationMemo.MAX_CAPACITY).count);
+    }
+
+    @Test
+    void matches_mutableTree() {
+        CountingPattern deny = new CountingPattern(VALUE, PatternContext.DEFAULT);
+        CountingPattern allow = new CountingPattern(VALUE, PatternContext.DEFAULT);
+        Tree tree = mock(Tree.class);
+
+        assertTrue(deny.matches(tree, null));
+        assertTrue(allow.matches(tree, null));
+        assertEquals(2, deny.count + allow.count);
+    }
+
+    @Test
+    void matches_disabled() {
+        PatternContext context = PatternContext.builder().evaluationMemo(false).build();
+        CountingPattern deny = new CountingPattern(VALUE, context);
+        CountingPattern allow = new CountingPattern(VALUE, context);
+        Tree tree = mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class));
+
+        assertTrue(deny.matches(tree, null));
+        assertTrue(allow.matches(tree, null));
+        assertEquals(2, deny.count + allow.count);
+    }
+
+    @Test
+    void matches_composite() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot("approved", "true");
+        Tree readOnlyAsset = UtilityFunctions.asReadOnly(asset);
+
+        RestrictionPattern single = new PropertyExistsPattern(VALUE);
+        RestrictionPattern composite = AarCompositePattern.create(Arrays.asList(new PropertyExistsPattern(VALUE),
+                new PathContainsFolderPattern("confidential")));
+        assertTrue(single.matches(readOnlyAsset, null));
+        assertFalse(composite.matches(readOnlyAsset, null));
+        assertTrue(single.matches(readOnlyAsset, null));
+        verify(asset, times(1)).hasChild(JcrConstants.JCR_CONTENT);
+    }
+
+    @Test
+    void matches_timeDependent() {
+        AtomicLong now = new AtomicLong(0);
+        PatternContext context = PatternContext.builder().clock(now::get).build();
+        RestrictionPattern single = new DateInPastPattern("metadata/mydate", context);
+        RestrictionPattern composite = AarCompositePattern.create(Arrays.asList(
+                new DateInPastPattern("metadata/mydate", context), new PropertyExistsPattern("metadata/mydate", context)));
+        Tree readOnlyAsset = UtilityFunctions.asReadOnly(
+                UtilityFunctions.createAssetWithMetadataPropertyAndRoot("mydate", "1980-01-01T22:23:00.000+01:00"));
+
+        // clock is set to 1970-01-01
+        assertFalse(single.matches(readOnlyAsset, null));
+        assertFalse(composite.matches(readOnlyAsset, null));
+
+        // date is passed for the same tree
+        now.set(System.currentTimeMillis());
+        assertTrue(single.matches(readOnlyAsset, null));
+        assertTrue(composite.matches(readOnlyAsset, null));
+    }
+
+    @Test
+    void memo_collectable() throws InterruptedException {
+        WeakReference<?>[] references = evaluateOnce();
+        for (int i = 0; (i < 100) && ((references[0].get() != null) || (references[1].get() != null)); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(references[0].get());
+        assertNull(references[1].get());
+    }
+
+    /**
+     * Evaluates a pattern with a new tree and context that are not referenced after the method.
+     *
+     * @return weak references to tree and context
+     */
+    private WeakReference<?>[] evaluateOnce() {
+        // no mock as Mockito keeps references to the mocks of a test
+        Tree tree = (Tree) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Tree.class, ReadOnly.class}, (proxy, method, args) -> null);
+        PatternContext context = PatternContext.builder().build();
+        CountingPattern pattern = new CountingPattern(VALUE, context);
+        assertTrue(pattern.matches(tree, null));
+        assertTrue(new CountingPattern(VALUE, context).matches(tree, null));
+        assertEquals(1, pattern.count);
+        return new WeakReference<?>[] {new WeakReference<>(tree), new WeakReference<>(context)};
+    }
+
+    /**
+     * Pattern that counts its evaluations.
+     */
+    private static class CountingPattern extends PropertyExistsPattern {
+
+        private int count;
+
+        CountingPattern(String restrictionValue, PatternContext context) {
+            super(restrictionValue, context);
+        }
+
+        @Override
+        protected boolean evaluate(Tree tree) {
+            count++;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests MultiStringMatcher.
+ *
+ * @author Roland Gruber
+ */
+class MultiStringMatcherTest {
+
+    private static final List<String> VALUES = Arrays.asList("he", "she", "his", "hers");
+
+    @Test
+    void prefix() {
+        MultiStringMatcher matcher = new MultiStringMatcher(VALUES, MultiStringMatcher.Mode.PREFIX);
+        assertTrue(matcher.matches("help"));
+        assertTrue(matcher.matches("sheep"));
+        assertTrue(matcher.matches("his"));
+        assertFalse(matcher.matches("ushers"));
+        assertFalse(matcher.matches("h"));
+        assertFalse(matcher.matches(""));
+        // root and shared prefixes: h, he, hi, his, her, hers, s, sh, she
+        assertEquals(10, matcher.getStateCount());
+    }
+
+    @Test
+    void suffix() {
+        MultiStringMatcher matcher = new MultiStringMatcher(VALUES, MultiStringMatcher.Mode.SUFFIX);
+        assertTrue(matcher.matches("ushers"));
+        assertTrue(matcher.matches("the"));
+        assertTrue(matcher.matches("this"));
+        assertFalse(matcher.matches("help"));
+        assertFalse(matcher.matches("e"));
+    }
+
+    @Test
+    void substring() {
+        MultiStringMatcher matcher = new MultiStringMatcher(VALUES, MultiStringMatcher.Mode.SUBSTRING);
+        assertTrue(matcher.matches("ushers"));
+        assertTrue(matcher.matches("this one"));
+        assertTrue(matcher.matches("ahe"));
+        assertFalse(matcher.matches("hsihsi"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void substring_valueInsideOtherValue() {
+        // "bc" is only found by the failure link from "abc"
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("abcd", "bc"), MultiStringMatcher.Mode.SUBSTRING);
+        assertTrue(matcher.matches("xabcx"));
+        assertFalse(matcher.matches("xabx"));
+        matcher = new MultiStringMatcher(Arrays.asList("aab"), MultiStringMatcher.Mode.SUBSTRING);
+        assertTrue(matcher.matches("aaab"));
+    }
+
+    @Test
+    void emptyValue() {
+        for (MultiStringMatcher.Mode mode : MultiStringMatcher.Mode.values()) {
+            MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("abc", ""), mode);
+            assertTrue(matcher.matches(""));
+            assertTrue(matcher.matches("xyz"));
+        }
+    }
+
+    @Test
+    void nonAscii() {
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("größe", "été"), MultiStringMatcher.Mode.SUBSTRING);
+        assertTrue(matcher.matches("Schuhgröße"));
+        assertTrue(matcher.matches("l'été"));
+        assertFalse(matcher.matches("grosse"));
+    }
+
+    @Test
+    void tooManyValues() {
+        StringBuilder value = new StringBuilder();
+        for (char c = 0x100; c < 0x100 + 2100; c++) {
+            value.append(c);
+        }
+        // 2101 states x 2101 characters
+        assertThrows(IllegalStateException.class,
+                () -> new MultiStringMatcher(Arrays.asList(value.toString()), MultiStringMatcher.Mode.SUBSTRING));
+    }
+
+    @Test
+    void random() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            List<String> values = new ArrayList<>();
+            int valueCount = 1 + random.nextInt(8);
+            for (int i = 0; i < valueCount; i++) {
+                values.add(randomString(random, 1 + random.nextInt(4)));
+            }
+            MultiStringMatcher prefix = new MultiStringMatcher(values, MultiStringMatcher.Mode.PREFIX);
+            MultiStringMatcher suffix = new MultiStringMatcher(values, MultiStringMatcher.Mode.SUFFIX);
+            MultiStringMatcher substring = new MultiStringMatcher(values, MultiStringMatcher.Mode.SUBSTRING);
+            for (int i = 0; i < 50; i++) {
+                String text = randomString(random, random.nextInt(12));
+                assertEquals(values + " " + text, values.stream().anyMatch(text::startsWith), prefix.matches(text));
+                assertEquals(values + " " + text, values.stream().anyMatch(text::endsWith), suffix.matches(text));
+                assertEquals(values + " " + text, values.stream().anyMatch(text::contains), substring.matches(text));
+            }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // small alphabet with one non-ASCII character for many partial matches
+            value.append("abcä".charAt(random.nextInt(4)));
+        }
+        return value.toString();
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static junit.framework.Assert.assertTrue;
+import static junitx.framework.Assert.assertEquals;
+import static junitx.framework.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests NumberBetweenHierarchicalPattern.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NumberBetweenHierarchicalPatternTest {
+
+    private static final String PREFIX = "metadata/";
+    private static final String PROP_NAME = "confidential";
+    private static final String PROP_RANGE = "10" + BasePattern.DELIMITER + "20";
+
+    private NumberBetweenHierarchicalPattern pattern = null;
+
+    @BeforeEach
+    void setup() {
+        pattern = new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + PROP_RANGE);
+
+        assertEquals(PREFIX + PROP_NAME, pattern.propertyName);
+        assertEquals(10L, pattern.minValue);
+        assertEquals(20L, pattern.maxValue);
+    }
+
+    @Test
+    void create_invalid() {
+        assertThrows(IllegalStateException.class, () -> new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME));
+        assertThrows(IllegalStateException.class, () -> new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "10"));
+        assertThrows(IllegalStateException.class, () -> new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "20" + BasePattern.DELIMITER + "10"));
+        assertThrows(NumberFormatException.class, () -> new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "a" + BasePattern.DELIMITER + "10"));
+        assertThrows(NumberFormatException.class, () -> new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "1" + BasePattern.DELIMITER + "10" + BasePattern.DELIMITER + "20"));
+    }
+
+    @Test
+    void create_negative() {
+        pattern = new NumberBetweenHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "-20" + BasePattern.DELIMITER + "-10");
+        assertEquals(-20L, pattern.minValue);
+        assertEquals(-10L, pattern.maxValue);
+    }
+
+    @Test
+    void matches_noPropertyPresent() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, null);
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_propertyMatches() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, 15L);
+        assertTrue(pattern.matches(asset, null));
+        // limits are included
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, 10L);
+        assertTrue(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, 20L);
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_propertyMatchesNot() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, 9L);
+        assertFalse(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, 21L);
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_multiPropertyMatches() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, new Long[] {0L, 30L, 20L});
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_multiPropertyMatchesNot() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, new Long[] {0L, 30L});
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matchesDirectory_noPropertyPresent() {
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, null);
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matchesDirectory_propertyMatches() {
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, 10L);
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matchesDirectory_propertyMatchesNot() {
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, 21L);
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matchesDirectory_multiPropertyMatches() {
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, new Long[] {0L, 15L});
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matchesDirectory_multiPropertyMatchesNot() {
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, new Long[] {0L, 25L});
+        assertFalse(pattern.matches(asset, null));
+    }
+
+}
@@ -32,6 +32,9 @@ import org.mockito.quality.Strictness;
 
 import static junit.framework.Assert.assertTrue;
 import static junitx.framework.Assert.assertFalse;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests PathContainsFolderPattern.
@@ -43,6 +46,7 @@ import static junitx.framework.Assert.assertFalse;
 class PathContainsFolderPatternTest {
 
     private static final String CONFIDENTIAL = "confidential";
+    private static final String NAME_DELIMITER_ONLY = PathContainsFolderPattern.NAME_DELIMITER;
 
     private PathContainsFolderPattern pattern = null;
 
@@ -98,4 +102,36 @@ class PathContainsFolderPatternTest {
         assertTrue(pattern.matches(asset, null));
     }
 
+    @Test
+    void matches_multipleFolderNames() {
+        Tree asset = UtilityFunctions.createEmptyAssetWithParentFolder("asset", CONFIDENTIAL, JcrConstants.NT_FOLDER);
+
+        pattern = new PathContainsFolderPattern("secret|" + CONFIDENTIAL + "||internal");
+        assertTrue(pattern.matches(asset, null));
+
+        pattern = new PathContainsFolderPattern("secret|internal");
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_emptyName() {
+        Tree asset = UtilityFunctions.createEmptyAssetWithParentFolder("asset", CONFIDENTIAL, JcrConstants.NT_FOLDER);
+
+        pattern = new PathContainsFolderPattern(NAME_DELIMITER_ONLY);
+
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_pathReadOnce() {
+        Tree asset = UtilityFunctions.createEmptyAssetWithParentFolder("asset", CONFIDENTIAL, JcrConstants.NT_FOLDER);
+        Tree parent = asset.getParent();
+
+        pattern = new PathContainsFolderPattern(CONFIDENTIAL);
+
+        assertTrue(pattern.matches(asset, null));
+        verify(asset, times(1)).getPath();
+        verify(parent, never()).getPath();
+    }
+
 }
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static junitx.framework.Assert.assertEquals;
+import static junitx.framework.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests PatternContext.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PatternContextTest {
+
+    @Test
+    void defaults() {
+        PatternContext context = PatternContext.DEFAULT;
+        assertFalse(context.isHierarchyCacheEnabled());
+        assertFalse(context.isResultCacheEnabled());
+        assertFalse(context.isSummaryEnabled());
+        assertNull(context.getExistenceFilters());
+        assertNull(context.getTagHierarchy());
+        assertFalse(context.isHierarchyBoundary(createTree("/content/dam")));
+        assertTrue(context.getClock().currentTimeMillis() > 0);
+    }
+
+    @Test
+    void isHierarchyBoundary() {
+        PatternContext context = PatternContext.builder().hierarchyBoundaries("/content/dam", "", null, "/conf/").build();
+        assertTrue(context.isHierarchyBoundary(createTree("/content/dam")));
+        assertTrue(context.isHierarchyBoundary(createTree("/conf")));
+        assertFalse(context.isHierarchyBoundary(createTree("/content")));
+        assertFalse(context.isHierarchyBoundary(createTree("/content/dam/folder")));
+        assertFalse(context.isHierarchyBoundary(createTree("/other/content/dam")));
+        assertFalse(context.isHierarchyBoundary(createTree("/")));
+    }
+
+    @Test
+    void isHierarchyBoundary_root() {
+        PatternContext context = PatternContext.builder().hierarchyBoundaries("/").build();
+        assertTrue(context.isHierarchyBoundary(createTree("/")));
+        assertFalse(context.isHierarchyBoundary(createTree("/content")));
+    }
+
+    @Test
+    void hierarchyBoundaries_relative() {
+        assertThrows(IllegalArgumentException.class, () -> PatternContext.builder().hierarchyBoundaries("content/dam"));
+    }
+
+    @Test
+    void hierarchyResult() {
+        PatternContext context = PatternContext.builder().hierarchyCacheSize(10).cacheMaxAge(60000).build();
+        BasePattern pattern = new PropertyExistsHierarchicalPattern("prop", context);
+        BasePattern otherPattern = new PropertyExistsHierarchicalPattern("prop", context);
+        assertTrue(context.isHierarchyCacheEnabled());
+
+        long generation = context.getGeneration();
+        context.putHierarchyResult(pattern, "/content/dam", true, generation);
+        assertEquals(Boolean.TRUE, context.getHierarchyResult(pattern, "/content/dam"));
+        assertNull(context.getHierarchyResult(pattern, "/content"));
+        assertNull(context.getHierarchyResult(otherPattern, "/content/dam"));
+
+        context.contentChanged();
+        assertNull(context.getHierarchyResult(pattern, "/content/dam"));
+        // results that were calculated before the change are not stored
+        context.putHierarchyResult(pattern, "/content/dam", false, generation);
+        assertNull(context.getHierarchyResult(pattern, "/content/dam"));
+        context.putHierarchyResult(pattern, "/content/dam", false, context.getGeneration());
+        assertEquals(Boolean.FALSE, context.getHierarchyResult(pattern, "/content/dam"));
+    }
+
+    @Test
+    void result() {
+        PatternContext context = PatternContext.builder().resultCacheSize(100).cacheMaxAge(60000).build();
+        BasePattern pattern = new PropertyExistsPattern("prop", context);
+        BasePattern equalPattern = new PropertyExistsPattern("prop", context);
+        BasePattern otherPattern = new PropertyExistsPattern("other", context);
+        assertTrue(context.isResultCacheEnabled());
+
+        long generation = context.getGeneration();
+        context.putResult(pattern, "/content/dam/asset", true, generation);
+        assertEquals(Boolean.TRUE, context.getResult(pattern, "/content/dam/asset"));
+        // results are shared by equal patterns of different ACEs
+        assertEquals(Boolean.TRUE, context.getResult(equalPattern, "/content/dam/asset"));
+        assertNull(context.getResult(otherPattern, "/content/dam/asset"));
+        assertNull(context.getResult(pattern, "/content/dam/other"));
+
+        context.contentChanged();
+        assertNull(context.getResult(pattern, "/content/dam/asset"));
+        context.putResult(pattern, "/content/dam/asset", false, generation);
+        assertNull(context.getResult(pattern, "/content/dam/asset"));
+        context.putResult(pattern, "/content/dam/asset", false, context.getGeneration());
+        assertEquals(Boolean.FALSE, context.getResult(pattern, "/content/dam/asset"));
+    }
+
+    @Test
+    void contentChanged_paths() {
+        PatternContext context = PatternContext.builder().resultCacheSize(100).hierarchyCacheSize(100).cacheMaxAge(60000)
+                .build();
+        BasePattern pattern = new PropertyExistsHierarchicalPattern("prop", context);
+        long generation = context.startEvaluation(pattern);
+        context.putResult(pattern, "/content/dam/folder/asset", true, generation);
+        context.putResult(pattern, "/content/dam/folder2/asset", true, generation);
+        context.putHierarchyResult(pattern, "/content/dam/folder", true, generation);
+        context.putHierarchyResult(pattern, "/content/dam", false, generation);
+
+        // no changed base nodes, but results that were calculated before are not stored
+        context.contentChanged(Collections.emptyList());
+        assertTrue(context.getGeneration() > generation);
+        assertEquals(Boolean.TRUE, context.getResult(pattern, "/content/dam/folder/asset"));
+        context.putResult(pattern, "/content/dam/folder3/asset", true, generation);
+        assertNull(context.getResult(pattern, "/content/dam/folder3/asset"));
+
+        context.contentChanged(Arrays.asList("/content/dam/folder"));
+        assertNull(context.getResult(pattern, "/content/dam/folder/asset"));
+        assertNull(context.getHierarchyResult(pattern, "/content/dam/folder"));
+        assertEquals(Boolean.TRUE, context.getResult(pattern, "/content/dam/folder2/asset"));
+        assertEquals(Boolean.FALSE, context.getHierarchyResult(pattern, "/content/dam"));
+        // results that were calculated before the change are not stored
+        context.putResult(pattern, "/content/dam/folder/asset", false, generation);
+        assertNull(context.getResult(pattern, "/content/dam/folder/asset"));
+
+        context.contentChanged(Arrays.asList("/"));
+        assertNull(context.getResult(pattern, "/content/dam/folder2/asset"));
+        assertNull(context.getHierarchyResult(pattern, "/content/dam"));
+    }
+
+    @Test
+    void cacheMaxAge() {
+        AtomicLong now = new AtomicLong(1000);
+        PatternContext context = PatternContext.builder()
+                .clock(now::get)
+                .resultCacheSize(100)
+                .hierarchyCacheSize(100)
+                .cacheMaxAge(500)
+                .build();
+        BasePattern pattern = new PropertyExistsHierarchicalPattern("prop", context);
+        long generation = context.startEvaluation(pattern);
+        context.putResult(pattern, "/content/dam/asset", true, generation);
+        context.putHierarchyResult(pattern, "/content/dam", true, generation);
+
+        now.set(1500);
+        assertEquals(Boolean.TRUE, context.getResult(pattern, "/content/dam/asset"));
+        assertEquals(Boolean.TRUE, context.getHierarchyResult(pattern, "/content/dam"));
+        now.set(1501);
+        assertNull(context.getResult(pattern, "/content/dam/asset"));
+        assertNull(context.getHierarchyResult(pattern, "/content/dam"));
+    }
+
+    @Test
+    void close() {
+        PatternContext context = PatternContext.builder().resultCacheSize(100).hierarchyCacheSize(100)
+                .baseNodeCacheSize(100).cacheMaxAge(60000).build();
+        BasePattern pattern = new PropertyExistsHierarchicalPattern("prop", context);
+        long generation = context.startEvaluation(pattern);
+        context.putResult(pattern, "/content/dam/asset", true, generation);
+        context.putHierarchyResult(pattern, "/content/dam", true, generation);
+        context.putBaseNodeLevels("/content/dam/asset/jcr:content", 1);
+
+        context.close();
+        assertTrue(context.isClosed());
+        assertFalse(context.isResultCacheEnabled());
+        assertFalse(context.isHierarchyCacheEnabled());
+        assertFalse(context.isBaseNodeCacheEnabled());
+        assertEquals(0, context.getResultCache().size());
+        assertEquals(0, context.getHierarchyCache().size());
+        assertEquals(0, context.getBaseNodeCache().size());
+        context.putResult(pattern, "/content/dam/asset", true, context.getGeneration());
+        context.putHierarchyResult(pattern, "/content/dam", true, context.getGeneration());
+        context.putBaseNodeLevels("/content/dam/asset/jcr:content", 1);
+        assertNull(context.getResult(pattern, "/content/dam/asset"));
+        assertNull(context.getHierarchyResult(pattern, "/content/dam"));
+        assertNull(context.getBaseNodeLevels("/content/dam/asset/jcr:content"));
+    }
+
+    @Test
+    void cacheMaxAge_required() {
+        PatternContext context = PatternContext.builder().resultCacheSize(100).hierarchyCacheSize(100).build();
+        assertFalse(context.isResultCacheEnabled());
+        assertFalse(context.isHierarchyCacheEnabled());
+        assertEquals(0, context.getResultCache().getMaxSize());
+        assertEquals(0, context.getHierarchyCache().getMaxSize());
+    }
+
+    @Test
+    void isWatchedProperty() {
+        PatternContext context = PatternContext.builder().resultCacheSize(100).build();
+        assertFalse(context.isWatchedProperty("metadata", "prop"));
+
+        context.startEvaluation(new PropertyExistsPattern("metadata/prop", context));
+        context.startEvaluation(new PropertyExistsPattern("title", context));
+        context.startEvaluation(new NodeExistsPattern("renditions", context));
+        assertTrue(context.isWatchedProperty("metadata", "prop"));
+        assertTrue(context.isWatchedProperty("", "title"));
+        assertFalse(context.isWatchedProperty("", "prop"));
+        assertFalse(context.isWatchedProperty("metadata", "title"));
+        assertFalse(context.isWatchedProperty("metadata", "other"));
+
+        // properties of patterns from other packages are unknown
+        BasePattern customPattern = mock(BasePattern.class);
+        when(customPattern.isSharedEvaluationSupported()).thenReturn(false);
+        context.startEvaluation(customPattern);
+        assertTrue(context.isWatchedProperty("metadata", "other"));
+    }
+
+    @Test
+    void baseNodeLevels() {
+        PatternContext context = PatternContext.builder().baseNodeCacheSize(100).build();
+        assertTrue(context.isBaseNodeCacheEnabled());
+        String asset = "/content/dam/asset.png";
+        context.putBaseNodeLevels(asset + "/jcr:content/renditions", 2);
+        context.putBaseNodeLevels(asset + "/jcr:content/renditions/original", 3);
+        context.putBaseNodeLevels("/content/dam/asset2.png/jcr:content", 1);
+        context.putBaseNodeLevels("/content/other", PatternContext.NO_BASE_NODE);
+        assertEquals(Integer.valueOf(3), context.getBaseNodeLevels(asset + "/jcr:content/renditions/original"));
+
+        context.nodesChanged(Arrays.asList(asset + "/jcr:content/renditions/original", "/content/dam/asset.pn"));
+        assertNull(context.getBaseNodeLevels(asset + "/jcr:content/renditions/original"));
+        assertEquals(Integer.valueOf(2), context.getBaseNodeLevels(asset + "/jcr:content/renditions"));
+
+        context.nodesChanged(Collections.singletonList(asset));
+        assertNull(context.getBaseNodeLevels(asset + "/jcr:content/renditions"));
+        assertEquals(Integer.valueOf(1), context.getBaseNodeLevels("/content/dam/asset2.png/jcr:content"));
+
+        context.nodesChanged(Collections.singletonList("/"));
+        assertEquals(0, context.getBaseNodeCache().size());
+    }
+
+    @Test
+    void baseNodeLevels_disabled() {
+        PatternContext context = PatternContext.DEFAULT;
+        assertFalse(context.isBaseNodeCacheEnabled());
+        context.putBaseNodeLevels("/content/other", PatternContext.NO_BASE_NODE);
+        assertNull(context.getBaseNodeLevels("/content/other"));
+        context.nodesChanged(Collections.singletonList("/content"));
+    }
+
+    private Tree createTree(String path) {
+        Tree tree = mock(Tree.class);
+        if ("/".equals(path)) {
+            when(tree.isRoot()).thenReturn(true);
+            when(tree.getName()).thenReturn("");
+            return tree;
+        }
+        int index = path.lastIndexOf('/');
+        Tree parent = createTree((index == 0) ? "/" : path.substring(0, index));
+        when(tree.getName()).thenReturn(path.substring(index + 1));
+        when(tree.getParent()).thenReturn(parent);
+        return tree;
+    }
+
+}
@@ -18,6 +18,8 @@
  */
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
 
+import com.day.cq.dam.api.DamConstants;
+import org.apache.jackrabbit.JcrConstants;
 import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +33,11 @@ import org.mockito.quality.Strictness;
 import static junit.framework.Assert.assertTrue;
 import static junitx.framework.Assert.assertEquals;
 import static junitx.framework.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests PropertyMatchHierarchicalPattern.
@@ -118,4 +125,43 @@ class PropertyMatchHierarchicalPatternTest {
         assertFalse(pattern.matches(asset, null));
     }
 
+    @Test
+    void matchesFolder_hierarchyBoundary() {
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, PROP_VALUE);
+        PatternContext context = PatternContext.builder().hierarchyBoundaries("/some/folder").build();
+        pattern = new PropertyMatchHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + PROP_VALUE, context);
+        assertFalse(pattern.matches(asset, null));
+
+        // boundary node itself is checked
+        context = PatternContext.builder().hierarchyBoundaries("/some").build();
+        pattern = new PropertyMatchHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + PROP_VALUE, context);
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matchesFolder_hierarchyCache() {
+        PatternContext context = PatternContext.builder().hierarchyCacheSize(100).cacheMaxAge(60000).build();
+        pattern = new PropertyMatchHierarchicalPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + PROP_VALUE, context);
+        Tree asset = UtilityFunctions.createAssetWithParentFoldersAndMetadataProperty(PROP_NAME, PROP_VALUE);
+        assertTrue(pattern.matches(asset, null));
+        // asset and both folders
+        assertEquals(3, context.getHierarchyCache().size());
+
+        // sibling asset reuses the result of the folder
+        Tree sibling = UtilityFunctions.createAssetWithMetadataProperty("id", "sibling", DamConstants.NT_DAM_ASSET);
+        when(sibling.getPath()).thenReturn("/some/folder/sibling");
+        Tree folder = asset.getParent();
+        when(sibling.getParent()).thenReturn(folder);
+        Tree folderMetadata = folder.getParent().getChild(JcrConstants.JCR_CONTENT).getChild("metadata");
+        clearInvocations(folderMetadata);
+        assertTrue(pattern.matches(sibling, null));
+        verify(folderMetadata, never()).getProperty(anyString());
+        assertEquals(1, context.getHierarchyCache().getHitCount());
+
+        // content change invalidates the results
+        context.contentChanged();
+        assertTrue(pattern.matches(sibling, null));
+        verify(folderMetadata).getProperty(PROP_NAME);
+    }
+
 }
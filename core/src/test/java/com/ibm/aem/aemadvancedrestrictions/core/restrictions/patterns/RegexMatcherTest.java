@@ -0,0 +1,142 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests RegexMatcher.
+ *
+ * @author Roland Gruber
+ */
+class RegexMatcherTest {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "", "a", "abc", "a|b", "ab|cd", "a*", "a+", "a?b", "(ab)*", "(?:ab)+c", "a{2}", "a{1,3}", "a{2,}",
+            "(a|b)*abb", "[abc]+", "[^a]*", "[a-c][b-d]*", "[-a]", "[a-]", "[]a]", "[\\]]", "a.c", ".*b.*",
+            "\\d+", "\\D", "\\w+", "\\W", "\\s", "\\S+", "[\\d\\s]+", "\\.", "a\\|b", "\\x61", "\\u0062",
+            "^ab$", "a\\$", "(a|)b", "()", "(a*)*", "(a|ab)(c|bcd)(d*)", "DOC-\\d{4}-[A-Z]{2}", "ä+ö?");
+
+    private static final List<String> INPUTS = Arrays.asList(
+            "", "a", "b", "ab", "abc", "abb", "aabb", "cd", "aaa", "aaaa", "abab", "ababc", "-", "]", "a.c", "abc",
+            "a$", "a|b", "123", "1 2", "x_1", " ", "\t", "\n", "abcd", "abcbcdd", "DOC-2024-AB", "DOC-24-AB", "ää",
+            "äöö", "acbd", "a\nc", "ba", "abba", "cab");
+
+    @Test
+    void matches_likeJavaRegex() {
+        for (String expression : EXPRESSIONS) {
+            RegexMatcher matcher = new RegexMatcher(expression);
+            Pattern pattern = Pattern.compile(expression);
+            for (String input : INPUTS) {
+                assertEquals(expression + " on " + input, pattern.matcher(input).matches(), matcher.matches(input));
+            }
+        }
+    }
+
+    @Test
+    void matches_random() {
+        Random random = new Random(42);
+        String[] parts = {"a", "b", ".", "[ab]", "[^a]", "(a|b)", "(ab|a)", "a*", "b+", "a?", "(a|b)*", "a{1,2}", "(ba)+"};
+        for (int run = 0; run < 300; run++) {
+            StringBuilder expression = new StringBuilder();
+            int count = 1 + random.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                expression.append(parts[random.nextInt(parts.length)]);
+            }
+            RegexMatcher matcher = new RegexMatcher(expression.toString());
+            Pattern pattern = Pattern.compile(expression.toString());
+            for (int i = 0; i < 30; i++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int j = 0; j < length; j++) {
+                    input.append("abc".charAt(random.nextInt(3)));
+                }
+                assertEquals(expression + " on " + input, pattern.matcher(input).matches(), matcher.matches(input.toString()));
+            }
+        }
+    }
+
+    @Test
+    void matches_codePoints() {
+        List<String> expressions = Arrays.asList(
+                ".", "..", ".x", "[^a]", "\\W", "\\S+", "\uD83D\uDE00", "\\uD83D\\uDE00", "[\uD83D\uDE00-\uD83D\uDE02]+",
+                "[\\uD83D\\uDE01]", "[^\uD83D\uDE00]", "a\uD83D\uDE00*b", "[\uD7FF-\uD83C\uDF00]", ".{2}",
+                "[\uD800\uDC00-\uDBFF\uDFFF]");
+        List<String> inputs = Arrays.asList(
+                "", "a", "x", "ab", "\uD83D\uDE00", "\uD83D\uDE01", "\uD83D\uDE03", "\uD83D\uDE00x",
+                "\uD83D\uDE00\uD83D\uDE02", "a\uD83D\uDE00\uD83D\uDE00b", "\uDE00", "a\uDE00",
+                "\uD800\uDC00", "\uDBFF\uDFFF", "\uD7FF", "\uD83C\uDF00", "\uD83C\uDF01", "\uE000");
+        for (String expression : expressions) {
+            RegexMatcher matcher = new RegexMatcher(expression);
+            Pattern pattern = Pattern.compile(expression);
+            for (String input : inputs) {
+                assertEquals(expression + " on " + input, pattern.matcher(input).matches(), matcher.matches(input));
+            }
+        }
+        assertTrue(new RegexMatcher(".").matches("\uD83D\uDE00"));
+        assertFalse(new RegexMatcher("..").matches("\uD83D\uDE00"));
+        // unpaired high surrogates are not matched
+        assertFalse(new RegexMatcher(".").matches("\uD83D"));
+        assertFalse(new RegexMatcher(".*").matches("a\uD83Db"));
+    }
+
+    @Test
+    void matches_linearTime() {
+        // exponential for backtracking engines
+        RegexMatcher matcher = new RegexMatcher("(a+)+b");
+        char[] input = new char[100000];
+        Arrays.fill(input, 'a');
+        assertFalse(matcher.matches(new String(input)));
+        assertTrue(matcher.matches(new String(input) + "b"));
+        // no state explosion
+        assertTrue(matcher.getStateCount() < 10);
+    }
+
+    @Test
+    void unsupported() {
+        List<String> expressions = Arrays.asList(
+                "(a", "a)", "[a", "a{", "a{1", "a{2,1}", "a{1001}", "*a", "a**", "a*?", "a++", "a?+", "(?=a)", "(?!a)",
+                "(?<=a)", "(?<name>a)", "(?i)a", "(?>a)", "(a)\\1", "\\b", "\\p{L}", "\\Qa\\E", "\\A", "a^", "$a",
+                "[a[b]]", "[a&&b]", "[\\d-z]", "[z-a]", "\\", "\\x6", "\\uZZZZ");
+        for (String expression : expressions) {
+            assertThrows(IllegalStateException.class, () -> new RegexMatcher(expression), expression);
+        }
+    }
+
+    @Test
+    void tooComplex() {
+        // the DFA needs to remember the last 21 characters
+        assertThrows(IllegalStateException.class, () -> new RegexMatcher("(a|b)*a(a|b){20}"));
+        // too many NFA states
+        assertThrows(IllegalStateException.class, () -> new RegexMatcher("((a{1000}){1000})"));
+        // small enough
+        assertTrue(new RegexMatcher("(a|b)*a(a|b){5}").matches("bbbbaabbba"));
+    }
+
+}
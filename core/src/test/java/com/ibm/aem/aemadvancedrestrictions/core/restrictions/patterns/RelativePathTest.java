@@ -0,0 +1,93 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests RelativePath.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RelativePathTest {
+
+    @Mock
+    private Tree start;
+
+    @Mock
+    private PropertyState property;
+
+    @Test
+    void getProperty_direct() {
+        when(start.getProperty("prop")).thenReturn(property);
+        assertEquals(property, new RelativePath("prop").getProperty(start));
+    }
+
+    @Test
+    void getProperty_subnode() {
+        Tree metadata = addChild(start, "metadata");
+        Tree sub = addChild(metadata, "sub");
+        when(sub.getProperty("prop")).thenReturn(property);
+        assertEquals(property, new RelativePath("metadata/sub/prop").getProperty(start));
+        assertNull(new RelativePath("metadata/other/prop").getProperty(start));
+    }
+
+    @Test
+    void nodeExists() {
+        Tree metadata = addChild(start, "metadata");
+        addChild(metadata, "sub");
+        assertTrue(new RelativePath("metadata").nodeExists(start));
+        assertTrue(new RelativePath("metadata/sub").nodeExists(start));
+        assertFalse(new RelativePath("metadata/other").nodeExists(start));
+        assertFalse(new RelativePath("other").nodeExists(start));
+    }
+
+    @Test
+    void isPath() {
+        String path = "metadata/prop";
+        RelativePath relativePath = new RelativePath(path);
+        assertTrue(relativePath.isPath(path));
+        assertTrue(relativePath.isPath(new StringBuilder("metadata/").append("prop").toString()));
+        assertFalse(relativePath.isPath("metadata/other"));
+    }
+
+    private Tree addChild(Tree parent, String name) {
+        Tree child = mock(Tree.class);
+        when(parent.hasChild(name)).thenReturn(true);
+        when(parent.getChild(name)).thenReturn(child);
+        return child;
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import com.day.cq.dam.api.DamConstants;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.EmptyNodeState;
+import org.apache.jackrabbit.oak.plugins.memory.PropertyStates;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests RestrictionSummary.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RestrictionSummaryTest {
+
+    private static final String EPOCH = "1";
+
+    private NodeState asset;
+    private BasePattern exists;
+    private BasePattern notExists;
+
+    @BeforeEach
+    void setup() {
+        NodeBuilder builder = EmptyNodeState.EMPTY_NODE.builder();
+        builder.setProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME);
+        builder.child(JcrConstants.JCR_CONTENT).child("metadata").setProperty("prop", "value");
+        asset = builder.getNodeState();
+        exists = new PropertyExistsPattern("metadata/prop");
+        notExists = new PropertyExistsPattern("metadata/other");
+    }
+
+    @Test
+    void isBaseNode() {
+        assertTrue(RestrictionSummary.isBaseNode(asset));
+        assertFalse(RestrictionSummary.isBaseNode(asset.getChildNode(JcrConstants.JCR_CONTENT)));
+        assertFalse(RestrictionSummary.isBaseNode(EmptyNodeState.EMPTY_NODE));
+    }
+
+    @Test
+    void createAndRead() {
+        PropertyState summary = RestrictionSummary.create(Arrays.asList(exists, notExists), EPOCH, asset);
+
+        assertEquals(RestrictionSummary.PROPERTY_NAME, summary.getName());
+        assertEquals(3, summary.count());
+        assertEquals(EPOCH, summary.getValue(Type.STRING, 0));
+        assertEquals(RestrictionSummary.MATCH, RestrictionSummary.read(summary, EPOCH, exists.getSummaryKey()));
+        assertEquals(RestrictionSummary.NO_MATCH, RestrictionSummary.read(summary, EPOCH, notExists.getSummaryKey()));
+        assertEquals(RestrictionSummary.UNKNOWN, RestrictionSummary.read(summary, EPOCH, new PropertyExistsPattern("metadata/new").getSummaryKey()));
+        // same summary for other order
+        assertEquals(summary, RestrictionSummary.create(Arrays.asList(notExists, exists), EPOCH, asset));
+    }
+
+    @Test
+    void read_otherEpoch() {
+        PropertyState summary = RestrictionSummary.create(Collections.singletonList(exists), EPOCH, asset);
+
+        assertEquals(RestrictionSummary.UNKNOWN, RestrictionSummary.read(summary, "2", exists.getSummaryKey()));
+        assertEquals(RestrictionSummary.UNKNOWN, RestrictionSummary.read(null, EPOCH, exists.getSummaryKey()));
+        PropertyState single = PropertyStates.createProperty(RestrictionSummary.PROPERTY_NAME, EPOCH);
+        assertEquals(RestrictionSummary.UNKNOWN, RestrictionSummary.read(single, EPOCH, exists.getSummaryKey()));
+    }
+
+    @Test
+    void create_noContent() {
+        NodeBuilder builder = asset.builder();
+        builder.getChildNode(JcrConstants.JCR_CONTENT).remove();
+
+        assertNull(RestrictionSummary.create(Collections.singletonList(exists), EPOCH, builder.getNodeState()));
+        assertNull(RestrictionSummary.create(Collections.emptyList(), EPOCH, asset));
+    }
+
+    @Test
+    void createKey() {
+        assertEquals(exists.getSummaryKey(), new PropertyExistsPattern("metadata/prop").getSummaryKey());
+        assertEquals(16, exists.getSummaryKey().length());
+        assertFalse(exists.getSummaryKey().equals(notExists.getSummaryKey()));
+        assertFalse(exists.getSummaryKey().equals(new PropertyNotExistsPattern("metadata/prop").getSummaryKey()));
+    }
+
+    @Test
+    void isSummarySupported() {
+        assertTrue(exists.isSummarySupported());
+        assertFalse(new PropertyExistsHierarchicalPattern("metadata/prop").isSummarySupported());
+        assertFalse(new DateInPastPattern("metadata/date").isSummarySupported());
+        assertFalse(new PathContainsFolderPattern("folder").isSummarySupported());
+    }
+
+    @Test
+    void matches_summary() {
+        PatternContext context = PatternContext.builder().restrictionSummary(1).evaluationMemo(false).build();
+        context.setSummaryVersion(EPOCH);
+        BasePattern pattern = new PropertyExistsPattern("metadata/prop", context);
+        Tree tree = UtilityFunctions.createAssetWithMetadataPropertyAndRoot("prop", "value");
+        Tree content = tree.getChild(JcrConstants.JCR_CONTENT);
+
+        // no summary yet, pattern is registered for the next summaries
+        assertTrue(pattern.matches(UtilityFunctions.asReadOnly(tree), null));
+        verify(content, times(1)).getChild("metadata");
+        assertEquals(1, context.getSummaryPatternCount());
+        PropertyState summary = context.createSummary(asset);
+        assertEquals(RestrictionSummary.MATCH, RestrictionSummary.read(summary, EPOCH, pattern.getSummaryKey()));
+
+        // summary says no match, metadata is not read
+        PropertyState noMatch = PropertyStates.createProperty(RestrictionSummary.PROPERTY_NAME,
+                Arrays.asList(EPOCH, "-" + pattern.getSummaryKey()), Type.STRINGS);
+        when(content.getProperty(RestrictionSummary.PROPERTY_NAME)).thenReturn(noMatch);
+        assertFalse(pattern.matches(UtilityFunctions.asReadOnly(tree), null));
+        verify(content, times(1)).getChild("metadata");
+
+        // mutable trees may contain transient changes
+        assertTrue(pattern.matches(tree, null));
+        verify(content, times(2)).getChild("metadata");
+    }
+
+    @Test
+    void matches_summaryDisabled() {
+        Tree tree = UtilityFunctions.createAssetWithMetadataPropertyAndRoot("prop", "value");
+        Tree content = tree.getChild(JcrConstants.JCR_CONTENT);
+
+        assertTrue(new PropertyExistsPattern("metadata/prop").matches(UtilityFunctions.asReadOnly(tree), null));
+        verify(content, never()).getProperty(RestrictionSummary.PROPERTY_NAME);
+        assertNull(PatternContext.DEFAULT.createSummary(asset));
+    }
+
+    @Test
+    void matches_summaryWithoutVersion() {
+        PatternContext context = PatternContext.builder().restrictionSummary(1).evaluationMemo(false).build();
+        BasePattern pattern = new PropertyExistsPattern("metadata/prop", context);
+        Tree tree = UtilityFunctions.createAssetWithMetadataPropertyAndRoot("prop", "value");
+        Tree content = tree.getChild(JcrConstants.JCR_CONTENT);
+        PropertyState noMatch = PropertyStates.createProperty(RestrictionSummary.PROPERTY_NAME,
+                Arrays.asList(EPOCH, "-" + pattern.getSummaryKey()), Type.STRINGS);
+        when(content.getProperty(RestrictionSummary.PROPERTY_NAME)).thenReturn(noMatch);
+
+        // no version in the repository, the summary is not trusted
+        assertTrue(pattern.matches(UtilityFunctions.asReadOnly(tree), null));
+        verify(content, times(1)).getChild("metadata");
+        assertNull(context.createSummary(asset));
+
+        context.setSummaryVersion(EPOCH);
+        assertFalse(pattern.matches(UtilityFunctions.asReadOnly(tree), null));
+        verify(content, times(1)).getChild("metadata");
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests TagTrie.
+ *
+ * @author Roland Gruber
+ */
+class TagTrieTest {
+
+    private TagTrie trie;
+
+    @BeforeEach
+    void setup() {
+        trie = new TagTrie();
+        trie.add("/content/cq:tags/properties", null);
+        trie.add("/content/cq:tags/properties/confidential", null);
+        trie.add("/content/cq:tags/properties/confidential/secret", null);
+        trie.add("/content/cq:tags/properties/public", null);
+        trie.add("/content/cq:tags/default/colors/red", null);
+    }
+
+    @Test
+    void add() {
+        // missing parents are added
+        assertEquals(7, trie.size());
+        assertTrue(trie.contains("default:colors"));
+        assertTrue(trie.contains("properties:confidential/secret"));
+        assertTrue(trie.contains("/content/cq:tags/properties/confidential/secret"));
+        assertTrue(trie.contains("properties:"));
+        assertTrue(trie.contains("colors/red"));
+        assertFalse(trie.contains("properties:confidential/other"));
+        assertFalse(trie.contains("properties:confidential/secret/other"));
+        assertFalse(trie.contains("other:confidential"));
+        assertFalse(trie.contains("/content/cq:tags"));
+        assertFalse(trie.contains(""));
+        assertFalse(trie.contains("/content/cq:tagsx/properties"));
+
+        trie.add("properties:confidential", null);
+        assertEquals(7, trie.size());
+    }
+
+    @Test
+    void check() {
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:confidential", "properties:confidential"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:confidential/secret", "properties:confidential"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:confidential/secret/", "/content/cq:tags/properties/confidential"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:public", "properties:"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("colors/red", "default:colors"));
+        assertEquals(TagHierarchy.NOT_TAGGED, trie.check("properties:public", "properties:confidential"));
+        assertEquals(TagHierarchy.NOT_TAGGED, trie.check("properties:confidential", "properties:confidential/secret"));
+        assertEquals(TagHierarchy.NOT_TAGGED, trie.check("colors/red", "properties:"));
+        // without moved tags unknown tags are compared by ID
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:confidential/other", "properties:confidential"));
+        assertEquals(TagHierarchy.NOT_TAGGED, trie.check("properties:confidential", "properties:other"));
+        assertEquals(TagHierarchy.UNKNOWN, trie.check("", "properties:other"));
+    }
+
+    @Test
+    void check_moved() {
+        trie.add("properties:old", "/content/cq:tags/properties/confidential");
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:old", "properties:confidential"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:old/secret", "properties:confidential"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:confidential/secret", "properties:old"));
+        assertEquals(TagHierarchy.NOT_TAGGED, trie.check("properties:old", "properties:public"));
+        assertEquals(TagHierarchy.UNKNOWN, trie.check("properties:confidential/other", "properties:confidential"));
+        assertEquals(TagHierarchy.UNKNOWN, trie.check("properties:confidential", "properties:other"));
+
+        // move cycles are not followed endlessly
+        trie.add("properties:a", "properties:b");
+        trie.add("properties:b", "properties:a");
+        assertEquals(TagHierarchy.UNKNOWN, trie.check("properties:a", "properties:"));
+
+        trie.add("properties:old", null);
+        assertEquals(TagHierarchy.NOT_TAGGED, trie.check("properties:old", "properties:confidential"));
+        assertTrue(trie.remove("properties:a"));
+        assertTrue(trie.remove("properties:b"));
+        assertEquals(TagHierarchy.TAGGED, trie.check("properties:confidential/other", "properties:confidential"));
+    }
+
+    @Test
+    void remove() {
+        assertTrue(trie.remove("properties:confidential"));
+        assertEquals(5, trie.size());
+        assertFalse(trie.contains("properties:confidential/secret"));
+        assertTrue(trie.contains("properties:public"));
+        assertFalse(trie.remove("properties:confidential"));
+        assertFalse(trie.remove("other:"));
+        assertTrue(trie.remove("/content/cq:tags/default"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void toTagId() {
+        assertEquals("properties:confidential/secret", TagTrie.toTagId("properties:confidential/secret"));
+        assertEquals("properties:confidential/secret", TagTrie.toTagId("/content/cq:tags/properties/confidential/secret/"));
+        assertEquals("properties:", TagTrie.toTagId("/content/cq:tags/properties"));
+        assertEquals("properties:", TagTrie.toTagId("properties:"));
+        assertEquals("default:colors/red", TagTrie.toTagId("colors/red"));
+        assertEquals("default:a/b:c", TagTrie.toTagId("a/b:c"));
+        assertNull(TagTrie.toTagId(""));
+        assertNull(TagTrie.toTagId(":confidential"));
+        assertNull(TagTrie.toTagId("/content/cq:tags"));
+    }
+
+    @Test
+    void isTagIdOrDescendant() {
+        assertTrue(TagTrie.isTagIdOrDescendant("properties:confidential", "properties:confidential"));
+        assertTrue(TagTrie.isTagIdOrDescendant("properties:confidential/secret", "properties:confidential"));
+        assertTrue(TagTrie.isTagIdOrDescendant("properties:confidential", "properties:"));
+        assertFalse(TagTrie.isTagIdOrDescendant("properties:confidential2", "properties:confidential"));
+        assertFalse(TagTrie.isTagIdOrDescendant("properties:confidential", "properties:confidential/secret"));
+        assertFalse(TagTrie.isTagIdOrDescendant("properties2:confidential", "properties:"));
+    }
+
+}
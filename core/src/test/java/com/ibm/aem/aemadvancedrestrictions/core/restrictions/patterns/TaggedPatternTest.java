@@ -0,0 +1,152 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns;
+
+import org.apache.jackrabbit.oak.api.Tree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static junit.framework.Assert.assertTrue;
+import static junitx.framework.Assert.assertEquals;
+import static junitx.framework.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests TaggedPattern.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TaggedPatternTest {
+
+    private static final String PREFIX = "metadata/";
+    private static final String PROP_NAME = "cq:tags";
+    private static final String TAG = "properties:confidential";
+
+    private TaggedPattern pattern = null;
+
+    @BeforeEach
+    void setup() {
+        pattern = new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + TAG);
+
+        assertEquals(PREFIX + PROP_NAME, pattern.propertyName);
+        assertEquals(TAG, pattern.checkTag);
+    }
+
+    @Test
+    void create_invalid() {
+        assertThrows(IllegalStateException.class, () -> new TaggedPattern(PREFIX + PROP_NAME));
+        assertThrows(IllegalStateException.class, () -> new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER));
+    }
+
+    @Test
+    void create_tagPath() {
+        pattern = new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "/content/cq:tags/properties/confidential");
+        assertEquals(TAG, pattern.checkTag);
+        pattern = new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "confidential");
+        assertEquals("default:confidential", pattern.checkTag);
+    }
+
+    @Test
+    void matches_noPropertyPresent() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, null);
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_propertyMatches() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, TAG);
+        assertTrue(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, TAG + "/secret");
+        assertTrue(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, "/content/cq:tags/properties/confidential/secret");
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_propertyMatchesNot() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, TAG + "-old");
+        assertFalse(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, "properties:");
+        assertFalse(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, "confidential");
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_namespace() {
+        pattern = new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + "properties:");
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, TAG);
+        assertTrue(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, "propertiesx:confidential");
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_multiPropertyMatches() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, new String[] {"properties:public", TAG + "/secret"});
+        assertTrue(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_multiPropertyMatchesNot() {
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, new String[] {"properties:public", "other:confidential"});
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void matches_tagHierarchy() {
+        TagTrie trie = new TagTrie();
+        trie.add("properties:confidential/secret", null);
+        trie.add("properties:public", null);
+        trie.add("properties:old", "/content/cq:tags/properties/confidential/secret");
+        PatternContext context = PatternContext.builder().tagHierarchy(trie).build();
+        pattern = new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + TAG, context);
+
+        // moved tag
+        Tree asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, new String[] {"properties:public", "properties:old"});
+        assertTrue(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, "properties:public");
+        assertFalse(pattern.matches(asset, null));
+        // unknown tags are compared by ID
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, TAG + "/unknown");
+        assertTrue(pattern.matches(asset, null));
+        asset = UtilityFunctions.createAssetWithMetadataPropertyAndRoot(PROP_NAME, "properties:unknown");
+        assertFalse(pattern.matches(asset, null));
+    }
+
+    @Test
+    void isCacheable() {
+        assertTrue(pattern.isCacheable());
+        assertTrue(pattern.isSummarySupported());
+
+        PatternContext context = PatternContext.builder().tagHierarchy(new TagTrie()).build();
+        pattern = new TaggedPattern(PREFIX + PROP_NAME + BasePattern.DELIMITER + TAG, context);
+
+        assertFalse(pattern.isTimeDependent());
+        assertFalse(pattern.isCacheable());
+        assertFalse(pattern.isSummarySupported());
+    }
+
+}
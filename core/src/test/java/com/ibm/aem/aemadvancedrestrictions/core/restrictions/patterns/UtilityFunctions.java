@@ -23,12 +23,14 @@ import org.apache.jackrabbit.JcrConstants;
 import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 
 import java.util.Arrays;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 /**
  * Utility functions for tests.
@@ -51,6 +53,17 @@ class UtilityFunctions {
         return asset;
     }
 
+    /**
+     * Returns a read-only tree (like Oak's ImmutableTree) that delegates to the given tree.
+     *
+     * @param tree tree
+     * @return read-only tree
+     */
+    public static Tree asReadOnly(Tree tree) {
+        return mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class).defaultAnswer(
+                invocation -> invocation.getMethod().invoke(tree, invocation.getArguments())));
+    }
+
     public static Tree createAssetWithMetadataProperty(String propertyName, Object value, String primaryType) {
         Tree asset = mock(Tree.class);
         Tree jcrContent = mock(Tree.class);
@@ -70,6 +83,11 @@ class UtilityFunctions {
             if (value instanceof String[]) {
                 when(property.getValue(Type.STRINGS)).thenReturn(Arrays.asList((String[]) value));
                 when(property.getValue(Type.DATES)).thenReturn(Arrays.asList((String[]) value));
+                String[] values = (String[]) value;
+                when(property.count()).thenReturn(values.length);
+                for (int i = 0; i < values.length; i++) {
+                    when(property.getValue(Type.STRING, i)).thenReturn(values[i]);
+                }
                 when(property.isArray()).thenReturn(true);
             }
             else if (value instanceof Long) {
@@ -77,6 +95,11 @@ class UtilityFunctions {
             }
             if (value instanceof Long[]) {
                 when(property.getValue(Type.LONGS)).thenReturn(Arrays.asList((Long[]) value));
+                Long[] values = (Long[]) value;
+                when(property.count()).thenReturn(values.length);
+                for (int i = 0; i < values.length; i++) {
+                    when(property.getValue(Type.LONG, i)).thenReturn(values[i]);
+                }
                 when(property.isArray()).thenReturn(true);
             }
         }
@@ -88,12 +111,15 @@ class UtilityFunctions {
     public static Tree createAssetWithParentFoldersAndMetadataProperty(String propertyName, Object value) {
         Tree asset = createAssetWithMetadataProperty("id", "asset");
         when(asset.getPath()).thenReturn("/some/folder/asset");
+        when(asset.getName()).thenReturn("asset");
         Tree parentFolder = createAssetWithMetadataProperty("id", "parent", JcrResourceConstants.NT_SLING_ORDERED_FOLDER);
         when(asset.getParent()).thenReturn(parentFolder);
         when(parentFolder.getPath()).thenReturn("/some/folder");
+        when(parentFolder.getName()).thenReturn("folder");
         Tree parentParentFolder = createAssetWithMetadataProperty(propertyName, value, JcrResourceConstants.NT_SLING_FOLDER);
         when(parentFolder.getParent()).thenReturn(parentParentFolder);
         when(parentParentFolder.getPath()).thenReturn("/some");
+        when(parentParentFolder.getName()).thenReturn("some");
         Tree root = createAssetWithMetadataProperty("id", "root", "rep:root");
         when(parentParentFolder.getParent()).thenReturn(root);
         when(root.isRoot()).thenReturn(true);
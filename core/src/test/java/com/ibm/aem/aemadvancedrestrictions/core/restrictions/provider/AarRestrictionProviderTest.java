@@ -18,27 +18,61 @@
  */
 package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
 
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.AarCompositePattern;
 import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.BasePattern;
 import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.NodeExistsPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.NodeStateTree;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.NumberLessPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PathContainsFolderPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
 import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyEndsWithPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyExistsHierarchicalPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyExistsPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyRegexPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.TagHierarchy;
+import org.apache.jackrabbit.JcrConstants;
 import org.apache.jackrabbit.oak.api.PropertyState;
 import org.apache.jackrabbit.oak.api.Tree;
 import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.api.jmx.CacheStatsMBean;
+import org.apache.jackrabbit.oak.plugins.memory.EmptyNodeState;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EditorProvider;
+import org.apache.jackrabbit.oak.spi.commit.Observer;
+import org.apache.jackrabbit.oak.spi.security.authorization.accesscontrol.AccessControlConstants;
 import org.apache.jackrabbit.oak.spi.security.authorization.restriction.Restriction;
 import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionDefinition;
 import org.apache.jackrabbit.oak.spi.security.authorization.restriction.RestrictionPattern;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.value.StringValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.osgi.framework.BundleContext;
 
+import javax.jcr.RepositoryException;
+import javax.jcr.security.AccessControlException;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -53,9 +87,14 @@ class AarRestrictionProviderTest {
     @Mock
     Tree tree;
 
+    private List<PropertyState> treeProperties;
+
     @BeforeEach
     void setup() {
         provider = new AarRestrictionProvider();
+        treeProperties = new ArrayList<>();
+        when(tree.getProperties()).then(invocation -> treeProperties);
+        addRestriction("jcr:primaryType", "rep:Restrictions");
     }
 
     @Test
@@ -75,20 +114,49 @@ class AarRestrictionProviderTest {
 
     @Test
     void getPattern_pathNotNull_property() {
-        when(tree.hasProperty(PropertyEndsWithPattern.ID)).thenReturn(true);
-        PropertyState propertyState = mock(PropertyState.class);
-        when(propertyState.getValue(Type.STRING)).thenReturn("prop" + BasePattern.DELIMITER + "end");
-        when(tree.getProperty(PropertyEndsWithPattern.ID)).thenReturn(propertyState);
+        addRestriction(PropertyEndsWithPattern.ID, "prop" + BasePattern.DELIMITER + "end");
 
         RestrictionPattern pattern = provider.getPattern("/content", tree);
         assertTrue(pattern instanceof PropertyEndsWithPattern);
     }
 
+    @Test
+    void getPattern_pathNotNull_multipleProperties() {
+        addRestriction(NodeExistsPattern.ID, "approvers");
+        addRestriction("rep:glob", "*");
+        addRestriction(PropertyEndsWithPattern.ID, "prop" + BasePattern.DELIMITER + "end");
+
+        RestrictionPattern pattern = provider.getPattern("/content", tree);
+        assertTrue(pattern instanceof AarCompositePattern);
+    }
+
+    @Test
+    void getPattern_pathNotNull_otherProperty() {
+        addRestriction("rep:glob", "*");
+
+        assertEquals(RestrictionPattern.EMPTY, provider.getPattern("/content", tree));
+    }
+
     @Test
     void getPatternPathSet_pathNull() {
         assertEquals(RestrictionPattern.EMPTY, provider.getPattern(null, new HashSet<>()));
     }
 
+    @Test
+    void getPatternPathSet_otherRestriction() {
+        HashSet<Restriction> restrictions = new HashSet<>();
+        Restriction restriction = mock(Restriction.class);
+        RestrictionDefinition definition = mock(RestrictionDefinition.class);
+        when(restriction.getDefinition()).thenReturn(definition);
+        when(definition.getName()).thenReturn("rep:ntNames");
+        PropertyState propertyState = mock(PropertyState.class);
+        when(propertyState.getValue(Type.STRING)).thenThrow(new IllegalStateException("multi-value"));
+        when(restriction.getProperty()).thenReturn(propertyState);
+        restrictions.add(restriction);
+
+        assertEquals(RestrictionPattern.EMPTY, provider.getPattern("/content", restrictions));
+    }
+
     @Test
     void getPatternPathSet_pathNotNull_restriction() {
         HashSet<Restriction> restrictions = new HashSet<>();
@@ -104,4 +172,292 @@ class AarRestrictionProviderTest {
         assertTrue(provider.getPattern("/content", restrictions) instanceof NodeExistsPattern);
     }
 
+    @Test
+    void getPattern_cached() {
+        addRestriction(PropertyEndsWithPattern.ID, "prop" + BasePattern.DELIMITER + "end");
+
+        RestrictionPattern pattern = provider.getPattern("/content", tree);
+        assertSame(pattern, provider.getPattern("/content/other", tree));
+        CacheStatsMBean stats = provider.getPatternCacheStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getElementCount());
+    }
+
+    @Test
+    void getPattern_cacheDisabled() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(0);
+        provider.activate(bundleContext, config);
+        verify(bundleContext).registerService(eq(CacheStatsMBean.class), any(CacheStatsMBean.class), any());
+
+        addRestriction(PropertyEndsWithPattern.ID, "prop" + BasePattern.DELIMITER + "end");
+
+        RestrictionPattern pattern = provider.getPattern("/content", tree);
+        assertNotSame(pattern, provider.getPattern("/content", tree));
+        assertEquals(0, provider.getPatternCacheStats().getElementCount());
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_hierarchyCache() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.hierarchyCacheSize()).thenReturn(100);
+        when(config.cacheMaxAge()).thenReturn(60L);
+        when(config.hierarchyBoundaries()).thenReturn(new String[] {"/content/dam"});
+        provider.activate(bundleContext, config);
+        verify(bundleContext, times(2)).registerService(eq(CacheStatsMBean.class), any(CacheStatsMBean.class), any());
+        verify(bundleContext).registerService(eq(Observer.class), any(Observer.class), any());
+
+        PatternContext context = provider.getPatternContext();
+        assertTrue(context.getHierarchyCache().getMaxSize() > 0);
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_baseNodeCache() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.baseNodeCacheSize()).thenReturn(100);
+        provider.activate(bundleContext, config);
+        verify(bundleContext, times(2)).registerService(eq(CacheStatsMBean.class), any(CacheStatsMBean.class), any());
+        verify(bundleContext).registerService(eq(Observer.class), any(Observer.class), any());
+
+        assertEquals(100, provider.getPatternContext().getBaseNodeCache().getMaxSize());
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_resultCache() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.resultCacheSize()).thenReturn(100);
+        when(config.cacheMaxAge()).thenReturn(60L);
+        provider.activate(bundleContext, config);
+        verify(bundleContext, times(2)).registerService(eq(CacheStatsMBean.class), any(CacheStatsMBean.class), any());
+        verify(bundleContext).registerService(eq(Observer.class), any(Observer.class), any());
+
+        assertEquals(100, provider.getPatternContext().getResultCache().getMaxSize());
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_resultCacheWithoutMaxAge() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.resultCacheSize()).thenReturn(100);
+        when(config.hierarchyCacheSize()).thenReturn(100);
+        provider.activate(bundleContext, config);
+        verify(bundleContext, times(1)).registerService(eq(CacheStatsMBean.class), any(CacheStatsMBean.class), any());
+        verify(bundleContext, never()).registerService(eq(Observer.class), any(Observer.class), any());
+
+        assertEquals(0, provider.getPatternContext().getResultCache().getMaxSize());
+        assertEquals(0, provider.getPatternContext().getHierarchyCache().getMaxSize());
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_contentChangeStats() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.resultCacheSize()).thenReturn(100);
+        when(config.cacheMaxAge()).thenReturn(60L);
+        provider.activate(bundleContext, config);
+        ArgumentCaptor<Observer> observer = ArgumentCaptor.forClass(Observer.class);
+        verify(bundleContext).registerService(eq(Observer.class), observer.capture(), any());
+        ArgumentCaptor<ContentChangeStatsMBean> stats = ArgumentCaptor.forClass(ContentChangeStatsMBean.class);
+        verify(bundleContext).registerService(eq(ContentChangeStatsMBean.class), stats.capture(), any());
+
+        observer.getValue().contentChanged(EmptyNodeState.EMPTY_NODE, CommitInfo.EMPTY_EXTERNAL);
+        assertEquals(1, stats.getValue().getChangeCount());
+        assertEquals(1, stats.getValue().getExternalChangeCount());
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_restrictionSummary() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        provider.activate(bundleContext, config);
+        assertFalse(provider.getPatternContext().isSummaryEnabled());
+        verify(bundleContext, never()).registerService(eq(EditorProvider.class), any(EditorProvider.class), any());
+
+        when(config.restrictionSummaryEpoch()).thenReturn(2);
+        provider.activate(bundleContext, config);
+        assertTrue(provider.getPatternContext().isSummaryEnabled());
+        verify(bundleContext).registerService(eq(EditorProvider.class), any(EditorProvider.class), any());
+        ArgumentCaptor<RestrictionSummaryMBean> backfill = ArgumentCaptor.forClass(RestrictionSummaryMBean.class);
+        verify(bundleContext).registerService(eq(RestrictionSummaryMBean.class), backfill.capture(), any());
+        assertEquals("No node store available", backfill.getValue().backfill("/content"));
+        provider.deactivate();
+    }
+
+    @Test
+    void activate_existenceFilters(@TempDir File directory) {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.existenceFilterSize()).thenReturn(1000);
+        when(config.existenceFilterFalsePositiveRate()).thenReturn(0.01);
+        // no bundle data area
+        provider.activate(bundleContext, config);
+        assertNull(provider.getPatternContext().getExistenceFilters());
+
+        when(bundleContext.getDataFile("existence-filters")).thenReturn(new File(directory, "existence-filters"));
+        provider.activate(bundleContext, config);
+        assertNotNull(provider.getPatternContext().getExistenceFilters());
+        verify(bundleContext).registerService(eq(EditorProvider.class), any(EditorProvider.class), any());
+        verify(bundleContext).registerService(eq(Observer.class), any(Observer.class), any());
+        ArgumentCaptor<ExistenceFilterStatsMBean> stats = ArgumentCaptor.forClass(ExistenceFilterStatsMBean.class);
+        verify(bundleContext).registerService(eq(ExistenceFilterStatsMBean.class), stats.capture(), any());
+        assertEquals(0, stats.getValue().getFilterCount());
+        provider.deactivate();
+        assertTrue(new File(directory, "existence-filters").isDirectory());
+    }
+
+    @Test
+    void activate_tagHierarchy() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        provider.activate(bundleContext, config);
+        assertNull(provider.getPatternContext().getTagHierarchy());
+        verify(bundleContext, never()).registerService(eq(Observer.class), any(Observer.class), any());
+
+        when(config.tagHierarchy()).thenReturn(true);
+        provider.activate(bundleContext, config);
+        TagHierarchy tagHierarchy = provider.getPatternContext().getTagHierarchy();
+        // no node store, the trie is built with the first notification
+        assertEquals(TagHierarchy.UNKNOWN, tagHierarchy.check("properties:", "properties:"));
+        ArgumentCaptor<Observer> observer = ArgumentCaptor.forClass(Observer.class);
+        verify(bundleContext).registerService(eq(Observer.class), observer.capture(), any());
+        NodeBuilder root = EmptyNodeState.EMPTY_NODE.builder();
+        root.child("content").child("cq:tags").child("properties")
+                .setProperty(JcrConstants.JCR_PRIMARYTYPE, TagHierarchyManager.NT_TAG, Type.NAME);
+        observer.getValue().contentChanged(root.getNodeState(), CommitInfo.EMPTY);
+        assertEquals(TagHierarchy.TAGGED, tagHierarchy.check("properties:", "properties:"));
+        provider.deactivate();
+        // tags are no longer updated
+        assertEquals(TagHierarchy.UNKNOWN, tagHierarchy.check("properties:", "properties:"));
+    }
+
+    @Test
+    void activate_twice() {
+        BundleContext bundleContext = mock(BundleContext.class);
+        AarRestrictionProvider.Config config = mock(AarRestrictionProvider.Config.class);
+        when(config.patternCacheSize()).thenReturn(10);
+        when(config.resultCacheSize()).thenReturn(100);
+        when(config.cacheMaxAge()).thenReturn(60L);
+        provider.activate(bundleContext, config);
+        PatternContext firstContext = provider.getPatternContext();
+        addRestriction(PropertyExistsPattern.ID, "metadata/prop");
+        RestrictionPattern pattern = provider.getPattern("/content", tree);
+        assertTrue(pattern.matches(createReadOnlyAsset(true), null));
+        assertEquals(1, firstContext.getResultCache().size());
+
+        provider.activate(bundleContext, config);
+        assertTrue(firstContext.isClosed());
+        assertEquals(0, firstContext.getResultCache().size());
+        // sessions may still use the pattern, but the first context no longer receives changes
+        assertFalse(pattern.matches(createReadOnlyAsset(false), null));
+        assertEquals(0, firstContext.getResultCache().size());
+        PatternContext secondContext = provider.getPatternContext();
+        assertFalse(secondContext.isClosed());
+
+        provider.deactivate();
+        assertTrue(secondContext.isClosed());
+    }
+
+    private Tree createReadOnlyAsset(boolean withProperty) {
+        NodeBuilder root = EmptyNodeState.EMPTY_NODE.builder();
+        NodeBuilder asset = root.child("content").child("dam").child("asset.png");
+        asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, "dam:Asset", Type.NAME);
+        NodeBuilder metadata = asset.child(JcrConstants.JCR_CONTENT).child("metadata");
+        if (withProperty) {
+            metadata.setProperty("prop", "value");
+        }
+        Tree assetTree = new NodeStateTree(root.getNodeState()).getChild("content").getChild("dam").getChild("asset.png");
+        return (Tree) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Tree.class, ReadOnly.class},
+                (proxy, method, args) -> method.invoke(assetTree, args));
+    }
+
+    @Test
+    void createRestriction() throws RepositoryException {
+        Restriction restriction = provider.createRestriction("/content", PropertyRegexPattern.ID,
+                new StringValue("prop" + BasePattern.DELIMITER + "DOC-\\d+"));
+        assertEquals("prop" + BasePattern.DELIMITER + "DOC-\\d+", restriction.getProperty().getValue(Type.STRING));
+
+        // unsupported regular expression and invalid values of other restrictions
+        assertThrows(AccessControlException.class, () -> provider.createRestriction("/content", PropertyRegexPattern.ID,
+                new StringValue("prop" + BasePattern.DELIMITER + "(a)\\1")));
+        assertThrows(AccessControlException.class, () -> provider.createRestriction("/content", PropertyRegexPattern.ID,
+                new StringValue("prop")));
+        assertThrows(AccessControlException.class, () -> provider.createRestriction("/content", NumberLessPattern.ID,
+                new StringValue("prop" + BasePattern.DELIMITER + "abc")));
+    }
+
+    @Test
+    void validateRestrictions() throws AccessControlException {
+        NodeBuilder ace = EmptyNodeState.EMPTY_NODE.builder();
+        NodeBuilder restrictions = ace.child(AccessControlConstants.REP_RESTRICTIONS);
+        restrictions.setProperty(JcrConstants.JCR_PRIMARYTYPE, AccessControlConstants.NT_REP_RESTRICTIONS, Type.NAME);
+        restrictions.setProperty(PropertyRegexPattern.ID, "prop" + BasePattern.DELIMITER + "DOC-\\d+");
+        provider.validateRestrictions("/content", new NodeStateTree(ace.getNodeState()));
+
+        restrictions.setProperty(PropertyRegexPattern.ID, "prop" + BasePattern.DELIMITER + "(?=DOC)");
+        Tree invalid = new NodeStateTree(ace.getNodeState());
+        assertThrows(AccessControlException.class, () -> provider.validateRestrictions("/content", invalid));
+    }
+
+    @Test
+    void createComposite_orderByCost() {
+        BasePattern hierarchical = new PropertyExistsHierarchicalPattern("prop");
+        BasePattern property = new NodeExistsPattern("node");
+        BasePattern path = new PathContainsFolderPattern("folder");
+        List<RestrictionPattern> patterns = new ArrayList<>(Arrays.asList(hierarchical, property, path));
+
+        assertTrue(AarRestrictionProvider.createComposite(patterns) instanceof AarCompositePattern);
+        assertEquals(Arrays.asList(path, property, hierarchical), patterns);
+    }
+
+    @Test
+    void createComposite_and() {
+        BasePattern cheap = mock(BasePattern.class);
+        when(cheap.getCost()).thenReturn(BasePattern.COST_PATH);
+        BasePattern expensive = mock(BasePattern.class);
+        when(expensive.getCost()).thenReturn(BasePattern.COST_HIERARCHY);
+        when(expensive.matches(tree, null)).thenReturn(true);
+        RestrictionPattern composite = AarRestrictionProvider.createComposite(new ArrayList<>(Arrays.asList(expensive, cheap)));
+
+        when(cheap.matches(tree, null)).thenReturn(false);
+        assertFalse(composite.matches(tree, null));
+        verify(expensive, never()).matches(tree, null);
+
+        when(cheap.matches(tree, null)).thenReturn(true);
+        assertTrue(composite.matches(tree, null));
+    }
+
+    /**
+     * Adds a property to the restriction tree.
+     *
+     * @param name property name
+     * @param value value
+     */
+    private void addRestriction(String name, String value) {
+        PropertyState propertyState = mock(PropertyState.class);
+        when(propertyState.getName()).thenReturn(name);
+        when(propertyState.getValue(Type.STRING)).thenReturn(value);
+        treeProperties.add(propertyState);
+        when(tree.hasProperty(name)).thenReturn(true);
+        when(tree.getProperty(name)).thenReturn(propertyState);
+    }
+
 }
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2026 - 2025 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.EmptyNodeState;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests ContentChangeObserver
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ContentChangeObserverTest {
+
+    private PatternContext context;
+    private ContentChangeObserver observer;
+    private NodeState initialRoot;
+
+    @BeforeEach
+    void setup() {
+        context = mock(PatternContext.class);
+        observer = new ContentChangeObserver(context);
+        NodeBuilder builder = EmptyNodeState.EMPTY_NODE.builder();
+        NodeBuilder asset = builder.child("content").child("dam").child("asset.png");
+        asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, "dam:Asset", Type.NAME);
+        NodeBuilder content = asset.child(JcrConstants.JCR_CONTENT);
+        content.child("metadata").setProperty("title", "Title");
+        content.child("renditions").child("original");
+        initialRoot = builder.getNodeState();
+        observer.contentChanged(initialRoot, CommitInfo.EMPTY);
+    }
+
+    @Test
+    void contentChanged_initial() {
+        verify(context, never()).nodesChanged(any());
+        verify(context, never()).contentChanged(any());
+    }
+
+    @Test
+    void contentChanged_structure() {
+        NodeBuilder builder = initialRoot.builder();
+        NodeBuilder dam = builder.getChildNode("content").getChildNode("dam");
+        NodeBuilder content = dam.getChildNode("asset.png").getChildNode(JcrConstants.JCR_CONTENT);
+        content.getChildNode("renditions").getChildNode("original").remove();
+        content.child("renditions").child("thumbnail");
+        content.getChildNode("metadata").setProperty("title", "New title");
+        dam.child("folder").setProperty(JcrConstants.JCR_PRIMARYTYPE, "sling:Folder", Type.NAME);
+        dam.child(":hidden").child("index");
+
+        observer.contentChanged(builder.getNodeState(), CommitInfo.EMPTY);
+
+        assertEquals(new HashSet<>(Arrays.asList("/content/dam/asset.png/jcr:content/renditions/original",
+                "/content/dam/asset.png/jcr:content/renditions/thumbnail", "/content/dam/folder", "/content/dam/:hidden")),
+                new HashSet<>(captureChangedPaths()));
+        assertEquals(new HashSet<>(Arrays.asList("/content/dam/asset.png", "/content/dam/folder", "/content/dam/:hidden")),
+                new HashSet<>(captureChangedBasePaths()));
+    }
+
+    @Test
+    void contentChanged_watchedProperty() {
+        when(context.isWatchedProperty("metadata", "confidential")).thenReturn(true);
+        NodeBuilder builder = initialRoot.builder();
+        NodeBuilder content = builder.getChildNode("content").getChildNode("dam").getChildNode("asset.png")
+                .getChildNode(JcrConstants.JCR_CONTENT);
+        content.getChildNode("metadata").setProperty("confidential", true);
+
+        observer.contentChanged(builder.getNodeState(), CommitInfo.EMPTY);
+
+        assertEquals(0, captureChangedPaths().size());
+        assertEquals(Arrays.asList("/content/dam/asset.png"), captureChangedBasePaths());
+    }
+
+    @Test
+    void contentChanged_unwatchedProperty() {
+        NodeBuilder builder = initialRoot.builder();
+        NodeBuilder content = builder.getChildNode("content").getChildNode("dam").getChildNode("asset.png")
+                .getChildNode(JcrConstants.JCR_CONTENT);
+        content.getChildNode("metadata").setProperty("title", "New title");
+        content.setProperty("lastModified", "now");
+
+        observer.contentChanged(builder.getNodeState(), CommitInfo.EMPTY);
+
+        verify(context).isWatchedProperty("metadata", "title");
+        verify(context).isWatchedProperty("", "lastModified");
+        assertEquals(0, captureChangedBasePaths().size());
+    }
+
+    @Test
+    void contentChanged_primaryType() {
+        NodeBuilder builder = initialRoot.builder();
+        builder.getChildNode("content").getChildNode("dam").getChildNode("asset.png")
+                .setProperty(JcrConstants.JCR_PRIMARYTYPE, "sling:Folder", Type.NAME);
+
+        observer.contentChanged(builder.getNodeState(), CommitInfo.EMPTY);
+
+        assertEquals(Arrays.asList("/content/dam/asset.png"), captureChangedPaths());
+        assertEquals(Arrays.asList("/content/dam/asset.png"), captureChangedBasePaths());
+    }
+
+    @Test
+    void contentChanged_stats() {
+        AtomicLong now = new AtomicLong(1000);
+        ContentChangeObserver statsObserver = new ContentChangeObserver(context, now::get);
+        statsObserver.contentChanged(initialRoot, CommitInfo.EMPTY);
+        NodeBuilder builder = initialRoot.builder();
+        builder.getChildNode("content").getChildNode("dam").child("folder");
+
+        statsObserver.changeQueued(CommitInfo.EMPTY_EXTERNAL);
+        now.set(1500);
+        statsObserver.changeQueued(CommitInfo.EMPTY);
+        now.set(1700);
+        assertEquals(700, statsObserver.getPendingChangeAgeMillis());
+        now.set(2000);
+        statsObserver.contentChanged(builder.getNodeState(), CommitInfo.EMPTY_EXTERNAL);
+
+        assertEquals(2, statsObserver.getChangeCount());
+        assertEquals(1, statsObserver.getExternalChangeCount());
+        assertEquals(1, statsObserver.getInvalidationCount());
+        assertEquals(1, statsObserver.getInvalidatedNodeCount());
+        assertEquals(1000, statsObserver.getLastLagMillis());
+        assertEquals(1000, statsObserver.getMaxLagMillis());
+        assertEquals(1000.0, statsObserver.getAverageLagMillis());
+        assertEquals(0, statsObserver.getPendingChangeAgeMillis());
+
+        statsObserver.resetStats();
+        assertEquals(0, statsObserver.getChangeCount());
+        assertEquals(0, statsObserver.getMaxLagMillis());
+        assertEquals(0.0, statsObserver.getAverageLagMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> captureChangedPaths() {
+        ArgumentCaptor<Collection<String>> paths = ArgumentCaptor.forClass(Collection.class);
+        verify(context).nodesChanged(paths.capture());
+        return new java.util.ArrayList<>(paths.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> captureChangedBasePaths() {
+        ArgumentCaptor<Collection<String>> paths = ArgumentCaptor.forClass(Collection.class);
+        verify(context).contentChanged(paths.capture());
+        return new java.util.ArrayList<>(paths.getValue());
+    }
+
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.day.cq.dam.api.DamConstants;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.ExistenceFilters;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.MemoryNodeStore;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EditorHook;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.Clusterable;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.jackrabbit.oak.spi.state.NodeStore;
+import org.apache.sling.jcr.resource.api.JcrResourceConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests ExistenceFilterManager and ExistenceFilterEditorProvider.
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExistenceFilterManagerTest {
+
+    private static final String PROPERTY = "metadata/confidential";
+    private static final String NODE = "renditions/original";
+
+    @TempDir
+    File directory;
+
+    private MemoryNodeStore nodeStore;
+    private List<Runnable> tasks;
+    private ExistenceFilterManager manager;
+
+    @BeforeEach
+    void setup() throws CommitFailedException {
+        nodeStore = new MemoryNodeStore();
+        NodeBuilder root = nodeStore.getRoot().builder();
+        NodeBuilder dam = root.child("content").child("dam");
+        dam.setProperty(JcrConstants.JCR_PRIMARYTYPE, JcrResourceConstants.NT_SLING_FOLDER, Type.NAME);
+        for (int i = 0; i < 10; i++) {
+            NodeBuilder content = createAsset(dam, "asset" + i + ".png");
+            if (i == 0) {
+                content.child("metadata").setProperty("confidential", true);
+            }
+            if (i == 1) {
+                content.child("renditions").child("original");
+            }
+        }
+        // not covered
+        createAsset(root.child(JcrConstants.JCR_SYSTEM), "asset.png").child("metadata").setProperty("confidential", true);
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        tasks = new ArrayList<>();
+        manager = createManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    private ExistenceFilterManager createManager() {
+        return new ExistenceFilterManager(directory, () -> nodeStore, 1000, 0.01, tasks::add);
+    }
+
+    private static NodeBuilder createAsset(NodeBuilder parent, String name) {
+        NodeBuilder asset = parent.child(name);
+        asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME);
+        return asset.child(JcrConstants.JCR_CONTENT);
+    }
+
+    private void runTasks() {
+        List<Runnable> current = new ArrayList<>(tasks);
+        tasks.clear();
+        current.forEach(Runnable::run);
+    }
+
+    private void commit(NodeBuilder root, ExistenceFilterEditorProvider provider) throws CommitFailedException {
+        nodeStore.merge(root, new EditorHook(provider), CommitInfo.EMPTY);
+    }
+
+    @Test
+    void check_clustered() {
+        NodeStore clusteredStore = mock(NodeStore.class, withSettings().extraInterfaces(Clusterable.class)
+                .defaultAnswer(invocation -> invocation.getMethod().invoke(nodeStore, invocation.getArguments())));
+        ExistenceFilterManager clusteredManager = new ExistenceFilterManager(directory, () -> clusteredStore, 1000, 0.01,
+                tasks::add);
+
+        // changes of other cluster nodes may be visible before the filters know them
+        assertEquals(ExistenceFilters.UNKNOWN, clusteredManager.check(true, PROPERTY, "/content/dam/asset1.png"));
+        assertEquals(0, tasks.size());
+        assertFalse(clusteredManager.hasFilters());
+        clusteredManager.close();
+    }
+
+    @Test
+    void check() {
+        assertEquals(ExistenceFilters.UNKNOWN, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+        assertEquals(ExistenceFilters.UNKNOWN, manager.check(false, NODE, "/content/dam/asset0.png"));
+        assertEquals(2, tasks.size());
+        assertEquals(0, manager.getReadyFilterCount());
+        // build is requested only once
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        assertEquals(2, tasks.size());
+        runTasks();
+
+        assertEquals(2, manager.getReadyFilterCount());
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+        assertEquals(ExistenceFilters.MISSING, manager.check(true, PROPERTY, "/content/dam/asset1.png"));
+        assertEquals(ExistenceFilters.MISSING, manager.check(true, PROPERTY, "/content/dam"));
+        assertEquals(ExistenceFilters.MAYBE, manager.check(false, NODE, "/content/dam/asset1.png"));
+        assertEquals(ExistenceFilters.MISSING, manager.check(false, NODE, "/content/dam/asset0.png"));
+        // not covered
+        assertEquals(ExistenceFilters.UNKNOWN, manager.check(true, PROPERTY, "/jcr:system/asset.png"));
+        assertEquals(ExistenceFilters.UNKNOWN, manager.check(true, PROPERTY, "/content/dam/asset0.png/jcr:content/asset"));
+
+        manager.falsePositive(true, PROPERTY);
+        assertEquals(5, manager.getCheckCount());
+        assertEquals(3, manager.getRejectCount());
+        assertEquals(1, manager.getFalsePositiveCount());
+        assertEquals(0.25, manager.getFalsePositiveRate(), 0.0001);
+        assertEquals(2, manager.getFilters().length);
+        assertTrue(manager.getFilters()[1].startsWith("property:metadata/confidential: ready, 1 entries"), manager.getFilters()[1]);
+        manager.resetStats();
+        assertEquals(0, manager.getCheckCount());
+    }
+
+    @Test
+    void check_noNodeStore() {
+        manager.close();
+        manager = new ExistenceFilterManager(directory, () -> null, 1000, 0.01, tasks::add);
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        runTasks();
+        assertEquals(ExistenceFilters.UNKNOWN, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+        // retried after a delay
+        assertTrue(tasks.isEmpty());
+        assertTrue(manager.getFilters()[0].contains("failed"));
+    }
+
+    @Test
+    void contentChanged() throws CommitFailedException {
+        ExistenceFilterEditorProvider provider = new ExistenceFilterEditorProvider(manager);
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        // changes before the build are found by the traversal
+        NodeBuilder root = nodeStore.getRoot().builder();
+        root.getChildNode("content").getChildNode("dam").getChildNode("asset2.png").getChildNode(JcrConstants.JCR_CONTENT)
+                .child("metadata").setProperty("confidential", true);
+        commit(root, provider);
+        runTasks();
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset2.png"));
+
+        // added and moved assets
+        root = nodeStore.getRoot().builder();
+        NodeBuilder dam = root.getChildNode("content").getChildNode("dam");
+        createAsset(dam, "new.png").child("metadata").setProperty("confidential", true);
+        dam.getChildNode("asset0.png").moveTo(dam.child("folder"), "moved.png");
+        commit(root, provider);
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/new.png"));
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/folder/moved.png"));
+        assertEquals(ExistenceFilters.MISSING, manager.check(true, PROPERTY, "/content/dam/asset3.png"));
+    }
+
+    @Test
+    void contentChanged_external() throws CommitFailedException {
+        ExistenceFilterEditorProvider provider = new ExistenceFilterEditorProvider(manager);
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        runTasks();
+        provider.contentChanged(nodeStore.getRoot(), CommitInfo.EMPTY);
+
+        // e.g. commit of another cluster node
+        NodeBuilder root = nodeStore.getRoot().builder();
+        root.getChildNode("content").getChildNode("dam").getChildNode("asset3.png").getChildNode(JcrConstants.JCR_CONTENT)
+                .child("metadata").setProperty("confidential", true);
+        NodeState external = nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        assertEquals(ExistenceFilters.MISSING, manager.check(true, PROPERTY, "/content/dam/asset3.png"));
+        provider.contentChanged(external, CommitInfo.EMPTY_EXTERNAL);
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset3.png"));
+    }
+
+    @Test
+    void close_restore() throws CommitFailedException {
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        runTasks();
+        manager.close();
+        assertTrue(new File(directory, ExistenceFilterManager.STATE_FILE).isFile());
+        assertEquals(ExistenceFilters.UNKNOWN, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+        assertFalse(manager.hasFilters());
+
+        // changes while stopped
+        NodeBuilder root = nodeStore.getRoot().builder();
+        root.getChildNode("content").getChildNode("dam").getChildNode("asset4.png").getChildNode(JcrConstants.JCR_CONTENT)
+                .child("metadata").setProperty("confidential", true);
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+
+        manager = createManager();
+        manager.start();
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(1, manager.getReadyFilterCount());
+        assertTrue(manager.getFilters()[0].contains("ready, 2 entries"), manager.getFilters()[0]);
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset4.png"));
+        assertEquals(ExistenceFilters.MISSING, manager.check(true, PROPERTY, "/content/dam/asset5.png"));
+        assertEquals(1, nodeStore.listCheckpoints().size());
+        assertEquals(1, directory.listFiles((dir, name) -> name.endsWith(".bloom")).length);
+    }
+
+    @Test
+    void close_restoreExpiredCheckpoint() {
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        runTasks();
+        manager.close();
+        for (String checkpoint : nodeStore.listCheckpoints()) {
+            nodeStore.release(checkpoint);
+        }
+
+        manager = createManager();
+        manager.start();
+        runTasks();
+        assertEquals(1, manager.getReadyFilterCount());
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+    }
+
+    @Test
+    void rebuild() throws CommitFailedException {
+        manager.check(true, PROPERTY, "/content/dam/asset0.png");
+        runTasks();
+        NodeBuilder root = nodeStore.getRoot().builder();
+        root.getChildNode("content").getChildNode("dam").getChildNode("asset0.png").getChildNode(JcrConstants.JCR_CONTENT)
+                .getChildNode("metadata").removeProperty("confidential");
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        // removals are not applied
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+
+        assertEquals("Rebuilding 1 existence filters in the background", manager.rebuild());
+        // old filter is used until the rebuild is done
+        assertEquals(ExistenceFilters.MAYBE, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+        runTasks();
+        assertEquals(ExistenceFilters.MISSING, manager.check(true, PROPERTY, "/content/dam/asset0.png"));
+    }
+
+    @Test
+    void getRootEditor_noFilters() {
+        ExistenceFilterEditorProvider provider = new ExistenceFilterEditorProvider(manager);
+        assertNull(provider.getRootEditor(nodeStore.getRoot(), nodeStore.getRoot(), nodeStore.getRoot().builder(), CommitInfo.EMPTY));
+    }
+
+}
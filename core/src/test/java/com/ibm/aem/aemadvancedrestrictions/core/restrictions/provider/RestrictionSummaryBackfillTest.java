@@ -0,0 +1,108 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.day.cq.dam.api.DamConstants;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyExistsPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.RestrictionSummary;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.MemoryNodeStore;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.sling.jcr.resource.api.JcrResourceConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests RestrictionSummaryBackfill
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RestrictionSummaryBackfillTest {
+
+    private static final int ASSET_COUNT = RestrictionSummaryBackfill.BATCH_SIZE + 10;
+
+    private PatternContext context;
+    private MemoryNodeStore nodeStore;
+    private RestrictionSummaryBackfill backfill;
+
+    @BeforeEach
+    void setup() throws CommitFailedException {
+        context = PatternContext.builder().restrictionSummary(1).build();
+        context.setSummaryVersion("1");
+        RestrictionSummaryEditorProviderTest.register(new PropertyExistsPattern("metadata/confidential", context));
+        nodeStore = new MemoryNodeStore();
+        NodeBuilder root = nodeStore.getRoot().builder();
+        NodeBuilder dam = root.child("content").child("dam");
+        dam.setProperty(JcrConstants.JCR_PRIMARYTYPE, JcrResourceConstants.NT_SLING_FOLDER, Type.NAME);
+        for (int i = 0; i < ASSET_COUNT; i++) {
+            NodeBuilder asset = dam.child("asset" + i + ".png");
+            asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME);
+            NodeBuilder content = asset.child(JcrConstants.JCR_CONTENT);
+            content.child("metadata").setProperty("confidential", (i % 2) == 0);
+            // nodes below jcr:content are not visited
+            content.child("renditions").child("original").setProperty(JcrConstants.JCR_PRIMARYTYPE, JcrResourceConstants.NT_SLING_FOLDER, Type.NAME);
+        }
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        backfill = new RestrictionSummaryBackfill(context, () -> nodeStore);
+    }
+
+    @Test
+    void backfill() {
+        assertEquals("Updated " + ASSET_COUNT + " of " + (ASSET_COUNT + 1) + " pages, assets and folders below /content",
+                backfill.backfill("/content"));
+
+        NodeState dam = nodeStore.getRoot().getChildNode("content").getChildNode("dam");
+        for (int i = 0; i < ASSET_COUNT; i++) {
+            NodeState content = dam.getChildNode("asset" + i + ".png").getChildNode(JcrConstants.JCR_CONTENT);
+            assertNotNull(content.getProperty(RestrictionSummary.PROPERTY_NAME));
+        }
+        assertFalse(dam.hasChildNode(JcrConstants.JCR_CONTENT));
+        assertEquals(1, backfill.getSummarizedRestrictionCount());
+
+        // nothing changed
+        assertEquals("Updated 0 of " + (ASSET_COUNT + 1) + " pages, assets and folders below /content/dam",
+                backfill.backfill("/content/dam"));
+    }
+
+    @Test
+    void backfill_invalid() {
+        assertEquals("Invalid path: content", backfill.backfill("content"));
+        assertEquals("Path not found: /other", backfill.backfill("/other"));
+        assertEquals("No node store available", new RestrictionSummaryBackfill(context, () -> null).backfill("/content"));
+        assertEquals("Restriction summaries are disabled",
+                new RestrictionSummaryBackfill(PatternContext.DEFAULT, () -> nodeStore).backfill("/content"));
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.day.cq.dam.api.DamConstants;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.BasePattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PropertyExistsPattern;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.RestrictionSummary;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Tree;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.EmptyNodeState;
+import org.apache.jackrabbit.oak.plugins.memory.ModifiedNodeState;
+import org.apache.jackrabbit.oak.plugins.memory.PropertyStates;
+import org.apache.jackrabbit.oak.plugins.tree.ReadOnly;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EditorHook;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.sling.jcr.resource.api.JcrResourceConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests RestrictionSummaryEditorProvider
+ *
+ * @author Roland Gruber
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RestrictionSummaryEditorProviderTest {
+
+    private PatternContext context;
+    private EditorHook hook;
+    private NodeState initialRoot;
+    private String key;
+
+    @BeforeEach
+    void setup() {
+        context = PatternContext.builder().restrictionSummary(1).build();
+        context.setSummaryVersion("1");
+        register(new PropertyExistsPattern("metadata/confidential", context));
+        hook = new EditorHook(new RestrictionSummaryEditorProvider(context));
+        NodeBuilder builder = EmptyNodeState.EMPTY_NODE.builder();
+        NodeBuilder dam = builder.child("content").child("dam");
+        dam.setProperty(JcrConstants.JCR_PRIMARYTYPE, JcrResourceConstants.NT_SLING_FOLDER, Type.NAME);
+        NodeBuilder asset = dam.child("asset.png");
+        asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME);
+        asset.child(JcrConstants.JCR_CONTENT).child("metadata").setProperty("title", "Title");
+        // compact state as committed by the node store
+        initialRoot = ModifiedNodeState.squeeze(builder.getNodeState());
+        // summary key of the only registered pattern
+        key = context.createSummary(getAssetState(initialRoot)).getValue(Type.STRING, 1).substring(1);
+    }
+
+    /**
+     * Evaluates the pattern on a read-only tree without summary, so that it is added to the next summaries.
+     *
+     * @param pattern pattern
+     */
+    static void register(BasePattern pattern) {
+        Tree tree = mock(Tree.class, withSettings().extraInterfaces(ReadOnly.class));
+        when(tree.getPath()).thenReturn("/register");
+        when(tree.getProperty(JcrConstants.JCR_PRIMARYTYPE))
+                .thenReturn(PropertyStates.createProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME));
+        pattern.matches(tree, null);
+    }
+
+    @Test
+    void metadataChanged() throws CommitFailedException {
+        NodeBuilder builder = initialRoot.builder();
+        NodeBuilder metadata = getAsset(builder).getChildNode(JcrConstants.JCR_CONTENT).getChildNode("metadata");
+        metadata.setProperty("confidential", true);
+
+        NodeState result = hook.processCommit(initialRoot, builder.getNodeState(), CommitInfo.EMPTY);
+
+        PropertyState summary = getSummary(result);
+        assertEquals(Arrays.asList("1", "+" + key), summary.getValue(Type.STRINGS));
+        // folder has no jcr:content
+        assertFalse(result.getChildNode("content").getChildNode("dam").hasChildNode(JcrConstants.JCR_CONTENT));
+
+        // summary is updated on the next change
+        builder = result.builder();
+        getAsset(builder).getChildNode(JcrConstants.JCR_CONTENT).getChildNode("metadata").removeProperty("confidential");
+        result = hook.processCommit(result, builder.getNodeState(), CommitInfo.EMPTY);
+        assertEquals(Arrays.asList("1", "-" + key), getSummary(result).getValue(Type.STRINGS));
+    }
+
+    @Test
+    void assetAdded() throws CommitFailedException {
+        NodeBuilder builder = initialRoot.builder();
+        NodeBuilder copy = builder.getChildNode("content").getChildNode("dam").child("copy.png");
+        copy.setProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME);
+        copy.child(JcrConstants.JCR_CONTENT).child("metadata").setProperty("confidential", true);
+
+        NodeState result = hook.processCommit(initialRoot, builder.getNodeState(), CommitInfo.EMPTY);
+
+        PropertyState summary = result.getChildNode("content").getChildNode("dam").getChildNode("copy.png")
+                .getChildNode(JcrConstants.JCR_CONTENT).getProperty(RestrictionSummary.PROPERTY_NAME);
+        assertEquals(Arrays.asList("1", "+" + key), summary.getValue(Type.STRINGS));
+        // unchanged asset is not summarized
+        assertNull(getSummary(result));
+    }
+
+    @Test
+    void summaryOverwritten() throws CommitFailedException {
+        NodeBuilder builder = initialRoot.builder();
+        NodeBuilder content = getAsset(builder).getChildNode(JcrConstants.JCR_CONTENT);
+        content.setProperty(RestrictionSummary.PROPERTY_NAME, Arrays.asList("1", "+" + key), Type.STRINGS);
+
+        NodeState result = hook.processCommit(initialRoot, builder.getNodeState(), CommitInfo.EMPTY);
+
+        assertEquals(Arrays.asList("1", "-" + key), getSummary(result).getValue(Type.STRINGS));
+    }
+
+    @Test
+    void otherChange() throws CommitFailedException {
+        NodeBuilder builder = initialRoot.builder();
+        builder.getChildNode("content").getChildNode("dam").setProperty("title", "DAM");
+        NodeState after = builder.getNodeState();
+
+        NodeState result = hook.processCommit(initialRoot, after, CommitInfo.EMPTY);
+
+        assertEquals(after, result);
+        assertNull(getSummary(result));
+    }
+
+    @Test
+    void disabled() throws CommitFailedException {
+        EditorHook disabledHook = new EditorHook(new RestrictionSummaryEditorProvider(PatternContext.DEFAULT));
+        NodeBuilder builder = initialRoot.builder();
+        getAsset(builder).getChildNode(JcrConstants.JCR_CONTENT).getChildNode("metadata").setProperty("confidential", true);
+
+        NodeState result = disabledHook.processCommit(initialRoot, builder.getNodeState(), CommitInfo.EMPTY);
+
+        assertNull(getSummary(result));
+    }
+
+    private static NodeBuilder getAsset(NodeBuilder root) {
+        return root.getChildNode("content").getChildNode("dam").getChildNode("asset.png");
+    }
+
+    private static NodeState getAssetState(NodeState root) {
+        return root.getChildNode("content").getChildNode("dam").getChildNode("asset.png");
+    }
+
+    private static PropertyState getSummary(NodeState root) {
+        return getAssetState(root).getChildNode(JcrConstants.JCR_CONTENT).getProperty(RestrictionSummary.PROPERTY_NAME);
+    }
+
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.day.cq.dam.api.DamConstants;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.PatternContext;
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.RestrictionSummary;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.api.PropertyState;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.MemoryNodeStore;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.apache.jackrabbit.oak.spi.state.NodeState;
+import org.apache.sling.jcr.resource.api.JcrResourceConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests RestrictionSummaryVersion
+ *
+ * @author Roland Gruber
+ */
+class RestrictionSummaryVersionTest {
+
+    @TempDir
+    File directory;
+
+    private MemoryNodeStore nodeStore;
+    private File stateFile;
+
+    @BeforeEach
+    void setup() throws CommitFailedException {
+        nodeStore = new MemoryNodeStore();
+        stateFile = new File(directory, "restriction-summary.properties");
+        NodeBuilder root = nodeStore.getRoot().builder();
+        NodeBuilder dam = root.child("content").child("dam");
+        dam.setProperty(JcrConstants.JCR_PRIMARYTYPE, JcrResourceConstants.NT_SLING_FOLDER, Type.NAME);
+        for (String name : Arrays.asList("asset1.png", "asset2.png")) {
+            NodeBuilder asset = dam.child(name);
+            asset.setProperty(JcrConstants.JCR_PRIMARYTYPE, DamConstants.NT_DAM_ASSET, Type.NAME);
+            asset.child(JcrConstants.JCR_CONTENT).child("metadata").setProperty("title", "Title");
+        }
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+    }
+
+    @Test
+    void start() {
+        PatternContext context = createContext(1);
+        RestrictionSummaryVersion version = new RestrictionSummaryVersion(context, () -> nodeStore, stateFile);
+
+        assertTrue(version.start());
+
+        String current = context.getSummaryVersion();
+        assertTrue(current.startsWith("1-"));
+        assertEquals(current, RestrictionSummaryVersion.getVersion(nodeStore.getRoot()));
+        version.close();
+        assertTrue(stateFile.isFile());
+    }
+
+    @Test
+    void start_noNodeStore() {
+        PatternContext context = createContext(1);
+
+        assertFalse(new RestrictionSummaryVersion(context, () -> null, stateFile).start());
+
+        assertNull(context.getSummaryVersion());
+    }
+
+    @Test
+    void start_checkpoint() throws CommitFailedException {
+        PatternContext context = createContext(1);
+        RestrictionSummaryVersion version = new RestrictionSummaryVersion(context, () -> nodeStore, stateFile);
+        version.start();
+        String firstVersion = context.getSummaryVersion();
+        NodeBuilder root = nodeStore.getRoot().builder();
+        setSummary(root, "asset1.png", firstVersion);
+        setSummary(root, "asset2.png", firstVersion);
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        version.close();
+
+        // changed while the commit hook is not active
+        root = nodeStore.getRoot().builder();
+        getContent(root, "asset1.png").child("metadata").setProperty("confidential", true);
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+
+        context = createContext(1);
+        assertTrue(new RestrictionSummaryVersion(context, () -> nodeStore, stateFile).start());
+
+        assertEquals(firstVersion, context.getSummaryVersion());
+        assertNull(getSummary(nodeStore.getRoot(), "asset1.png"));
+        assertNotNull(getSummary(nodeStore.getRoot(), "asset2.png"));
+        assertFalse(stateFile.isFile());
+        assertTrue(nodeStore.listCheckpoints().isEmpty());
+    }
+
+    @Test
+    void start_noCheckpoint() {
+        PatternContext context = createContext(1);
+        new RestrictionSummaryVersion(context, () -> nodeStore, stateFile).start();
+        String firstVersion = context.getSummaryVersion();
+
+        // not closed (e.g. crash)
+        context = createContext(1);
+        new RestrictionSummaryVersion(context, () -> nodeStore, stateFile).start();
+
+        assertNotEquals(firstVersion, context.getSummaryVersion());
+        assertTrue(context.getSummaryVersion().startsWith("1-"));
+    }
+
+    @Test
+    void start_disabledBefore() {
+        PatternContext context = createContext(1);
+        RestrictionSummaryVersion version = new RestrictionSummaryVersion(context, () -> nodeStore, stateFile);
+        version.start();
+        String firstVersion = context.getSummaryVersion();
+        version.close();
+
+        // summaries disabled, existing summaries may get outdated or planted
+        RestrictionSummaryVersion.remove(nodeStore);
+        assertNull(RestrictionSummaryVersion.getVersion(nodeStore.getRoot()));
+
+        // enabled again with the same epoch
+        context = createContext(1);
+        new RestrictionSummaryVersion(context, () -> nodeStore, stateFile).start();
+
+        assertNotEquals(firstVersion, context.getSummaryVersion());
+        assertEquals(context.getSummaryVersion(), RestrictionSummaryVersion.getVersion(nodeStore.getRoot()));
+    }
+
+    @Test
+    void start_otherEpoch() {
+        PatternContext context = createContext(1);
+        RestrictionSummaryVersion version = new RestrictionSummaryVersion(context, () -> nodeStore, stateFile);
+        version.start();
+        version.close();
+
+        context = createContext(2);
+        new RestrictionSummaryVersion(context, () -> nodeStore, stateFile).start();
+
+        assertTrue(context.getSummaryVersion().startsWith("2-"));
+    }
+
+    @Test
+    void contentChanged() {
+        PatternContext context = createContext(1);
+        RestrictionSummaryVersion version = new RestrictionSummaryVersion(context, () -> nodeStore, stateFile);
+        version.start();
+
+        // new version of another cluster node
+        NodeBuilder root = nodeStore.getRoot().builder();
+        root.child(RestrictionSummaryVersion.NODE_NAME).setProperty(RestrictionSummaryVersion.PROPERTY_VERSION, "1-other");
+        version.contentChanged(root.getNodeState(), CommitInfo.EMPTY);
+        assertEquals("1-other", context.getSummaryVersion());
+
+        // other epoch
+        root.child(RestrictionSummaryVersion.NODE_NAME).setProperty(RestrictionSummaryVersion.PROPERTY_VERSION, "2-other");
+        version.contentChanged(root.getNodeState(), CommitInfo.EMPTY);
+        assertNull(context.getSummaryVersion());
+
+        // disabled by another cluster node
+        root.getChildNode(RestrictionSummaryVersion.NODE_NAME).remove();
+        version.contentChanged(root.getNodeState(), CommitInfo.EMPTY);
+        assertNull(context.getSummaryVersion());
+    }
+
+    private static PatternContext createContext(int epoch) {
+        return PatternContext.builder().restrictionSummary(epoch).build();
+    }
+
+    private static NodeBuilder getContent(NodeBuilder root, String name) {
+        return root.getChildNode("content").getChildNode("dam").getChildNode(name).getChildNode(JcrConstants.JCR_CONTENT);
+    }
+
+    private static void setSummary(NodeBuilder root, String name, String version) {
+        getContent(root, name).setProperty(RestrictionSummary.PROPERTY_NAME, Arrays.asList(version, "+key"), Type.STRINGS);
+    }
+
+    private static PropertyState getSummary(NodeState root, String name) {
+        return root.getChildNode("content").getChildNode("dam").getChildNode(name).getChildNode(JcrConstants.JCR_CONTENT)
+                .getProperty(RestrictionSummary.PROPERTY_NAME);
+    }
+
+}
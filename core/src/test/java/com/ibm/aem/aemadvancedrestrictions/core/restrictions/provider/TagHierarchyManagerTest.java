@@ -0,0 +1,142 @@
+/**
+ * Copyright 2026 IBM iX
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.ibm.aem.aemadvancedrestrictions.core.restrictions.provider;
+
+import com.ibm.aem.aemadvancedrestrictions.core.restrictions.patterns.TagHierarchy;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.oak.api.CommitFailedException;
+import org.apache.jackrabbit.oak.api.Type;
+import org.apache.jackrabbit.oak.plugins.memory.MemoryNodeStore;
+import org.apache.jackrabbit.oak.spi.commit.CommitInfo;
+import org.apache.jackrabbit.oak.spi.commit.EmptyHook;
+import org.apache.jackrabbit.oak.spi.state.NodeBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests TagHierarchyManager.
+ *
+ * @author Roland Gruber
+ */
+class TagHierarchyManagerTest {
+
+    private MemoryNodeStore nodeStore;
+    private TagHierarchyManager manager;
+
+    @BeforeEach
+    void setup() throws CommitFailedException {
+        nodeStore = new MemoryNodeStore();
+        NodeBuilder root = nodeStore.getRoot().builder();
+        NodeBuilder properties = createTag(tags(root), "properties");
+        createTag(createTag(properties, "confidential"), "secret");
+        createTag(properties, "public");
+        // no tag
+        properties.child("rep:policy").setProperty(JcrConstants.JCR_PRIMARYTYPE, "rep:ACL", Type.NAME);
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        manager = new TagHierarchyManager();
+    }
+
+    private static NodeBuilder tags(NodeBuilder root) {
+        return root.child("content").child("cq:tags");
+    }
+
+    private static NodeBuilder createTag(NodeBuilder parent, String name) {
+        NodeBuilder tag = parent.child(name);
+        tag.setProperty(JcrConstants.JCR_PRIMARYTYPE, TagHierarchyManager.NT_TAG, Type.NAME);
+        return tag;
+    }
+
+    private void commit(NodeBuilder root) throws CommitFailedException {
+        nodeStore.merge(root, EmptyHook.INSTANCE, CommitInfo.EMPTY);
+        manager.contentChanged(nodeStore.getRoot(), CommitInfo.EMPTY);
+    }
+
+    @Test
+    void contentChanged_build() {
+        assertEquals(-1, manager.getTagCount());
+        assertEquals(TagHierarchy.UNKNOWN, manager.check("properties:confidential/secret", "properties:confidential"));
+
+        manager.contentChanged(nodeStore.getRoot(), CommitInfo.EMPTY);
+        assertEquals(4, manager.getTagCount());
+        assertEquals(TagHierarchy.TAGGED, manager.check("properties:confidential/secret", "properties:confidential"));
+        assertEquals(TagHierarchy.NOT_TAGGED, manager.check("properties:public", "properties:confidential"));
+    }
+
+    @Test
+    void close() {
+        manager.contentChanged(nodeStore.getRoot(), CommitInfo.EMPTY);
+        manager.close();
+        assertEquals(-1, manager.getTagCount());
+        assertEquals(TagHierarchy.UNKNOWN, manager.check("properties:confidential/secret", "properties:confidential"));
+        // closed manager is not rebuilt
+        manager.contentChanged(nodeStore.getRoot(), CommitInfo.EMPTY);
+        assertEquals(-1, manager.getTagCount());
+    }
+
+    @Test
+    void contentChanged_noTags() {
+        manager.contentChanged(new MemoryNodeStore().getRoot(), CommitInfo.EMPTY);
+        assertEquals(0, manager.getTagCount());
+        // tag IDs are compared
+        assertEquals(TagHierarchy.TAGGED, manager.check("properties:public", "properties:"));
+    }
+
+    @Test
+    void contentChanged_incremental() throws CommitFailedException {
+        manager.contentChanged(nodeStore.getRoot(), CommitInfo.EMPTY);
+
+        // added tag
+        NodeBuilder root = nodeStore.getRoot().builder();
+        createTag(tags(root).child("properties").child("confidential"), "internal");
+        commit(root);
+        assertEquals(5, manager.getTagCount());
+        assertEquals(TagHierarchy.TAGGED, manager.check("properties:confidential/internal", "properties:confidential"));
+
+        // moved tag
+        root = nodeStore.getRoot().builder();
+        NodeBuilder properties = tags(root).child("properties");
+        createTag(properties.child("confidential"), "public");
+        properties.child("public").setProperty(TagHierarchyManager.PN_MOVED_TO, "/content/cq:tags/properties/confidential/public");
+        commit(root);
+        assertEquals(6, manager.getTagCount());
+        assertEquals(TagHierarchy.TAGGED, manager.check("properties:public", "properties:confidential"));
+
+        // removed tag
+        root = nodeStore.getRoot().builder();
+        tags(root).child("properties").child("confidential").remove();
+        commit(root);
+        assertEquals(2, manager.getTagCount());
+        assertEquals(TagHierarchy.UNKNOWN, manager.check("properties:public", "properties:"));
+
+        // node is no tag anymore
+        root = nodeStore.getRoot().builder();
+        tags(root).child("properties").child("public").setProperty(JcrConstants.JCR_PRIMARYTYPE, JcrConstants.NT_UNSTRUCTURED, Type.NAME);
+        commit(root);
+        assertEquals(1, manager.getTagCount());
+
+        // all tags removed
+        root = nodeStore.getRoot().builder();
+        root.child("content").remove();
+        commit(root);
+        assertEquals(0, manager.getTagCount());
+    }
+
+}